@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.MapComputationTargetResolver;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.function.AbstractFunction;
+import com.opengamma.engine.function.CachingFunctionRepositoryCompiler;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.FunctionExecutionContext;
+import com.opengamma.engine.function.FunctionInputs;
+import com.opengamma.engine.function.InMemoryFunctionRepository;
+import com.opengamma.engine.function.resolver.CompiledFunctionResolver;
+import com.opengamma.engine.function.resolver.DefaultFunctionResolver;
+import com.opengamma.engine.marketdata.availability.FixedMarketDataAvailabilityProvider;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Benchmarks {@link DependencyGraphBuilder} resolution of a synthetic portfolio. Each target's value is produced by a function that requires an intermediate value, which in turn requires market
+ * data, so every requirement resolves through two functions to a market data leaf.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DependencyGraphBuilderBenchmark {
+
+  private static final String INTERMEDIATE = "Intermediate";
+  private static final String MARKET_DATA = "MarketData";
+
+  /**
+   * A function that applies to any primitive target, producing one value from another on the same target.
+   */
+  private static final class SyntheticFunction extends AbstractFunction.NonCompiledInvoker {
+
+    private final String _output;
+    private final String _input;
+
+    private SyntheticFunction(final String output, final String input) {
+      setUniqueId(output);
+      _output = output;
+      _input = input;
+    }
+
+    @Override
+    public ComputationTargetType getTargetType() {
+      return ComputationTargetType.PRIMITIVE;
+    }
+
+    @Override
+    public Set<ValueSpecification> getResults(final FunctionCompilationContext context, final ComputationTarget target) {
+      return Collections.singleton(new ValueSpecification(_output, target.toSpecification(), createValueProperties().get()));
+    }
+
+    @Override
+    public Set<ValueRequirement> getRequirements(final FunctionCompilationContext context, final ComputationTarget target, final ValueRequirement desiredValue) {
+      return Collections.singleton(new ValueRequirement(_input, target.toSpecification()));
+    }
+
+    @Override
+    public Set<ComputedValue> execute(final FunctionExecutionContext executionContext, final FunctionInputs inputs, final ComputationTarget target, final Set<ValueRequirement> desiredValues) {
+      // The graph builder never executes the function, but produce a plausible value in case it is used in an execution benchmark
+      final Object input = inputs.getValue(_input);
+      final double value = (input instanceof Number) ? ((Number) input).doubleValue() + 1d : 1d;
+      return Collections.singleton(new ComputedValue(new ValueSpecification(_output, target.toSpecification(), createValueProperties().get()), value));
+    }
+
+  }
+
+  @Param({"1000", "10000" })
+  private int _size;
+
+  private FunctionCompilationContext _context;
+  private CompiledFunctionResolver _functionResolver;
+  private FixedMarketDataAvailabilityProvider _marketData;
+  private List<ValueRequirement> _requirements;
+
+  @Setup
+  public void setup() {
+    final Instant now = Instant.now();
+    final InMemoryFunctionRepository functions = new InMemoryFunctionRepository();
+    functions.addFunction(new SyntheticFunction(SyntheticPortfolio.VALUE_NAME, INTERMEDIATE));
+    functions.addFunction(new SyntheticFunction(INTERMEDIATE, MARKET_DATA));
+    _context = new FunctionCompilationContext();
+    final ComputationTargetResolver targetResolver = new MapComputationTargetResolver();
+    _context.setRawComputationTargetResolver(targetResolver);
+    _context.setComputationTargetResolver(targetResolver.atVersionCorrection(VersionCorrection.of(now, now)));
+    final CompiledFunctionService compilationService = new CompiledFunctionService(functions, new CachingFunctionRepositoryCompiler(), _context);
+    compilationService.initialize();
+    _functionResolver = new DefaultFunctionResolver(compilationService).compile(now);
+    _marketData = new FixedMarketDataAvailabilityProvider();
+    final ValueProperties marketDataProperties = ValueProperties.with(ValuePropertyNames.FUNCTION, MARKET_DATA).get();
+    for (ComputationTargetSpecification target : SyntheticPortfolio.targets(_size)) {
+      _marketData.addAvailableData(new ValueSpecification(MARKET_DATA, target, marketDataProperties));
+    }
+    _requirements = Arrays.asList(SyntheticPortfolio.requirements(_size));
+  }
+
+  @Benchmark
+  public DependencyGraph build() {
+    final DependencyGraphBuilder builder = new DependencyGraphBuilder();
+    builder.setMarketDataAvailabilityProvider(_marketData);
+    builder.setCompilationContext(_context);
+    builder.setFunctionResolver(_functionResolver);
+    builder.setCalculationConfigurationName("Default");
+    builder.addTarget(_requirements);
+    return builder.getDependencyGraph();
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CacheSelectHint;
+import com.opengamma.engine.calcnode.CalculationJob;
+import com.opengamma.engine.calcnode.CalculationJobItem;
+import com.opengamma.engine.exec.plan.ExecutingGraph;
+import com.opengamma.engine.exec.plan.GraphExecutionPlan;
+import com.opengamma.engine.exec.plan.PlannedJob;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ExecutionLogMode;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * Benchmarks the {@link ExecutingGraph} scheduling of a plan, with jobs completing as soon as they are dispatched. The plan is a binary tree of jobs that fan in to a single root, with the number of
+ * leaf jobs given by the size rounded up to a power of two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecutingGraphBenchmark {
+
+  @Param({"1024", "65536" })
+  private int _size;
+
+  private GraphExecutionPlan _plan;
+
+  private static List<CalculationJobItem> createJobItems(final int i) {
+    return Collections.singletonList(new CalculationJobItem(Integer.toString(i), new EmptyFunctionParameters(), ComputationTargetSpecification.NULL, Collections.<ValueSpecification>emptySet(),
+        Collections.<ValueSpecification>emptySet(), ExecutionLogMode.INDICATORS));
+  }
+
+  @Setup
+  public void setup() {
+    final int depth = 32 - Integer.numberOfLeadingZeros(_size - 1);
+    List<PlannedJob> level = Collections.singletonList(new PlannedJob(depth > 0 ? 2 : 0, createJobItems(0), CacheSelectHint.allShared(), null, null));
+    int jobs = 1;
+    for (int i = 1; i <= depth; i++) {
+      final List<PlannedJob> next = new ArrayList<PlannedJob>(level.size() * 2);
+      for (PlannedJob dependent : level) {
+        final PlannedJob[] dependents = new PlannedJob[] {dependent };
+        next.add(new PlannedJob(i < depth ? 2 : 0, createJobItems(jobs++), CacheSelectHint.allShared(), null, dependents));
+        next.add(new PlannedJob(i < depth ? 2 : 0, createJobItems(jobs++), CacheSelectHint.allShared(), null, dependents));
+      }
+      level = next;
+    }
+    _plan = new GraphExecutionPlan("Default", 0, level, jobs, 1d, 1d, 1d);
+  }
+
+  @Benchmark
+  public int execute() {
+    final ExecutingGraph graph = _plan.createExecution(UniqueId.of("Cycle", "0"), Instant.EPOCH, VersionCorrection.LATEST);
+    int count = 0;
+    CalculationJob job = graph.nextExecutableJob();
+    while (job != null) {
+      graph.jobCompleted(job.getSpecification());
+      count++;
+      job = graph.nextExecutableJob();
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.opengamma.engine.cache.DefaultFudgeMessageStore;
+import com.opengamma.engine.cache.FudgeMessageStore;
+import com.opengamma.engine.cache.InMemoryBinaryDataStore;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * Benchmarks {@link DefaultFudgeMessageStore}, which encodes messages to and decodes them from the underlying binary store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FudgeMessageStoreBenchmark {
+
+  @Param({"1000", "100000" })
+  private int _size;
+
+  private FudgeMessageStore _store;
+  private Map<Long, FudgeMsg> _messages;
+
+  @Setup
+  public void setup() {
+    _store = new DefaultFudgeMessageStore(new InMemoryBinaryDataStore(), OpenGammaFudgeContext.getInstance());
+    final FudgeSerializer serializer = new FudgeSerializer(OpenGammaFudgeContext.getInstance());
+    final ComputedValue[] values = SyntheticPortfolio.values(_size);
+    _messages = new HashMap<Long, FudgeMsg>();
+    for (int i = 0; i < _size; i++) {
+      // The cache stores the value only, but a computed value gives a realistic mix of field types
+      _messages.put((long) i, serializer.objectToFudgeMsg(values[i]));
+      serializer.reset();
+    }
+    _store.put(_messages);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _store.delete();
+  }
+
+  @Benchmark
+  public void put() {
+    _store.put(_messages);
+  }
+
+  @Benchmark
+  public Object get() {
+    return _store.get(_messages.keySet());
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.engine.cache.IdentifierMap;
+import com.opengamma.engine.cache.InMemoryIdentifierMap;
+import com.opengamma.engine.value.ValueSpecification;
+
+/**
+ * Benchmarks the {@link InMemoryIdentifierMap} lookups made when jobs are sent to calculation nodes and values are written to the cache. The map is shared by all threads so the benchmark can be run
+ * with {@code -t} to measure contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdentifierMapBenchmark {
+
+  @Param({"1000", "100000" })
+  private int _size;
+
+  private IdentifierMap _map;
+  private ValueSpecification[] _specifications;
+  private List<ValueSpecification> _specificationList;
+  private LongArrayList _identifiers;
+
+  @Setup
+  public void setup() {
+    _map = new InMemoryIdentifierMap();
+    _specifications = SyntheticPortfolio.specifications(_size);
+    _specificationList = Arrays.asList(_specifications);
+    _identifiers = new LongArrayList(_map.getIdentifiers(_specificationList).values());
+  }
+
+  @Benchmark
+  public void getIdentifier(final Blackhole blackhole) {
+    for (ValueSpecification specification : _specifications) {
+      blackhole.consume(_map.getIdentifier(specification));
+    }
+  }
+
+  @Benchmark
+  public Object getIdentifiers() {
+    return _map.getIdentifiers(_specificationList);
+  }
+
+  @Benchmark
+  public Object getValueSpecifications() {
+    return _map.getValueSpecifications(_identifiers);
+  }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Synthetic targets and values for the benchmarks. The portfolio is a flat set of primitive targets so that the benchmarks measure the engine rather than the security model; the size of each
+ * benchmark is the number of targets.
+ */
+public final class SyntheticPortfolio {
+
+  /**
+   * The identifier scheme of the synthetic targets.
+   */
+  public static final String SCHEME = "Benchmark";
+
+  /**
+   * The value name produced for each target.
+   */
+  public static final String VALUE_NAME = "Value";
+
+  /**
+   * The function identifier used in the value properties.
+   */
+  public static final String FUNCTION = "BenchmarkFunction";
+
+  private static final String[] CURRENCIES = new String[] {"USD", "EUR", "GBP", "JPY", "CHF" };
+
+  private SyntheticPortfolio() {
+  }
+
+  /**
+   * Returns the target specifications for a portfolio of the given size.
+   * 
+   * @param size the number of targets
+   * @return the target specifications, not null
+   */
+  public static ComputationTargetSpecification[] targets(final int size) {
+    final ComputationTargetSpecification[] targets = new ComputationTargetSpecification[size];
+    for (int i = 0; i < size; i++) {
+      targets[i] = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of(SCHEME, Integer.toString(i)));
+    }
+    return targets;
+  }
+
+  /**
+   * Returns typical output properties for the i-th target. A small number of distinct property sets are shared between the targets, as would be the case for a real view.
+   * 
+   * @param i the target index
+   * @return the properties, not null
+   */
+  public static ValueProperties properties(final int i) {
+    return ValueProperties.with(ValuePropertyNames.FUNCTION, FUNCTION).with(ValuePropertyNames.CURRENCY, CURRENCIES[i % CURRENCIES.length])
+        .with(ValuePropertyNames.CURVE, "Curve" + (i % 7)).with(ValuePropertyNames.CALCULATION_METHOD, "Method" + (i % 3)).get();
+  }
+
+  /**
+   * Returns the value requirements for a portfolio of the given size.
+   * 
+   * @param size the number of targets
+   * @return the requirements, not null
+   */
+  public static ValueRequirement[] requirements(final int size) {
+    final ComputationTargetSpecification[] targets = targets(size);
+    final ValueRequirement[] requirements = new ValueRequirement[size];
+    for (int i = 0; i < size; i++) {
+      requirements[i] = new ValueRequirement(VALUE_NAME, targets[i]);
+    }
+    return requirements;
+  }
+
+  /**
+   * Returns the value specifications for a portfolio of the given size.
+   * 
+   * @param size the number of targets
+   * @return the specifications, not null
+   */
+  public static ValueSpecification[] specifications(final int size) {
+    final ComputationTargetSpecification[] targets = targets(size);
+    final ValueSpecification[] specifications = new ValueSpecification[size];
+    for (int i = 0; i < size; i++) {
+      specifications[i] = new ValueSpecification(VALUE_NAME, targets[i], properties(i));
+    }
+    return specifications;
+  }
+
+  /**
+   * Returns computed values for a portfolio of the given size.
+   * 
+   * @param size the number of targets
+   * @return the values, not null
+   */
+  public static ComputedValue[] values(final int size) {
+    final ValueSpecification[] specifications = specifications(size);
+    final ComputedValue[] values = new ComputedValue[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = new ComputedValue(specifications[i], (double) i);
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+
+/**
+ * Benchmarks the {@link ValueProperties} operations used by the graph builder when matching requirements against function outputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValuePropertiesBenchmark {
+
+  @Param({"100", "10000" })
+  private int _size;
+
+  private ValueProperties[] _offered;
+  private ValueProperties[] _required;
+
+  @Setup
+  public void setup() {
+    _offered = new ValueProperties[_size];
+    _required = new ValueProperties[_size];
+    for (int i = 0; i < _size; i++) {
+      // Function outputs typically leave some properties open
+      _offered[i] = SyntheticPortfolio.properties(i).copy().withoutAny(ValuePropertyNames.CALCULATION_METHOD).withAny(ValuePropertyNames.CALCULATION_METHOD).get();
+      _required[i] = ValueProperties.with(ValuePropertyNames.CURRENCY, "USD").with(ValuePropertyNames.CALCULATION_METHOD, "Method" + (i % 3)).withOptional(ValuePropertyNames.CURVE).get();
+    }
+  }
+
+  @Benchmark
+  public void isSatisfiedBy(final Blackhole blackhole) {
+    for (int i = 0; i < _size; i++) {
+      blackhole.consume(_required[i].isSatisfiedBy(_offered[i]));
+    }
+  }
+
+  @Benchmark
+  public void compose(final Blackhole blackhole) {
+    for (int i = 0; i < _size; i++) {
+      blackhole.consume(_offered[i].compose(_required[i]));
+    }
+  }
+
+  @Benchmark
+  public void build(final Blackhole blackhole) {
+    for (int i = 0; i < _size; i++) {
+      blackhole.consume(SyntheticPortfolio.properties(i));
+    }
+  }
+
+}
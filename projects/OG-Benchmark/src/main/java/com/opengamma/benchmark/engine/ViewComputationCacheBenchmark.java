@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.benchmark.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.engine.cache.DefaultFudgeMessageStore;
+import com.opengamma.engine.cache.DefaultViewComputationCache;
+import com.opengamma.engine.cache.FudgeMessageStore;
+import com.opengamma.engine.cache.InMemoryBinaryDataStore;
+import com.opengamma.engine.cache.InMemoryIdentifierMap;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * Benchmarks {@link DefaultViewComputationCache} reads and writes of scalar results, including the identifier lookup and Fudge encoding of each value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ViewComputationCacheBenchmark {
+
+  @Param({"1000", "100000" })
+  private int _size;
+
+  private DefaultViewComputationCache _cache;
+  private ComputedValue[] _values;
+  private List<ComputedValue> _valueList;
+  private ValueSpecification[] _specifications;
+  private List<ValueSpecification> _specificationList;
+
+  @Setup
+  public void setup() {
+    final FudgeMessageStore store = new DefaultFudgeMessageStore(new InMemoryBinaryDataStore(), OpenGammaFudgeContext.getInstance());
+    _cache = new DefaultViewComputationCache(new InMemoryIdentifierMap(), store, store, OpenGammaFudgeContext.getInstance());
+    _values = SyntheticPortfolio.values(_size);
+    _valueList = Arrays.asList(_values);
+    _specifications = SyntheticPortfolio.specifications(_size);
+    _specificationList = Arrays.asList(_specifications);
+    _cache.putSharedValues(_valueList);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _cache.delete();
+  }
+
+  @Benchmark
+  public void putValue() {
+    for (ComputedValue value : _values) {
+      _cache.putSharedValue(value);
+    }
+  }
+
+  @Benchmark
+  public void putValues() {
+    _cache.putSharedValues(_valueList);
+  }
+
+  @Benchmark
+  public void getValue(final Blackhole blackhole) {
+    for (ValueSpecification specification : _specifications) {
+      blackhole.consume(_cache.getValue(specification));
+    }
+  }
+
+  @Benchmark
+  public Object getValues() {
+    return _cache.getValues(_specificationList);
+  }
+
+}
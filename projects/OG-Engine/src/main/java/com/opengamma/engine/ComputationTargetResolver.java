@@ -5,6 +5,9 @@
  */
 package com.opengamma.engine;
 
+import java.util.Collection;
+import java.util.Map;
+
 import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.core.security.SecuritySource;
 import com.opengamma.engine.target.ComputationTargetSpecificationResolver;
@@ -37,6 +40,15 @@ public interface ComputationTargetResolver extends ChangeProvider {
      */
     ComputationTarget resolve(ComputationTargetSpecification specification);
 
+    /**
+     * Resolves a number of specifications to real targets. This is equivalent to calling {@link #resolve(ComputationTargetSpecification)} for each specification but allows an implementation to
+     * query the underlying sources in bulk, for example when resolving all of the targets in a portfolio.
+     * 
+     * @param specifications the specifications to resolve, not null and not containing null
+     * @return the resolved targets, keyed by specification, omitting any that could not be resolved, not null
+     */
+    Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(Collection<ComputationTargetSpecification> specifications);
+
     /**
      * Returns an {@link ObjectResolver} instance that will correspond to the behavior used by the {@link #resolve} method.
      * 
@@ -6,6 +6,8 @@
 package com.opengamma.engine;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
@@ -16,6 +18,7 @@ import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
 import com.opengamma.core.position.PortfolioNode;
 import com.opengamma.core.position.Position;
 import com.opengamma.core.position.Trade;
@@ -152,16 +155,15 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
     return _cacheManager;
   }
 
-  @Override
-  public ComputationTarget resolve(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection) {
-    if (specification == ComputationTargetSpecification.NULL) {
-      return ComputationTarget.NULL;
-    }
-    final ObjectResolver<?> resolver = getResolver(specification);
-    if (resolver == null) {
-      return null;
-    }
-    final boolean isDeep = resolver.deepResolver() != null;
+  /**
+   * Looks up a previously resolved target from the caches.
+   * 
+   * @param specification the specification to look up, not null
+   * @param versionCorrection the version/correction timestamp of the resolution, not null
+   * @param isDeep true if the object resolver performs deep resolution, false otherwise
+   * @return the cached target, null if not found
+   */
+  private ComputationTarget getCached(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection, final boolean isDeep) {
     ComputationTarget result = isDeep ? _frontTargetCacheDeep.get(versionCorrection, specification) : _frontTargetCache.get(specification);
     if (result != null) {
       return result;
@@ -201,15 +203,86 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
         }
       }
     }
-    result = super.resolve(specification, versionCorrection);
+    return null;
+  }
+
+  /**
+   * Stores a freshly resolved target in the caches.
+   * 
+   * @param specification the specification that was resolved, not null
+   * @param versionCorrection the version/correction timestamp of the resolution, not null
+   * @param isDeep true if the object resolver performs deep resolution, false otherwise
+   * @param result the resolved target, not null
+   * @return the target to return to the caller; either the one given or an equivalent one already in the cache
+   */
+  private ComputationTarget cache(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection, final boolean isDeep, final ComputationTarget result) {
+    final UniqueId uid = specification.getUniqueId();
+    final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, result.getValue()) : _frontObjectCache.putIfAbsent(uid, result.getValue());
+    if (existing == null) {
+      addToCacheImpl(isDeep ? Pairs.of(uid, versionCorrection) : uid, result.getValue());
+    }
+    final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.putIfAbsent(specification, result);
+    if (newResult != null) {
+      return newResult;
+    } else {
+      return result;
+    }
+  }
+
+  @Override
+  public ComputationTarget resolve(final ComputationTargetSpecification specification, final VersionCorrection versionCorrection) {
+    if (specification == ComputationTargetSpecification.NULL) {
+      return ComputationTarget.NULL;
+    }
+    final ObjectResolver<?> resolver = getResolver(specification);
+    if (resolver == null) {
+      return null;
+    }
+    final boolean isDeep = resolver.deepResolver() != null;
+    final ComputationTarget result = getCached(specification, versionCorrection, isDeep);
     if (result != null) {
-      final UniqueIdentifiable existing = isDeep ? _frontObjectCacheDeep.putIfAbsent(versionCorrection, uid, result.getValue()) : _frontObjectCache.putIfAbsent(uid, result.getValue());
-      if (existing == null) {
-        addToCacheImpl(key, result.getValue());
+      return result;
+    }
+    final ComputationTarget resolved = super.resolve(specification, versionCorrection);
+    if (resolved != null) {
+      return cache(specification, versionCorrection, isDeep, resolved);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Resolves a number of specifications. Any that are not already in the cache are passed to the underlying in a single bulk request and the results added to the cache.
+   * 
+   * @param specifications the specifications to resolve, not null and not containing null
+   * @param versionCorrection the version/correction timestamp to use for the resolution, not null
+   * @return the resolved targets, keyed by specification, omitting any that could not be resolved, not null
+   */
+  public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications, final VersionCorrection versionCorrection) {
+    final Map<ComputationTargetSpecification, ComputationTarget> result = Maps.newHashMapWithExpectedSize(specifications.size());
+    final Map<ComputationTargetSpecification, Boolean> missing = new HashMap<ComputationTargetSpecification, Boolean>();
+    for (final ComputationTargetSpecification specification : specifications) {
+      if (specification == ComputationTargetSpecification.NULL) {
+        result.put(specification, ComputationTarget.NULL);
+        continue;
       }
-      final ComputationTarget newResult = isDeep ? _frontTargetCacheDeep.putIfAbsent(versionCorrection, specification, result) : _frontTargetCache.putIfAbsent(specification, result);
-      if (newResult != null) {
-        result = newResult;
+      final ObjectResolver<?> resolver = getResolver(specification);
+      if (resolver == null) {
+        continue;
+      }
+      final boolean isDeep = resolver.deepResolver() != null;
+      final ComputationTarget cached = getCached(specification, versionCorrection, isDeep);
+      if (cached != null) {
+        result.put(specification, cached);
+      } else {
+        missing.put(specification, isDeep);
+      }
+    }
+    if (!missing.isEmpty()) {
+      final Map<ComputationTargetSpecification, ComputationTarget> resolved = getUnderlying().atVersionCorrection(versionCorrection).resolveTargets(missing.keySet());
+      for (final Map.Entry<ComputationTargetSpecification, ComputationTarget> target : resolved.entrySet()) {
+        final ComputationTargetSpecification specification = target.getKey();
+        result.put(specification, cache(specification, versionCorrection, missing.get(specification), target.getValue()));
       }
     }
     return result;
@@ -225,6 +298,11 @@ public class DefaultCachingComputationTargetResolver extends DelegatingComputati
         return DefaultCachingComputationTargetResolver.this.resolve(specification, versionCorrection);
       }
 
+      @Override
+      public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications) {
+        return DefaultCachingComputationTargetResolver.this.resolveTargets(specifications, versionCorrection);
+      }
+
       @Override
       public ObjectResolver<?> getResolver(final ComputationTargetSpecification specification) {
         return DefaultCachingComputationTargetResolver.this.getResolver(specification);
@@ -6,14 +6,18 @@
 package com.opengamma.engine;
 
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Maps;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.core.change.PassthroughChangeManager;
@@ -29,6 +33,7 @@ import com.opengamma.engine.target.DefaultComputationTargetSpecificationResolver
 import com.opengamma.engine.target.PrimitiveComputationTargetType;
 import com.opengamma.engine.target.lazy.LazyResolveContext;
 import com.opengamma.engine.target.lazy.LazyResolver;
+import com.opengamma.engine.target.resolver.BulkObjectResolver;
 import com.opengamma.engine.target.resolver.ChainedResolver;
 import com.opengamma.engine.target.resolver.IdentifierResolver;
 import com.opengamma.engine.target.resolver.ObjectResolver;
@@ -202,6 +207,54 @@ public class DefaultComputationTargetResolver implements ComputationTargetResolv
     }
   }
 
+  /**
+   * Resolves a number of specifications using the security and position sources.
+   * <p>
+   * Specifications that share a {@link BulkObjectResolver} are resolved with a single call to it so that, for example, all of the securities referenced by a portfolio can be fetched with one query
+   * against the security source. Any others are resolved individually as by {@link #resolve(ComputationTargetSpecification, VersionCorrection)}.
+   * 
+   * @param specifications the specifications to resolve, not null and not containing null
+   * @param versionCorrection the version/correction timestamp to use for the resolution, not null
+   * @return the resolved targets, keyed by specification, omitting any that could not be resolved, not null
+   */
+  public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications, final VersionCorrection versionCorrection) {
+    final Map<ComputationTargetSpecification, ComputationTarget> result = Maps.newHashMapWithExpectedSize(specifications.size());
+    final Map<BulkObjectResolver<?>, Collection<ComputationTargetSpecification>> bulk = new HashMap<BulkObjectResolver<?>, Collection<ComputationTargetSpecification>>();
+    for (final ComputationTargetSpecification specification : specifications) {
+      final ObjectResolver<?> resolver = (ComputationTargetType.NULL == specification.getType()) ? null : _resolvers.get(specification.getType());
+      if (resolver instanceof BulkObjectResolver) {
+        Collection<ComputationTargetSpecification> resolverSpecifications = bulk.get(resolver);
+        if (resolverSpecifications == null) {
+          resolverSpecifications = new ArrayList<ComputationTargetSpecification>();
+          bulk.put((BulkObjectResolver<?>) resolver, resolverSpecifications);
+        }
+        resolverSpecifications.add(specification);
+      } else {
+        final ComputationTarget target = resolve(specification, versionCorrection);
+        if (target != null) {
+          result.put(specification, target);
+        }
+      }
+    }
+    for (final Map.Entry<BulkObjectResolver<?>, Collection<ComputationTargetSpecification>> resolverSpecifications : bulk.entrySet()) {
+      final Set<UniqueId> uniqueIds = new HashSet<UniqueId>();
+      for (final ComputationTargetSpecification specification : resolverSpecifications.getValue()) {
+        uniqueIds.add(specification.getUniqueId());
+      }
+      s_logger.debug("Resolving {} targets in bulk", uniqueIds.size());
+      final Map<UniqueId, ? extends UniqueIdentifiable> resolved = resolverSpecifications.getKey().resolveObjects(uniqueIds, versionCorrection);
+      for (final ComputationTargetSpecification specification : resolverSpecifications.getValue()) {
+        final UniqueIdentifiable target = resolved.get(specification.getUniqueId());
+        if (target != null) {
+          result.put(specification, ComputationTargetResolverUtils.createResolvedTarget(specification, target));
+        } else {
+          s_logger.info("Unable to resolve {}", specification);
+        }
+      }
+    }
+    return result;
+  }
+
   @Override
   public ObjectResolver<?> getResolver(final ComputationTargetSpecification specification) {
     final ComputationTargetType type = specification.getType();
@@ -302,6 +355,11 @@ public class DefaultComputationTargetResolver implements ComputationTargetResolv
         return DefaultComputationTargetResolver.this.resolve(specification, versionCorrection);
       }
 
+      @Override
+      public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications) {
+        return DefaultComputationTargetResolver.this.resolveTargets(specifications, versionCorrection);
+      }
+
       @Override
       public ObjectResolver<?> getResolver(final ComputationTargetSpecification specification) {
         return DefaultComputationTargetResolver.this.getResolver(specification);
@@ -57,6 +57,23 @@ public abstract class AbstractIdentifierMap implements IdentifierMap {
     object.convertValueSpecifications(map.getIdentifiers(valueSpecifications));
   }
 
+  /**
+   * Converts a number of objects with a single request to the identifier map. This is cheaper than converting each in turn when the map is remote or has to allocate identifiers.
+   * 
+   * @param map the identifier map, not null
+   * @param objects the objects to convert, not null
+   */
+  public static void convertIdentifiers(final IdentifierMap map, final Collection<? extends IdentifierEncodedValueSpecifications> objects) {
+    final Set<ValueSpecification> valueSpecifications = new HashSet<ValueSpecification>();
+    for (IdentifierEncodedValueSpecifications object : objects) {
+      object.collectValueSpecifications(valueSpecifications);
+    }
+    final Object2LongMap<ValueSpecification> identifiers = map.getIdentifiers(valueSpecifications);
+    for (IdentifierEncodedValueSpecifications object : objects) {
+      object.convertValueSpecifications(identifiers);
+    }
+  }
+
   public static void resolveIdentifiers(final IdentifierMap map, final IdentifierEncodedValueSpecifications object) {
     final LongSet identifiers = new LongOpenHashSet();
     object.collectIdentifiers(identifiers);
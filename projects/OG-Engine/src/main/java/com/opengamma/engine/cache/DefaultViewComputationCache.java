@@ -311,6 +311,33 @@ public class DefaultViewComputationCache implements ViewComputationCache,
     return returnValues;
   }
 
+  /**
+   * Fetches the encoded form of shared values without decoding them. This has no effect other than to populate any caching layer in front of the shared data store, such as a
+   * {@link CachingFudgeMessageStore} on a remote calculation node, so that a later {@link #getValues} call for the same specifications can be satisfied locally.
+   * 
+   * @param specifications the values to fetch, not null
+   * @param filter the filter used to ignore private values, not null
+   */
+  public void prefetchValues(final Collection<ValueSpecification> specifications, final CacheSelectHint filter) {
+    ArgumentChecker.notNull(specifications, "specifications");
+    ArgumentChecker.notNull(filter, "filter");
+    final List<ValueSpecification> shared = new ArrayList<ValueSpecification>(specifications.size());
+    for (final ValueSpecification specification : specifications) {
+      if (!filter.isPrivateValue(specification)) {
+        shared.add(specification);
+      }
+    }
+    if (shared.isEmpty()) {
+      return;
+    }
+    final Map<ValueSpecification, Long> identifiers = getIdentifierMap().getIdentifiers(shared);
+    if (identifiers.size() == 1) {
+      getSharedDataStore().get(identifiers.values().iterator().next());
+    } else {
+      getSharedDataStore().get(identifiers.values());
+    }
+  }
+
   protected void putValue(final ComputedValue value, final FudgeMessageStore dataStore) {
     ArgumentChecker.notNull(value, "value");
     final long identifier = getIdentifierMap().getIdentifier(value.getSpecification());
@@ -5,49 +5,174 @@
  */
 package com.opengamma.engine.cache;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
 
 /**
- * An implementation of {@link IdentifierMap} which is backed by an in-memory
- * {@link ConcurrentMap}. This has no facilities for acting as a cache, or for persistence.
- * It should only be used for development and debugging purposes.
+ * An implementation of {@link IdentifierMap} which is held in memory. This has no facilities for acting as a cache, or for persistence.
+ * <p>
+ * The mappings are held in primitive keyed maps split into a number of stripes, each with its own lock, so that concurrent callers working on different value specifications don't contend. The
+ * bulk operations allocate identifiers for all of the unknown specifications in a single step.
  */
 public class InMemoryIdentifierMap extends AbstractIdentifierMap implements IdentifierMap {
 
+  /**
+   * The default number of stripes; must be a power of two.
+   */
+  private static final int DEFAULT_STRIPES = 16;
+
   private final AtomicLong _nextIdentifier = new AtomicLong(1L);
 
-  private final ConcurrentMap<ValueSpecification, Long> _identifiers = new ConcurrentHashMap<ValueSpecification, Long>();
-  private final ConcurrentMap<Long, ValueSpecification> _specifications = new ConcurrentHashMap<Long, ValueSpecification>();
+  private final int _mask;
+
+  // Lock order is always an identifier stripe then a specification stripe
+  private final Object2LongOpenHashMap<ValueSpecification>[] _identifiers;
+  private final Long2ObjectOpenHashMap<ValueSpecification>[] _specifications;
+
+  public InMemoryIdentifierMap() {
+    this(DEFAULT_STRIPES);
+  }
+
+  @SuppressWarnings("unchecked")
+  public InMemoryIdentifierMap(final int stripes) {
+    ArgumentChecker.isTrue((stripes > 0) && ((stripes & (stripes - 1)) == 0), "stripes must be a positive power of two");
+    _mask = stripes - 1;
+    _identifiers = new Object2LongOpenHashMap[stripes];
+    _specifications = new Long2ObjectOpenHashMap[stripes];
+    for (int i = 0; i < stripes; i++) {
+      _identifiers[i] = new Object2LongOpenHashMap<ValueSpecification>();
+      _specifications[i] = new Long2ObjectOpenHashMap<ValueSpecification>();
+    }
+  }
+
+  private static int spread(final int h) {
+    return h ^ (h >>> 16) ^ (h >>> 8);
+  }
+
+  private Object2LongOpenHashMap<ValueSpecification> identifiers(final ValueSpecification spec) {
+    return _identifiers[spread(spec.hashCode()) & _mask];
+  }
+
+  private Long2ObjectOpenHashMap<ValueSpecification> specifications(final long identifier) {
+    return _specifications[spread((int) (identifier ^ (identifier >>> 32))) & _mask];
+  }
+
+  private long find(final ValueSpecification spec) {
+    final Object2LongOpenHashMap<ValueSpecification> identifiers = identifiers(spec);
+    synchronized (identifiers) {
+      // The default return value is 0 which is never allocated
+      return identifiers.getLong(spec);
+    }
+  }
+
+  /**
+   * Stores the identifier for the specification unless another thread has already done so.
+   * 
+   * @param spec the specification, not null
+   * @param freshIdentifier the newly allocated identifier
+   * @return the identifier now associated with the specification
+   */
+  private long putIfAbsent(final ValueSpecification spec, final long freshIdentifier) {
+    final Object2LongOpenHashMap<ValueSpecification> identifiers = identifiers(spec);
+    synchronized (identifiers) {
+      final long existing = identifiers.getLong(spec);
+      if (existing != 0) {
+        return existing;
+      }
+      identifiers.put(spec, freshIdentifier);
+      // Publish the inverse before the identifier can be returned to anyone
+      final Long2ObjectOpenHashMap<ValueSpecification> specifications = specifications(freshIdentifier);
+      synchronized (specifications) {
+        specifications.put(freshIdentifier, spec);
+      }
+      return freshIdentifier;
+    }
+  }
 
   @Override
-  public long getIdentifier(ValueSpecification spec) {
+  public long getIdentifier(final ValueSpecification spec) {
     ArgumentChecker.notNull(spec, "Value specification");
-    Long result = _identifiers.get(spec);
-    if (result != null) {
-      return result;
+    final long identifier = find(spec);
+    if (identifier != 0) {
+      return identifier;
+    }
+    return putIfAbsent(spec, _nextIdentifier.getAndIncrement());
+  }
+
+  @Override
+  public Object2LongMap<ValueSpecification> getIdentifiers(final Collection<ValueSpecification> specs) {
+    final Object2LongMap<ValueSpecification> result = new Object2LongOpenHashMap<ValueSpecification>(specs.size());
+    List<ValueSpecification> missing = null;
+    for (ValueSpecification spec : specs) {
+      ArgumentChecker.notNull(spec, "Value specification");
+      final long identifier = find(spec);
+      if (identifier != 0) {
+        result.put(spec, identifier);
+      } else {
+        if (missing == null) {
+          missing = new ArrayList<ValueSpecification>();
+        }
+        missing.add(spec);
+      }
     }
-    long freshIdentifier = _nextIdentifier.getAndIncrement();
-    result = _identifiers.putIfAbsent(spec, freshIdentifier);
-    if (result == null) {
-      result = freshIdentifier;
-      _specifications.put(freshIdentifier, spec);
+    if (missing != null) {
+      // Allocate a block for all of the unknown specifications; any lost to concurrent allocation are simply not used
+      long freshIdentifier = _nextIdentifier.getAndAdd(missing.size());
+      for (ValueSpecification spec : missing) {
+        final long identifier = putIfAbsent(spec, freshIdentifier);
+        if (identifier == freshIdentifier) {
+          freshIdentifier++;
+        }
+        result.put(spec, identifier);
+      }
     }
     return result;
   }
 
   @Override
-  public ValueSpecification getValueSpecification(long identifier) {
-    return _specifications.get(identifier);
+  public ValueSpecification getValueSpecification(final long identifier) {
+    final Long2ObjectOpenHashMap<ValueSpecification> specifications = specifications(identifier);
+    synchronized (specifications) {
+      return specifications.get(identifier);
+    }
+  }
+
+  @Override
+  public Long2ObjectMap<ValueSpecification> getValueSpecifications(final LongCollection identifiers) {
+    final Long2ObjectMap<ValueSpecification> result = new Long2ObjectOpenHashMap<ValueSpecification>(identifiers.size());
+    final LongIterator itr = identifiers.iterator();
+    while (itr.hasNext()) {
+      final long identifier = itr.nextLong();
+      result.put(identifier, getValueSpecification(identifier));
+    }
+    return result;
   }
-  
+
   public void clear() {
-    _identifiers.clear();
-    _specifications.clear();
+    for (int i = 0; i <= _mask; i++) {
+      final Object2LongOpenHashMap<ValueSpecification> identifiers = _identifiers[i];
+      synchronized (identifiers) {
+        identifiers.clear();
+      }
+    }
+    for (int i = 0; i <= _mask; i++) {
+      final Long2ObjectOpenHashMap<ValueSpecification> specifications = _specifications[i];
+      synchronized (specifications) {
+        specifications.clear();
+      }
+    }
     // N.B. We don't actually reset the _nextIdentifier map just in case, so that we can diagnostically
     // check whether an ID has accidentally been reused.
   }
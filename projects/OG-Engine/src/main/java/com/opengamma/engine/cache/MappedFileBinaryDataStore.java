@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * An implementation of {@link BinaryDataStore} backed by a memory-mapped file.
+ * <p>
+ * Values are appended to fixed size chunks of the file which are mapped into memory as they are needed, so the data does not occupy the Java heap. The location of each value is held in an
+ * open-addressing index of primitive arrays keyed by the identifier. There is no support for reclaiming the space used by individual values; the whole file is discarded when the store is deleted at
+ * the end of the cycle.
+ * <p>
+ * This class is internally synchronized.
+ */
+public class MappedFileBinaryDataStore extends AbstractBinaryDataStore {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(MappedFileBinaryDataStore.class);
+
+  /**
+   * The default chunk size, 64Mb.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+  private static final int INITIAL_INDEX_SIZE = 1024;
+
+  private final File _file;
+  private final int _chunkSize;
+  private final ReadWriteLock _lock = new ReentrantReadWriteLock();
+  private final List<MappedByteBuffer> _chunks = new ArrayList<MappedByteBuffer>();
+  private RandomAccessFile _raf;
+  private long _fileSize;
+  private int _currentChunk = -1;
+
+  // The index; a slot is empty if its length is negative
+  private long[] _identifiers = new long[INITIAL_INDEX_SIZE];
+  private long[] _locations = new long[INITIAL_INDEX_SIZE];
+  private int[] _lengths = newLengths(INITIAL_INDEX_SIZE);
+  private int _size;
+
+  /**
+   * Creates a new store.
+   *
+   * @param file the file to hold the data, not null. Any existing content will be discarded.
+   * @param chunkSize the size of each chunk of the file to map, values larger than this will be given chunks of their own
+   */
+  public MappedFileBinaryDataStore(final File file, final int chunkSize) {
+    ArgumentChecker.notNull(file, "file");
+    ArgumentChecker.isTrue(chunkSize > 0, "chunkSize");
+    _file = file;
+    _chunkSize = chunkSize;
+    try {
+      _raf = new RandomAccessFile(file, "rw");
+      _raf.setLength(0);
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't open " + file, e);
+    }
+  }
+
+  public MappedFileBinaryDataStore(final File file) {
+    this(file, DEFAULT_CHUNK_SIZE);
+  }
+
+  private static int[] newLengths(final int size) {
+    final int[] lengths = new int[size];
+    Arrays.fill(lengths, -1);
+    return lengths;
+  }
+
+  private static int hash(final long identifier) {
+    final int h = (int) (identifier ^ (identifier >>> 32)) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  // caller must hold the lock
+  private int findSlot(final long identifier) {
+    final int mask = _identifiers.length - 1;
+    int slot = hash(identifier) & mask;
+    while ((_lengths[slot] >= 0) && (_identifiers[slot] != identifier)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // caller must hold the write lock
+  private void growIndex() {
+    final long[] identifiers = _identifiers;
+    final long[] locations = _locations;
+    final int[] lengths = _lengths;
+    final int size = identifiers.length << 1;
+    _identifiers = new long[size];
+    _locations = new long[size];
+    _lengths = newLengths(size);
+    for (int i = 0; i < identifiers.length; i++) {
+      if (lengths[i] >= 0) {
+        final int slot = findSlot(identifiers[i]);
+        _identifiers[slot] = identifiers[i];
+        _locations[slot] = locations[i];
+        _lengths[slot] = lengths[i];
+      }
+    }
+  }
+
+  // caller must hold the write lock
+  private int chunkFor(final int length) throws IOException {
+    if ((_currentChunk >= 0) && (_chunks.get(_currentChunk).remaining() >= length)) {
+      return _currentChunk;
+    }
+    if (_raf == null) {
+      throw new IllegalStateException("Store has been deleted");
+    }
+    final int size = Math.max(_chunkSize, length);
+    final MappedByteBuffer chunk = _raf.getChannel().map(FileChannel.MapMode.READ_WRITE, _fileSize, size);
+    _fileSize += size;
+    final int index = _chunks.size();
+    _chunks.add(chunk);
+    if (length < _chunkSize) {
+      _currentChunk = index;
+    }
+    s_logger.debug("Mapped chunk {} of {} bytes in {}", new Object[] {index, size, _file });
+    return index;
+  }
+
+  /**
+   * Returns a read-only view of the data associated with the identifier without copying it onto the heap. The buffer is only valid until the store is deleted.
+   *
+   * @param identifier the identifier to obtain data for
+   * @return the buffer positioned at the start of the data and with its limit at the end, or null if there is no data with that identifier
+   */
+  public ByteBuffer getBuffer(final long identifier) {
+    final Lock lock = _lock.readLock();
+    lock.lock();
+    try {
+      final int slot = findSlot(identifier);
+      final int length = _lengths[slot];
+      if (length < 0) {
+        return null;
+      }
+      final long location = _locations[slot];
+      final ByteBuffer buffer = _chunks.get((int) (location >>> 32)).asReadOnlyBuffer();
+      final int offset = (int) location;
+      buffer.limit(offset + length);
+      buffer.position(offset);
+      return buffer.slice();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // BinaryDataStore
+
+  @Override
+  public byte[] get(final long identifier) {
+    final ByteBuffer buffer = getBuffer(identifier);
+    if (buffer == null) {
+      return null;
+    }
+    final byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+
+  @Override
+  public void put(final long identifier, final byte[] data) {
+    final Lock lock = _lock.writeLock();
+    lock.lock();
+    try {
+      final int index = chunkFor(data.length);
+      final MappedByteBuffer chunk = _chunks.get(index);
+      final int offset = chunk.position();
+      chunk.put(data);
+      int slot = findSlot(identifier);
+      if (_lengths[slot] < 0) {
+        if ((++_size << 1) > _identifiers.length) {
+          growIndex();
+          slot = findSlot(identifier);
+        }
+        _identifiers[slot] = identifier;
+      }
+      _locations[slot] = ((long) index << 32) | offset;
+      _lengths[slot] = data.length;
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't map " + _file, e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void delete() {
+    final Lock lock = _lock.writeLock();
+    lock.lock();
+    try {
+      // The mappings are released when the buffers are garbage collected; the file space is reclaimed by the OS after that
+      _chunks.clear();
+      _currentChunk = -1;
+      _identifiers = new long[INITIAL_INDEX_SIZE];
+      _locations = new long[INITIAL_INDEX_SIZE];
+      _lengths = newLengths(INITIAL_INDEX_SIZE);
+      _size = 0;
+      if (_raf != null) {
+        try {
+          _raf.close();
+        } catch (IOException e) {
+          s_logger.warn("Couldn't close {} - {}", _file, e.getMessage());
+        }
+        _raf = null;
+      }
+      if (!_file.delete()) {
+        s_logger.warn("Couldn't delete {}", _file);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MappedFileBinaryDataStore[" + _file + "]";
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Creates {@link MappedFileBinaryDataStore} instances, each backed by a file in a common directory. The directory should not be shared with other processes.
+ */
+public class MappedFileBinaryDataStoreFactory implements BinaryDataStoreFactory {
+
+  private final AtomicInteger _nextFile = new AtomicInteger();
+  private final File _directory;
+  private int _chunkSize = MappedFileBinaryDataStore.DEFAULT_CHUNK_SIZE;
+
+  public MappedFileBinaryDataStoreFactory(final File directory) {
+    ArgumentChecker.notNull(directory, "directory");
+    ArgumentChecker.isTrue(directory.isDirectory() || directory.mkdirs(), "directory");
+    _directory = directory;
+  }
+
+  public File getDirectory() {
+    return _directory;
+  }
+
+  public void setChunkSize(final int chunkSize) {
+    ArgumentChecker.isTrue(chunkSize > 0, "chunkSize");
+    _chunkSize = chunkSize;
+  }
+
+  public int getChunkSize() {
+    return _chunkSize;
+  }
+
+  @Override
+  public BinaryDataStore createDataStore(final ViewComputationCacheKey cacheKey) {
+    // The cycle identifier and configuration name may not be valid in a file name; use a unique sequence number instead
+    final File file = new File(getDirectory(), "cache-" + _nextFile.incrementAndGet() + ".dat");
+    return new MappedFileBinaryDataStore(file, getChunkSize());
+  }
+
+}
@@ -319,6 +319,7 @@ import com.opengamma.util.async.Cancelable;
     if (!jobInvoker.invoke(getJob(), this)) {
       return false;
     }
+    getDispatcher().jobAccepted(getJob(), jobInvoker);
     DispatchableJobTimeout timeout = new DispatchableJobTimeout(this, jobInvoker);
     if (_timeout.compareAndSet(null, timeout)) {
       s_logger.debug("Timeout set for job {}", this);
@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.calcnode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.function.FunctionParameters;
+import com.opengamma.engine.function.MemoizableFunction;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Engine-wide cache of results from {@link MemoizableFunction} invocations. One instance can be shared by all of the calculation nodes in a process so that a curve or surface requested by several
+ * views, or by consecutive cycles with unchanged inputs, is only built once.
+ * <p>
+ * Entries are evicted, least recently used first, when either the number of entries or the estimated total size of the cached inputs and results exceeds its limit.
+ */
+public class FunctionResultCache {
+
+  /**
+   * Identifies an invocation; the function, the valuation time and resolution version/correction of the job, and the target, parameters, requested outputs and the input values passed.
+   */
+  public static final class Key {
+
+    private final String _functionId;
+    private final Instant _valuationTime;
+    private final VersionCorrection _versionCorrection;
+    private final ComputationTargetSpecification _target;
+    private final FunctionParameters _parameters;
+    private final Set<ValueSpecification> _outputs;
+    private final Set<ComputedValue> _inputs;
+    private final int _hashCode;
+
+    public Key(final String functionId, final Instant valuationTime, final VersionCorrection versionCorrection, final ComputationTargetSpecification target,
+        final FunctionParameters parameters, final ValueSpecification[] outputs, final Collection<ComputedValue> inputs) {
+      ArgumentChecker.notNull(functionId, "functionId");
+      ArgumentChecker.notNull(valuationTime, "valuationTime");
+      ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+      ArgumentChecker.notNull(target, "target");
+      ArgumentChecker.notNull(outputs, "outputs");
+      ArgumentChecker.notNull(inputs, "inputs");
+      _functionId = functionId;
+      _valuationTime = valuationTime;
+      _versionCorrection = versionCorrection;
+      _target = target;
+      _parameters = parameters;
+      _outputs = new HashSet<ValueSpecification>(Arrays.asList(outputs));
+      _inputs = new HashSet<ComputedValue>(inputs);
+      int hc = functionId.hashCode();
+      hc += (hc << 4) + valuationTime.hashCode();
+      hc += (hc << 4) + versionCorrection.hashCode();
+      hc += (hc << 4) + target.hashCode();
+      hc += (hc << 4) + ((parameters != null) ? parameters.hashCode() : 0);
+      hc += (hc << 4) + _outputs.hashCode();
+      hc += (hc << 4) + _inputs.hashCode();
+      _hashCode = hc;
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return (_hashCode == other._hashCode)
+          && _functionId.equals(other._functionId)
+          && _valuationTime.equals(other._valuationTime)
+          && _versionCorrection.equals(other._versionCorrection)
+          && _target.equals(other._target)
+          && ((_parameters == null) ? (other._parameters == null) : _parameters.equals(other._parameters))
+          && _outputs.equals(other._outputs)
+          && _inputs.equals(other._inputs);
+    }
+
+    @Override
+    public String toString() {
+      return "FunctionResultCache.Key[" + _functionId + ", " + _valuationTime + ", " + _target + "]";
+    }
+
+  }
+
+  private static final class Entry {
+
+    private final Set<ComputedValue> _results;
+    private final long _bytes;
+
+    public Entry(final Set<ComputedValue> results, final long bytes) {
+      _results = results;
+      _bytes = bytes;
+    }
+
+  }
+
+  /**
+   * The default maximum number of entries.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+  /**
+   * The default maximum estimated size of the cached values, in bytes.
+   */
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024L * 1024L;
+
+  private final LinkedHashMap<Key, Entry> _entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+  private final AtomicLong _hits = new AtomicLong();
+  private final AtomicLong _misses = new AtomicLong();
+  private int _maxEntries = DEFAULT_MAX_ENTRIES;
+  private long _maxBytes = DEFAULT_MAX_BYTES;
+  private long _bytes;
+
+  public int getMaxEntries() {
+    return _maxEntries;
+  }
+
+  /**
+   * Sets the maximum number of invocations to hold results for.
+   *
+   * @param maxEntries the maximum number of entries, greater than zero
+   */
+  public synchronized void setMaxEntries(final int maxEntries) {
+    ArgumentChecker.notNegativeOrZero(maxEntries, "maxEntries");
+    _maxEntries = maxEntries;
+    evict();
+  }
+
+  public long getMaxBytes() {
+    return _maxBytes;
+  }
+
+  /**
+   * Sets the maximum estimated size of the cached inputs and results.
+   *
+   * @param maxBytes the maximum size, in bytes, greater than zero
+   */
+  public synchronized void setMaxBytes(final long maxBytes) {
+    ArgumentChecker.notNegativeOrZero(maxBytes, "maxBytes");
+    _maxBytes = maxBytes;
+    evict();
+  }
+
+  /**
+   * Returns the results of an earlier invocation.
+   *
+   * @param key the invocation, not null
+   * @return the results, or null if there are none cached
+   */
+  public Set<ComputedValue> get(final Key key) {
+    final Entry entry;
+    synchronized (this) {
+      entry = _entries.get(key);
+    }
+    if (entry != null) {
+      _hits.incrementAndGet();
+      return entry._results;
+    } else {
+      _misses.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Stores the results of an invocation.
+   *
+   * @param key the invocation, not null
+   * @param results the values produced, not null
+   * @param bytes the estimated size of the input and result values, in bytes
+   */
+  public void put(final Key key, final Set<ComputedValue> results, final long bytes) {
+    ArgumentChecker.notNull(key, "key");
+    ArgumentChecker.notNull(results, "results");
+    final Entry entry = new Entry(results, bytes);
+    synchronized (this) {
+      if (bytes > _maxBytes) {
+        // Would evict everything else; don't cache it
+        return;
+      }
+      final Entry previous = _entries.put(key, entry);
+      if (previous != null) {
+        _bytes -= previous._bytes;
+      }
+      _bytes += bytes;
+      evict();
+    }
+  }
+
+  /**
+   * Discards all cached results.
+   */
+  public synchronized void clear() {
+    _entries.clear();
+    _bytes = 0;
+  }
+
+  /**
+   * Removes the least recently used entries until the limits are satisfied. The caller must hold the monitor.
+   */
+  private void evict() {
+    final Iterator<Map.Entry<Key, Entry>> itr = _entries.entrySet().iterator();
+    while (((_entries.size() > _maxEntries) || (_bytes > _maxBytes)) && itr.hasNext()) {
+      _bytes -= itr.next().getValue()._bytes;
+      itr.remove();
+    }
+  }
+
+  public synchronized int getSize() {
+    return _entries.size();
+  }
+
+  public synchronized long getBytes() {
+    return _bytes;
+  }
+
+  public long getHits() {
+    return _hits.get();
+  }
+
+  public long getMisses() {
+    return _misses.get();
+  }
+
+}
@@ -14,20 +14,29 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.http.concurrent.Cancellable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.engine.calcnode.stats.CalculationNodeStatisticsGatherer;
 import com.opengamma.engine.calcnode.stats.DiscardingNodeStatisticsGatherer;
 import com.opengamma.engine.function.blacklist.DummyFunctionBlacklistMaintainer;
 import com.opengamma.engine.function.blacklist.FunctionBlacklistMaintainer;
+import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.async.Cancelable;
+import com.opengamma.util.tuple.Pair;
+import com.opengamma.util.tuple.Pairs;
 
 /**
  * Manages a set of JobInvokers and dispatches jobs to them for execution.
+ * <p>
+ * Jobs are normally offered to the invokers in round-robin order. If locality awareness is enabled the dispatcher remembers which invoker produced each value and will first offer a job to the
+ * invoker that produced most of its inputs. The nodes behind an invoker share a local cache, so those inputs may then be read without a round trip to the shared value cache. The producers are
+ * looked up, and recorded, by the dispatching thread without holding the dispatcher's monitor; jobs that are retried from the pending queue are offered in round-robin order.
  */
 public class JobDispatcher implements JobInvokerRegister {
 
@@ -36,6 +45,7 @@ public class JobDispatcher implements JobInvokerRegister {
   /* package */static final int DEFAULT_MAX_JOB_ATTEMPTS = 2;
   /* package */static final long DEFAULT_MAX_JOB_EXECUTION_QUERY_TIMEOUT = 5000;
   /* package */static final String DEFAULT_JOB_FAILURE_NODE_ID = "NOT EXECUTED";
+  /* package */static final int DEFAULT_MAX_PRODUCERS = 100000;
 
   private final Queue<DispatchableJob> _pending = new LinkedList<DispatchableJob>();
   private final Queue<JobInvoker> _invokers = new ConcurrentLinkedQueue<JobInvoker>();
@@ -58,6 +68,15 @@ public class JobDispatcher implements JobInvokerRegister {
   private ScheduledThreadPoolExecutor _jobTimeoutExecutor;
   private CalculationNodeStatisticsGatherer _statisticsGatherer = new DiscardingNodeStatisticsGatherer();
   private FunctionBlacklistMaintainer _blacklistUpdate = new DummyFunctionBlacklistMaintainer();
+  /**
+   * The invoker that most recently accepted a job producing each value, or null if locality awareness is disabled.
+   */
+  private volatile Map<ValueSpecification, JobInvoker> _producers;
+  /**
+   * The jobs accepted by invokers whose outputs have not yet been written to {@link #_producers}.
+   */
+  private final Queue<Pair<CalculationJob, JobInvoker>> _accepted = new ConcurrentLinkedQueue<Pair<CalculationJob, JobInvoker>>();
+  private final AtomicLong _localDispatches = new AtomicLong();
 
   public JobDispatcher() {
   }
@@ -150,6 +169,132 @@ public class JobDispatcher implements JobInvokerRegister {
     return _capabilityRequirementsProvider;
   }
 
+  private static Map<ValueSpecification, JobInvoker> createProducers(final int maxProducers) {
+    return CacheBuilder.newBuilder().maximumSize(maxProducers).weakValues().<ValueSpecification, JobInvoker>build().asMap();
+  }
+
+  public boolean isLocalityAware() {
+    return _producers != null;
+  }
+
+  /**
+   * Sets whether jobs should be offered to the invoker that produced their inputs before the others are tried. This is disabled by default.
+   * 
+   * @param localityAware true to prefer the invokers that produced a job's inputs, false for strict round-robin dispatch
+   */
+  public void setLocalityAware(final boolean localityAware) {
+    if (localityAware) {
+      if (_producers == null) {
+        _producers = createProducers(DEFAULT_MAX_PRODUCERS);
+      }
+    } else {
+      _producers = null;
+      _accepted.clear();
+    }
+  }
+
+  /**
+   * Sets the maximum number of values to remember the producing invoker for when locality awareness is enabled. The least recently used values are forgotten first.
+   * 
+   * @param maxProducers the maximum number of values, greater than zero
+   */
+  public void setMaxProducers(final int maxProducers) {
+    ArgumentChecker.notNegativeOrZero(maxProducers, "maxProducers");
+    _producers = createProducers(maxProducers);
+  }
+
+  /**
+   * Returns the number of jobs that have been accepted by the invoker that produced their inputs.
+   * 
+   * @return the number of jobs dispatched to a preferred invoker
+   */
+  public long getLocalDispatches() {
+    return _localDispatches.get();
+  }
+
+  /**
+   * Notes the invoker that has accepted a job, and any tails, as the producer of its outputs. This may be called with the monitor held so the job is only queued; the outputs are recorded by
+   * {@link #recordAcceptedJobs} from the next dispatch.
+   * 
+   * @param job the job accepted, not null
+   * @param jobInvoker the invoker that accepted it, not null
+   */
+  /* package */void jobAccepted(final CalculationJob job, final JobInvoker jobInvoker) {
+    if (_producers != null) {
+      _accepted.add(Pairs.of(job, jobInvoker));
+    }
+  }
+
+  /**
+   * Records the outputs of the jobs queued by {@link #jobAccepted}. The caller must not hold the monitor.
+   */
+  private void recordAcceptedJobs() {
+    final Map<ValueSpecification, JobInvoker> producers = _producers;
+    Pair<CalculationJob, JobInvoker> accepted = _accepted.poll();
+    while (accepted != null) {
+      if (producers != null) {
+        recordProducer(producers, accepted.getFirst(), accepted.getSecond());
+      }
+      accepted = _accepted.poll();
+    }
+  }
+
+  private static void recordProducer(final Map<ValueSpecification, JobInvoker> producers, final CalculationJob job, final JobInvoker jobInvoker) {
+    for (CalculationJobItem item : job.getJobItems()) {
+      final ValueSpecification[] outputs = item.getOutputs();
+      if (outputs != null) {
+        for (ValueSpecification output : outputs) {
+          producers.put(output, jobInvoker);
+        }
+      }
+    }
+    final Collection<CalculationJob> tails = job.getTail();
+    if (tails != null) {
+      for (CalculationJob tail : tails) {
+        recordProducer(producers, tail, jobInvoker);
+      }
+    }
+  }
+
+  /**
+   * Finds the invoker that produced the greatest number of a job's inputs. The caller must not hold the monitor.
+   * 
+   * @param job the job to be dispatched, not null
+   * @return the invoker, or null if there is no preference
+   */
+  private JobInvoker getPreferredInvoker(final CalculationJob job) {
+    final Map<ValueSpecification, JobInvoker> producers = _producers;
+    if ((producers == null) || producers.isEmpty()) {
+      return null;
+    }
+    Map<JobInvoker, Integer> votes = null;
+    JobInvoker preferred = null;
+    int preferredVotes = 0;
+    for (CalculationJobItem item : job.getJobItems()) {
+      final ValueSpecification[] inputs = item.getInputs();
+      if (inputs == null) {
+        continue;
+      }
+      for (ValueSpecification input : inputs) {
+        final JobInvoker producer = producers.get(input);
+        if (producer == null) {
+          continue;
+        }
+        if (votes == null) {
+          votes = new HashMap<JobInvoker, Integer>();
+        }
+        final Integer previous = votes.get(producer);
+        final int count = (previous == null) ? 1 : previous + 1;
+        votes.put(producer, count);
+        if (count > preferredVotes) {
+          preferred = producer;
+          preferredVotes = count;
+        }
+      }
+    }
+    return preferred;
+  }
+
   protected Queue<DispatchableJob> getPending() {
     return _pending;
   }
@@ -179,7 +324,7 @@ public class JobDispatcher implements JobInvokerRegister {
     final Iterator<DispatchableJob> iterator = getPending().iterator();
     while (iterator.hasNext()) {
       final DispatchableJob job = iterator.next();
-      if (invoke(job)) {
+      if (invoke(job, null)) {
         iterator.remove();
       } else {
         if (failJobsBefore <= 0) {
@@ -200,11 +345,26 @@ public class JobDispatcher implements JobInvokerRegister {
   // TODO [ENG-42] job dispatch should not be O(n) on number of invokers; the caching of capabilities should allow a nearer O(1) selection
 
   // caller must already own monitor
-  private boolean invoke(final DispatchableJob job) {
+  private boolean invoke(final DispatchableJob job, final JobInvoker preferred) {
     if (job.isCompleted()) {
       s_logger.info("Job {} cancelled", job);
       return true;
     }
+    if ((preferred != null) && job.canRunOn(preferred) && getInvokers().remove(preferred)) {
+      if (job.runOn(preferred)) {
+        s_logger.debug("Preferred invoker {} accepted job {}", preferred, job);
+        _localDispatches.incrementAndGet();
+        // put invoker to the end of the list
+        getInvokers().add(preferred);
+        return true;
+      } else {
+        s_logger.debug("Preferred invoker {} refused to execute job {}", preferred, job);
+        if (preferred.notifyWhenAvailable(this)) {
+          s_logger.info("Invoker {} requested immediate retry", preferred);
+          getInvokers().add(preferred);
+        }
+      }
+    }
     Collection<JobInvoker> retry = null;
     do {
       final Iterator<JobInvoker> iterator = getInvokers().iterator();
@@ -241,14 +401,24 @@ public class JobDispatcher implements JobInvokerRegister {
     return false;
   }
 
-  protected synchronized void dispatchJobImpl(final DispatchableJob job) {
-    if (!invoke(job)) {
-      s_logger.debug("Adding job to pending set");
-      getPending().add(job);
-      if (getInvokers() != null) {
-        retryPending(0L);
+  protected void dispatchJobImpl(final DispatchableJob job) {
+    JobInvoker preferred = null;
+    if (_producers != null) {
+      recordAcceptedJobs();
+      preferred = getPreferredInvoker(job.getJob());
+    }
+    synchronized (this) {
+      if (!invoke(job, preferred)) {
+        s_logger.debug("Adding job to pending set");
+        getPending().add(job);
+        if (getInvokers() != null) {
+          retryPending(0L);
+        }
       }
     }
+    if (_producers != null) {
+      recordAcceptedJobs();
+    }
   }
 
   /**
@@ -121,6 +121,8 @@ public class RemoteNodeClient extends SimpleCalculationNodeInvocationContainer i
     statistics.setExecutorService(getExecutorService());
     statistics.setFudgeMessageSender(connection.getFudgeMessageSender());
     connection.setFudgeMessageReceiver(this);
+    // Values from the shared cache are held locally, so fetch them for queued jobs while the nodes are busy
+    setPrefetchInputs(true);
     try {
       setHostId(Inet4Address.getLocalHost().getHostName());
     } catch (UnknownHostException e) {
@@ -8,9 +8,7 @@ package com.opengamma.engine.calcnode;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
@@ -48,6 +46,7 @@ import com.opengamma.transport.FudgeConnection;
 import com.opengamma.transport.FudgeConnectionStateListener;
 import com.opengamma.transport.FudgeMessageReceiver;
 import com.opengamma.transport.FudgeMessageSender;
+import com.opengamma.util.ArgumentChecker;
 
 /**
  * A JobInvoker for invoking a job on a remote node connected by a FudgeConnection.
@@ -92,6 +91,7 @@ import com.opengamma.transport.FudgeMessageSender;
   private final FudgeMessageSender _fudgeMessageSender;
   private final CapabilitySet _capabilitySet = new CapabilitySet();
   private volatile int _capacity;
+  private final int _pipelineDepth;
   private final AtomicInteger _launched = new AtomicInteger();
   private final AtomicReference<JobInvokerRegister> _dispatchCallback = new AtomicReference<JobInvokerRegister>();
   private final IdentifierMap _identifierMap;
@@ -147,7 +147,8 @@ import com.opengamma.transport.FudgeMessageSender;
       s_logger.debug("Remote invoker ready message - {}", message);
       getCapabilitySet().setParameterCapability(PlatformCapabilities.NODE_COUNT, message.getCapacity());
       // [ENG-42] this is where we'd detect any other capability changes
-      _capacity = message.getCapacity();
+      // Keep additional jobs queued at the remote node so that its calculation nodes don't idle waiting for the next dispatch
+      _capacity = message.getCapacity() * (1 + _pipelineDepth);
       final int launched = _launched.get();
       if (launched < 0) {
         // An additional decrement can happen if there is an error in the original job dispatch
@@ -191,6 +192,27 @@ import com.opengamma.transport.FudgeMessageSender;
       final ExecutorService executorService, final Ready initialMessage, final FudgeConnection fudgeConnection,
       final IdentifierMap identifierMap, final FunctionCosts functionCosts, final FunctionBlacklistQuery blacklistQuery,
       final FunctionBlacklistMaintainer blacklistUpdate) {
+    this(executorService, initialMessage, fudgeConnection, identifierMap, functionCosts, blacklistQuery, blacklistUpdate, 0);
+  }
+
+  /**
+   * Creates a new invoker.
+   * 
+   * @param executorService the executor for outgoing job serialization and I/O, not null
+   * @param initialMessage the initial ready message from the remote node, not null
+   * @param fudgeConnection the connection to the remote node, not null
+   * @param identifierMap the identifier map for encoding the jobs and decoding the results, not null
+   * @param functionCosts the function cost statistics, not null
+   * @param blacklistQuery the blacklist to apply to job items, not null
+   * @param blacklistUpdate the blacklist to update with failed job items, not null
+   * @param pipelineDepth the number of jobs to keep queued at the remote node for each of its calculation nodes in addition to the one executing, zero for none
+   */
+  public RemoteNodeJobInvoker(
+      final ExecutorService executorService, final Ready initialMessage, final FudgeConnection fudgeConnection,
+      final IdentifierMap identifierMap, final FunctionCosts functionCosts, final FunctionBlacklistQuery blacklistQuery,
+      final FunctionBlacklistMaintainer blacklistUpdate, final int pipelineDepth) {
+    ArgumentChecker.isTrue(pipelineDepth >= 0, "pipelineDepth");
+    _pipelineDepth = pipelineDepth;
     _executorService = executorService;
     _fudgeMessageSender = fudgeConnection.getFudgeMessageSender();
     _identifierMap = identifierMap;
@@ -217,6 +239,15 @@ import com.opengamma.transport.FudgeMessageSender;
     return getCapabilitySet().getCapabilities();
   }
 
+  /**
+   * Returns the number of jobs kept queued at the remote node for each of its calculation nodes in addition to the one executing.
+   * 
+   * @return the pipeline depth
+   */
+  public int getPipelineDepth() {
+    return _pipelineDepth;
+  }
+
   private ConcurrentMap<CalculationJobSpecification, JobInfo> getPendingJobs() {
     return _pendingJobs;
   }
@@ -315,26 +346,26 @@ import com.opengamma.transport.FudgeMessageSender;
 
       private void sendJob(final CalculationJob job) throws Exception {
         getPendingJobs().put(job.getSpecification(), new JobInfo(receiver, job));
-        AbstractIdentifierMap.convertIdentifiers(getIdentifierMap(), job);
         sendMessage(new Execute(blacklist(getBlacklistQuery(), job)));
       }
 
       @Override
       public void run() {
-        // Breadth first sending of jobs, just in case some can start before we've sent everything
         try {
-          sendJob(rootJob);
-          if (rootJob.getTail() != null) {
-            final Queue<CalculationJob> jobs = new LinkedList<CalculationJob>(rootJob.getTail());
-            CalculationJob job = jobs.poll();
-            while (job != null) {
-              sendJob(job);
-              if (job.getTail() != null) {
-                jobs.addAll(job.getTail());
-              }
-              job = jobs.poll();
+          // Flatten the job tree so that its identifiers can be converted together. Nothing is sent until the whole tree has been
+          // converted; jobs are then sent in breadth first order so that the root job is first.
+          final List<CalculationJob> jobs = new ArrayList<CalculationJob>();
+          jobs.add(rootJob);
+          for (int i = 0; i < jobs.size(); i++) {
+            final Collection<CalculationJob> tail = jobs.get(i).getTail();
+            if (tail != null) {
+              jobs.addAll(tail);
             }
           }
+          AbstractIdentifierMap.convertIdentifiers(getIdentifierMap(), jobs);
+          for (CalculationJob job : jobs) {
+            sendJob(job);
+          }
         } catch (Exception e) {
           s_logger.warn("Error sending job {}", rootJob.getSpecification().getJobId());
           jobFailed(receiver, rootJob, "node on " + getInvokerId(), e);
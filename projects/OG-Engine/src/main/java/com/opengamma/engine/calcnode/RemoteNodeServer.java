@@ -40,6 +40,7 @@ import com.opengamma.engine.function.blacklist.MultipleFunctionBlacklistMaintain
 import com.opengamma.engine.function.blacklist.MultipleFunctionBlacklistQuery;
 import com.opengamma.transport.FudgeConnection;
 import com.opengamma.transport.FudgeConnectionReceiver;
+import com.opengamma.util.ArgumentChecker;
 
 /**
  * Server end to RemoteNodeClient to receive requests from remote calculation nodes and marshal
@@ -264,6 +265,7 @@ public class RemoteNodeServer implements FudgeConnectionReceiver {
   private Set<Capability> _capabilitiesToAdd;
   private FunctionBlacklistMaintainerProvider _blacklistUpdate;
   private FunctionBlacklistQueryProvider _blacklistQuery;
+  private int _pipelineDepth;
 
   public RemoteNodeServer(final JobInvokerRegister jobInvokerRegister, final IdentifierMap identifierMap,
       final FunctionCosts functionCosts, final FunctionCompilationContext functionCompilationContext) {
@@ -345,6 +347,26 @@ public class RemoteNodeServer implements FudgeConnectionReceiver {
     return new DummyFunctionBlacklistQuery();
   }
 
+  /**
+   * Returns the number of jobs to keep queued at each remote calculation node in addition to the one it is executing.
+   * 
+   * @return the pipeline depth
+   */
+  public int getPipelineDepth() {
+    return _pipelineDepth;
+  }
+
+  /**
+   * Sets the number of jobs to keep queued at each remote calculation node in addition to the one it is executing. A non-zero value means a node can start its next job as soon as the previous one
+   * completes rather than waiting for the result to reach the dispatcher and another job to be sent. Too high a value will reduce the dispatcher's ability to balance work between nodes.
+   * 
+   * @param pipelineDepth the pipeline depth, zero for none
+   */
+  public void setPipelineDepth(final int pipelineDepth) {
+    ArgumentChecker.isTrue(pipelineDepth >= 0, "pipelineDepth");
+    _pipelineDepth = pipelineDepth;
+  }
+
   protected JobInvokerRegister getJobInvokerRegister() {
     return _jobInvokerRegister;
   }
@@ -380,7 +402,7 @@ public class RemoteNodeServer implements FudgeConnectionReceiver {
       protected void visitReadyMessage(final Ready message) {
         s_logger.info("Remote node {} connected - {}", message.getHostId(), connection);
         final RemoteNodeJobInvoker invoker = new RemoteNodeJobInvoker(getExecutorService(), message, connection, getIdentifierMap(), getFunctionCosts(), getBlacklistQuery(message.getHostId()),
-            getBlacklistUpdate(message.getHostId()));
+            getBlacklistUpdate(message.getHostId()), getPipelineDepth());
         if (_capabilitiesToAdd != null) {
           invoker.addCapabilities(_capabilitiesToAdd);
         }
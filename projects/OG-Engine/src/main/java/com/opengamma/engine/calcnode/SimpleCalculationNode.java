@@ -7,7 +7,9 @@ package com.opengamma.engine.calcnode;
 
 import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -26,6 +28,7 @@ import com.google.common.collect.Sets;
 import com.opengamma.engine.ComputationTarget;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.DefaultViewComputationCache;
 import com.opengamma.engine.cache.DeferredViewComputationCache;
 import com.opengamma.engine.cache.DirectWriteViewComputationCache;
 import com.opengamma.engine.cache.MissingOutput;
@@ -33,11 +36,13 @@ import com.opengamma.engine.cache.ViewComputationCache;
 import com.opengamma.engine.cache.ViewComputationCacheSource;
 import com.opengamma.engine.cache.WriteBehindViewComputationCache;
 import com.opengamma.engine.calcnode.stats.FunctionInvocationStatisticsGatherer;
+import com.opengamma.engine.function.CompiledFunctionDefinition;
 import com.opengamma.engine.function.CompiledFunctionService;
 import com.opengamma.engine.function.FunctionExecutionContext;
 import com.opengamma.engine.function.FunctionInputs;
 import com.opengamma.engine.function.FunctionInputsImpl;
 import com.opengamma.engine.function.FunctionInvoker;
+import com.opengamma.engine.function.MemoizableFunction;
 import com.opengamma.engine.function.TargetSourcingFunction;
 import com.opengamma.engine.function.blacklist.DummyFunctionBlacklistMaintainer;
 import com.opengamma.engine.function.blacklist.DummyFunctionBlacklistQuery;
@@ -123,6 +128,11 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
   private static final String ERROR_BAD_FUNCTION = "com.opengamma.engine.calcnode.InvalidFunctionException";
   private static final String ERROR_INVOKING = "com.opengamma.engine.calcnode.InvalidInvocationException";
 
+  /**
+   * Size, in bytes, assumed for a memoized result value that the value cache has no estimate for.
+   */
+  private static final int UNKNOWN_VALUE_SIZE = 1024;
+
   private static final Logger s_logger = LoggerFactory.getLogger(SimpleCalculationNode.class);
   private static int s_nodeUniqueID;
 
@@ -145,6 +155,7 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
   private FunctionBlacklistQuery _blacklistQuery = new DummyFunctionBlacklistQuery();
   private FunctionBlacklistMaintainer _blacklistUpdate = new DummyFunctionBlacklistMaintainer();
   private MaximumJobItemExecutionWatchdog _maxJobItemExecution = new MaximumJobItemExecutionWatchdog();
+  private FunctionResultCache _functionResultCache;
 
   public SimpleCalculationNode(final ViewComputationCacheSource cacheSource, final CompiledFunctionService functionCompilationService,
       final FunctionExecutionContext functionExecutionContext, final String nodeId, final ExecutorService executorService, final FunctionInvocationStatisticsGatherer functionInvocationStatistics,
@@ -283,6 +294,19 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     return _maxJobItemExecution;
   }
 
+  /**
+   * Sets the cache to use for the results of {@link MemoizableFunction} invocations. The same cache may be shared by all nodes in the process.
+   * 
+   * @param functionResultCache the cache to use, or null to always invoke functions
+   */
+  public void setFunctionResultCache(final FunctionResultCache functionResultCache) {
+    _functionResultCache = functionResultCache;
+  }
+
+  public FunctionResultCache getFunctionResultCache() {
+    return _functionResultCache;
+  }
+
   public CalculationNodeLogEventListener getLogListener() {
     return _logListener;
   }
@@ -302,6 +326,40 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
     return sb.toString();
   }
 
+  /**
+   * Fetches the shared values a job will need into any caching layer in front of the shared value cache. This may be called for a job that is waiting to run while this, or another, node is
+   * executing an earlier job so that the inputs are available locally when it starts. Values produced by items of the job itself are not fetched.
+   * 
+   * @param job the job that will be executed, not null
+   */
+  public void prefetchInputs(final CalculationJob job) {
+    final ViewComputationCache cache = getCache(job.getSpecification());
+    if (!(cache instanceof DefaultViewComputationCache)) {
+      // Nothing to gain from fetching values that would then be discarded
+      return;
+    }
+    final Set<ValueSpecification> outputs = new HashSet<ValueSpecification>();
+    final Set<ValueSpecification> inputs = new HashSet<ValueSpecification>();
+    for (final CalculationJobItem jobItem : job.getJobItems()) {
+      final ValueSpecification[] itemInputs = jobItem.getInputs();
+      if (itemInputs != null) {
+        for (final ValueSpecification input : itemInputs) {
+          if (!outputs.contains(input)) {
+            inputs.add(input);
+          }
+        }
+      }
+      final ValueSpecification[] itemOutputs = jobItem.getOutputs();
+      if (itemOutputs != null) {
+        outputs.addAll(Arrays.asList(itemOutputs));
+      }
+    }
+    if (!inputs.isEmpty()) {
+      s_logger.debug("Prefetching {} inputs for {}", inputs.size(), job);
+      ((DefaultViewComputationCache) cache).prefetchValues(inputs, job.getCacheSelectHint());
+    }
+  }
+
   //-------------------------------------------------------------------------
   private CalculationJobResult executeJobResult(final List<CalculationJobResultItem> resultItems) throws AsynchronousExecution {
     final long executionTime = System.nanoTime() - getExecutionStartTime();
@@ -808,6 +866,18 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
         }
       }
     }
+    FunctionResultCache.Key memoKey = null;
+    if (missing.isEmpty() && isMemoizable(functionUniqueId)) {
+      memoKey = new FunctionResultCache.Key(functionUniqueId, getFunctionExecutionContext().getValuationTime(), getFunctionExecutionContext().getComputationTargetResolver()
+          .getVersionCorrection(), jobItem.getComputationTargetSpecification(), jobItem.getFunctionParameters(), outputs, inputs);
+      final Set<ComputedValue> memoized = getFunctionResultCache().get(memoKey);
+      if (memoized != null) {
+        s_logger.debug("Using memoized result for {}", jobItem);
+        statistics.beginInvocation();
+        invokeResult(invoker, statistics, missing, outputs, memoized, resultItemBuilder);
+        return;
+      }
+    }
     // Execute
     statistics.beginInvocation();
     recordInvocationLoggingInfo(target);
@@ -850,9 +920,29 @@ public class SimpleCalculationNode extends SimpleCalculationNodeState implements
       invokeException(outputs, t, resultItemBuilder);
       return;
     }
+    if ((memoKey != null) && (result != null)) {
+      getFunctionResultCache().put(memoKey, result, inputBytes + estimateResultSize(cache, result));
+    }
     invokeResult(invoker, statistics, missing, outputs, result, resultItemBuilder);
   }
 
+  private boolean isMemoizable(final String functionUniqueId) {
+    if (getFunctionResultCache() == null) {
+      return false;
+    }
+    final CompiledFunctionDefinition function = getFunctions().getDefinition(functionUniqueId);
+    return (function != null) && (function.getFunctionDefinition() instanceof MemoizableFunction);
+  }
+
+  private static long estimateResultSize(final DeferredViewComputationCache cache, final Set<ComputedValue> results) {
+    long bytes = 0;
+    for (ComputedValue result : results) {
+      final Integer size = cache.estimateValueSize(result);
+      bytes += (size != null) ? size : UNKNOWN_VALUE_SIZE;
+    }
+    return bytes;
+  }
+
   private void recordInvocationLoggingInfo(ComputationTarget target) {
     if (target != null && target.getUniqueId() != null) {
       try {      // make target available to logging
@@ -36,6 +36,7 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
   private boolean _useAsynchronousTargetResolve;
   private FunctionBlacklistQuery _blacklistQuery;
   private FunctionBlacklistMaintainer _blacklistUpdate;
+  private FunctionResultCache _functionResultCache;
   private MaximumJobItemExecutionWatchdog _maxJobItemExecution;
   private final ThreadLocalLogEventListener _threadLocalLogListener;
 
@@ -146,6 +147,14 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
     return _maxJobItemExecution;
   }
 
+  public void setFunctionResultCache(final FunctionResultCache functionResultCache) {
+    _functionResultCache = functionResultCache;
+  }
+
+  public FunctionResultCache getFunctionResultCache() {
+    return _functionResultCache;
+  }
+
   public synchronized SimpleCalculationNode createNode() {
     final String identifier;
     if (getNodeIdentifier() != null) {
@@ -168,6 +177,7 @@ public class SimpleCalculationNodeFactory implements InitializingBean {
     if (getMaxJobItemExecution() != null) {
       node.setMaxJobItemExecution(getMaxJobItemExecution());
     }
+    node.setFunctionResultCache(getFunctionResultCache());
     return node;
   }
 
@@ -255,6 +255,13 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
    */
   private final Queue<PartialJobEntry> _partialJobs = new ConcurrentLinkedQueue<PartialJobEntry>();
 
+  /**
+   * Any of the nodes; only its cache source is used, to prefetch the inputs of queued jobs.
+   */
+  private volatile SimpleCalculationNode _prefetchNode;
+
+  private volatile boolean _prefetchInputs;
+
   private ExecutorService _executorService = createExecutorService();
 
   private static ExecutorService createExecutorService() {
@@ -269,6 +276,7 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     ArgumentChecker.notNull(node, "node");
     _nodeCount.incrementAndGet();
     getNodes().add(node);
+    _prefetchNode = node;
     onNodeChange();
   }
 
@@ -276,6 +284,9 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     ArgumentChecker.notNull(nodes, "nodes");
     _nodeCount.addAndGet(nodes.size());
     getNodes().addAll(nodes);
+    if (!nodes.isEmpty()) {
+      _prefetchNode = nodes.iterator().next();
+    }
     onNodeChange();
   }
 
@@ -284,6 +295,7 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     getNodes().clear();
     _nodeCount.set(1);
     getNodes().add(node);
+    _prefetchNode = node;
     onNodeChange();
   }
 
@@ -292,6 +304,7 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     getNodes().clear();
     _nodeCount.set(nodes.size());
     getNodes().addAll(nodes);
+    _prefetchNode = nodes.isEmpty() ? null : nodes.iterator().next();
     onNodeChange();
   }
 
@@ -355,6 +368,20 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     return _partialJobs.size();
   }
 
+  public boolean isPrefetchInputs() {
+    return _prefetchInputs;
+  }
+
+  /**
+   * Sets whether the inputs of jobs that must wait for a node should be fetched while the earlier jobs execute. This is only worthwhile if there is a local caching layer in front of a remote
+   * shared value cache; the fetched values are held there until the job starts.
+   * 
+   * @param prefetchInputs true to prefetch the inputs of queued jobs, false otherwise
+   */
+  public void setPrefetchInputs(final boolean prefetchInputs) {
+    _prefetchInputs = prefetchInputs;
+  }
+
   protected abstract void onNodeChange();
 
   protected void onJobExecutionComplete() {
@@ -390,6 +417,7 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
           if (node == null) {
             s_logger.debug("Adding job {} to runnable queue", jobexec.getJob().getSpecification().getJobId());
             _runnableJobs.add(jobexec);
+            prefetchInputs(jobexec.getJob());
             return;
           }
         }
@@ -405,6 +433,30 @@ public abstract class SimpleCalculationNodeInvocationContainer implements Lifecy
     });
   }
 
+  /**
+   * Starts fetching the inputs of a job that has been queued, if enabled, so that they are available locally by the time a node is free.
+   */
+  private void prefetchInputs(final CalculationJob job) {
+    final SimpleCalculationNode node = _prefetchNode;
+    if (!isPrefetchInputs() || (node == null)) {
+      return;
+    }
+    getExecutorService().execute(new Runnable() {
+      @Override
+      public void run() {
+        if (job.isCancelled()) {
+          return;
+        }
+        try {
+          node.prefetchInputs(job);
+        } catch (RuntimeException e) {
+          // The job will fetch anything missing when it runs
+          s_logger.warn("Couldn't prefetch inputs for {}: {}", job, e.getMessage());
+        }
+      }
+    });
+  }
+
   private void spawnOrQueueJob(final PartialJobEntry jobexec) {
     SimpleCalculationNode node = getNodes().poll();
     if (node == null) {
@@ -6,6 +6,9 @@
 package com.opengamma.engine.depgraph;
 
 import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,18 +17,76 @@ import com.google.common.base.Supplier;
 
 /**
  * Estimates the percentage completion of the graph build.
+ * <p>
+ * The time spent in each {@link Phase} of the build is also recorded, as observed by calls to {@link #get}. The timings are only as accurate as the frequency with which the estimate is polled.
  */
 /* package */final class BuildFractionEstimate implements Supplier<Double> {
 
+  /**
+   * The phases of a graph build.
+   */
+  public static enum Phase {
+    /**
+     * No steps have been scheduled or completed yet.
+     */
+    WAITING,
+    /**
+     * Steps are being scheduled and completed.
+     */
+    RESOLVING,
+    /**
+     * All scheduled steps have completed but the builder is still finishing off; for example running deferred steps or aborting loops.
+     */
+    FINISHING,
+    /**
+     * The graph has been built.
+     */
+    COMPLETE
+  }
+
   private static final Logger s_logger = LoggerFactory.getLogger(BuildFractionEstimate.class);
 
   private final WeakReference<DependencyGraphBuilder> _builder;
+  private final Map<Phase, Long> _phaseTimes = new EnumMap<Phase, Long>(Phase.class);
   private long _maxRemaining;
+  private Phase _phase;
+  private long _phaseStart;
 
   public BuildFractionEstimate(final DependencyGraphBuilder builder) {
     _builder = new WeakReference<DependencyGraphBuilder>(builder);
   }
 
+  /**
+   * Returns the time spent in each of the phases observed so far. The current phase includes the time up to the last call to {@link #get}.
+   * 
+   * @return the phase timings in milliseconds, not null
+   */
+  public synchronized Map<Phase, Long> getPhaseTimings() {
+    final Map<Phase, Long> result = new EnumMap<Phase, Long>(Phase.class);
+    for (final Map.Entry<Phase, Long> phaseTime : _phaseTimes.entrySet()) {
+      result.put(phaseTime.getKey(), TimeUnit.NANOSECONDS.toMillis(phaseTime.getValue()));
+    }
+    return result;
+  }
+
+  private synchronized void phase(final Phase phase) {
+    final long now = System.nanoTime();
+    if ((_phase != null) && (_phase != Phase.COMPLETE)) {
+      final Long time = _phaseTimes.get(_phase);
+      _phaseTimes.put(_phase, ((time != null) ? time : 0L) + (now - _phaseStart));
+    }
+    if (_phase != phase) {
+      if ((_phase != null) && (_phase != Phase.COMPLETE)) {
+        s_logger.info("Graph build phase {} after {}ms in {}", new Object[] {phase, TimeUnit.NANOSECONDS.toMillis(_phaseTimes.get(_phase)), _phase });
+      }
+      if (phase == Phase.COMPLETE) {
+        s_logger.info("Graph build phase timings {}", getPhaseTimings());
+      }
+      _phase = phase;
+    }
+    _phaseStart = now;
+  }
+
   @Override
   public Double get() {
     final DependencyGraphBuilder builder = _builder.get();
@@ -37,10 +98,12 @@ import com.google.common.base.Supplier;
     final long completed = builder.getCompletedSteps();
     long scheduled = builder.getScheduledSteps();
     if ((scheduled <= 0) || (completed <= 0)) {
+      phase(Phase.WAITING);
       return 0d;
     }
     while (completed >= scheduled) {
       if (builder.isGraphBuilt()) {
+        phase(Phase.COMPLETE);
         return 1d;
       } else {
         // spin and have another go; scheduled steps will eventually increase
@@ -49,8 +112,10 @@ import com.google.common.base.Supplier;
           // 2^63 overflow
           return 0d;
         }
+        phase(Phase.FINISHING);
       }
     }
+    phase(Phase.RESOLVING);
     s_logger.info("Completed {} of {} scheduled steps", completed, scheduled);
     builder.reportStateSize();
     // TODO: What can we do based on sampling the counters available and applying knowledge of typical graph shapes? Don't want anything too heavyweight.
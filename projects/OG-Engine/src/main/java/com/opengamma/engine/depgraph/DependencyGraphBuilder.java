@@ -132,6 +132,8 @@ public final class DependencyGraphBuilder implements Cancelable {
    */
   private final Housekeeper _contextCleaner = System.getProperty("DependencyGraphBuilder.disableResolutionCacheCleanup", "FALSE").equalsIgnoreCase("FALSE") ? Housekeeper.of(this,
       ResolutionCacheCleanup.INSTANCE) : null;
+  /** Adjusts the number of additional threads to match the available work, null if disabled. See {@link #setAutoTuneJobCount}. */
+  private volatile Housekeeper _jobCountTuner;
   /** The value requirements still pending in the run queue */
   private final PendingRequirements _pendingRequirements = new PendingRequirements(this);
   /** The name of the calculation configuration */
@@ -318,6 +320,38 @@ public final class DependencyGraphBuilder implements Cancelable {
     startBackgroundBuild();
   }
 
+  /**
+   * Sets whether the number of additional threads should be adjusted automatically. When enabled, the value set by {@link #setMaxAdditionalThreads} is used as a starting point and will be increased
+   * while there is a backlog of runnable work (up to the number of processor cores) or decreased if the threads are contending with each other.
+   * 
+   * @param autoTuneJobCount true to enable the automatic adjustment, false to disable
+   */
+  public void setAutoTuneJobCount(final boolean autoTuneJobCount) {
+    if (autoTuneJobCount) {
+      if (_jobCountTuner == null) {
+        _jobCountTuner = Housekeeper.of(this, JobCountTuner.INSTANCE);
+      }
+    } else {
+      _jobCountTuner = null;
+    }
+  }
+
+  public boolean isAutoTuneJobCount() {
+    return _jobCountTuner != null;
+  }
+
+  protected int getActiveJobCount() {
+    return _activeJobCount.get();
+  }
+
+  protected int getRunQueueSize() {
+    return _runQueue.size();
+  }
+
+  protected int getDeferredQueueSize() {
+    return _deferredQueue.size();
+  }
+
   protected int getActiveResolveTasks() {
     return _activeResolveTasks.get();
   }
@@ -624,6 +658,10 @@ public final class DependencyGraphBuilder implements Cancelable {
       if (_contextCleaner != null) {
         _contextCleaner.start();
       }
+      final Housekeeper jobCountTuner = _jobCountTuner;
+      if (jobCountTuner != null) {
+        jobCountTuner.start();
+      }
       boolean jobsLeftToRun;
       int completed = 0;
 
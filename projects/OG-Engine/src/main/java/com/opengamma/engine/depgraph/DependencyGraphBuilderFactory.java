@@ -50,6 +50,7 @@ public class DependencyGraphBuilderFactory {
   private int _maxAdditionalThreadsPerBuilder = DependencyGraphBuilder.getDefaultMaxAdditionalThreads();
   private int _maxAdditionalThreads = DependencyGraphBuilder.getDefaultMaxAdditionalThreads();
   private boolean _enableFailureReporting = System.getProperty("DependencyGraphBuilderFactory.enableFailureReporting", "FALSE").equalsIgnoreCase("TRUE");
+  private boolean _autoTuneJobCount = System.getProperty("DependencyGraphBuilderFactory.autoTuneJobCount", "FALSE").equalsIgnoreCase("TRUE");
   private RunQueueFactory _runQueue = DependencyGraphBuilder.getDefaultRunQueueFactory();
   private FunctionExclusionGroups _functionExclusionGroups;
   private TargetDigests _targetDigests;
@@ -90,6 +91,20 @@ public class DependencyGraphBuilderFactory {
     return _enableFailureReporting;
   }
 
+  /**
+   * Set whether the graph builders should adjust their number of additional threads to match the available work. The value set by {@link #setMaxAdditionalThreadsPerBuilder} is used as the starting
+   * point. The default setting is taken from system property {@code DependencyGraphBuilderFactory.autoTuneJobCount} if set, otherwise it is off.
+   * 
+   * @param autoTuneJobCount true to enable, false to disable
+   */
+  public void setAutoTuneJobCount(final boolean autoTuneJobCount) {
+    _autoTuneJobCount = autoTuneJobCount;
+  }
+
+  public boolean isAutoTuneJobCount() {
+    return _autoTuneJobCount;
+  }
+
   public void setRunQueueFactory(final RunQueueFactory runQueue) {
     _runQueue = runQueue;
   }
@@ -131,6 +146,7 @@ public class DependencyGraphBuilderFactory {
   protected void configureBuilder(final DependencyGraphBuilder builder) {
     builder.setMaxAdditionalThreads(getMaxAdditionalThreadsPerBuilder());
     builder.setDisableFailureReporting(!isEnableFailureReporting());
+    builder.setAutoTuneJobCount(isAutoTuneJobCount());
     builder.setFunctionExclusionGroups(getFunctionExclusionGroups());
     builder.setTargetDigests(getTargetDigests());
     builder.setComputationTargetCollapser(getComputationTargetCollapser());
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tuning task for the number of threads used by the graph builder. Periodically compares the amount of runnable work with the number of active jobs. If there is a backlog of runnable work and all of
+ * the permitted jobs are active then the permitted number is increased, up to the number of processor cores. If the deferred queue is growing faster than the run queue then the building threads are
+ * contending with each other and the permitted number is reduced.
+ */
+/* package */final class JobCountTuner implements Housekeeper.Callback<Void> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final JobCountTuner INSTANCE = new JobCountTuner();
+
+  private static final Logger s_logger = LoggerFactory.getLogger(JobCountTuner.class);
+
+  /**
+   * The upper limit on the number of threads, controlled by the {@code JobCountTuner.maxThreads} property. The default is the number of processor cores.
+   */
+  private static final int MAX_THREADS = Integer.parseInt(System.getProperty("JobCountTuner.maxThreads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+  private JobCountTuner() {
+  }
+
+  /**
+   * Decides the number of additional threads the builder should use from a sample of its state.
+   * 
+   * @param maxThreads the current maximum number of additional threads, greater than zero
+   * @param limit the upper limit on the number of threads
+   * @param activeJobs the number of active jobs
+   * @param runnable the number of runnable steps
+   * @param deferred the number of deferred steps
+   * @return the new maximum number of additional threads, at least one and no more than the limit unless already above it
+   */
+  /* package */static int tune(final int maxThreads, final int limit, final int activeJobs, final int runnable, final int deferred) {
+    if ((deferred > runnable) && (maxThreads > 1)) {
+      return maxThreads - 1;
+    } else if ((runnable > activeJobs) && (activeJobs >= maxThreads) && (maxThreads < limit)) {
+      return maxThreads + 1;
+    } else {
+      return maxThreads;
+    }
+  }
+
+  @Override
+  public boolean tick(final DependencyGraphBuilder builder, final Void data) {
+    final int maxThreads = builder.getMaxAdditionalThreads();
+    if (maxThreads <= 0) {
+      // Background building is disabled; don't override that
+      return true;
+    }
+    final int activeJobs = builder.getActiveJobCount();
+    final int runnable = builder.getRunQueueSize();
+    final int deferred = builder.getDeferredQueueSize();
+    final int tuned = tune(maxThreads, MAX_THREADS, activeJobs, runnable, deferred);
+    if (tuned < maxThreads) {
+      s_logger.info("Reducing threads for {} to {} - {} deferred, {} runnable", new Object[] {builder, tuned, deferred, runnable });
+      builder.setMaxAdditionalThreads(tuned);
+    } else if (tuned > maxThreads) {
+      s_logger.info("Increasing threads for {} to {} - {} active, {} runnable", new Object[] {builder, tuned, activeJobs, runnable });
+      builder.setMaxAdditionalThreads(tuned);
+    } else if (runnable > activeJobs) {
+      builder.startBackgroundBuild();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean cancelled(final DependencyGraphBuilder builder, final Void data) {
+    return false;
+  }
+
+  @Override
+  public boolean completed(final DependencyGraphBuilder builder, final Void data) {
+    // If more work is added the housekeeper will be restarted by the next job
+    return false;
+  }
+
+}
@@ -111,4 +111,29 @@ public abstract class RunQueueFactory {
     };
   }
 
+  /**
+   * Calls {@link #getWorkStealing(int)} with one deque per available processor.
+   *
+   * @return the factory instance
+   */
+  public static RunQueueFactory getWorkStealing() {
+    return getWorkStealing(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates queues with a deque per building thread. Each thread processes its own work in LIFO order, for the same target caching benefits as {@link #getConcurrentStack}, and steals the oldest work
+   * from other threads when its own deque is empty. This avoids the single point of contention of the other concurrent queues and can perform better for large multi-threaded graph builds.
+   *
+   * @param deques the number of deques to create. Threads are allocated to deques in round-robin fashion so this should be at least the number of threads that will be building the graph.
+   * @return the factory instance
+   */
+  public static RunQueueFactory getWorkStealing(final int deques) {
+    return new RunQueueFactory() {
+      @Override
+      protected RunQueue createRunQueue() {
+        return new WorkStealingRunQueue(deques);
+      }
+    };
+  }
+
 }
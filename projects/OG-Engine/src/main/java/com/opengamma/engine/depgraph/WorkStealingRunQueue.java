@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Iterators;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Run queue implementation based on a set of per-thread deques in the style of a fork-join pool. Each thread adds to, and takes from, the tail of its own deque giving LIFO ordering (and the
+ * associated target cache locality of {@link StackRunQueue}) for the work it produces. When its own deque is empty a thread will steal from the head of another thread's deque, taking the oldest
+ * (and typically largest) piece of work. Threads building the graph no longer contend on a single list head which allows more of them to be kept busy.
+ */
+/* package */final class WorkStealingRunQueue implements RunQueue {
+
+  private final Deque<ContextRunnable>[] _deques;
+
+  private final AtomicInteger _nextDeque = new AtomicInteger();
+
+  private final ThreadLocal<Integer> _threadDeque = new ThreadLocal<Integer>() {
+    @Override
+    protected Integer initialValue() {
+      return (_nextDeque.getAndIncrement() & Integer.MAX_VALUE) % _deques.length;
+    }
+  };
+
+  @SuppressWarnings("unchecked")
+  public WorkStealingRunQueue(final int deques) {
+    ArgumentChecker.isTrue(deques > 0, "deques");
+    _deques = new Deque[deques];
+    for (int i = 0; i < deques; i++) {
+      _deques[i] = new ConcurrentLinkedDeque<ContextRunnable>();
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (final Deque<ContextRunnable> deque : _deques) {
+      if (!deque.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (final Deque<ContextRunnable> deque : _deques) {
+      size += deque.size();
+    }
+    return size;
+  }
+
+  @Override
+  public Iterator<ContextRunnable> iterator() {
+    final List<Iterator<ContextRunnable>> iterators = new ArrayList<Iterator<ContextRunnable>>(_deques.length);
+    for (final Deque<ContextRunnable> deque : _deques) {
+      iterators.add(deque.iterator());
+    }
+    return Iterators.concat(iterators.iterator());
+  }
+
+  @Override
+  public void add(final ContextRunnable runnable) {
+    _deques[_threadDeque.get()].addLast(runnable);
+  }
+
+  @Override
+  public ContextRunnable take() {
+    final int home = _threadDeque.get();
+    ContextRunnable runnable = _deques[home].pollLast();
+    if (runnable != null) {
+      return runnable;
+    }
+    // Own deque is empty; steal the oldest item from one of the others
+    for (int i = 1; i < _deques.length; i++) {
+      runnable = _deques[(home + i) % _deques.length].pollFirst();
+      if (runnable != null) {
+        return runnable;
+      }
+    }
+    return null;
+  }
+
+}
@@ -28,6 +28,7 @@ public class DependencyGraphExplorerImpl implements DependencyGraphExplorer {
   private final DependencyGraph _graph;
   private volatile Map<ValueSpecification, DependencyNode> _nodesBySpecification;
   private volatile Set<ComputationTargetSpecification> _allTargets;
+  private volatile DependentNodeIndex _dependentNodeIndex;
 
   public DependencyGraphExplorerImpl(DependencyGraph graph) {
     ArgumentChecker.notNull(graph, "graph");
@@ -108,4 +109,18 @@ public class DependencyGraphExplorerImpl implements DependencyGraphExplorer {
     return targets;
   }
 
+  /**
+   * Returns the reverse adjacency index for the graph, building it if this is the first request.
+   * 
+   * @return the index, not null
+   */
+  public DependentNodeIndex getDependentNodeIndex() {
+    DependentNodeIndex index = _dependentNodeIndex;
+    if (index == null) {
+      index = new DependentNodeIndex(_graph);
+      _dependentNodeIndex = index;
+    }
+    return index;
+  }
+
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+
+/**
+ * Reverse adjacency index for a dependency graph. A {@link DependencyNode} only references its inputs; this index allows the nodes which consume a node's outputs to be found without walking the whole
+ * graph. The index also holds the graph's nodes and its market data sourcing nodes so that callers need not iterate the graph to find them.
+ * <p>
+ * Building the index requires a pass over the whole graph. It is built on demand by, and held with, the {@link DependencyGraphExplorerImpl} for the graph; the node producing a value is found
+ * from the explorer's own lookup.
+ */
+public final class DependentNodeIndex {
+
+  private static final DependencyNode[] NONE = new DependencyNode[0];
+
+  private final Map<DependencyNode, DependencyNode[]> _dependents;
+
+  private final DependencyNode[] _nodes;
+
+  private final DependencyNode[] _marketDataNodes;
+
+  /* package */DependentNodeIndex(final DependencyGraph graph) {
+    final Map<DependencyNode, Collection<DependencyNode>> dependents = Maps.newHashMapWithExpectedSize(graph.getSize());
+    final List<DependencyNode> nodes = new ArrayList<DependencyNode>(graph.getSize());
+    final List<DependencyNode> marketDataNodes = new ArrayList<DependencyNode>();
+    final Iterator<DependencyNode> itr = graph.nodeIterator();
+    while (itr.hasNext()) {
+      final DependencyNode node = itr.next();
+      nodes.add(node);
+      final int count = node.getInputCount();
+      if ((count == 0) && MarketDataSourcingFunction.UNIQUE_ID.equals(node.getFunction().getFunctionId())) {
+        marketDataNodes.add(node);
+      }
+      for (int i = 0; i < count; i++) {
+        final DependencyNode input = node.getInputNode(i);
+        Collection<DependencyNode> inputDependents = dependents.get(input);
+        if (inputDependents == null) {
+          inputDependents = new ArrayList<DependencyNode>(2);
+          dependents.put(input, inputDependents);
+        } else if (inputDependents.contains(node)) {
+          // Consumes more than one output from the same node
+          continue;
+        }
+        inputDependents.add(node);
+      }
+    }
+    _dependents = Maps.newHashMapWithExpectedSize(dependents.size());
+    for (Map.Entry<DependencyNode, Collection<DependencyNode>> entry : dependents.entrySet()) {
+      _dependents.put(entry.getKey(), entry.getValue().toArray(new DependencyNode[entry.getValue().size()]));
+    }
+    _nodes = nodes.toArray(new DependencyNode[nodes.size()]);
+    _marketDataNodes = marketDataNodes.toArray(new DependencyNode[marketDataNodes.size()]);
+  }
+
+  /**
+   * Returns the nodes which consume one or more outputs of the given node.
+   * 
+   * @param node the node to query, not null
+   * @return the dependent nodes, not null and empty if none (e.g. the node is a root)
+   */
+  public DependencyNode[] getDependents(final DependencyNode node) {
+    final DependencyNode[] dependents = _dependents.get(node);
+    return (dependents != null) ? dependents : NONE;
+  }
+
+  /**
+   * Returns all of the nodes in the graph.
+   * 
+   * @return the nodes, not null. The caller must not modify the array.
+   */
+  public DependencyNode[] getNodes() {
+    return _nodes;
+  }
+
+  /**
+   * Returns the nodes in the graph which source market data.
+   * 
+   * @return the market data nodes, not null. The caller must not modify the array.
+   */
+  public DependencyNode[] getMarketDataNodes() {
+    return _marketDataNodes;
+  }
+
+  /**
+   * Adds the given nodes, and all nodes which are dependent on them either directly or indirectly, to a set.
+   * 
+   * @param nodes the nodes to start from, not null
+   * @param result the set to add the nodes to, not null. Nodes already in the set are assumed to have had their dependents added already.
+   */
+  public void addDependents(final Collection<DependencyNode> nodes, final Set<DependencyNode> result) {
+    final List<DependencyNode> pending = new ArrayList<DependencyNode>(nodes);
+    while (!pending.isEmpty()) {
+      final DependencyNode node = pending.remove(pending.size() - 1);
+      if (result.add(node)) {
+        for (DependencyNode dependent : getDependents(node)) {
+          pending.add(dependent);
+        }
+      }
+    }
+  }
+
+}
@@ -54,6 +54,29 @@ public abstract class RootDiscardingSubgrapher {
    */
   protected abstract boolean acceptNode(DependencyNode node);
 
+  /**
+   * Combines a number of filters into one that only accepts nodes that pass all of them. This gives the same result as applying each in turn but requires only a single traversal of the graph.
+   * 
+   * @param filters the filters to combine, not null and not containing null
+   * @return the combined filter, not null
+   */
+  public static RootDiscardingSubgrapher and(final RootDiscardingSubgrapher... filters) {
+    if (filters.length == 1) {
+      return filters[0];
+    }
+    return new RootDiscardingSubgrapher() {
+      @Override
+      protected boolean acceptNode(final DependencyNode node) {
+        for (RootDiscardingSubgrapher filter : filters) {
+          if (!filter.acceptNode(node)) {
+            return false;
+          }
+        }
+        return true;
+      }
+    };
+  }
+
   private NodeState acceptNode(final DependencyNode node, final Map<DependencyNode, NodeState> accepted) {
     NodeState state = accepted.get(node);
     if (state != null) {
@@ -263,6 +263,7 @@ public class PlanExecutor implements JobResultReceiver, Cancelable, DependencyGr
         if (_notifyLock.compareAndSet(0, -1)) {
           final long duration = notifyComplete();
           getStatisticsGatherer().graphExecuted(graph.getCalculationConfiguration(), _nodeCount, _executionTime, duration);
+          getStatisticsGatherer().graphScheduled(graph.getCalculationConfiguration(), graph.getPeakExecutableJobs(), graph.getContendedCompletions());
         }
       }
     }
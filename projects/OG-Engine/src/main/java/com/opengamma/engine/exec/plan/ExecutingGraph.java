@@ -5,10 +5,13 @@
  */
 package com.opengamma.engine.exec.plan;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.threeten.bp.Instant;
 
@@ -21,6 +24,8 @@ import com.opengamma.util.ArgumentChecker;
 
 /**
  * Holds the state corresponding to a current graph execution. The state is capable of delivering executable jobs by tracking when all dependant jobs have completed.
+ * <p>
+ * The state is updated without locking; job completion notifications from many calculation node threads decrement per-job counters and feed a concurrent queue of executable jobs.
  */
 public class ExecutingGraph {
 
@@ -56,20 +61,62 @@ public class ExecutingGraph {
   private static final class BlockedJobInfo {
 
     private final PlannedJob _job;
-    private int _waitingFor;
+    private final AtomicInteger _waitingFor;
 
     public BlockedJobInfo(final PlannedJob job) {
       _job = job;
-      _waitingFor = job.getInputJobCount();
+      _waitingFor = new AtomicInteger(job.getInputJobCount());
     }
 
     public PlannedJob getJob() {
-      assert _waitingFor == 0;
+      assert _waitingFor.get() == 0;
       return _job;
     }
 
     public boolean unblock() {
-      return --_waitingFor == 0;
+      return _waitingFor.decrementAndGet() == 0;
+    }
+
+  }
+
+  private static final BlockedJobInfo[] NO_DEPENDENTS = new BlockedJobInfo[0];
+
+  /**
+   * A job that is available for execution.
+   */
+  private static final class ExecutableJobInfo implements Comparable<ExecutableJobInfo> {
+
+    private final PlannedJob _job;
+    private final long _sequence;
+
+    public ExecutableJobInfo(final PlannedJob job, final long sequence) {
+      _job = job;
+      _sequence = sequence;
+    }
+
+    public PlannedJob getJob() {
+      return _job;
+    }
+
+    /**
+     * Orders the jobs so that those with the longest critical path come first. Jobs with equal cost are ordered with the most recently available first; an executed job's dependents will then tend to
+     * run while their inputs are still in the cache.
+     */
+    @Override
+    public int compareTo(final ExecutableJobInfo other) {
+      final long cost = _job.getCriticalPathCost();
+      final long otherCost = other._job.getCriticalPathCost();
+      if (cost > otherCost) {
+        return -1;
+      } else if (cost < otherCost) {
+        return 1;
+      }
+      if (_sequence > other._sequence) {
+        return -1;
+      } else if (_sequence < other._sequence) {
+        return 1;
+      }
+      return 0;
     }
 
   }
@@ -78,9 +125,18 @@ public class ExecutingGraph {
   private final UniqueId _cycleId;
   private final Instant _valuationTime;
   private final VersionCorrection _resolverVersionCorrection;
-  private final List<PlannedJob> _executable;
-  private final Map<PlannedJob, BlockedJobInfo> _blocked;
-  private final Map<CalculationJobSpecification, BlockedJobInfo[]> _executing;
+  private final ConcurrentSkipListSet<ExecutableJobInfo> _executable;
+  private final AtomicLong _executableSequence = new AtomicLong();
+  private final ConcurrentMap<PlannedJob, BlockedJobInfo> _blocked;
+  private final ConcurrentMap<CalculationJobSpecification, BlockedJobInfo[]> _executing;
+  /**
+   * The number of jobs that are executable, or executing, and have not yet been signaled as complete. Blocked jobs are not counted; they can only become executable when one of these completes.
+   */
+  private final AtomicInteger _outstanding = new AtomicInteger();
+  private final AtomicInteger _executableCount = new AtomicInteger();
+  private final AtomicInteger _peakExecutableCount = new AtomicInteger();
+  private final AtomicInteger _activeCompletions = new AtomicInteger();
+  private final AtomicInteger _contendedCompletions = new AtomicInteger();
 
   /**
    * Creates a new execution state.
@@ -99,9 +155,12 @@ public class ExecutingGraph {
     _cycleId = cycleId;
     _valuationTime = valuationTime;
     _resolverVersionCorrection = resolverVersionCorrection;
-    _executable = new ArrayList<PlannedJob>(plan.getLeafJobs());
-    _blocked = new HashMap<PlannedJob, BlockedJobInfo>();
-    _executing = new HashMap<CalculationJobSpecification, BlockedJobInfo[]>();
+    _executable = new ConcurrentSkipListSet<ExecutableJobInfo>();
+    for (PlannedJob job : plan.getLeafJobs()) {
+      addExecutableJob(job);
+    }
+    _blocked = new ConcurrentHashMap<PlannedJob, BlockedJobInfo>();
+    _executing = new ConcurrentHashMap<CalculationJobSpecification, BlockedJobInfo[]>();
   }
 
   protected GraphExecutionPlan getPlan() {
@@ -141,8 +200,6 @@ public class ExecutingGraph {
 
   /**
    * Creates an actual calculation job from a planned job that is destined for "tail" execution.
-   * <p>
-   * The caller must already hold the synchronisation lock.
    * 
    * @param planned the planned job, not null
    * @param jobInfo the map containing information about the tail job set
@@ -151,6 +208,7 @@ public class ExecutingGraph {
   protected CalculationJob createTailCalculationJob(final PlannedJob planned, final Map<PlannedJob, TailJobInfo> jobInfo) {
     final long[] requiredJobIds = jobInfo.get(planned).getRequiredJobIds();
     final CalculationJob actual = planned.createCalculationJob(createJobSpecification(), getFunctionInitializationId(), getResolverVersionCorrection(), requiredJobIds);
+    _outstanding.incrementAndGet();
     addDependentCalculationJobs(actual, planned);
     addTailCalculationJobs(actual, planned, jobInfo);
     return actual;
@@ -171,13 +229,16 @@ public class ExecutingGraph {
         BlockedJobInfo dependentInfo = _blocked.get(dependent);
         if (dependentInfo == null) {
           dependentInfo = new BlockedJobInfo(dependent);
-          _blocked.put(dependent, dependentInfo);
+          final BlockedJobInfo existing = _blocked.putIfAbsent(dependent, dependentInfo);
+          if (existing != null) {
+            dependentInfo = existing;
+          }
         }
         dependentsInfo[i] = dependentInfo;
       }
       _executing.put(actual.getSpecification(), dependentsInfo);
     } else {
-      _executing.put(actual.getSpecification(), null);
+      _executing.put(actual.getSpecification(), NO_DEPENDENTS);
     }
   }
 
@@ -206,8 +267,6 @@ public class ExecutingGraph {
 
   /**
    * Creates an actual calculation job from a planned job.
-   * <p>
-   * The caller must already hold the synchronisation lock.
    * 
    * @param planned the planned job, not null
    * @return the actual calculation job, not null
@@ -221,20 +280,36 @@ public class ExecutingGraph {
     return actual;
   }
 
+  /**
+   * Adds a job to the set available for execution.
+   * 
+   * @param planned the planned job, not null
+   */
+  private void addExecutableJob(final PlannedJob planned) {
+    _outstanding.incrementAndGet();
+    _executable.add(new ExecutableJobInfo(planned, _executableSequence.getAndIncrement()));
+    final int count = _executableCount.incrementAndGet();
+    int peak = _peakExecutableCount.get();
+    while ((count > peak) && !_peakExecutableCount.compareAndSet(peak, count)) {
+      peak = _peakExecutableCount.get();
+    }
+  }
+
   /**
    * Returns the next job that can be executed, or null if there are none available for execution.
    * <p>
-   * A null return may happen if either the graph has completed execution, or there are jobs pending.
+   * A null return may happen if either the graph has completed execution, or there are jobs pending. If there are multiple jobs available, the one with the most expensive path to the end of the graph
+   * is returned first.
    * 
    * @return an executable job, if one is available
    */
-  public synchronized CalculationJob nextExecutableJob() {
-    final int index = _executable.size() - 1;
-    if (index < 0) {
+  public CalculationJob nextExecutableJob() {
+    final ExecutableJobInfo executable = _executable.pollFirst();
+    if (executable == null) {
       return null;
     }
-    final PlannedJob planned = _executable.remove(index);
-    return createCalculationJob(planned);
+    _executableCount.decrementAndGet();
+    return createCalculationJob(executable.getJob());
   }
 
   /**
@@ -242,8 +317,8 @@ public class ExecutingGraph {
    * 
    * @return true if graph execution has finished - there are no more executable jobs and all that were previously returned have been signaled as complete
    */
-  public synchronized boolean isFinished() {
-    return _executable.isEmpty() && _executing.isEmpty() && _blocked.isEmpty();
+  public boolean isFinished() {
+    return _outstanding.get() == 0;
   }
 
   /**
@@ -253,19 +328,46 @@ public class ExecutingGraph {
    * 
    * @param jobSpec the job that has completed, not null
    */
-  public synchronized void jobCompleted(CalculationJobSpecification jobSpec) {
-    final BlockedJobInfo[] blockedJobs = _executing.remove(jobSpec);
-    if (blockedJobs != null) {
-      for (BlockedJobInfo blockedJob : blockedJobs) {
-        if (blockedJob.unblock()) {
-          final PlannedJob job = blockedJob.getJob();
-          _executable.add(job);
-          _blocked.remove(job);
+  public void jobCompleted(CalculationJobSpecification jobSpec) {
+    if (_activeCompletions.incrementAndGet() > 1) {
+      _contendedCompletions.incrementAndGet();
+    }
+    try {
+      final BlockedJobInfo[] blockedJobs = _executing.remove(jobSpec);
+      if (blockedJobs != null) {
+        for (BlockedJobInfo blockedJob : blockedJobs) {
+          if (blockedJob.unblock()) {
+            final PlannedJob job = blockedJob.getJob();
+            _blocked.remove(job);
+            addExecutableJob(job);
+          }
         }
+        // Any newly executable jobs have been counted, so the graph can't appear finished until they complete
+        _outstanding.decrementAndGet();
       }
+    } finally {
+      _activeCompletions.decrementAndGet();
     }
   }
 
+  /**
+   * Returns the largest number of jobs that have been waiting for execution at any one time.
+   * 
+   * @return the peak executable queue depth
+   */
+  public int getPeakExecutableJobs() {
+    return _peakExecutableCount.get();
+  }
+
+  /**
+   * Returns the number of job completion notifications that arrived while another was being processed. Under a single lock these would have been serialized.
+   * 
+   * @return the number of contended completion notifications
+   */
+  public int getContendedCompletions() {
+    return _contendedCompletions.get();
+  }
+
   @Override
   public String toString() {
     return "ExecutingGraph-" + _plan.getCalculationConfiguration();
@@ -89,6 +89,11 @@ import com.opengamma.engine.view.ExecutionLogMode;
    */
   private long _startTime = -1;
 
+  /**
+   * The estimated cost of the longest path from the start of this fragment to the end of the graph, used to prioritize the dispatch of jobs.
+   */
+  private long _criticalPathCost = -1;
+
   /**
    * The execution group identifier, written by the graph coloring algorithm. If an output fragment has the same execution identifier then it will be streamed to the same node.
    */
@@ -215,6 +220,21 @@ import com.opengamma.engine.view.ExecutionLogMode;
     return latest;
   }
 
+  public long getCriticalPathCost() {
+    if (_criticalPathCost >= 0) {
+      return _criticalPathCost;
+    }
+    long longest = 0;
+    for (GraphFragment output : getOutputFragments()) {
+      final long cost = output.getCriticalPathCost();
+      if (cost > longest) {
+        longest = cost;
+      }
+    }
+    _criticalPathCost = longest + getJobCost();
+    return _criticalPathCost;
+  }
+
   public int getExecutionId() {
     return _executionId;
   }
@@ -466,7 +486,7 @@ import com.opengamma.engine.view.ExecutionLogMode;
     } else {
       dependentJobs = null;
     }
-    return new PlannedJob(getInputFragments().size(), items, hint, tailJobs, dependentJobs);
+    return new PlannedJob(getInputFragments().size(), items, hint, tailJobs, dependentJobs, getCriticalPathCost());
   }
 
   public PlannedJob getOrCreateJob(final GraphFragmentContext context) {
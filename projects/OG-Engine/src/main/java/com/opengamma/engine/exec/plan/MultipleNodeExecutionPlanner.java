@@ -483,6 +483,12 @@ public class MultipleNodeExecutionPlanner implements GraphExecutionPlanner {
     long totalSize = 0;
     long totalInvocationCost = 0;
     long totalDataCost = 0;
+    long criticalPathCost = 0;
+    for (GraphFragment fragment : allFragments) {
+      // Must be calculated before job creation starts discarding the output fragments
+      criticalPathCost = Math.max(criticalPathCost, fragment.getCriticalPathCost());
+    }
+    s_logger.debug("Estimated critical path cost {}ns for {}", criticalPathCost, graph);
     final Collection<PlannedJob> jobs = new LinkedList<PlannedJob>();
     for (GraphFragment fragment : allFragments) {
       final Collection<GraphFragment> inputs = fragment.getInputFragments();
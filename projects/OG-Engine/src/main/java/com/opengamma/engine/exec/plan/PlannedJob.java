@@ -29,13 +29,20 @@ public class PlannedJob implements Serializable {
   private final CacheSelectHint _cacheSelectHint;
   private final PlannedJob[] _tails;
   private final PlannedJob[] _dependents;
+  private final long _criticalPathCost;
 
   public PlannedJob(final int inputJobs, final List<CalculationJobItem> items, final CacheSelectHint cacheSelectHint, final PlannedJob[] tails, final PlannedJob[] dependents) {
+    this(inputJobs, items, cacheSelectHint, tails, dependents, 0);
+  }
+
+  public PlannedJob(final int inputJobs, final List<CalculationJobItem> items, final CacheSelectHint cacheSelectHint, final PlannedJob[] tails, final PlannedJob[] dependents,
+      final long criticalPathCost) {
     _inputJobs = inputJobs;
     _items = items;
     _cacheSelectHint = cacheSelectHint;
     _tails = tails;
     _dependents = dependents;
+    _criticalPathCost = criticalPathCost;
   }
 
   /**
@@ -85,6 +92,17 @@ public class PlannedJob implements Serializable {
     return _dependents;
   }
 
+  /**
+   * Returns the estimated cost of the longest chain of jobs from the start of this one to the end of the graph.
+   * <p>
+   * Jobs with a higher value should be started first as any delay to them is more likely to delay completion of the whole graph.
+   * 
+   * @return the estimated cost in nanoseconds, or 0 if not known
+   */
+  protected long getCriticalPathCost() {
+    return _criticalPathCost;
+  }
+
   /**
    * Creates a concrete calculation job that can be executed.
    * <p>
@@ -28,6 +28,11 @@ public class DiscardingGraphStatisticsGathererProvider implements GraphExecutorS
       // No action
     }
 
+    @Override
+    public void graphScheduled(String calcConfig, int peakExecutableJobs, int contendedCompletions) {
+      // No action
+    }
+
   };
 
   public GraphExecutorStatisticsGatherer getStatisticsGatherer(final UniqueId viewProcessId) {
@@ -28,6 +28,9 @@ public class GraphExecutionStatistics {
   private final AtomicLong _processedJobSize = new AtomicLong();
   private final AtomicLong _processedJobCycleCost = new AtomicLong();
   private final AtomicLong _processedJobDataCost = new AtomicLong();
+  private final AtomicLong _scheduledGraphs = new AtomicLong();
+  private final AtomicLong _peakExecutableJobs = new AtomicLong();
+  private final AtomicLong _contendedCompletions = new AtomicLong();
   private volatile Instant _lastProcessedTime;
   private volatile Instant _lastExecutedTime;
 
@@ -80,6 +83,18 @@ public class GraphExecutionStatistics {
     return _processedJobDataCost.get();
   }
 
+  public long getScheduledGraphs() {
+    return _scheduledGraphs.get();
+  }
+
+  public long getPeakExecutableJobs() {
+    return _peakExecutableJobs.get();
+  }
+
+  public long getContendedCompletions() {
+    return _contendedCompletions.get();
+  }
+
   public Instant getLastProcessedTime() {
     return _lastProcessedTime;
   }
@@ -142,6 +157,24 @@ public class GraphExecutionStatistics {
     }
   }
 
+  public double getAveragePeakExecutableJobs() {
+    final long executions = getScheduledGraphs();
+    if (executions > 0) {
+      return (double) getPeakExecutableJobs() / (double) executions;
+    } else {
+      return 0;
+    }
+  }
+
+  public double getAverageContendedCompletions() {
+    final long executions = getScheduledGraphs();
+    if (executions > 0) {
+      return (double) getContendedCompletions() / (double) executions;
+    } else {
+      return 0;
+    }
+  }
+
   public void recordExecution(final int nodeCount, final long executionTime, final long duration) {
     _executedGraphs.incrementAndGet();
     _executedNodes.addAndGet(nodeCount);
@@ -165,6 +198,12 @@ public class GraphExecutionStatistics {
     _lastProcessedTime = Instant.now();
   }
 
+  public void recordScheduling(final int peakExecutableJobs, final int contendedCompletions) {
+    _scheduledGraphs.incrementAndGet();
+    _peakExecutableJobs.addAndGet(peakExecutableJobs);
+    _contendedCompletions.addAndGet(contendedCompletions);
+  }
+
   public void reset() {
     _processedGraphs.set(0);
     _executedGraphs.set(0);
@@ -175,6 +214,9 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(0);
     _processedJobCycleCost.set(0);
     _processedJobDataCost.set(0);
+    _scheduledGraphs.set(0);
+    _peakExecutableJobs.set(0);
+    _contendedCompletions.set(0);
   }
 
   private static void decay(final AtomicLong value, final double factor) {
@@ -191,6 +233,9 @@ public class GraphExecutionStatistics {
     decay(_processedJobSize, factor);
     decay(_processedJobCycleCost, factor);
     decay(_processedJobDataCost, factor);
+    decay(_scheduledGraphs, factor);
+    decay(_peakExecutableJobs, factor);
+    decay(_contendedCompletions, factor);
   }
 
   public GraphExecutionStatistics snapshot() {
@@ -209,6 +254,9 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(other.getProcessedJobSize());
     _processedJobCycleCost.set(other.getProcessedJobCycleCost());
     _processedJobDataCost.set(other.getProcessedJobDataCost());
+    _scheduledGraphs.set(other.getScheduledGraphs());
+    _peakExecutableJobs.set(other.getPeakExecutableJobs());
+    _contendedCompletions.set(other.getContendedCompletions());
   }
 
   public void delta(final GraphExecutionStatistics future) {
@@ -221,5 +269,8 @@ public class GraphExecutionStatistics {
     _processedJobSize.set(future.getProcessedJobSize() - getProcessedJobSize());
     _processedJobCycleCost.set(future.getProcessedJobCycleCost() - getProcessedJobCycleCost());
     _processedJobDataCost.set(future.getProcessedJobDataCost() - getProcessedJobDataCost());
+    _scheduledGraphs.set(future.getScheduledGraphs() - getScheduledGraphs());
+    _peakExecutableJobs.set(future.getPeakExecutableJobs() - getPeakExecutableJobs());
+    _contendedCompletions.set(future.getContendedCompletions() - getContendedCompletions());
   }
 }
@@ -35,4 +35,13 @@ public interface GraphExecutorStatisticsGatherer {
    */
   void graphExecuted(String calcConfig, int nodeCount, long executionTime, long duration);
 
+  /**
+   * Reports how jobs from a graph were scheduled during its execution.
+   * 
+   * @param calcConfig Calculation configuration name.
+   * @param peakExecutableJobs The largest number of jobs that were ready for execution, waiting to be dispatched, at any one time.
+   * @param contendedCompletions Number of job completion notifications that arrived while another was being processed.
+   */
+  void graphScheduled(String calcConfig, int peakExecutableJobs, int contendedCompletions);
+
 }
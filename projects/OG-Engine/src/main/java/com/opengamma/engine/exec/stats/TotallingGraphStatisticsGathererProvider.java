@@ -56,6 +56,11 @@ public class TotallingGraphStatisticsGathererProvider extends PerViewStatisticsG
       getOrCreateConfiguration(calcConfig).recordProcessing(totalJobs, meanJobSize, meanJobCycleCost, meanJobIOCost);
     }
 
+    @Override
+    public void graphScheduled(String calcConfig, int peakExecutableJobs, int contendedCompletions) {
+      getOrCreateConfiguration(calcConfig).recordScheduling(peakExecutableJobs, contendedCompletions);
+    }
+
     public List<GraphExecutionStatistics> getExecutionStatistics() {
       return new ArrayList<GraphExecutionStatistics>(_statistics.values());
     }
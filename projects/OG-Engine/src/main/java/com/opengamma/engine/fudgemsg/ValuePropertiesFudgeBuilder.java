@@ -17,6 +17,9 @@ import org.fudgemsg.mapping.FudgeSerializer;
 import org.fudgemsg.mapping.GenericFudgeBuilderFor;
 import org.fudgemsg.wire.types.FudgeWireType;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.opengamma.engine.MemoryUtils;
 import com.opengamma.engine.value.ValueProperties;
 
 /**
@@ -56,6 +59,12 @@ public class ValuePropertiesFudgeBuilder implements FudgeBuilder<ValueProperties
    */
   public static final String OPTIONAL_FIELD = "optional";
 
+  /**
+   * Canonical instances of property values. Decoded messages would otherwise hold a separate copy of each value string, most of which are drawn from a small vocabulary (currencies, curve names,
+   * calculation methods).
+   */
+  private static final Interner<String> s_values = Interners.newWeakInterner();
+
   @Override
   public MutableFudgeMsg buildMessage(final FudgeSerializer serializer, final ValueProperties object) {
     final MutableFudgeMsg message = serializer.newMessage();
@@ -81,7 +90,7 @@ public class ValuePropertiesFudgeBuilder implements FudgeBuilder<ValueProperties
             builder.withoutAny((String) field.getValue());
           }
         }
-        return builder.get();
+        return MemoryUtils.instance(builder.get());
       }
     }
     subMsg = message.getMessage(WITH_FIELD);
@@ -96,7 +105,7 @@ public class ValuePropertiesFudgeBuilder implements FudgeBuilder<ValueProperties
           builder.withAny(propertyName);
           break;
         case FudgeWireType.STRING_TYPE_ID:
-          builder.with(propertyName, (String) field.getValue());
+          builder.with(propertyName, s_values.intern((String) field.getValue()));
           break;
         case FudgeWireType.SUB_MESSAGE_TYPE_ID: {
           final FudgeMsg subMsg2 = (FudgeMsg) field.getValue();
@@ -107,7 +116,7 @@ public class ValuePropertiesFudgeBuilder implements FudgeBuilder<ValueProperties
                 builder.withOptional(propertyName);
                 break;
               case FudgeWireType.STRING_TYPE_ID:
-                values.add((String) field2.getValue());
+                values.add(s_values.intern((String) field2.getValue()));
                 break;
             }
           }
@@ -118,7 +127,8 @@ public class ValuePropertiesFudgeBuilder implements FudgeBuilder<ValueProperties
         }
       }
     }
-    return builder.get();
+    // Decoded properties are typically long lived (e.g. held in a dependency graph or result model) so are shared with equal instances
+    return MemoryUtils.instance(builder.get());
   }
 
 }
@@ -0,0 +1,17 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.function;
+
+/**
+ * Marker for a {@link FunctionDefinition} whose results depend only on its target, parameters, input values, the valuation time and the version/correction that the job resolves at. Calculation
+ * nodes that have a function result cache may return the results from an earlier invocation with the same values, possibly made for another view or cycle, instead of invoking the function again.
+ * <p>
+ * A function should only be marked as memoizable if it is expensive (for example curve or surface construction), reads nothing from the execution context other than the valuation time and reference
+ * data from its sources, and produces values that are never modified after they are returned.
+ */
+public interface MemoizableFunction {
+
+}
@@ -38,6 +38,10 @@ public interface GraphExecutionStatisticsMBean {
 
   Long getProcessedJobDataCost();
 
+  Double getAveragePeakExecutableJobs();
+
+  Long getContendedCompletions();
+
   String getLastProcessedTime();
 
   String getLastExecutedTime();
@@ -147,6 +147,18 @@ public class GraphExecutionStatisticsMBeanImpl implements GraphExecutionStatisti
     return graphExecutionStatistics != null ? graphExecutionStatistics.getProcessedJobDataCost() : null;
   }
 
+  @Override
+  public Double getAveragePeakExecutableJobs() {
+    com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
+    return graphExecutionStatistics != null ? graphExecutionStatistics.getAveragePeakExecutableJobs() : null;
+  }
+
+  @Override
+  public Long getContendedCompletions() {
+    com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
+    return graphExecutionStatistics != null ? graphExecutionStatistics.getContendedCompletions() : null;
+  }
+
   @Override
   public String getLastProcessedTime() {
     com.opengamma.engine.exec.stats.GraphExecutionStatistics graphExecutionStatistics = getGraphExecutionStatistics();
@@ -5,21 +5,28 @@
  */
 package com.opengamma.engine.marketdata.historical;
 
+import java.util.Set;
+
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
 import org.threeten.bp.ZoneOffset;
 
+import com.google.common.collect.Sets;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesResolver;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
 import com.opengamma.engine.marketdata.MarketDataSnapshot;
 import com.opengamma.engine.marketdata.spec.FixedHistoricalMarketDataSpecification;
 import com.opengamma.engine.marketdata.spec.MarketDataSpecification;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
 
 /**
  * Historical market data provider that requires data from a specific date.
  */
 public class HistoricalMarketDataProvider extends AbstractHistoricalMarketDataProvider {
 
+  private final HistoricalTimeSeriesStore _store;
+
   /**
    * Creates an instance.
    * 
@@ -29,7 +36,21 @@ public class HistoricalMarketDataProvider extends AbstractHistoricalMarketDataPr
    */
   public HistoricalMarketDataProvider(final HistoricalTimeSeriesSource historicalTimeSeriesSource,
       final HistoricalTimeSeriesResolver historicalTimeSeriesResolver, final String timeSeriesResolverKey) {
+    this(historicalTimeSeriesSource, historicalTimeSeriesResolver, timeSeriesResolverKey, null);
+  }
+
+  /**
+   * Creates an instance that serves snapshots for dates in the range of a store from the preloaded time-series. Subscribed series are loaded into the store for the whole range.
+   * 
+   * @param historicalTimeSeriesSource the underlying source of historical data, not null
+   * @param historicalTimeSeriesResolver the time series resolver, not null
+   * @param timeSeriesResolverKey the source resolver key, or null to use the source default
+   * @param store the preloaded time-series, null if none
+   */
+  public HistoricalMarketDataProvider(final HistoricalTimeSeriesSource historicalTimeSeriesSource,
+      final HistoricalTimeSeriesResolver historicalTimeSeriesResolver, final String timeSeriesResolverKey, final HistoricalTimeSeriesStore store) {
     super(historicalTimeSeriesSource, historicalTimeSeriesResolver, timeSeriesResolverKey);
+    _store = store;
   }
 
   /**
@@ -39,7 +60,19 @@ public class HistoricalMarketDataProvider extends AbstractHistoricalMarketDataPr
    * @param historicalTimeSeriesResolver the time series resolver, not null
    */
   public HistoricalMarketDataProvider(final HistoricalTimeSeriesSource historicalTimeSeriesSource, final HistoricalTimeSeriesResolver historicalTimeSeriesResolver) {
-    super(historicalTimeSeriesSource, historicalTimeSeriesResolver);
+    this(historicalTimeSeriesSource, historicalTimeSeriesResolver, null, null);
+  }
+
+  @Override
+  public void subscribe(final Set<ValueSpecification> valueSpecifications) {
+    if (_store != null) {
+      final Set<UniqueId> htsIdentifiers = Sets.newHashSetWithExpectedSize(valueSpecifications.size());
+      for (ValueSpecification valueSpecification : valueSpecifications) {
+        htsIdentifiers.add(valueSpecification.getTargetSpecification().getUniqueId());
+      }
+      _store.preload(htsIdentifiers);
+    }
+    super.subscribe(valueSpecifications);
   }
 
   @Override
@@ -62,7 +95,7 @@ public class HistoricalMarketDataProvider extends AbstractHistoricalMarketDataPr
     //Instant snapshotInstant = historicalSpec.getSnapshotDate().atMidnight().atZone(ZoneOffset.UTC).toInstant();
     final Instant snapshotInstant = historicalSpec.getSnapshotDate().atTime(16, 0).atZone(ZoneOffset.UTC).toInstant();
     final LocalDate snapshotDate = historicalSpec.getSnapshotDate();
-    return new HistoricalMarketDataSnapshot(getTimeSeriesSource(), snapshotInstant, snapshotDate);
+    return new HistoricalMarketDataSnapshot(getTimeSeriesSource(), snapshotInstant, snapshotDate, _store);
   }
 
 }
@@ -5,12 +5,24 @@
  */
 package com.opengamma.engine.marketdata.historical;
 
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.LocalDate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesResolver;
 import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
 import com.opengamma.engine.marketdata.MarketDataProvider;
 import com.opengamma.engine.marketdata.MarketDataProviderFactory;
+import com.opengamma.engine.marketdata.spec.FixedHistoricalMarketDataSpecification;
 import com.opengamma.engine.marketdata.spec.HistoricalMarketDataSpecification;
 import com.opengamma.engine.marketdata.spec.MarketDataSpecification;
+import com.opengamma.id.ObjectId;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.ArgumentChecker;
 
@@ -19,8 +31,13 @@ import com.opengamma.util.ArgumentChecker;
  */
 public class HistoricalMarketDataProviderFactory implements MarketDataProviderFactory {
 
+  private static final Logger s_logger = LoggerFactory.getLogger(HistoricalMarketDataProviderFactory.class);
+
   private final HistoricalTimeSeriesSource _timeSeriesSource;
   private final HistoricalTimeSeriesResolver _timeSeriesResolver;
+  private volatile Cache<Long, HistoricalTimeSeriesStore> _stores;
+  private volatile int _preloadDays;
+  private ChangeListener _changeListener;
 
   public HistoricalMarketDataProviderFactory(final HistoricalTimeSeriesSource timeSeriesSource, final HistoricalTimeSeriesResolver timeSeriesResolver) {
     ArgumentChecker.notNull(timeSeriesSource, "timeSeriesSource");
@@ -29,9 +46,87 @@ public class HistoricalMarketDataProviderFactory implements MarketDataProviderFa
     _timeSeriesResolver = timeSeriesResolver;
   }
 
+  /**
+   * Enables serving snapshots from preloaded time-series; this should be used when evaluating a view for every date in a long range, for example for historical VaR.
+   * <p>
+   * Time is divided into periods of the given number of days. The first time a series is required for a snapshot date it is loaded for the whole of the period containing that date, so the
+   * periods loaded are those spanned by the dates of the run rather than a range fixed in advance. Only the most recently used periods are held, and any held for longer than the expiry time
+   * are discarded. A series is discarded from all periods when the time-series source reports that it has changed.
+   * 
+   * @param periodDays the number of days in each period, zero to not preload
+   * @param maxPeriods the maximum number of periods to hold
+   * @param expiryMinutes the time after its last use that a period is discarded, in minutes
+   */
+  public synchronized void setPreload(final int periodDays, final int maxPeriods, final int expiryMinutes) {
+    ArgumentChecker.notNegative(periodDays, "periodDays");
+    if (periodDays > 0) {
+      ArgumentChecker.notNegativeOrZero(maxPeriods, "maxPeriods");
+      ArgumentChecker.notNegativeOrZero(expiryMinutes, "expiryMinutes");
+      _stores = CacheBuilder.newBuilder().maximumSize(maxPeriods).expireAfterAccess(expiryMinutes, TimeUnit.MINUTES).build();
+      if (_changeListener == null) {
+        _changeListener = new ChangeListener() {
+          @Override
+          public void entityChanged(final ChangeEvent event) {
+            invalidate(event.getObjectId());
+          }
+        };
+        _timeSeriesSource.changeManager().addChangeListener(_changeListener);
+      }
+    } else {
+      _stores = null;
+      if (_changeListener != null) {
+        _timeSeriesSource.changeManager().removeChangeListener(_changeListener);
+        _changeListener = null;
+      }
+    }
+    _preloadDays = periodDays;
+  }
+
+  /**
+   * Returns the preloaded time-series for the period containing a date, creating an empty store for the period if none is held.
+   * 
+   * @param date the snapshot date, not null
+   * @return the store, or null if preloading is not enabled
+   */
+  public HistoricalTimeSeriesStore getPreloadedTimeSeries(final LocalDate date) {
+    final Cache<Long, HistoricalTimeSeriesStore> stores = _stores;
+    final int periodDays = _preloadDays;
+    if ((stores == null) || (periodDays <= 0)) {
+      return null;
+    }
+    final long epochDay = date.toEpochDay();
+    final long startDay = epochDay - ((epochDay % periodDays) + periodDays) % periodDays;
+    HistoricalTimeSeriesStore store = stores.getIfPresent(startDay);
+    if (store == null) {
+      store = new HistoricalTimeSeriesStore(_timeSeriesSource, LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(startDay + periodDays - 1));
+      final HistoricalTimeSeriesStore existing = stores.asMap().putIfAbsent(startDay, store);
+      if (existing != null) {
+        store = existing;
+      }
+    }
+    return store;
+  }
+
+  private void invalidate(final ObjectId timeSeriesId) {
+    final Cache<Long, HistoricalTimeSeriesStore> stores = _stores;
+    if ((stores != null) && (timeSeriesId != null)) {
+      for (HistoricalTimeSeriesStore store : stores.asMap().values()) {
+        if (store.invalidate(timeSeriesId)) {
+          s_logger.debug("Discarded preloaded time-series {} from {}", timeSeriesId, store.getStartDate());
+        }
+      }
+    }
+  }
+
   @Override
   public MarketDataProvider create(final UserPrincipal marketDataUser, final MarketDataSpecification marketDataSpec) {
     final HistoricalMarketDataSpecification historicalMarketDataSpec = (HistoricalMarketDataSpecification) marketDataSpec;
-    return new HistoricalMarketDataProvider(_timeSeriesSource, _timeSeriesResolver, historicalMarketDataSpec.getTimeSeriesResolverKey());
+    final HistoricalTimeSeriesStore store;
+    if (marketDataSpec instanceof FixedHistoricalMarketDataSpecification) {
+      store = getPreloadedTimeSeries(((FixedHistoricalMarketDataSpecification) marketDataSpec).getSnapshotDate());
+    } else {
+      store = null;
+    }
+    return new HistoricalMarketDataProvider(_timeSeriesSource, _timeSeriesResolver, historicalMarketDataSpec.getTimeSeriesResolverKey(), store);
   }
 }
@@ -17,6 +17,9 @@ public class HistoricalMarketDataProviderFactoryFactoryBean extends SingletonFac
 
   private HistoricalTimeSeriesSource _timeSeriesSource;
   private HistoricalTimeSeriesResolver _timeSeriesResolver;
+  private int _preloadPeriodDays;
+  private int _preloadMaxPeriods = 4;
+  private int _preloadExpiryMinutes = 30;
 
   public HistoricalTimeSeriesSource getTimeSeriesSource() {
     return _timeSeriesSource;
@@ -34,11 +37,37 @@ public class HistoricalMarketDataProviderFactoryFactoryBean extends SingletonFac
     _timeSeriesResolver = timeSeriesResolver;
   }
 
+  public int getPreloadPeriodDays() {
+    return _preloadPeriodDays;
+  }
+
+  public void setPreloadPeriodDays(final int preloadPeriodDays) {
+    _preloadPeriodDays = preloadPeriodDays;
+  }
+
+  public int getPreloadMaxPeriods() {
+    return _preloadMaxPeriods;
+  }
+
+  public void setPreloadMaxPeriods(final int preloadMaxPeriods) {
+    _preloadMaxPeriods = preloadMaxPeriods;
+  }
+
+  public int getPreloadExpiryMinutes() {
+    return _preloadExpiryMinutes;
+  }
+
+  public void setPreloadExpiryMinutes(final int preloadExpiryMinutes) {
+    _preloadExpiryMinutes = preloadExpiryMinutes;
+  }
+
   @Override
   protected HistoricalMarketDataProviderFactory createObject() {
     ArgumentChecker.notNullInjected(getTimeSeriesSource(), "timeSeriesSource");
     ArgumentChecker.notNullInjected(getTimeSeriesResolver(), "timeSeriesResolver");
-    return new HistoricalMarketDataProviderFactory(getTimeSeriesSource(), getTimeSeriesResolver());
+    final HistoricalMarketDataProviderFactory factory = new HistoricalMarketDataProviderFactory(getTimeSeriesSource(), getTimeSeriesResolver());
+    factory.setPreload(getPreloadPeriodDays(), getPreloadMaxPeriods(), getPreloadExpiryMinutes());
+    return factory;
   }
 
 }
@@ -29,6 +29,8 @@ public class HistoricalMarketDataSnapshot extends AbstractMarketDataSnapshot {
   private final HistoricalTimeSeriesSource _timeSeriesSource;
   private final Instant _snapshotInstant;
   private final LocalDate _snapshotDate;
+  private final HistoricalTimeSeriesStore _store;
+  private final int _storeIndex;
 
   /**
    * Creates a market data snapshot based on historical time-series data. The data provider will have created value specifications which reference the resolved time series.
@@ -38,11 +40,26 @@ public class HistoricalMarketDataSnapshot extends AbstractMarketDataSnapshot {
    * @param snapshotDate the date of the required value, null for the latest
    */
   public HistoricalMarketDataSnapshot(final HistoricalTimeSeriesSource timeSeriesSource, final Instant snapshotInstant, final LocalDate snapshotDate) {
+    this(timeSeriesSource, snapshotInstant, snapshotDate, null);
+  }
+
+  /**
+   * Creates a market data snapshot based on historical time-series data. If the snapshot date falls within the range of the store then values are taken from it, otherwise the
+   * time-series source is queried.
+   * 
+   * @param timeSeriesSource the time-series source, not null
+   * @param snapshotInstant the snapshot instant to report to the engine, not null
+   * @param snapshotDate the date of the required value, null for the latest
+   * @param store the preloaded time-series, null if none
+   */
+  public HistoricalMarketDataSnapshot(final HistoricalTimeSeriesSource timeSeriesSource, final Instant snapshotInstant, final LocalDate snapshotDate, final HistoricalTimeSeriesStore store) {
     ArgumentChecker.notNull(timeSeriesSource, "timeSeriesSource");
     ArgumentChecker.notNull(snapshotInstant, "snapshotInstant");
     _timeSeriesSource = timeSeriesSource;
     _snapshotInstant = snapshotInstant;
     _snapshotDate = snapshotDate;
+    _storeIndex = ((store != null) && (snapshotDate != null)) ? store.getIndex(snapshotDate) : -1;
+    _store = (_storeIndex >= 0) ? store : null;
   }
 
   @Override
@@ -74,6 +91,10 @@ public class HistoricalMarketDataSnapshot extends AbstractMarketDataSnapshot {
   @Override
   public Object query(final ValueSpecification specification) {
     final UniqueId htsIdentifier = specification.getTargetSpecification().getUniqueId();
+    if (_store != null) {
+      final Double value = _store.getValue(htsIdentifier, _storeIndex);
+      return (value != null) ? adjust(specification, value) : null;
+    }
     final HistoricalTimeSeries hts = getTimeSeriesSource().getHistoricalTimeSeries(htsIdentifier, _snapshotDate, true, _snapshotDate, true);
     if (hts == null || hts.getTimeSeries().isEmpty()) {
       s_logger.info("No time-series for {}", specification);
@@ -83,6 +104,10 @@ public class HistoricalMarketDataSnapshot extends AbstractMarketDataSnapshot {
     if (value == null) {
       return null;
     }
+    return adjust(specification, value);
+  }
+
+  private static Object adjust(final ValueSpecification specification, final Double value) {
     final String normalization = specification.getProperty(AbstractHistoricalMarketDataProvider.NORMALIZATION_PROPERTY);
     if (normalization != null) {
       return HistoricalTimeSeriesAdjustment.parse(normalization).adjust(value);
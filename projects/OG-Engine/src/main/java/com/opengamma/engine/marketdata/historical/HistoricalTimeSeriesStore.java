@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.historical;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeries;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.LocalDateDoubleEntryIterator;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * In-memory columnar store of historical time-series over a fixed date range. Each series is fetched from the underlying source once, for the whole range, and held as an array indexed by the
+ * number of days from the start of the range. Snapshots for any date in the range can then be served by index without further queries to the source.
+ * <p>
+ * Intended for runs such as historical VaR where a view is evaluated for every date in a long range with the same market data requirements. The store can be shared by all of the providers
+ * and snapshots for the dates in the range. A series that has been corrected or updated must be {@link #invalidate invalidated} so that it is loaded again when next required.
+ */
+public class HistoricalTimeSeriesStore {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(HistoricalTimeSeriesStore.class);
+
+  private final HistoricalTimeSeriesSource _timeSeriesSource;
+  private final LocalDate _startDate;
+  private final LocalDate _endDate;
+  private final long _startDay;
+  private final int _length;
+  private final ConcurrentMap<UniqueId, double[]> _columns = new ConcurrentHashMap<UniqueId, double[]>();
+
+  /**
+   * Creates a new, empty, store.
+   *
+   * @param timeSeriesSource the underlying source of historical data, not null
+   * @param startDate the first date of the range, not null
+   * @param endDate the last date of the range, not null
+   */
+  public HistoricalTimeSeriesStore(final HistoricalTimeSeriesSource timeSeriesSource, final LocalDate startDate, final LocalDate endDate) {
+    ArgumentChecker.notNull(timeSeriesSource, "timeSeriesSource");
+    ArgumentChecker.notNull(startDate, "startDate");
+    ArgumentChecker.notNull(endDate, "endDate");
+    ArgumentChecker.isFalse(endDate.isBefore(startDate), "endDate must not be before startDate");
+    final long length = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+    ArgumentChecker.isTrue(length <= Integer.MAX_VALUE, "Date range {} to {} is too long", startDate, endDate);
+    _timeSeriesSource = timeSeriesSource;
+    _startDate = startDate;
+    _endDate = endDate;
+    _startDay = startDate.toEpochDay();
+    _length = (int) length;
+  }
+
+  public LocalDate getStartDate() {
+    return _startDate;
+  }
+
+  public LocalDate getEndDate() {
+    return _endDate;
+  }
+
+  /**
+   * Returns the index of a date within the store.
+   *
+   * @param date the date, not null
+   * @return the index, or -1 if the date is outside of the range
+   */
+  public int getIndex(final LocalDate date) {
+    final long index = date.toEpochDay() - _startDay;
+    return ((index >= 0) && (index < _length)) ? (int) index : -1;
+  }
+
+  /**
+   * Loads any of the given series that are not already held.
+   *
+   * @param timeSeriesIds the time-series identifiers, not null
+   */
+  public void preload(final Collection<UniqueId> timeSeriesIds) {
+    int loaded = 0;
+    for (UniqueId timeSeriesId : timeSeriesIds) {
+      if (!_columns.containsKey(timeSeriesId)) {
+        getColumn(timeSeriesId);
+        loaded++;
+      }
+    }
+    s_logger.debug("Preloaded {} of {} time-series", loaded, timeSeriesIds.size());
+  }
+
+  /**
+   * Returns the value of a series at an index, loading the series if it is not already held.
+   *
+   * @param timeSeriesId the time-series identifier, not null
+   * @param index the index of the date, as returned by {@link #getIndex}
+   * @return the value, or null if there is no data point for the date
+   */
+  public Double getValue(final UniqueId timeSeriesId, final int index) {
+    final double value = getColumn(timeSeriesId)[index];
+    return Double.isNaN(value) ? null : value;
+  }
+
+  /**
+   * Discards a series so that it will be loaded again when next required.
+   *
+   * @param timeSeriesId the object identifier of the time-series that has changed, not null
+   * @return true if the series was held, false otherwise
+   */
+  public boolean invalidate(final ObjectId timeSeriesId) {
+    boolean removed = false;
+    final Iterator<UniqueId> itr = _columns.keySet().iterator();
+    while (itr.hasNext()) {
+      if (timeSeriesId.equals(itr.next().getObjectId())) {
+        itr.remove();
+        removed = true;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the number of series held.
+   *
+   * @return the number of series
+   */
+  public int getSize() {
+    return _columns.size();
+  }
+
+  private double[] getColumn(final UniqueId timeSeriesId) {
+    double[] column = _columns.get(timeSeriesId);
+    if (column == null) {
+      column = load(timeSeriesId);
+      final double[] existing = _columns.putIfAbsent(timeSeriesId, column);
+      if (existing != null) {
+        column = existing;
+      }
+    }
+    return column;
+  }
+
+  private double[] load(final UniqueId timeSeriesId) {
+    final double[] column = new double[_length];
+    Arrays.fill(column, Double.NaN);
+    final HistoricalTimeSeries hts = _timeSeriesSource.getHistoricalTimeSeries(timeSeriesId, _startDate, true, _endDate, true);
+    if (hts == null) {
+      s_logger.info("No time-series for {}", timeSeriesId);
+      return column;
+    }
+    final LocalDateDoubleEntryIterator itr = hts.getTimeSeries().iterator();
+    while (itr.hasNext()) {
+      final int index = getIndex(itr.nextTime());
+      if (index >= 0) {
+        column[index] = itr.currentValueFast();
+      }
+    }
+    return column;
+  }
+
+}
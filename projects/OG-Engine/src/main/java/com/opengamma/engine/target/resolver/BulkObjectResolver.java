@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.target.resolver;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.UniqueIdentifiable;
+import com.opengamma.id.VersionCorrection;
+
+/**
+ * An {@link ObjectResolver} that can resolve a number of unique identifiers in a single operation, for example with one query against the underlying source.
+ *
+ * @param <T> the common type of the item produced by the resolution
+ */
+public interface BulkObjectResolver<T extends UniqueIdentifiable> extends ObjectResolver<T> {
+
+  /**
+   * Resolves the unique identifiers into the origin objects. This is equivalent to calling {@link #resolveObject} for each identifier.
+   *
+   * @param uniqueIds the unique identifiers to resolve, not null and not containing null
+   * @param versionCorrection the version/correction timestamp for any deep resolution of the objects, not null
+   * @return the resolved objects, keyed by unique identifier, omitting any that could not be resolved, not null
+   */
+  Map<UniqueId, T> resolveObjects(Collection<UniqueId> uniqueIds, VersionCorrection versionCorrection);
+
+}
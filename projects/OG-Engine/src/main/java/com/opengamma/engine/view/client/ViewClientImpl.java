@@ -11,8 +11,10 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -48,6 +50,7 @@ import com.opengamma.engine.view.permission.ViewPortfolioPermissionProvider;
 import com.opengamma.id.UniqueId;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.metric.OpenGammaMetricRegistry;
 import com.opengamma.util.tuple.Pair;
 
 /**
@@ -57,6 +60,11 @@ public class ViewClientImpl implements ViewClient {
 
   private static final Logger s_logger = LoggerFactory.getLogger(ViewClientImpl.class);
 
+  /**
+   * Distinguishes the metric names of clients in this JVM; client identifiers are only unique within their view processor.
+   */
+  private static final AtomicLong s_metricsSequence = new AtomicLong();
+
   private final ReentrantLock _clientLock = new ReentrantLock();
 
   private final UniqueId _id;
@@ -86,6 +94,7 @@ public class ViewClientImpl implements ViewClient {
   private final AtomicReference<CompiledViewDefinition> _latestCompiledViewDefinition = new AtomicReference<>();
 
   private final RateLimitingMergingViewProcessListener _mergingViewProcessListener;
+  private final String _metricsPrefix;
 
   private final AtomicReference<ViewResultListener> _userResultListener = new AtomicReference<>();
   private final Set<Pair<String, ValueSpecification>> _elevatedLogSpecs = new HashSet<>();
@@ -104,6 +113,19 @@ public class ViewClientImpl implements ViewClient {
    * @param timer the timer to use for scheduled tasks
    */
   public ViewClientImpl(UniqueId id, ViewProcessorImpl viewProcessor, UserPrincipal user, ScheduledExecutorService timer) {
+    this(id, viewProcessor, user, timer, null);
+  }
+
+  /**
+   * Constructs an instance.
+   * 
+   * @param id the unique identifier assigned to this view client
+   * @param viewProcessor the parent view processor to which this client belongs
+   * @param user the user who owns this client
+   * @param timer the timer to use for scheduled tasks
+   * @param deliveryExecutor the executor to deliver results to the client's listener from, or null to deliver them from the view process thread
+   */
+  public ViewClientImpl(UniqueId id, ViewProcessorImpl viewProcessor, UserPrincipal user, ScheduledExecutorService timer, Executor deliveryExecutor) {
     ArgumentChecker.notNull(id, "id");
     ArgumentChecker.notNull(viewProcessor, "viewProcessor");
     ArgumentChecker.notNull(user, "user");
@@ -263,8 +285,9 @@ public class ViewClientImpl implements ViewClient {
 
     };
 
-    _mergingViewProcessListener = new RateLimitingMergingViewProcessListener(mergedViewProcessListener, getViewProcessor().getViewCycleManager(), timer);
+    _mergingViewProcessListener = new RateLimitingMergingViewProcessListener(mergedViewProcessListener, getViewProcessor().getViewCycleManager(), timer, deliveryExecutor);
     _mergingViewProcessListener.setPaused(true);
+    _metricsPrefix = "ViewClient-" + id + "-" + s_metricsSequence.incrementAndGet();
   }
 
   @Override
@@ -345,6 +368,8 @@ public class ViewClientImpl implements ViewClient {
     _portfolioPermissionProvider = context.getViewPortfolioPermissionProvider();
     _isAttached.set(true);
     _completionLatch = new CountDownLatch(1);
+    // The metrics are only published while attached so that clients which are never shut down don't remain in the registry
+    _mergingViewProcessListener.registerMetrics(OpenGammaMetricRegistry.getSummaryInstance(), OpenGammaMetricRegistry.getDetailedInstance(), _metricsPrefix);
     return getState() == ViewClientState.PAUSED;
   }
 
@@ -357,6 +382,7 @@ public class ViewClientImpl implements ViewClient {
       getLatestCycleRetainer().replaceRetainedCycle(null);
       _mergingViewProcessListener.setPaused(true);
       _mergingViewProcessListener.reset();
+      _mergingViewProcessListener.unregisterMetrics();
       _latestResult.set(null);
       _isAttached.set(false);
       _permissionProvider = null;
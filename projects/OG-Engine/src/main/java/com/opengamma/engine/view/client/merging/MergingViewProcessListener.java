@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.view.client.merging;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -12,6 +14,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Instant;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.opengamma.engine.resource.EngineResourceManagerInternal;
 import com.opengamma.engine.resource.EngineResourceRetainer;
@@ -32,6 +41,7 @@ import com.opengamma.engine.view.listener.ViewDefinitionCompiledCall;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.metric.MetricProducer;
 
 /**
  * Collects and merges view process updates, releasing them only when {@code drain()} is called. Also ensures that different update types are passed to the underlying listener in the correct order
@@ -40,8 +50,11 @@ import com.opengamma.util.ArgumentChecker;
  * Fragments and delta results are merged so that those corresponding to the latest cycle will be available. Individual notifications from earlier cycles will be discarded. For example, if there is a
  * view compilation and a number of cycles run, the events released will be the compilation notification, merged events corresponding to the last full cycle, and anything available for any incomplete
  * cycle.
+ * <p>
+ * The number of coalesced cycles and the delivery lag of the underlying listener are available from the getters and, once {@link #registerMetrics} has been called, are published as metrics named
+ * for this listener.
  */
-public class MergingViewProcessListener implements ViewResultListener {
+public class MergingViewProcessListener implements ViewResultListener, MetricProducer {
 
   private static final Logger s_logger = LoggerFactory.getLogger(MergingViewProcessListener.class);
 
@@ -51,11 +64,13 @@ public class MergingViewProcessListener implements ViewResultListener {
   protected static final class Call<T extends Function<ViewResultListener, ?>> {
 
     private final T _function;
+    private final long _receivedMillis;
     private Call<?> _prev;
     private Call<?> _next;
 
     private Call(final T function, final Call<?> last) {
       _function = function;
+      _receivedMillis = System.currentTimeMillis();
       _prev = last;
       if (last != null) {
         assert last._next == null;
@@ -105,6 +120,16 @@ public class MergingViewProcessListener implements ViewResultListener {
    */
   private final AtomicLong _lastUpdateMillis = new AtomicLong(0);
 
+  /**
+   * The number of cycle results that were merged into a later one, or discarded, rather than being delivered.
+   */
+  private final AtomicLong _coalescedCycles = new AtomicLong(0);
+
+  private volatile Meter _coalescedCyclesMeter;
+  private volatile Histogram _deliveryLagHistogram;
+  private MetricRegistry _metricRegistry;
+  private final Map<String, Metric> _metrics = new HashMap<String, Metric>();
+
   private Call<?> _firstCall;
   private Call<?> _lastCall;
   /**
@@ -146,6 +171,61 @@ public class MergingViewProcessListener implements ViewResultListener {
     _cycleRetainer = new EngineResourceRetainer(cycleManager);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Registers the metrics for this listener. The name prefix should uniquely identify the client, or process, that this listener delivers to. Any metrics already registered under the same names
+   * are replaced, and a metric that cannot be registered is logged and skipped. The metrics are removed by {@link #unregisterMetrics}.
+   * 
+   * @param summaryRegistry the summary registry, not null
+   * @param detailedRegistry the detailed registry, which the metrics are registered with, not null
+   * @param namePrefix the prefix for the metric names, not null
+   */
+  @Override
+  public synchronized void registerMetrics(final MetricRegistry summaryRegistry, final MetricRegistry detailedRegistry, final String namePrefix) {
+    unregisterMetrics();
+    _metricRegistry = detailedRegistry;
+    _coalescedCyclesMeter = register(namePrefix + ".coalescedCycles", new Meter());
+    _deliveryLagHistogram = register(namePrefix + ".deliveryLag", new Histogram(new ExponentiallyDecayingReservoir()));
+    register(namePrefix + ".deliveryLagMillis", new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return getDeliveryLagMillis();
+      }
+    });
+  }
+
+  private <T extends Metric> T register(final String name, final T metric) {
+    _metricRegistry.remove(name);
+    try {
+      _metricRegistry.register(name, metric);
+      _metrics.put(name, metric);
+    } catch (IllegalArgumentException e) {
+      // Another listener registered the name in the meantime; the metric is still updated but not published
+      s_logger.warn("Couldn't register metric {}: {}", name, e.getMessage());
+    }
+    return metric;
+  }
+
+  /**
+   * Removes any metrics registered by {@link #registerMetrics}.
+   */
+  public synchronized void unregisterMetrics() {
+    if (_metricRegistry != null) {
+      _coalescedCyclesMeter = null;
+      _deliveryLagHistogram = null;
+      // Only remove the metrics this listener registered; another may have since replaced one with the same name
+      final Map<String, Metric> metrics = new HashMap<String, Metric>(_metrics);
+      _metricRegistry.removeMatching(new MetricFilter() {
+        @Override
+        public boolean matches(final String name, final Metric metric) {
+          return metrics.get(name) == metric;
+        }
+      });
+      _metrics.clear();
+      _metricRegistry = null;
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets whether incoming updates should be allowed to pass straight through without merging. If this is false then updates will not be released unless an update is triggered.
@@ -192,6 +272,80 @@ public class MergingViewProcessListener implements ViewResultListener {
     return _lastUpdateMillis.get();
   }
 
+  /**
+   * Called when an update has been added to, or merged into, the queue rather than passed straight through. The caller holds the merger lock. The default implementation does nothing; the calls will
+   * be released when {@link #drain} is next called.
+   */
+  protected void callQueued() {
+    // No-op
+  }
+
+  /**
+   * Tests whether there are calls waiting in the queue.
+   * 
+   * @return true if there are queued calls, false otherwise
+   */
+  protected boolean hasQueuedCalls() {
+    _mergerLock.lock();
+    try {
+      return _firstCall != null;
+    } finally {
+      _mergerLock.unlock();
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of cycle results that were not delivered to the underlying listener individually because a later result was merged over them, or a failure replaced them, before they could be
+   * released.
+   * 
+   * @return the number of coalesced cycles
+   */
+  public long getCoalescedCycleCount() {
+    return _coalescedCycles.get();
+  }
+
+  /**
+   * Gets how far the underlying listener is behind the view process; the time since the oldest update that is still waiting in the queue was received.
+   * 
+   * @return the delivery lag in milliseconds, zero if nothing is waiting
+   */
+  public long getDeliveryLagMillis() {
+    _mergerLock.lock();
+    try {
+      if (_firstCall == null) {
+        return 0;
+      }
+      return System.currentTimeMillis() - getOldestCallMillis();
+    } finally {
+      _mergerLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the time at which the oldest call in the queue was received. A call that has been merged into keeps the time it was first received, so this is not necessarily the head of the queue. The
+   * caller must hold the {@link #_mergerLock} and the queue must not be empty.
+   * 
+   * @return the time, in milliseconds
+   */
+  private long getOldestCallMillis() {
+    long millis = _firstCall._receivedMillis;
+    for (Call<?> call = _firstCall._next; call != null; call = call._next) {
+      if (call._receivedMillis < millis) {
+        millis = call._receivedMillis;
+      }
+    }
+    return millis;
+  }
+
+  private void cycleCoalesced() {
+    _coalescedCycles.incrementAndGet();
+    final Meter meter = _coalescedCyclesMeter;
+    if (meter != null) {
+      meter.mark();
+    }
+  }
+
   //-------------------------------------------------------------------------
   public boolean isLatestResultCycleRetained() {
     return _isLatestResultCycleRetained;
@@ -226,6 +380,7 @@ public class MergingViewProcessListener implements ViewResultListener {
         }
         _previousCompilation = _latestCompilation;
         _latestCompilation = addCall(new ViewDefinitionCompiledCall(compiledViewDefinition, hasMarketDataPermissions));
+        callQueued();
         return;
       }
     } finally {
@@ -242,6 +397,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       if (!isPassThrough()) {
         clearCallQueue();
         _previousCompilation = addCall(new ViewDefinitionCompilationFailedCall(valuationTime, exception));
+        callQueued();
         return;
       }
     } finally {
@@ -262,6 +418,7 @@ public class MergingViewProcessListener implements ViewResultListener {
         }
         _previousCycleStarted = _latestCycleStarted;
         _latestCycleStarted = addCall(new CycleStartedCall(cycleMetadata));
+        callQueued();
         return;
       }
     } finally {
@@ -283,9 +440,11 @@ public class MergingViewProcessListener implements ViewResultListener {
           // There's a previous failure in the queue; remove it
           removeCall(_cycleFailed);
           _cycleFailed = null;
+          cycleCoalesced();
         }
         if (_cycleCompleted != null) {
           // There's a previous cycle completed call in the queue - move to end
+          cycleCoalesced();
           putCallToEnd(_cycleCompleted);
           // Merge new cycle completed call into old one
           _cycleCompleted.getFunction().update(fullResult, deltaResult);
@@ -309,6 +468,7 @@ public class MergingViewProcessListener implements ViewResultListener {
           removeCall(_previousCompilation);
           _previousCompilation = null;
         }
+        callQueued();
         return;
       }
     } finally {
@@ -332,6 +492,7 @@ public class MergingViewProcessListener implements ViewResultListener {
           // No existing fragment completed call - add new one
           _latestCycleFragmentCompleted = addCall(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
         }
+        callQueued();
         return;
       }
     } finally {
@@ -350,10 +511,12 @@ public class MergingViewProcessListener implements ViewResultListener {
           // Remove any previous success
           removeCall(_cycleCompleted);
           _cycleCompleted = null;
+          cycleCoalesced();
         }
         if (_cycleFailed != null) {
           // Remove any previous failure
           removeCall(_cycleFailed);
+          cycleCoalesced();
         }
         _cycleFailed = addCall(new CycleExecutionFailedCall(executionOptions, exception));
         // Only keep any fragment corresponding to this failure
@@ -372,6 +535,7 @@ public class MergingViewProcessListener implements ViewResultListener {
           removeCall(_previousCompilation);
           _previousCompilation = null;
         }
+        callQueued();
         return;
       }
     } finally {
@@ -387,6 +551,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       _lastUpdateMillis.set(System.currentTimeMillis());
       if (!isPassThrough()) {
         addCall(new ProcessCompletedCall());
+        callQueued();
         return;
       }
     } finally {
@@ -403,6 +568,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       getCycleRetainer().replaceRetainedCycle(null);
       if (!isPassThrough()) {
         addCall(new ProcessTerminatedCall(executionInterrupted));
+        callQueued();
         return;
       }
     } finally {
@@ -418,6 +584,7 @@ public class MergingViewProcessListener implements ViewResultListener {
       _lastUpdateMillis.set(System.currentTimeMillis());
       if (!isPassThrough()) {
         addCall(new ClientShutdownCall(e));
+        callQueued();
         return;
       }
     } finally {
@@ -450,6 +617,10 @@ public class MergingViewProcessListener implements ViewResultListener {
   private Call<?> takeCallQueue() {
     final Call<?> result;
     result = _firstCall;
+    final Histogram histogram = _deliveryLagHistogram;
+    if ((result != null) && (histogram != null)) {
+      histogram.update(System.currentTimeMillis() - getOldestCallMillis());
+    }
     clearCallQueue();
     return result;
   }
@@ -5,9 +5,11 @@
  */
 package com.opengamma.engine.view.client.merging;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -17,16 +19,29 @@ import com.opengamma.util.ArgumentChecker;
 
 /**
  * Merges view process results to satisfy a specified maximum downstream update rate (given in terms of a minimum period between updates). This maximum rate can be adjusted on-the-fly.
+ * <p>
+ * If constructed with a delivery executor, the downstream listener is never called from the thread that produced the update. Updates are queued and a single delivery task per listener is run on the
+ * executor to release them. A listener that is slow to consume its updates will then receive the merged results of any cycles that completed while it was busy, instead of holding up the view process
+ * and any other listeners attached to it.
  */
 public class RateLimitingMergingViewProcessListener extends MergingViewProcessListener {
 
   private static final long MIN_PERIOD = 50;
 
   private final ScheduledExecutorService _timer;
+  private final Executor _deliveryExecutor;
+  private final AtomicBoolean _deliveryPending = new AtomicBoolean();
+  private final Runnable _deliveryTask = new Runnable() {
+    @Override
+    public void run() {
+      deliver();
+    }
+  };
   private ReentrantLock _taskSetupLock = new ReentrantLock();
   private Future<?> _asyncUpdateCheckerTask;
 
-  private boolean _isPaused;
+  private volatile boolean _isPaused;
+  private volatile boolean _isAsynchronousPassThrough;
 
   private AtomicLong _minimumUpdatePeriodMillis = new AtomicLong(0);
 
@@ -36,9 +51,22 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
   private AtomicLong _lastUpdateTimeMillis = new AtomicLong();
 
   public RateLimitingMergingViewProcessListener(ViewResultListener underlying, EngineResourceManagerInternal<?> cycleManager, ScheduledExecutorService timer) {
+    this(underlying, cycleManager, timer, null);
+  }
+
+  /**
+   * Creates a new instance.
+   * 
+   * @param underlying the listener to deliver merged updates to, not null
+   * @param cycleManager the cycle manager, not null
+   * @param timer the timer used to trigger rate limited updates, not null
+   * @param deliveryExecutor the executor used to deliver updates to the underlying listener, or null to deliver them from the calling or timer thread
+   */
+  public RateLimitingMergingViewProcessListener(ViewResultListener underlying, EngineResourceManagerInternal<?> cycleManager, ScheduledExecutorService timer, Executor deliveryExecutor) {
     super(underlying, cycleManager);
     ArgumentChecker.notNull(timer, "timer");
     _timer = timer;
+    _deliveryExecutor = deliveryExecutor;
   }
 
   public void terminate() {
@@ -132,15 +160,59 @@ public class RateLimitingMergingViewProcessListener extends MergingViewProcessLi
       return false;
     }
 
-    drain();
+    if (_deliveryExecutor != null) {
+      scheduleDelivery();
+    } else {
+      drain();
+    }
     return true;
   }
 
+  @Override
+  protected void callQueued() {
+    if (_isAsynchronousPassThrough) {
+      scheduleDelivery();
+    }
+  }
+
+  /**
+   * Submits the delivery task to the executor unless it is already pending or running. At most one delivery task per listener is active so that calls reach the underlying listener in order.
+   */
+  private void scheduleDelivery() {
+    if (_deliveryPending.compareAndSet(false, true)) {
+      _deliveryExecutor.execute(_deliveryTask);
+    }
+  }
+
+  private void deliver() {
+    do {
+      if (!isPaused()) {
+        drain();
+      }
+      _deliveryPending.set(false);
+      // Anything queued while we were draining will not have scheduled another delivery
+    } while (_isAsynchronousPassThrough && hasQueuedCalls() && _deliveryPending.compareAndSet(false, true));
+  }
+
   private Call<?> updateConfiguration() {
     long minimumUpdatePeriodMillis = getMinimumUpdatePeriodMillis();
     cancelTimerTask();
-    final Call<?> drain = setPassThrough(minimumUpdatePeriodMillis == 0 && !isPaused());
-    if (!isPaused() && !isPassThrough()) {
+    final boolean passThrough = minimumUpdatePeriodMillis == 0 && !isPaused();
+    if (_deliveryExecutor != null) {
+      // Never pass straight through; queue everything and release it from the delivery task
+      setPassThrough(false);
+      _isAsynchronousPassThrough = passThrough;
+      if (passThrough) {
+        scheduleDelivery();
+        return null;
+      }
+    } else {
+      final Call<?> drain = setPassThrough(passThrough);
+      if (passThrough) {
+        return drain;
+      }
+    }
+    if (!isPaused()) {
       final Runnable task = new Runnable() {
         @Override
         public void run() {
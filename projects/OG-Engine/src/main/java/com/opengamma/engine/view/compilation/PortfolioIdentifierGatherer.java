@@ -11,22 +11,62 @@ import java.util.concurrent.ConcurrentMap;
 
 import com.opengamma.core.position.PortfolioNode;
 import com.opengamma.core.position.Position;
+import com.opengamma.core.position.PositionOrTrade;
 import com.opengamma.core.position.Trade;
 import com.opengamma.core.position.impl.AbstractPortfolioNodeTraversalCallback;
+import com.opengamma.core.security.SecurityLink;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetRequirement;
+import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.id.UniqueId;
 
 /**
  * Traverses a portfolio, gathering identifiers corresponding to {@link PortfolioNode}, {@link Position} and {@link Trade} entities. These are targets that may potentially create terminal output
  * requirements from on a view definition.
+ * <p>
+ * If requested, references to the securities of any positions and trades that have not already been resolved are also gathered. These can be resolved in bulk ahead of the graph building rather
+ * than one at a time as each position is considered.
  */
 /* package */class PortfolioIdentifierGatherer extends AbstractPortfolioNodeTraversalCallback {
 
   private final ConcurrentMap<UniqueId, Boolean> _identifiers = new ConcurrentHashMap<UniqueId, Boolean>();
 
+  private final ConcurrentMap<ComputationTargetReference, Boolean> _securities;
+
+  public PortfolioIdentifierGatherer() {
+    this(false);
+  }
+
+  public PortfolioIdentifierGatherer(final boolean gatherSecurities) {
+    _securities = gatherSecurities ? new ConcurrentHashMap<ComputationTargetReference, Boolean>() : null;
+  }
+
   public Set<UniqueId> getIdentifiers() {
     return _identifiers.keySet();
   }
 
+  /**
+   * Returns references to the unresolved securities of the positions and trades visited.
+   *
+   * @return the security references, or null if the gatherer was not constructed to collect them
+   */
+  public Set<ComputationTargetReference> getSecurities() {
+    return (_securities != null) ? _securities.keySet() : null;
+  }
+
+  private void gatherSecurity(final PositionOrTrade positionOrTrade) {
+    final SecurityLink link = positionOrTrade.getSecurityLink();
+    if ((link == null) || (link.getTarget() != null)) {
+      return;
+    }
+    if (link.getObjectId() != null) {
+      _securities.put(new ComputationTargetSpecification(ComputationTargetType.SECURITY, link.getObjectId().atLatestVersion()), Boolean.TRUE);
+    } else if ((link.getExternalId() != null) && !link.getExternalId().isEmpty()) {
+      _securities.put(new ComputationTargetRequirement(ComputationTargetType.SECURITY, link.getExternalId()), Boolean.TRUE);
+    }
+  }
+
   @Override
   public void preOrderOperation(final PortfolioNode portfolioNode) {
     _identifiers.put(portfolioNode.getUniqueId(), Boolean.TRUE);
@@ -35,8 +75,14 @@ import com.opengamma.id.UniqueId;
   @Override
   public void preOrderOperation(final PortfolioNode parentNode, final Position position) {
     if (_identifiers.putIfAbsent(position.getUniqueId(), Boolean.TRUE) == null) {
+      if (_securities != null) {
+        gatherSecurity(position);
+      }
       for (Trade trade : position.getTrades()) {
         _identifiers.put(trade.getUniqueId(), Boolean.TRUE);
+        if (_securities != null) {
+          gatherSecurity(trade);
+        }
       }
     }
   }
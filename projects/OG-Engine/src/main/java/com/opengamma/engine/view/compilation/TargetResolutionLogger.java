@@ -5,6 +5,7 @@
  */
 package com.opengamma.engine.view.compilation;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +14,7 @@ import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Maps;
 import com.opengamma.engine.ComputationTarget;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.ComputationTargetSpecification;
@@ -195,22 +197,37 @@ import com.opengamma.id.VersionCorrection;
     _specificationResolver = specificationResolver;
   }
 
+  private ComputationTarget log(final ComputationTargetSpecification specification, final ComputationTarget target) {
+    final ObjectResolver<?> resolver = getResolver(specification);
+    final DeepResolver deep = resolver.deepResolver();
+    if (deep != null) {
+      final UniqueIdentifiable logged = deep.withLogger(target.getValue(), _specificationResolver);
+      if (logged != null) {
+        return ComputationTargetResolverUtils.createResolvedTarget(specification, logged);
+      }
+    }
+    return target;
+  }
+
   @Override
   public ComputationTarget resolve(final ComputationTargetSpecification specification) {
-    ComputationTarget target = _underlying.resolve(specification);
+    final ComputationTarget target = _underlying.resolve(specification);
     if (target != null) {
-      final ObjectResolver<?> resolver = getResolver(specification);
-      final DeepResolver deep = resolver.deepResolver();
-      if (deep != null) {
-        final UniqueIdentifiable logged = deep.withLogger(target.getValue(), _specificationResolver);
-        if (logged != null) {
-          target = ComputationTargetResolverUtils.createResolvedTarget(specification, logged);
-        }
-      }
+      return log(specification, target);
     }
     return target;
   }
 
+  @Override
+  public Map<ComputationTargetSpecification, ComputationTarget> resolveTargets(final Collection<ComputationTargetSpecification> specifications) {
+    final Map<ComputationTargetSpecification, ComputationTarget> targets = _underlying.resolveTargets(specifications);
+    final Map<ComputationTargetSpecification, ComputationTarget> result = Maps.newHashMapWithExpectedSize(targets.size());
+    for (final Map.Entry<ComputationTargetSpecification, ComputationTarget> target : targets.entrySet()) {
+      result.put(target.getKey(), log(target.getKey(), target.getValue()));
+    }
+    return result;
+  }
+
   @Override
   public ObjectResolver<?> getResolver(final ComputationTargetSpecification specification) {
     return _underlying.getResolver(specification);
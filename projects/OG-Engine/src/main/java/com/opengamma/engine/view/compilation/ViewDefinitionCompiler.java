@@ -72,6 +72,7 @@ public final class ViewDefinitionCompiler {
   private static boolean s_striped;
   private static Timer s_fullTimer = new Timer(); // timer for full graph compilation (replaced if registerMetrics called)
   private static Timer s_deltaTimer = new Timer(); // timer for delta graph compilation (replaced if registerMetrics called)
+  private static Timer s_prefetchTimer = new Timer(); // timer for bulk resolution of portfolio targets (replaced if registerMetrics called)
 
   private static final Supplier<String> s_uniqueIdentifiers = new Supplier<String>() {
 
@@ -91,6 +92,7 @@ public final class ViewDefinitionCompiler {
   public static void registerMetricsStatic(MetricRegistry summaryRegistry, MetricRegistry detailRegistry, String namePrefix) {
     s_deltaTimer = summaryRegistry.timer(namePrefix + ".delta");
     s_fullTimer = summaryRegistry.timer(namePrefix + ".full");
+    s_prefetchTimer = summaryRegistry.timer(namePrefix + ".prefetch");
   }
 
   //-------------------------------------------------------------------------
@@ -247,6 +249,26 @@ public final class ViewDefinitionCompiler {
       return target.getValue(ComputationTargetType.PORTFOLIO);
     }
 
+    /**
+     * Resolves the securities referenced by the portfolio in a few bulk requests. Without this they would be resolved one at a time as the graph builders consider each position, which is the
+     * slowest part of compiling a large portfolio against a database backed security master. The resolved targets are held by the caching target resolver for use by the builders.
+     * 
+     * @param resolver the target resolver used by the graph builders, not null
+     */
+    private void prefetchTargets(final ComputationTargetResolver.AtVersionCorrection resolver) {
+      final PortfolioIdentifierGatherer gatherer = new PortfolioIdentifierGatherer(true);
+      PortfolioNodeTraverser.parallel(gatherer, getContext().getServices().getExecutorService()).traverse(_portfolio.getRootNode());
+      final Set<ComputationTargetReference> securities = gatherer.getSecurities();
+      if (securities.isEmpty()) {
+        return;
+      }
+      try (Timer.Context context = s_prefetchTimer.time()) {
+        final Map<ComputationTargetReference, ComputationTargetSpecification> specifications = resolver.getSpecificationResolver().getTargetSpecifications(securities);
+        final Map<ComputationTargetSpecification, ComputationTarget> targets = resolver.resolveTargets(new HashSet<ComputationTargetSpecification>(specifications.values()));
+        s_logger.info("Prefetched {} of {} securities referenced by portfolio {}", new Object[] {targets.size(), securities.size(), _portfolio.getUniqueId() });
+      }
+    }
+
     protected boolean isPortfolioOutputs() {
       return _portfolioOutputs;
     }
@@ -320,6 +342,7 @@ public final class ViewDefinitionCompiler {
               } else {
                 s_logger.debug("No previous portfolio to check new resolution against");
               }
+              prefetchTargets(functionContext.getComputationTargetResolver());
             }
             functionContext.setPortfolio(_portfolio);
           }
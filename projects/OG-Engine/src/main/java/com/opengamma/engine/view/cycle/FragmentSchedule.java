@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Decides when the results received by an executing cycle are published as a fragment. Results that arrive too soon after the last fragment are held back and published with any others that
+ * arrive before the next one is due.
+ * <p>
+ * Times are in nanoseconds as returned by {@link System#nanoTime} and are only compared by difference so that the schedule is not affected by the counter wrapping.
+ */
+/* package */final class FragmentSchedule {
+
+  private final long _periodNanos;
+  private long _nextNanos;
+
+  /**
+   * Creates a new instance. The first fragment is due immediately.
+   *
+   * @param periodNanos the minimum period between fragments, not negative
+   * @param nowNanos the current time
+   */
+  public FragmentSchedule(final long periodNanos, final long nowNanos) {
+    ArgumentChecker.notNegative(periodNanos, "periodNanos");
+    _periodNanos = periodNanos;
+    _nextNanos = nowNanos;
+  }
+
+  /**
+   * Returns the time remaining until the next fragment is due.
+   *
+   * @param nowNanos the current time
+   * @return the time to wait, zero or negative if a fragment is due now
+   */
+  public long getWaitNanos(final long nowNanos) {
+    return _nextNanos - nowNanos;
+  }
+
+  /**
+   * Tests whether a fragment may be published.
+   *
+   * @param nowNanos the current time
+   * @return true if a fragment is due, false if results should be held back
+   */
+  public boolean isDue(final long nowNanos) {
+    return nowNanos - _nextNanos >= 0;
+  }
+
+  /**
+   * Notes that a fragment has been published, so the next is not due until the period has elapsed.
+   *
+   * @param nowNanos the current time
+   */
+  public void published(final long nowNanos) {
+    _nextNanos = nowNanos + _periodNanos;
+  }
+
+}
@@ -5,26 +5,36 @@
  */
 package com.opengamma.engine.view.cycle;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.ObjectUtils;
 
+import com.google.common.collect.Maps;
 import com.opengamma.engine.cache.CacheSelectHint;
 import com.opengamma.engine.cache.ViewComputationCache;
-import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorer;
 import com.opengamma.engine.depgraph.DependencyNode;
-import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.depgraph.impl.DependencyGraphExplorerImpl;
+import com.opengamma.engine.depgraph.impl.DependentNodeIndex;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.Pair;
 
 /**
  * Determines which nodes in a graph have changed. A node has 'changed' if and only if its subtree contains a node for which PreviousLiveDataInput != CurrentLiveDataInput. Note that this excludes
  * changes due to passage of the system clock.
+ * <p>
+ * The market data nodes are found from the graph's {@link DependentNodeIndex} and the nodes producing dirty values from its explorer, the market data values are fetched from the caches in bulk,
+ * and the changes are propagated to the dependent nodes through the index, so only the changed part of the graph is walked. Forming the unchanged node set requires a pass over the index's node list.
  */
 public class LiveDataDeltaCalculator {
 
-  private final DependencyGraph _graph;
+  private final DependencyGraphExplorer _graph;
   private final ViewComputationCache _cache;
   private final ViewComputationCache _previousCache;
   private final Set<ValueSpecification> _changedSpecifications;
@@ -38,12 +48,12 @@ public class LiveDataDeltaCalculator {
    * For the delta calculation to be meaningful, the caches should be populated with LiveData inputs required to compute the given dependency graph. See {@link DependencyNode#getRequiredLiveData()}
    * and {@link ViewComputationCache#getValue(ValueSpecification)}.
    * 
-   * @param graph Dependency graph
+   * @param graph Explorer for the dependency graph
    * @param cache Contains CurrentLiveDataInputs (for the given graph)
    * @param previousCache Contains PreviousLiveDataInputs (for the given graph)
    * @param dirtySpecifications Value specifications that are to be considered "changed"
    */
-  public LiveDataDeltaCalculator(final DependencyGraph graph, final ViewComputationCache cache, final ViewComputationCache previousCache, final Set<ValueSpecification> dirtySpecifications) {
+  public LiveDataDeltaCalculator(final DependencyGraphExplorer graph, final ViewComputationCache cache, final ViewComputationCache previousCache, final Set<ValueSpecification> dirtySpecifications) {
     ArgumentChecker.notNull(graph, "Graph");
     ArgumentChecker.notNull(cache, "Cache");
     ArgumentChecker.notNull(previousCache, "Previous cache");
@@ -72,57 +82,58 @@ public class LiveDataDeltaCalculator {
     if (_done) {
       throw new IllegalStateException("Cannot determine delta twice");
     }
-    final int count = _graph.getRootCount();
-    for (int i = 0; i < count; i++) {
-      computeDelta(_graph.getRootNode(i));
-    }
-    _done = true;
-  }
-
-  private boolean computeDelta(final DependencyNode node) {
-    if (_changedNodes.contains(node)) {
-      return true;
+    final DependencyGraphExplorerImpl explorer = (_graph instanceof DependencyGraphExplorerImpl) ? (DependencyGraphExplorerImpl) _graph : new DependencyGraphExplorerImpl(_graph.getWholeGraph());
+    final DependentNodeIndex index = explorer.getDependentNodeIndex();
+    // Find the nodes which have changed directly; the market data nodes whose values differ and any with dirty outputs
+    final DependencyNode[] marketDataNodes = index.getMarketDataNodes();
+    final List<ValueSpecification> marketData = new ArrayList<ValueSpecification>();
+    for (DependencyNode node : marketDataNodes) {
+      final int count = node.getOutputCount();
+      for (int i = 0; i < count; i++) {
+        marketData.add(node.getOutputValue(i));
+      }
     }
-    if (_unchangedNodes.contains(node)) {
-      return false;
+    final List<DependencyNode> dirtyNodes = new ArrayList<DependencyNode>();
+    if (_changedSpecifications != null) {
+      for (ValueSpecification changed : _changedSpecifications) {
+        final DependencyNode node = explorer.getNodeProducing(changed);
+        if ((node != null) && (node.getInputCount() > 0)) {
+          dirtyNodes.add(node);
+        }
+      }
     }
-    boolean hasChanged = false;
-    int count = node.getInputCount();
-    if (count == 0) {
-      if (MarketDataSourcingFunction.UNIQUE_ID.equals(node.getFunction().getFunctionId())) {
-        // This is a graph leaf, but market data changes may affect the function of the node.
-        count = node.getOutputCount();
+    if (!marketData.isEmpty()) {
+      // Market data is always in the shared cache
+      final Map<ValueSpecification, Object> oldValues = getValues(_previousCache, marketData);
+      final Map<ValueSpecification, Object> newValues = getValues(_cache, marketData);
+      for (DependencyNode node : marketDataNodes) {
+        final int count = node.getOutputCount();
         for (int i = 0; i < count; i++) {
           final ValueSpecification liveData = node.getOutputValue(i);
-          // Market data is always in the shared cache
-          final Object oldValue = _previousCache.getValue(liveData, CacheSelectHint.allShared());
-          final Object newValue = _cache.getValue(liveData, CacheSelectHint.allShared());
-          if (!ObjectUtils.equals(oldValue, newValue)) {
-            hasChanged = true;
+          if (!ObjectUtils.equals(oldValues.get(liveData), newValues.get(liveData))) {
+            dirtyNodes.add(node);
             break;
           }
         }
       }
-    } else {
-      for (int i = 0; i < count; i++) {
-        // if any children changed, this node requires recalculation
-        hasChanged |= computeDelta(node.getInputNode(i));
-      }
-      if (!hasChanged && (_changedSpecifications != null)) {
-        count = node.getOutputCount();
-        for (int i = 0; i < count; i++) {
-          if (_changedSpecifications.contains(node.getOutputValue(i))) {
-            hasChanged = true;
-            break;
-          }
-        }
+    }
+    // A node has changed if any of its inputs have; propagate the changes towards the roots
+    index.addDependents(dirtyNodes, _changedNodes);
+    for (DependencyNode node : index.getNodes()) {
+      if (!_changedNodes.contains(node)) {
+        _unchangedNodes.add(node);
       }
     }
-    if (hasChanged) {
-      _changedNodes.add(node);
-    } else {
-      _unchangedNodes.add(node);
+    _done = true;
+  }
+
+  private static Map<ValueSpecification, Object> getValues(final ViewComputationCache cache, final Collection<ValueSpecification> specifications) {
+    final Collection<Pair<ValueSpecification, Object>> values = cache.getValues(specifications, CacheSelectHint.allShared());
+    final Map<ValueSpecification, Object> result = Maps.newHashMapWithExpectedSize(values.size());
+    for (Pair<ValueSpecification, Object> value : values) {
+      result.put(value.getFirst(), value.getSecond());
     }
-    return hasChanged;
+    return result;
   }
+
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueSpecification;
+
+/**
+ * Completion watermark for the targets of one calculation configuration during a cycle. A target is pending until results for all of its terminal outputs that are to be calculated by the cycle
+ * have been received.
+ * <p>
+ * Updates must be made by a single thread, normally the one executing the cycle. The pending state may be queried from any thread.
+ */
+/* package */final class PendingTargets {
+
+  private final Map<ComputationTargetSpecification, Integer> _outstanding = new HashMap<>();
+  private final Set<ComputationTargetSpecification> _pending = Collections.newSetFromMap(new ConcurrentHashMap<ComputationTargetSpecification, Boolean>());
+
+  /**
+   * Creates a new instance.
+   *
+   * @param terminalOutputs the terminal outputs of the graph, not null
+   * @param sharedValues the values that are already available and will not be calculated, not null
+   */
+  public PendingTargets(final Collection<ValueSpecification> terminalOutputs, final Set<ValueSpecification> sharedValues) {
+    for (ValueSpecification terminalOutput : terminalOutputs) {
+      if (sharedValues.contains(terminalOutput)) {
+        continue;
+      }
+      final ComputationTargetSpecification target = terminalOutput.getTargetSpecification();
+      final Integer count = _outstanding.get(target);
+      _outstanding.put(target, (count == null) ? 1 : count + 1);
+    }
+    _pending.addAll(_outstanding.keySet());
+  }
+
+  /**
+   * Notes that a result for a terminal output has been received.
+   *
+   * @param terminalOutput the terminal output, not null
+   * @return true if this was the last outstanding output for its target, false otherwise
+   */
+  public boolean outputCompleted(final ValueSpecification terminalOutput) {
+    final ComputationTargetSpecification target = terminalOutput.getTargetSpecification();
+    final Integer count = _outstanding.get(target);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      _outstanding.remove(target);
+      _pending.remove(target);
+      return true;
+    } else {
+      _outstanding.put(target, count - 1);
+      return false;
+    }
+  }
+
+  /**
+   * Marks all targets as complete, for example when execution of the graph has finished.
+   */
+  public void completeAll() {
+    _outstanding.clear();
+    _pending.clear();
+  }
+
+  /**
+   * Tests whether a target still has terminal outputs to be calculated.
+   *
+   * @param target the target to test, not null
+   * @return true if the target is pending, false if all of its outputs are available
+   */
+  public boolean isPending(final ComputationTargetSpecification target) {
+    return _pending.contains(target);
+  }
+
+  /**
+   * Returns the number of targets that still have terminal outputs to be calculated.
+   *
+   * @return the number of pending targets
+   */
+  public int size() {
+    return _pending.size();
+  }
+
+}
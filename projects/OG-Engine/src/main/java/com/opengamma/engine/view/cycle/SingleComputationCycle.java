@@ -29,6 +29,7 @@ import org.threeten.bp.Instant;
 import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.cache.MissingInput;
 import com.opengamma.engine.cache.MissingOutput;
 import com.opengamma.engine.cache.ViewComputationCache;
@@ -92,6 +93,11 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    */
   public static final String MARKET_DATA_SHIFT_PROPERTY = "MARKET_DATA_SHIFT";
 
+  /**
+   * The default minimum period between result fragments, in milliseconds. Zero publishes a fragment as soon as any new results are available.
+   */
+  public static final long DEFAULT_FRAGMENT_FLUSH_MILLIS = parseFragmentFlushMillis(System.getProperty("SingleComputationCycle.fragmentFlushMillis"));
+
   /**
    * Marker for nodes that have not been executed, for example because of blacklist suppression, calculation error or missing input data (perhaps caused by blacklist suppression or calculation
    * errors).
@@ -99,6 +105,28 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   private static final DependencyNodeJobExecutionResult BLACKLISTED_NODE_JOB_RESULT = new DependencyNodeJobExecutionResult("", CalculationJobResultItemBuilder
       .of(new MutableExecutionLog(ExecutionLogMode.FULL)).withSuppression().toResultItem(), AggregatedExecutionLog.EMPTY);
 
+  /**
+   * Parses the default fragment flush period from a system property value. An invalid value is logged and ignored rather than preventing the class from loading.
+   *
+   * @param value the property value, null if not set
+   * @return the period in milliseconds, not negative
+   */
+  /* package */static long parseFragmentFlushMillis(final String value) {
+    if (value == null) {
+      return 0;
+    }
+    try {
+      final long millis = Long.parseLong(value.trim());
+      if (millis >= 0) {
+        return millis;
+      }
+    } catch (final NumberFormatException e) {
+      // Fall through
+    }
+    s_logger.warn("Invalid fragment flush period {}; publishing fragments as soon as results are available", value);
+    return 0;
+  }
+
   // Injected inputs
   private final UniqueId _cycleId;
   private final String _name;
@@ -117,6 +145,8 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   private final Map<String, DependencyNodeJobExecutionResultCache> _jobResultCachesByCalculationConfiguration = new ConcurrentHashMap<String, DependencyNodeJobExecutionResultCache>();
   private final Map<String, ViewComputationCache> _cachesByCalculationConfiguration = new HashMap<String, ViewComputationCache>();
   private volatile SingleComputationCycleExecutor _executor;
+  private final Map<String, PendingTargets> _pendingTargetsByCalculationConfiguration = new ConcurrentHashMap<String, PendingTargets>();
+  private long _fragmentFlushMillis = DEFAULT_FRAGMENT_FLUSH_MILLIS;
 
   // Output
   private final InMemoryViewComputationResultModel _resultModel;
@@ -209,6 +239,40 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     return new HashSet<>(getCompiledViewDefinition().getViewDefinition().getAllCalculationConfigurationNames());
   }
 
+  public long getFragmentFlushMillis() {
+    return _fragmentFlushMillis;
+  }
+
+  /**
+   * Sets the minimum period between result fragments published while the cycle executes. Results that arrive within the period are batched into the next fragment. This must be set before the cycle
+   * is executed.
+   *
+   * @param fragmentFlushMillis the period in milliseconds, zero to publish a fragment as soon as any new results are available
+   */
+  public void setFragmentFlushMillis(final long fragmentFlushMillis) {
+    ArgumentChecker.notNegative(fragmentFlushMillis, "fragmentFlushMillis");
+    _fragmentFlushMillis = fragmentFlushMillis;
+  }
+
+  @Override
+  public boolean isTargetComplete(final String calcConfigName, final ComputationTargetSpecification target) {
+    final PendingTargets pending = _pendingTargetsByCalculationConfiguration.get(calcConfigName);
+    if (pending != null) {
+      return !pending.isPending(target);
+    }
+    return getState() == ViewCycleState.EXECUTED;
+  }
+
+  @Override
+  public int getPendingTargetCount(final String calcConfigName) {
+    final PendingTargets pending = _pendingTargetsByCalculationConfiguration.get(calcConfigName);
+    return (pending != null) ? pending.size() : 0;
+  }
+
+  /* package */void setPendingTargets(final String calcConfigName, final PendingTargets pending) {
+    _pendingTargetsByCalculationConfiguration.put(calcConfigName, pending);
+  }
+
   //-------------------------------------------------------------------------
   private UniqueId getCycleId() {
     return _cycleId;
@@ -557,7 +621,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
       final ViewComputationCache previousCache = previousCycle.getComputationCache(calcConfig);
       final DependencyNodeJobExecutionResultCache jobExecutionResultCache = getJobExecutionResultCache(calcConfig);
       final DependencyNodeJobExecutionResultCache previousJobExecutionResultCache = previousCycle.getJobExecutionResultCache(calcConfig);
-      final LiveDataDeltaCalculator deltaCalculator = new LiveDataDeltaCalculator(depGraph, cache, previousCache, parameterDelta.getValueSpecifications(calcConfig, previousViewDefinition,
+      final LiveDataDeltaCalculator deltaCalculator = new LiveDataDeltaCalculator(depGraphExplorer, cache, previousCache, parameterDelta.getValueSpecifications(calcConfig, previousViewDefinition,
           viewDefinition));
       deltaCalculator.computeDelta();
       s_logger.info("Computed delta for calculation configuration '{}'. {} nodes out of {} require recomputation.", calcConfig, deltaCalculator.getChangedNodes().size(), depGraph.getSize());
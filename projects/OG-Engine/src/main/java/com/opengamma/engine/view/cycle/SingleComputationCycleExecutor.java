@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +77,7 @@ import com.opengamma.util.tuple.Pair;
       final ExecutingCalculationConfiguration calcConfig = executor._executing.remove(_calculationConfiguration);
 
       if (calcConfig != null) {
+        calcConfig.getPendingTargets().completeAll();
         SingleComputationCycle cycle = executor.getCycle();
         final InMemoryViewComputationResultModel fragmentResultModel = cycle.constructTemplateResultModel();
         calcConfig.buildResults(fragmentResultModel, cycle.getResultModel());
@@ -112,12 +114,14 @@ import com.opengamma.util.tuple.Pair;
     private final DependencyNodeJobExecutionResultCache _resultCache;
     private final ViewComputationCache _computationCache;
     private final Set<ValueSpecification> _terminalOutputs = new HashSet<ValueSpecification>();
+    private final PendingTargets _pendingTargets;
 
-    public ExecutingCalculationConfiguration(final SingleComputationCycle cycle, final DependencyGraph graph, final Cancelable handle) {
+    public ExecutingCalculationConfiguration(final SingleComputationCycle cycle, final DependencyGraph graph, final Cancelable handle, final PendingTargets pendingTargets) {
       _handle = handle;
       _graph = graph;
       _resultCache = cycle.getJobExecutionResultCache(graph.getCalculationConfigurationName());
       _computationCache = cycle.getComputationCache(graph.getCalculationConfigurationName());
+      _pendingTargets = pendingTargets;
     }
 
     public void cancel() {
@@ -136,6 +140,10 @@ import com.opengamma.util.tuple.Pair;
       return _terminalOutputs;
     }
 
+    public PendingTargets getPendingTargets() {
+      return _pendingTargets;
+    }
+
     public void buildResults(final InMemoryViewComputationResultModel fragmentResultModel, final InMemoryViewComputationResultModel fullResultModel) {
       if (_terminalOutputs.isEmpty()) {
         return;
@@ -175,24 +183,38 @@ import com.opengamma.util.tuple.Pair;
       final Set<ValueSpecification> sharedData = getCycle().getSharedValues(calcConfigurationName);
       final Map<ValueSpecification, FunctionParameters> parameters = getCycle().createFunctionParameters(calcConfigurationName);
       s_logger.info("Submitting {} for execution by {}", depGraph, executor);
+      final PendingTargets pendingTargets = new PendingTargets(depGraph.getTerminalOutputs().keySet(), sharedData);
+      getCycle().setPendingTargets(calcConfigurationName, pendingTargets);
       final DependencyGraphExecutionFuture future = executor.execute(depGraph, sharedData, parameters);
-      _executing.put(calcConfigurationName, new ExecutingCalculationConfiguration(getCycle(), depGraph, future));
+      _executing.put(calcConfigurationName, new ExecutingCalculationConfiguration(getCycle(), depGraph, future, pendingTargets));
       future.setListener(this);
     }
+    final FragmentSchedule fragments = new FragmentSchedule(TimeUnit.MILLISECONDS.toNanos(getCycle().getFragmentFlushMillis()), System.nanoTime());
     try {
       while (!_executing.isEmpty()) {
-        // Block for the first event
-        _events.take().run(this);
+        Event e;
+        if (_issueFragmentResults) {
+          // Results are waiting to be published; only block until the next fragment is due
+          final long waitNanos = fragments.getWaitNanos(System.nanoTime());
+          e = (waitNanos > 0) ? _events.poll(waitNanos, TimeUnit.NANOSECONDS) : _events.poll();
+        } else {
+          // Block for the first event
+          e = _events.take();
+        }
         // Then run through any others as quickly as possible before dispatching a notification
-        Event e = _events.poll();
         while (e != null) {
           e.run(this);
           e = _events.poll();
         }
         if (_issueFragmentResults) {
+          final long nowNanos = System.nanoTime();
           if (_executing.isEmpty()) {
             s_logger.info("Discarding fragment completion message - overall execution is complete");
+          } else if (!fragments.isDue(nowNanos)) {
+            // Too soon after the last fragment; batch these results with any that arrive before the next one is due
+            continue;
           } else {
+            fragments.published(nowNanos);
             s_logger.debug("Building result fragment");
             final InMemoryViewComputationResultModel fragmentResultModel = getCycle().constructTemplateResultModel();
             final InMemoryViewComputationResultModel fullResultModel = getCycle().getResultModel();
@@ -254,6 +276,7 @@ import com.opengamma.util.tuple.Pair;
     final ExecutionLogModeSource logModes = getCycle().getLogModeSource();
     final DependencyNodeJobExecutionResultCache jobExecutionResultCache = calcConfig.getResultCache();
     final Set<ValueSpecification> executedTerminalOutputs = calcConfig.getTerminalOutputs();
+    final PendingTargets pendingTargets = calcConfig.getPendingTargets();
     final String computeNodeId = jobResult.getComputeNodeId();
     while (jobItemItr.hasNext()) {
       assert jobResultItr.hasNext();
@@ -318,6 +341,7 @@ import com.opengamma.util.tuple.Pair;
       for (final ValueSpecification outputValueSpec : jobItem.getOutputs()) {
         if (graphTerminalOutputs.containsKey(outputValueSpec)) {
           executedTerminalOutputs.add(outputValueSpec);
+          pendingTargets.outputCompleted(outputValueSpec);
         }
         jobExecutionResultCache.put(outputValueSpec, jobExecutionResult);
       }
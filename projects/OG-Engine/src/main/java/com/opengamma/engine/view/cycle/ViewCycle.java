@@ -7,6 +7,7 @@ package com.opengamma.engine.view.cycle;
 
 import org.threeten.bp.Duration;
 
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
@@ -99,4 +100,21 @@ public interface ViewCycle extends UniqueIdentifiable {
    */
   ComputationResultsResponse queryResults(ComputationCycleQuery query);
 
+  /**
+   * Tests whether all of the terminal outputs for a target have been calculated. A client receiving result fragments can use this to tell when a row is complete before the cycle has finished.
+   * 
+   * @param calcConfigName the calculation configuration name, not null
+   * @param target the target to test, not null
+   * @return true if the results for the target are complete, false if some are still to be calculated or execution has not started
+   */
+  boolean isTargetComplete(String calcConfigName, ComputationTargetSpecification target);
+
+  /**
+   * Returns the number of targets that still have terminal outputs to be calculated.
+   * 
+   * @param calcConfigName the calculation configuration name, not null
+   * @return the number of pending targets, zero if execution has not started or has finished
+   */
+  int getPendingTargetCount(String calcConfigName);
+
 }
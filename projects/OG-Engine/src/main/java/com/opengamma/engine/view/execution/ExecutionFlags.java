@@ -127,6 +127,16 @@ public final class ExecutionFlags {
     return this;
   }
 
+  /**
+   * Adds {@link ViewExecutionFlags#SCENARIO_FAN_OUT}.
+   * 
+   * @return this
+   */
+  public ExecutionFlags scenarioFanOut() {
+    _flags.add(ViewExecutionFlags.SCENARIO_FAN_OUT);
+    return this;
+  }
+
   /**
    * Modes of operation for the {@link #parallelCompilation} flag.
    */
@@ -112,6 +112,17 @@ public enum ViewExecutionFlags {
   /**
    * Indicates that the results should be stored in batch database.
    */
-  BATCH
+  BATCH,
+
+  /**
+   * Indicates that each cycle should be computed as a delta from the first cycle of the execution sequence, rather than from the cycle immediately before it. This is intended for sequences that
+   * evaluate many scenarios against the same compiled graph, with market data manipulated through {@link com.opengamma.engine.marketdata.manipulator.MarketDataSelector}s. The first cycle should be
+   * the unshocked base case; each scenario cycle then only executes the nodes downstream of the selectors whose function parameters differ from those of the base, taking all other values from
+   * the base cycle.
+   * <p>
+   * The base cycle is retained, with its computation caches, until the sequence completes. If a full cycle is required, for example because the view was recompiled, that cycle becomes the new
+   * base.
+   */
+  SCENARIO_FAN_OUT
 
 }
@@ -90,6 +90,7 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
   private final AtomicLong _clientIdSource = new AtomicLong();
   private final ReentrantLock _lifecycleLock = new ReentrantLock();
   private ScheduledExecutorService _clientResultTimer;
+  private ExecutorService _clientResultDelivery;
 
   private final EngineResourceManagerInternal<SingleComputationCycle> _cycleManager = new EngineResourceManagerImpl<>();
 
@@ -568,7 +569,7 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
     ArgumentChecker.notNull(clientUser, "clientUser");
     final String idValue = generateIdValue(_clientIdSource);
     final UniqueId clientId = UniqueId.of(CLIENT_SCHEME, idValue);
-    final ViewClientImpl client = new ViewClientImpl(clientId, this, clientUser, _clientResultTimer);
+    final ViewClientImpl client = new ViewClientImpl(clientId, this, clientUser, _clientResultTimer, _clientResultDelivery);
     _allClientsById.put(clientId, client);
     _viewProcessorEventListenerRegistry.notifyViewClientAdded(clientId);
     return client;
@@ -679,6 +680,7 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
       }
       s_logger.info("Starting on lifecycle call.");
       _clientResultTimer = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Shared ViewClient result timer"));
+      _clientResultDelivery = Executors.newCachedThreadPool(new NamedThreadFactory("ViewClient result delivery"));
       _viewAutoStartManager.initialize();
       for (Map.Entry<String, AutoStartViewDefinition> entry : _viewAutoStartManager.getAutoStartViews().entrySet()) {
         autoStartView(entry.getKey(), entry.getValue());
@@ -767,6 +769,7 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
   @Override
   public void stop() {
     final ScheduledExecutorService clientResultTimer;
+    final ExecutorService clientResultDelivery;
     _processLock.lock();
     _lifecycleLock.lock();
     try {
@@ -786,6 +789,8 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
       _allClientsById.clear();
       clientResultTimer = _clientResultTimer;
       _clientResultTimer = null;
+      clientResultDelivery = _clientResultDelivery;
+      _clientResultDelivery = null;
       _isStarted = false;
 
       // REVIEW Andrew 2010-03-25 -- It might be coincidence, but if this gets called during undeploy/stop within a container the Bloomberg API explodes with a ton of NPEs.
@@ -797,6 +802,9 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
     if (clientResultTimer != null) {
       clientResultTimer.shutdown();
     }
+    if (clientResultDelivery != null) {
+      clientResultDelivery.shutdown();
+    }
   }
 
   //-------------------------------------------------------------------------
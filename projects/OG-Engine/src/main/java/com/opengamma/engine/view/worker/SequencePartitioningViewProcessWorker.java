@@ -16,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Instant;
 
+import com.opengamma.engine.resource.EngineResourceReference;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDefinition;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
@@ -31,11 +32,155 @@ import com.opengamma.engine.view.impl.ViewProcessContext;
 
 /**
  * Implementation of {@link ViewProcessWorker} for partitioning a sequence and delegating to other workers to handle each partition.
+ * <p>
+ * The partitions are executed concurrently but the notifications are passed to the view process in sequence order. Notifications from the worker handling the earliest incomplete partition are passed
+ * straight through; those from later partitions are held until all of the earlier partitions have completed. A reference is held to each cycle whose notification is held so that the
+ * cycle is still available when it is delivered, and a partition that has {@link #MAX_HELD_CYCLES} cycles held is stalled until it is released.
  */
-public class SequencePartitioningViewProcessWorker implements ViewProcessWorker, ViewProcessWorkerContext {
+public class SequencePartitioningViewProcessWorker implements ViewProcessWorker {
 
   private static final Logger s_logger = LoggerFactory.getLogger(SequencePartitioningViewProcessWorker.class);
 
+  /**
+   * The maximum number of completed cycles that are held for a partition before its worker is stalled.
+   */
+  /* package */static final int MAX_HELD_CYCLES = 4;
+
+  /**
+   * The context given to the delegate worker for a partition.
+   */
+  private final class PartitionContext implements ViewProcessWorkerContext {
+
+    private final List<Runnable> _pending = new ArrayList<Runnable>();
+    private boolean _passThrough;
+    private int _heldCycles;
+    // Guarded by the outer monitor
+    private boolean _completed;
+
+    private PartitionContext(final boolean passThrough) {
+      _passThrough = passThrough;
+    }
+
+    private synchronized void notify(final Runnable notification) {
+      if (_passThrough) {
+        notification.run();
+      } else {
+        _pending.add(notification);
+      }
+    }
+
+    /**
+     * Delivers any held notifications and passes any further ones straight through. This is called when all earlier partitions have completed.
+     */
+    private synchronized void release() {
+      if (!_passThrough) {
+        s_logger.debug("Releasing {} notifications", _pending.size());
+        for (Runnable notification : _pending) {
+          notification.run();
+        }
+        _pending.clear();
+        _heldCycles = 0;
+        _passThrough = true;
+        notifyAll();
+      }
+    }
+
+    @Override
+    public ViewProcessContext getProcessContext() {
+      return getWorkerContext().getProcessContext();
+    }
+
+    @Override
+    public void viewDefinitionCompiled(final ViewExecutionDataProvider dataProvider, final CompiledViewDefinitionWithGraphs compiled) {
+      notify(new Runnable() {
+        @Override
+        public void run() {
+          getWorkerContext().viewDefinitionCompiled(dataProvider, compiled);
+        }
+      });
+    }
+
+    @Override
+    public void viewDefinitionCompilationFailed(final Instant compilationTime, final Exception exception) {
+      notify(new Runnable() {
+        @Override
+        public void run() {
+          getWorkerContext().viewDefinitionCompilationFailed(compilationTime, exception);
+        }
+      });
+    }
+
+    @Override
+    public void cycleStarted(final ViewCycleMetadata cycleMetadata) {
+      notify(new Runnable() {
+        @Override
+        public void run() {
+          getWorkerContext().cycleStarted(cycleMetadata);
+        }
+      });
+    }
+
+    @Override
+    public void cycleFragmentCompleted(final ViewComputationResultModel result, final ViewDefinition viewDefinition) {
+      notify(new Runnable() {
+        @Override
+        public void run() {
+          getWorkerContext().cycleFragmentCompleted(result, viewDefinition);
+        }
+      });
+    }
+
+    @Override
+    public synchronized void cycleCompleted(final ViewCycle cycle) {
+      while (!_passThrough && (_heldCycles >= MAX_HELD_CYCLES)) {
+        s_logger.debug("Waiting for release of {} held cycles", _heldCycles);
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          // The worker is being terminated; hold the cycle anyway so that it is still delivered in order
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      if (_passThrough) {
+        getWorkerContext().cycleCompleted(cycle);
+      } else {
+        // The delegate worker releases its own reference to the cycle once this returns
+        final EngineResourceReference<?> reference = getProcessContext().getCycleManager().createReference(cycle.getUniqueId());
+        _heldCycles++;
+        _pending.add(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              getWorkerContext().cycleCompleted(cycle);
+            } finally {
+              if (reference != null) {
+                reference.release();
+              }
+            }
+          }
+        });
+      }
+    }
+
+    @Override
+    public void cycleExecutionFailed(final ViewCycleExecutionOptions options, final Exception exception) {
+      notify(new Runnable() {
+        @Override
+        public void run() {
+          getWorkerContext().cycleExecutionFailed(options, exception);
+        }
+      });
+    }
+
+    @Override
+    public void workerCompleted() {
+      s_logger.debug("Partition completed");
+      partitionCompleted(this);
+    }
+
+  }
+
   private final ViewProcessWorkerFactory _delegate;
   private final ViewProcessWorkerContext _context;
   private final EnumSet<ViewExecutionFlags> _executionFlags;
@@ -43,6 +188,8 @@ public class SequencePartitioningViewProcessWorker implements ViewProcessWorker,
   private final ViewCycleExecutionSequence _sequence;
   private final ViewCycleExecutionOptions _defaultExecutionOptions;
   private final Queue<ViewProcessWorker> _workers = new LinkedList<ViewProcessWorker>();
+  private final Queue<PartitionContext> _partitions = new LinkedList<PartitionContext>();
+  private final Object _releaseLock = new Object();
   private volatile ViewDefinition _viewDefinition;
   private int _partition;
   private boolean _terminated;
@@ -122,7 +269,9 @@ public class SequencePartitioningViewProcessWorker implements ViewProcessWorker,
       final int firstCycle = _spawnedCycleCount;
       _spawnedCycleCount += partition.size();
       s_logger.info("Spawning worker {} for {} cycles {} - {}", new Object[] {++_spawnedWorkerCount, getWorkerContext(), firstCycle, _spawnedCycleCount });
-      ViewProcessWorker delegate = getDelegate().createWorker(this, getExecutionOptions(new ArbitraryViewCycleExecutionSequence(partition)), getViewDefinition());
+      final PartitionContext context = new PartitionContext(_partitions.isEmpty());
+      _partitions.add(context);
+      ViewProcessWorker delegate = getDelegate().createWorker(context, getExecutionOptions(new ArbitraryViewCycleExecutionSequence(partition)), getViewDefinition());
       _workers.add(delegate);
       _spawnedWorkers++;
     }
@@ -256,57 +405,28 @@ public class SequencePartitioningViewProcessWorker implements ViewProcessWorker,
     }
   }
 
-  // ViewProcessWorkerContext
-
-  @Override
-  public ViewProcessContext getProcessContext() {
-    return getWorkerContext().getProcessContext();
-  }
-
-  @Override
-  public void viewDefinitionCompiled(ViewExecutionDataProvider dataProvider, CompiledViewDefinitionWithGraphs compiled) {
-    s_logger.debug("View definition compiled");
-    getWorkerContext().viewDefinitionCompiled(dataProvider, compiled);
-  }
-
-  @Override
-  public void viewDefinitionCompilationFailed(Instant compilationTime, Exception exception) {
-    s_logger.debug("View definition compilation failed");
-    getWorkerContext().viewDefinitionCompilationFailed(compilationTime, exception);
-  }
-
-  @Override
-  public void cycleStarted(ViewCycleMetadata cycleMetadata) {
-    s_logger.debug("Cycle started");
-    getWorkerContext().cycleStarted(cycleMetadata);
-  }
-
-  @Override
-  public void cycleFragmentCompleted(ViewComputationResultModel result, ViewDefinition viewDefinition) {
-    s_logger.debug("Cycle fragment completed");
-    getWorkerContext().cycleFragmentCompleted(result, viewDefinition);
-  }
-
-  @Override
-  public void cycleCompleted(ViewCycle cycle) {
-    s_logger.debug("Cycle completed");
-    getWorkerContext().cycleCompleted(cycle);
-  }
-
-  @Override
-  public void cycleExecutionFailed(ViewCycleExecutionOptions options, Exception exception) {
-    s_logger.debug("Cycle execution failed");
-    getWorkerContext().cycleExecutionFailed(options, exception);
-  }
-
-  @Override
-  public void workerCompleted() {
-    s_logger.debug("Worker completed");
+  private void partitionCompleted(final PartitionContext partition) {
     final boolean finished;
-    synchronized (this) {
-      finished = (--_spawnedWorkers) == 0;
-      if (!_terminated) {
-        spawnWorker();
+    // Releases are serialized so that the notifications from successive partitions can't overtake each other
+    synchronized (_releaseLock) {
+      final List<PartitionContext> release = new ArrayList<PartitionContext>();
+      synchronized (this) {
+        partition._completed = true;
+        _spawnedWorkers--;
+        if (!_terminated) {
+          // The completed partition is still queued, so the new one will hold its notifications until released below
+          spawnWorker();
+        }
+        finished = _spawnedWorkers == 0;
+        while (!_partitions.isEmpty() && _partitions.peek()._completed) {
+          release.add(_partitions.remove());
+        }
+        if (!_partitions.isEmpty()) {
+          release.add(_partitions.peek());
+        }
+      }
+      for (PartitionContext context : release) {
+        context.release();
       }
     }
     // isTerminated will housekeep the queue for us, but may not return TRUE as the worker that called us might not be considered terminated yet
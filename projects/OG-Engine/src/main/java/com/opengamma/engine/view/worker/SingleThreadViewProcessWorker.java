@@ -200,6 +200,7 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
   private final boolean _executeGraphs;
   private final boolean _ignoreCompilationValidity;
   private final boolean _suppressExecutionOnNoMarketData;
+  private final boolean _scenarioFanOut;
   /**
    * The changes to the master trigger that must be made during the next cycle.
    * <p>
@@ -211,6 +212,10 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
   private int _cycleCount;
 
   private EngineResourceReference<SingleComputationCycle> _previousCycleReference;
+  /**
+   * The cycle that delta cycles are computed from when {@link ViewExecutionFlags#SCENARIO_FAN_OUT} is set.
+   */
+  private EngineResourceReference<SingleComputationCycle> _baseCycleReference;
   /**
    * The current view definition the worker must calculate on.
    */
@@ -322,6 +327,7 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
     _executeGraphs = !executionOptions.getFlags().contains(ViewExecutionFlags.FETCH_MARKET_DATA_ONLY);
     _suppressExecutionOnNoMarketData = executionOptions.getFlags().contains(ViewExecutionFlags.SKIP_CYCLE_ON_NO_MARKET_DATA);
     _ignoreCompilationValidity = executionOptions.getFlags().contains(ViewExecutionFlags.IGNORE_COMPILATION_VALIDITY);
+    _scenarioFanOut = executionOptions.getFlags().contains(ViewExecutionFlags.SCENARIO_FAN_OUT);
     _viewDefinition = viewDefinition;
     _specificMarketDataSelectors = extractSpecificSelectors(viewDefinition);
     _marketDataManager = createMarketDataManager(context);
@@ -643,6 +649,10 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
       if (_previousCycleReference != null) {
         _previousCycleReference.release();
       }
+      if (_baseCycleReference != null) {
+        _baseCycleReference.release();
+        _baseCycleReference = null;
+      }
       unsubscribeFromTargetResolverChanges();
       _marketDataManager.stop();
       _executionCacheKey = null;
@@ -820,7 +830,11 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
       s_logger.info("Performing full computation");
       deltaCycle = null;
     } else {
-      deltaCycle = _previousCycleReference.get();
+      if (_scenarioFanOut && (_baseCycleReference != null)) {
+        deltaCycle = _baseCycleReference.get();
+      } else {
+        deltaCycle = _previousCycleReference.get();
+      }
       if ((deltaCycle != null) && (deltaCycle.getState() != ViewCycleState.EXECUTED)) {
         // Can only do a delta cycle if the previous was valid
         s_logger.info("Performing full computation; no previous cycle");
@@ -848,6 +862,13 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
       s_logger.debug("Skipping graph execution");
     }
     cycleReference.get().postExecute();
+    if (_scenarioFanOut && (deltaCycle == null)) {
+      // Retain the full cycle as the base for the deltas that follow
+      if (_baseCycleReference != null) {
+        _baseCycleReference.release();
+      }
+      _baseCycleReference = getProcessContext().getCycleManager().createReference(cycleReference.get().getUniqueId());
+    }
     final long durationNanos = cycleReference.get().getDuration().toNanos();
     final Timer timer = deltaCycle != null ? _deltaCycleTimer : _fullCycleTimer;
     if (timer != null) {
@@ -1292,7 +1313,7 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
    * @param filter the filter to identify invalid nodes, not null
    * @param unchangedNodes optional identifiers of unchanged portfolio nodes; any nodes filtered out must be removed from this
    */
-  private void filterPreviousGraphs(final Map<String, PartiallyCompiledGraph> previousGraphs, final RootDiscardingSubgrapher filter, final Set<UniqueId> unchangedNodes) {
+  /* package */static void filterPreviousGraphs(final Map<String, PartiallyCompiledGraph> previousGraphs, final RootDiscardingSubgrapher filter, final Set<UniqueId> unchangedNodes) {
     final Iterator<Map.Entry<String, PartiallyCompiledGraph>> itr = previousGraphs.entrySet().iterator();
     while (itr.hasNext()) {
       final Map.Entry<String, PartiallyCompiledGraph> entry = itr.next();
@@ -1427,10 +1448,11 @@ public class SingleThreadViewProcessWorker implements ViewProcessWorker, MarketD
                   }
                   // Remove terminal outputs and rewrite nodes
                   mapAndUnmapNodes(previousGraphs, compiledViewDefinition, mapped, unmapped);
-                  // Remove any PORTFOLIO nodes and any unmapped PORTFOLIO_NODE nodes with the filter
-                  filterPreviousGraphs(previousGraphs, new InvalidPortfolioDependencyNodeFilter(unmapped), null);
-                  // Invalidate any dependency graph nodes on the invalid targets
-                  filterPreviousGraphs(previousGraphs, new InvalidTargetDependencyNodeFilter(invalidIdentifiers.keySet()), unchangedNodes);
+                  // Remove any PORTFOLIO nodes and any unmapped PORTFOLIO_NODE nodes, and invalidate any dependency graph nodes on the invalid
+                  // targets. Both filters are applied in a single pass so that only the affected sub-graphs are discarded for re-resolution
+                  // without walking the whole of a large graph twice.
+                  filterPreviousGraphs(previousGraphs, RootDiscardingSubgrapher.and(new InvalidPortfolioDependencyNodeFilter(unmapped),
+                      new InvalidTargetDependencyNodeFilter(invalidIdentifiers.keySet())), unchangedNodes);
                 } else {
                   compiledViewDefinition = compiledViewDefinition.withResolverVersionCorrection(versionCorrection);
                   cacheCompiledViewDefinition(compiledViewDefinition);
@@ -0,0 +1,362 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.worker.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.position.Portfolio;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorer;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionDefinition;
+import com.opengamma.engine.function.FunctionRepository;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A {@link ViewExecutionCache} that writes compiled view definitions to files in a directory so that they survive a restart of the view processor.
+ * <p>
+ * Definitions are held in memory by an underlying cache and written through to disk. After a restart a definition is only read back if it was compiled against an equivalent function repository;
+ * the function initialization identifier is a timestamp that changes with each start so can't be used for this. Instead, a digest of the function identifiers and implementing classes is stored
+ * with each definition. A definition that is read back is given the current function initialization identifier. The view process worker then checks its resolved identifiers against the current
+ * version/correction, as it does for any cached definition, and only compiles incrementally if any of them have changed.
+ * <p>
+ * The digest does not capture any configuration that functions may read during initialization. If that changes while the view processor is stopped, the cache directory should be cleared.
+ */
+public class FileViewExecutionCache implements ViewExecutionCache {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(FileViewExecutionCache.class);
+
+  private static final String SUFFIX = ".cvd";
+
+  /**
+   * Identifies the files written by this process. A definition written by this process with a different function initialization identifier has been superseded by a re-initialization and must
+   * not be used.
+   */
+  private static final String s_session = UUID.randomUUID().toString();
+
+  private final ViewExecutionCache _underlying;
+  private final File _directory;
+  private final CompiledFunctionService _functions;
+
+  private FunctionRepository _digestRepository;
+  private String _digest;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param underlying the cache to hold the definitions in memory, not null
+   * @param directory the directory to write the definitions to, not null. This will be created if it doesn't exist.
+   * @param functions the compiled function service, holding the function repository and a computation target resolver, not null
+   */
+  public FileViewExecutionCache(final ViewExecutionCache underlying, final File directory, final CompiledFunctionService functions) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    ArgumentChecker.notNull(directory, "directory");
+    ArgumentChecker.notNull(functions, "functions");
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new OpenGammaRuntimeException("Couldn't create cache directory " + directory);
+    }
+    _underlying = underlying;
+    _directory = directory;
+    _functions = functions;
+  }
+
+  /**
+   * Creates a new instance, holding the definitions in memory with an {@link InMemoryViewExecutionCache}.
+   *
+   * @param directory the directory to write the definitions to, not null. This will be created if it doesn't exist.
+   * @param functions the compiled function service, holding the function repository and a computation target resolver, not null
+   */
+  public FileViewExecutionCache(final File directory, final CompiledFunctionService functions) {
+    this(new InMemoryViewExecutionCache(), directory, functions);
+  }
+
+  protected ViewExecutionCache getUnderlying() {
+    return _underlying;
+  }
+
+  protected File getDirectory() {
+    return _directory;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new OpenGammaRuntimeException("SHA-1 not available", e);
+    }
+  }
+
+  private static String toHex(final byte[] bytes) {
+    final StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns a digest of the function repository that a definition compiled now would be compiled against.
+   *
+   * @return the digest, not null
+   */
+  protected synchronized String getFunctionRepositoryDigest() {
+    final FunctionRepository repository = _functions.getFunctionRepository();
+    if (repository != _digestRepository) {
+      final List<FunctionDefinition> functions = new ArrayList<FunctionDefinition>(repository.getAllFunctions());
+      Collections.sort(functions, new Comparator<FunctionDefinition>() {
+        @Override
+        public int compare(final FunctionDefinition o1, final FunctionDefinition o2) {
+          return o1.getUniqueId().compareTo(o2.getUniqueId());
+        }
+      });
+      final MessageDigest digest = createDigest();
+      for (FunctionDefinition function : functions) {
+        digest.update(function.getUniqueId().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(function.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(function.getShortName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      _digest = toHex(digest.digest());
+      _digestRepository = repository;
+    }
+    return _digest;
+  }
+
+  /**
+   * Returns the file that holds the definition for the given key. The name is a digest of the serialized key so that it is stable between restarts.
+   *
+   * @param key the cache key, not null
+   * @return the file, not null
+   */
+  protected File getFile(final ViewExecutionCacheKey key) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(key);
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't serialize " + key, e);
+    }
+    return new File(_directory, toHex(createDigest().digest(bytes.toByteArray())) + SUFFIX);
+  }
+
+  /**
+   * The serialized form of a compiled view definition. The view definition and portfolio are written as identifiers and resolved when the definition is read back.
+   */
+  /* package */static final class Entry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ViewExecutionCacheKey _key;
+    private final String _functionRepository;
+    private final String _session;
+    private final long _functionInitId;
+    private final VersionCorrection _versionCorrection;
+    private final String _compilationId;
+    private final UniqueId _viewDefinition;
+    private final Collection<DependencyGraph> _graphs;
+    private final Map<ComputationTargetReference, UniqueId> _resolutions;
+    private final UniqueId _portfolio;
+    private final Collection<CompiledViewCalculationConfiguration> _calcConfigs;
+    private final Instant _validFrom;
+    private final Instant _validTo;
+
+    /* package */Entry(final ViewExecutionCacheKey key, final String functionRepository, final CompiledViewDefinitionWithGraphs viewDef) {
+      _key = key;
+      _functionRepository = functionRepository;
+      _session = s_session;
+      _functionInitId = ((CompiledViewDefinitionWithGraphsImpl) viewDef).getFunctionInitId();
+      _versionCorrection = viewDef.getResolverVersionCorrection();
+      _compilationId = viewDef.getCompilationIdentifier();
+      _viewDefinition = viewDef.getViewDefinition().getUniqueId();
+      final Collection<DependencyGraphExplorer> graphs = viewDef.getDependencyGraphExplorers();
+      _graphs = new ArrayList<DependencyGraph>(graphs.size());
+      for (DependencyGraphExplorer explorer : graphs) {
+        _graphs.add(explorer.getWholeGraph());
+      }
+      _resolutions = new HashMap<ComputationTargetReference, UniqueId>(viewDef.getResolvedIdentifiers());
+      _portfolio = (viewDef.getPortfolio() != null) ? viewDef.getPortfolio().getUniqueId() : null;
+      _calcConfigs = new ArrayList<CompiledViewCalculationConfiguration>(viewDef.getCompiledCalculationConfigurations());
+      _validFrom = viewDef.getValidFrom();
+      _validTo = viewDef.getValidTo();
+    }
+
+    /* package */ViewExecutionCacheKey getKey() {
+      return _key;
+    }
+
+    /* package */boolean isValid(final String functionRepository, final long functionInitId) {
+      if (!_functionRepository.equals(functionRepository)) {
+        return false;
+      }
+      // A definition written earlier by this process is only valid if there has been no re-initialization since
+      return !s_session.equals(_session) || (_functionInitId == functionInitId);
+    }
+
+    /* package */CompiledViewDefinitionWithGraphs create(final ComputationTargetResolver resolver, final long functionInitId) {
+      final ComputationTarget viewDefinition = resolver.resolve(new ComputationTargetSpecification(ComputationTargetType.of(ViewDefinition.class), _viewDefinition), VersionCorrection.LATEST);
+      if (viewDefinition == null) {
+        s_logger.warn("Couldn't resolve view definition {}", _viewDefinition);
+        return null;
+      }
+      Portfolio portfolio = null;
+      if (_portfolio != null) {
+        final ComputationTarget target = resolver.resolve(new ComputationTargetSpecification(ComputationTargetType.PORTFOLIO, _portfolio), _versionCorrection);
+        if (target == null) {
+          s_logger.warn("Couldn't resolve portfolio {}", _portfolio);
+          return null;
+        }
+        portfolio = (Portfolio) target.getValue();
+      }
+      return new CompiledViewDefinitionWithGraphsImpl(_versionCorrection, _compilationId, (ViewDefinition) viewDefinition.getValue(), _graphs, _resolutions, portfolio, functionInitId,
+          _calcConfigs, _validFrom, _validTo);
+    }
+
+  }
+
+  private CompiledViewDefinitionWithGraphs read(final ViewExecutionCacheKey key) {
+    final File file = getFile(key);
+    if (!file.exists()) {
+      s_logger.debug("No file for CompiledViewDefinitionWithGraphs for {}", key);
+      return null;
+    }
+    final Long functionInitId = _functions.getFunctionCompilationContext().getFunctionInitId();
+    if (functionInitId == null) {
+      return null;
+    }
+    final Entry entry;
+    try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      entry = (Entry) in.readObject();
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      s_logger.warn("Couldn't read {} - {}", file, e.getMessage());
+      s_logger.debug("Caught exception", e);
+      deleteFile(file);
+      return null;
+    }
+    if (!key.equals(entry.getKey())) {
+      s_logger.debug("File {} is for {}, not {}", new Object[] {file, entry.getKey(), key });
+      return null;
+    }
+    if (!entry.isValid(getFunctionRepositoryDigest(), functionInitId)) {
+      s_logger.info("Discarding CompiledViewDefinitionWithGraphs for {} compiled against different function definitions", key);
+      deleteFile(file);
+      return null;
+    }
+    final CompiledViewDefinitionWithGraphs viewDefinition = entry.create(_functions.getFunctionCompilationContext().getRawComputationTargetResolver(), functionInitId);
+    if (viewDefinition != null) {
+      s_logger.info("Loaded CompiledViewDefinitionWithGraphs for {} from {}", key, file);
+    }
+    return viewDefinition;
+  }
+
+  private void write(final ViewExecutionCacheKey key, final CompiledViewDefinitionWithGraphs viewDefinition) {
+    final File file = getFile(key);
+    File temp = null;
+    try {
+      // Write to a temporary file and rename so that a reader never sees a partial file
+      temp = File.createTempFile("cvd", ".tmp", _directory);
+      try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        out.writeObject(new Entry(key, getFunctionRepositoryDigest(), viewDefinition));
+      }
+      if (!temp.renameTo(file)) {
+        deleteFile(file);
+        if (!temp.renameTo(file)) {
+          s_logger.warn("Couldn't rename {} to {}", temp, file);
+          deleteFile(temp);
+          return;
+        }
+      }
+      s_logger.debug("Wrote CompiledViewDefinitionWithGraphs for {} to {}", key, file);
+    } catch (IOException e) {
+      s_logger.warn("Couldn't write CompiledViewDefinitionWithGraphs for {} - {}", key, e.getMessage());
+      s_logger.debug("Caught exception", e);
+      if (temp != null) {
+        deleteFile(temp);
+      }
+    }
+  }
+
+  private static void deleteFile(final File file) {
+    if (file.exists() && !file.delete()) {
+      s_logger.warn("Couldn't delete {}", file);
+    }
+  }
+
+  // ViewExecutionCache
+
+  @Override
+  public CompiledViewDefinitionWithGraphs getCompiledViewDefinitionWithGraphs(final ViewExecutionCacheKey key) {
+    CompiledViewDefinitionWithGraphs viewDefinition = getUnderlying().getCompiledViewDefinitionWithGraphs(key);
+    if (viewDefinition == null) {
+      viewDefinition = read(key);
+      if (viewDefinition != null) {
+        getUnderlying().setCompiledViewDefinitionWithGraphs(key, viewDefinition);
+      }
+    }
+    return viewDefinition;
+  }
+
+  @Override
+  public void setCompiledViewDefinitionWithGraphs(final ViewExecutionCacheKey key, final CompiledViewDefinitionWithGraphs viewDefinition) {
+    if (getUnderlying().getCompiledViewDefinitionWithGraphs(key) == viewDefinition) {
+      // Already written
+      return;
+    }
+    getUnderlying().setCompiledViewDefinitionWithGraphs(key, viewDefinition);
+    write(key, viewDefinition);
+  }
+
+  @Override
+  public void clear() {
+    getUnderlying().clear();
+    s_logger.info("Deleting all CompiledViewDefinitionWithGraphs files from {}", _directory);
+    final File[] files = _directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().endsWith(SUFFIX)) {
+          deleteFile(file);
+        }
+      }
+    }
+  }
+
+}
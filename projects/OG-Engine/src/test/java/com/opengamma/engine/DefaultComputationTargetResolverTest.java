@@ -11,10 +11,15 @@ import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.mockito.Mockito;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.OffsetDateTime;
 
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.core.position.Position;
 import com.opengamma.core.position.PositionSource;
 import com.opengamma.core.position.impl.MockPositionSource;
@@ -160,6 +165,39 @@ public class DefaultComputationTargetResolverTest {
     assertNull(test.resolve(new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Foo", "Bar")), VersionCorrection.LATEST));
   }
 
+  public void test_resolveTargets() {
+    final InMemorySecuritySource secSource = new InMemorySecuritySource();
+    final Security security2 = new SimpleSecurity(UniqueId.of("Test", "SEC2"), ExternalIdBundle.EMPTY, "Test security 2", "EQUITY");
+    secSource.addSecurity(SECURITY);
+    secSource.addSecurity(security2);
+    final DefaultComputationTargetResolver test = new DefaultComputationTargetResolver(secSource, new MockPositionSource());
+    final ComputationTargetSpecification spec1 = ComputationTargetSpecification.of(SECURITY);
+    final ComputationTargetSpecification spec2 = ComputationTargetSpecification.of(security2);
+    final ComputationTargetSpecification missing = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Foo", "Bar"));
+    final ComputationTargetSpecification primitive = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Foo", "Bar"));
+    final Map<ComputationTargetSpecification, ComputationTarget> result = test.resolveTargets(Arrays.asList(spec1, spec2, missing, primitive, ComputationTargetSpecification.NULL),
+        VersionCorrection.LATEST);
+    assertEquals(result.size(), 4);
+    assertExpected(new ComputationTarget(ComputationTargetType.SECURITY, SECURITY), result.get(spec1));
+    assertExpected(new ComputationTarget(ComputationTargetType.SECURITY, security2), result.get(spec2));
+    assertExpected(new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Foo", "Bar")), result.get(primitive));
+    assertExpected(ComputationTarget.NULL, result.get(ComputationTargetSpecification.NULL));
+    assertNull(result.get(missing));
+  }
+
+  public void test_resolveTargets_bulk() {
+    final SecuritySource secSource = Mockito.mock(SecuritySource.class);
+    Mockito.when(secSource.get(Mockito.anyCollectionOf(UniqueId.class))).thenReturn(ImmutableMap.of(SECURITY.getUniqueId(), SECURITY));
+    final DefaultComputationTargetResolver test = new DefaultComputationTargetResolver(secSource, new MockPositionSource());
+    final ComputationTargetSpecification spec = ComputationTargetSpecification.of(SECURITY);
+    final ComputationTargetSpecification missing = new ComputationTargetSpecification(ComputationTargetType.SECURITY, UniqueId.of("Foo", "Bar"));
+    final Map<ComputationTargetSpecification, ComputationTarget> result = test.atVersionCorrection(VersionCorrection.LATEST).resolveTargets(Arrays.asList(spec, missing));
+    assertEquals(result.size(), 1);
+    assertExpected(new ComputationTarget(ComputationTargetType.SECURITY, SECURITY), result.get(spec));
+    Mockito.verify(secSource, Mockito.times(1)).get(Mockito.anyCollectionOf(UniqueId.class));
+    Mockito.verify(secSource, Mockito.never()).get(Mockito.any(UniqueId.class));
+  }
+
   public void test_simplifyType() {
     final InMemorySecuritySource secSource = new InMemorySecuritySource();
     final MockPositionSource posSource = new MockPositionSource();
@@ -10,6 +10,7 @@ import static org.testng.AssertJUnit.assertFalse;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -83,6 +84,30 @@ public abstract class AbstractIdentifierMapTest {
     stopIdentifierMap(idMap);
   }
 
+  @Test
+  public void bulkOperation() throws IOException {
+    IdentifierMap idMap = createIdentifierMap("bulkOperation");
+
+    // Some already known, some to be allocated in bulk
+    long known = idMap.getIdentifier(getValueSpec("value-0"));
+    Collection<ValueSpecification> valueSpecs = new ArrayList<ValueSpecification>();
+    for (int i = 0; i < 10; i++) {
+      valueSpecs.add(getValueSpec("value-" + i));
+    }
+    Object2LongMap<ValueSpecification> identifiers = idMap.getIdentifiers(valueSpecs);
+    assertEquals(10, identifiers.size());
+    assertEquals(known, identifiers.getLong(getValueSpec("value-0")));
+    LongSet seenIdentifiers = new LongOpenHashSet(identifiers.values());
+    assertEquals(10, seenIdentifiers.size());
+    for (ValueSpecification valueSpec : valueSpecs) {
+      long identifier = identifiers.getLong(valueSpec);
+      assertEquals(identifier, idMap.getIdentifier(valueSpec));
+      assertEquals(valueSpec, idMap.getValueSpecification(identifier));
+    }
+
+    stopIdentifierMap(idMap);
+  }
+
   /**
    * @param numRequirementNames
    * @param numIdentifiers
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link MappedFileBinaryDataStore} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class MappedFileBinaryDataStoreTest {
+
+  private MappedFileBinaryDataStore createStore(final int chunkSize) throws IOException {
+    final File file = File.createTempFile("MappedFileBinaryDataStoreTest", ".dat");
+    file.deleteOnExit();
+    return new MappedFileBinaryDataStore(file, chunkSize);
+  }
+
+  private byte[] data(final int length, final int seed) {
+    final byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (seed + i);
+    }
+    return data;
+  }
+
+  public void testPutGet() throws IOException {
+    final MappedFileBinaryDataStore store = createStore(1024);
+    try {
+      assertNull(store.get(1L));
+      store.put(1L, data(10, 1));
+      store.put(2L, data(0, 2));
+      store.put(3L, data(100, 3));
+      assertEquals(store.get(1L), data(10, 1));
+      assertEquals(store.get(2L), data(0, 2));
+      assertEquals(store.get(3L), data(100, 3));
+      assertNull(store.get(4L));
+      // Replace an existing value
+      store.put(1L, data(20, 4));
+      assertEquals(store.get(1L), data(20, 4));
+    } finally {
+      store.delete();
+    }
+  }
+
+  public void testGetBuffer() throws IOException {
+    final MappedFileBinaryDataStore store = createStore(1024);
+    try {
+      assertNull(store.getBuffer(1L));
+      store.put(1L, data(10, 1));
+      store.put(2L, data(20, 2));
+      final ByteBuffer buffer = store.getBuffer(2L);
+      assertEquals(buffer.remaining(), 20);
+      assertTrue(buffer.isReadOnly());
+      for (int i = 0; i < 20; i++) {
+        assertEquals(buffer.get(), (byte) (2 + i));
+      }
+    } finally {
+      store.delete();
+    }
+  }
+
+  public void testChunks() throws IOException {
+    final MappedFileBinaryDataStore store = createStore(64);
+    try {
+      for (int i = 0; i < 50; i++) {
+        store.put(i, data(i, i));
+      }
+      // Larger than a chunk
+      store.put(100L, data(1000, 100));
+      store.put(101L, data(10, 101));
+      for (int i = 0; i < 50; i++) {
+        assertEquals(store.get(i), data(i, i));
+      }
+      assertEquals(store.get(100L), data(1000, 100));
+      assertEquals(store.get(101L), data(10, 101));
+    } finally {
+      store.delete();
+    }
+  }
+
+  public void testIndexGrowth() throws IOException {
+    final MappedFileBinaryDataStore store = createStore(4096);
+    try {
+      for (long i = 0; i < 10000; i++) {
+        store.put(i * 7919L, data(4, (int) i));
+      }
+      for (long i = 0; i < 10000; i++) {
+        assertEquals(store.get(i * 7919L), data(4, (int) i));
+      }
+      assertNull(store.get(1L));
+    } finally {
+      store.delete();
+    }
+  }
+
+  public void testDelete() throws IOException {
+    final File file = File.createTempFile("MappedFileBinaryDataStoreTest", ".dat");
+    file.deleteOnExit();
+    final MappedFileBinaryDataStore store = new MappedFileBinaryDataStore(file, 1024);
+    store.put(1L, data(10, 1));
+    assertTrue(file.exists());
+    store.delete();
+    assertFalse(file.exists());
+    assertNull(store.get(1L));
+  }
+
+}
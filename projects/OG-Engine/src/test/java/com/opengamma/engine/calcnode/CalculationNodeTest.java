@@ -11,16 +11,22 @@ import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
 
 import com.google.common.collect.Iterables;
 import com.opengamma.engine.ComputationTarget;
 import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.cache.CacheSelectHint;
 import com.opengamma.engine.cache.ViewComputationCache;
 import com.opengamma.engine.function.FunctionExecutionContext;
 import com.opengamma.engine.function.FunctionInputs;
+import com.opengamma.engine.function.MemoizableFunction;
+import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.test.CalculationNodeUtils;
 import com.opengamma.engine.test.MockFunction;
 import com.opengamma.engine.test.TestCalculationNode;
@@ -31,12 +37,15 @@ import com.opengamma.engine.value.ValueRequirement;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ExecutionLog;
 import com.opengamma.engine.view.ExecutionLogMode;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.async.AsynchronousExecution;
 import com.opengamma.util.log.LogBridge;
 import com.opengamma.util.log.LogEvent;
 import com.opengamma.util.log.LogLevel;
 import com.opengamma.util.log.SimpleLogEvent;
 import com.opengamma.util.log.ThreadLocalLogEventListener;
+import com.opengamma.util.money.Currency;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.test.TestLifecycle;
 
@@ -183,6 +192,78 @@ public class CalculationNodeTest {
     return fn;
   }
 
+  //-------------------------------------------------------------------------
+  public void testMemoizedFunction() throws Exception {
+    TestLifecycle.begin();
+    try {
+      final MockMemoizableFunction mockFunction = new MockMemoizableFunction();
+      final TestCalculationNode calcNode = CalculationNodeUtils.getTestCalcNode(mockFunction);
+      TestLifecycle.register(calcNode);
+      final FunctionResultCache functionResultCache = new FunctionResultCache();
+      calcNode.setFunctionResultCache(functionResultCache);
+      final Instant t = Instant.now();
+      // First invocation is a miss
+      assertEquals(InvocationResult.SUCCESS, executeMemoizable(calcNode, mockFunction, t, 1L, "Input"));
+      assertEquals(1, mockFunction.getInvocationCount());
+      assertEquals(0, functionResultCache.getHits());
+      assertEquals(1, functionResultCache.getMisses());
+      // Same inputs and valuation time in another cycle is a hit and the result is still written to the cycle's cache
+      assertEquals(InvocationResult.SUCCESS, executeMemoizable(calcNode, mockFunction, t, 2L, "Input"));
+      assertEquals(1, mockFunction.getInvocationCount());
+      assertEquals(1, functionResultCache.getHits());
+      assertEquals("Result", calcNode.getCache(getMemoizableJobSpecification(t, 2L)).getValue(mockFunction.getResultSpec()));
+      // A different valuation time is a miss
+      assertEquals(InvocationResult.SUCCESS, executeMemoizable(calcNode, mockFunction, t.plusSeconds(1), 3L, "Input"));
+      assertEquals(2, mockFunction.getInvocationCount());
+      // As is a different input value
+      assertEquals(InvocationResult.SUCCESS, executeMemoizable(calcNode, mockFunction, t, 4L, "Other input"));
+      assertEquals(3, mockFunction.getInvocationCount());
+      assertEquals(1, functionResultCache.getHits());
+      assertEquals(3, functionResultCache.getMisses());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  private CalculationJobSpecification getMemoizableJobSpecification(final Instant valuationTime, final long cycleId) {
+    return new CalculationJobSpecification(UniqueId.of("Test", "Cycle" + cycleId), CalculationNodeUtils.CALC_CONF_NAME, valuationTime, cycleId);
+  }
+
+  private InvocationResult executeMemoizable(final TestCalculationNode calcNode, final MockFunction mockFunction, final Instant valuationTime, final long cycleId, final Object input)
+      throws AsynchronousExecution {
+    final CalculationJobSpecification jobSpec = getMemoizableJobSpecification(valuationTime, cycleId);
+    final ValueSpecification inputSpec = CalculationNodeUtils.getMockFunctionInputs(mockFunction).iterator().next();
+    calcNode.getCache(jobSpec).putSharedValue(new ComputedValue(inputSpec, input));
+    final CalculationJobItem jobItem = new CalculationJobItem(mockFunction.getUniqueId(), mockFunction.getDefaultParameters(), mockFunction.getTarget().toSpecification(),
+        Collections.singleton(inputSpec), mockFunction.getResultSpecs(), ExecutionLogMode.INDICATORS);
+    final CalculationJob job = new CalculationJob(jobSpec, 0L, VersionCorrection.LATEST, null, Collections.singletonList(jobItem), CacheSelectHint.allShared());
+    final CalculationJobResult jobResult = calcNode.executeJob(job);
+    assertEquals(1, jobResult.getResultItems().size());
+    return jobResult.getResultItems().get(0).getResult();
+  }
+
+  private class MockMemoizableFunction extends MockFunction implements MemoizableFunction {
+
+    private final AtomicInteger _invocations = new AtomicInteger();
+
+    public MockMemoizableFunction() {
+      super(MockFunction.UNIQUE_ID, new ComputationTarget(ComputationTargetType.CURRENCY, Currency.USD));
+      addRequirement(new ValueRequirement("INPUT", getTarget().toSpecification()));
+      addResult(new ValueSpecification("OUTPUT", getTarget().toSpecification(), ValueProperties.with(ValuePropertyNames.FUNCTION, MockFunction.UNIQUE_ID).get()), "Result");
+    }
+
+    public int getInvocationCount() {
+      return _invocations.get();
+    }
+
+    @Override
+    public Set<ComputedValue> execute(final FunctionExecutionContext executionContext, final FunctionInputs inputs, final ComputationTarget target, final Set<ValueRequirement> desiredValues) {
+      _invocations.incrementAndGet();
+      return super.execute(executionContext, inputs, target, desiredValues);
+    }
+
+  }
+
   private class MockLoggingFunction extends MockFunction {
 
     public MockLoggingFunction(final String uniqueId, final ComputationTarget target) {
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.calcnode;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.function.SimpleFunctionParameters;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link FunctionResultCache} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class FunctionResultCacheTest {
+
+  private static final ComputationTargetSpecification TARGET = ComputationTargetSpecification.of(UniqueId.of("Test", "Target"));
+  private static final Instant NOW = Instant.ofEpochSecond(1420070400L);
+  private static final VersionCorrection VC = VersionCorrection.of(NOW, NOW);
+
+  private ValueSpecification spec(final String name) {
+    return new ValueSpecification(name, TARGET, ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private FunctionResultCache.Key key(final String function, final Object... inputs) {
+    final ComputedValue[] values = new ComputedValue[inputs.length];
+    for (int i = 0; i < inputs.length; i++) {
+      values[i] = new ComputedValue(spec("In" + i), inputs[i]);
+    }
+    return new FunctionResultCache.Key(function, NOW, VC, TARGET, new EmptyFunctionParameters(), new ValueSpecification[] {spec("Out") }, Arrays.asList(values));
+  }
+
+  private Set<ComputedValue> result(final Object value) {
+    return Collections.singleton(new ComputedValue(spec("Out"), value));
+  }
+
+  public void testKeyEquality() {
+    assertEquals(key("A", 1d, 2d), key("A", 1d, 2d));
+    assertEquals(key("A", 1d, 2d).hashCode(), key("A", 1d, 2d).hashCode());
+    assertFalse(key("A", 1d, 2d).equals(key("B", 1d, 2d)));
+    assertFalse(key("A", 1d, 2d).equals(key("A", 1d, 3d)));
+    final ValueSpecification[] outputs = new ValueSpecification[] {spec("Out") };
+    final ComputedValue in0 = new ComputedValue(spec("In0"), 1d);
+    final ComputedValue in1 = new ComputedValue(spec("In1"), 2d);
+    // Input order doesn't matter
+    assertEquals(new FunctionResultCache.Key("A", NOW, VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0, in1)),
+        new FunctionResultCache.Key("A", NOW, VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in1, in0)));
+    // Parameters do
+    final SimpleFunctionParameters parameters = new SimpleFunctionParameters();
+    parameters.setValue("Foo", "Bar");
+    assertFalse(new FunctionResultCache.Key("A", NOW, VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0)).equals(
+        new FunctionResultCache.Key("A", NOW, VC, TARGET, parameters, outputs, Arrays.asList(in0))));
+    // As do the valuation time and version/correction
+    assertFalse(new FunctionResultCache.Key("A", NOW, VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0)).equals(
+        new FunctionResultCache.Key("A", NOW.plusSeconds(1), VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0))));
+    assertFalse(new FunctionResultCache.Key("A", NOW, VC, TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0)).equals(
+        new FunctionResultCache.Key("A", NOW, VersionCorrection.of(NOW.plusSeconds(1), NOW), TARGET, new EmptyFunctionParameters(), outputs, Arrays.asList(in0))));
+  }
+
+  public void testGetPut() {
+    final FunctionResultCache cache = new FunctionResultCache();
+    assertNull(cache.get(key("A", 1d)));
+    final Set<ComputedValue> result = result(42d);
+    cache.put(key("A", 1d), result, 100);
+    assertSame(cache.get(key("A", 1d)), result);
+    assertNull(cache.get(key("A", 2d)));
+    assertEquals(cache.getHits(), 1);
+    assertEquals(cache.getMisses(), 2);
+    assertEquals(cache.getBytes(), 100);
+    cache.clear();
+    assertNull(cache.get(key("A", 1d)));
+    assertEquals(cache.getBytes(), 0);
+  }
+
+  public void testEvictByCount() {
+    final FunctionResultCache cache = new FunctionResultCache();
+    cache.setMaxEntries(2);
+    cache.put(key("A", 1d), result(1d), 10);
+    cache.put(key("A", 2d), result(2d), 10);
+    // Touch the first so the second is the least recently used
+    cache.get(key("A", 1d));
+    cache.put(key("A", 3d), result(3d), 10);
+    assertEquals(cache.getSize(), 2);
+    assertNull(cache.get(key("A", 2d)));
+    assertEquals(cache.get(key("A", 1d)), result(1d));
+    assertEquals(cache.get(key("A", 3d)), result(3d));
+  }
+
+  public void testEvictByBytes() {
+    final FunctionResultCache cache = new FunctionResultCache();
+    cache.setMaxBytes(100);
+    cache.put(key("A", 1d), result(1d), 40);
+    cache.put(key("A", 2d), result(2d), 40);
+    cache.put(key("A", 3d), result(3d), 40);
+    assertEquals(cache.getSize(), 2);
+    assertEquals(cache.getBytes(), 80);
+    assertNull(cache.get(key("A", 1d)));
+    // Too big to ever cache
+    cache.put(key("A", 4d), result(4d), 1000);
+    assertNull(cache.get(key("A", 4d)));
+    assertEquals(cache.getSize(), 2);
+  }
+
+}
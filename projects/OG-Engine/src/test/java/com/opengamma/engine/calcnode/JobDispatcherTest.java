@@ -6,6 +6,7 @@
 package com.opengamma.engine.calcnode;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
@@ -26,7 +27,13 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.cache.CacheSelectHint;
+import com.opengamma.engine.function.EmptyFunctionParameters;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ExecutionLogMode;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.async.Cancelable;
@@ -156,6 +163,51 @@ public class JobDispatcherTest {
     assertNull(node2._callback);
   }
 
+  private CalculationJob createTestJob(final ValueSpecification input, final ValueSpecification output) {
+    final Collection<ValueSpecification> inputs = (input != null) ? Collections.singleton(input) : Collections.<ValueSpecification>emptySet();
+    final CalculationJobItem item = new CalculationJobItem("Function", new EmptyFunctionParameters(), ComputationTargetSpecification.NULL, inputs, Collections.singleton(output),
+        ExecutionLogMode.INDICATORS);
+    return new CalculationJob(createTestJobSpec(), 0L, VersionCorrection.LATEST, null, Collections.singletonList(item), CacheSelectHint.allShared());
+  }
+
+  private void nodeTest(final String expectedNodeId, final JobDispatcher jobDispatcher, final CalculationJob job) {
+    final TestJobResultReceiver result = new TestJobResultReceiver();
+    jobDispatcher.dispatchJob(job, result);
+    final CalculationJobResult jobResult = result.waitForResult(TIMEOUT);
+    assertNotNull(jobResult);
+    assertEquals(expectedNodeId, jobResult.getComputeNodeId());
+  }
+
+  @Test
+  public void invokeOnProducer() {
+    s_logger.info("invokeOnProducer");
+    final JobDispatcher jobDispatcher = new JobDispatcher();
+    // Disabled by default
+    assertFalse(jobDispatcher.isLocalityAware());
+    jobDispatcher.setLocalityAware(true);
+    final TestJobInvoker node1 = new TestJobInvoker("1");
+    final TestJobInvoker node2 = new TestJobInvoker("2");
+    jobDispatcher.registerJobInvoker(node1);
+    jobDispatcher.registerJobInvoker(node2);
+    final ValueSpecification a = new ValueSpecification("A", ComputationTargetSpecification.NULL, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+    final ValueSpecification b = new ValueSpecification("B", ComputationTargetSpecification.NULL, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+    final ValueSpecification c = new ValueSpecification("C", ComputationTargetSpecification.NULL, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+    nodeTest("1", jobDispatcher, createTestJob(null, a));
+    // Round-robin would choose node 2, but node 1 produced the input
+    nodeTest("1", jobDispatcher, createTestJob(a, b));
+    assertEquals(1, jobDispatcher.getLocalDispatches());
+    // Falls back to the next invoker if the producer refuses
+    node1._disabled = true;
+    nodeTest("2", jobDispatcher, createTestJob(b, c));
+    assertNotNull(node1._callback);
+    assertEquals(1, jobDispatcher.getLocalDispatches());
+    // Strict round-robin when disabled
+    jobDispatcher.setLocalityAware(false);
+    node1._disabled = false;
+    jobDispatcher.registerJobInvoker(node1);
+    nodeTest("2", jobDispatcher, createTestJob(a, b));
+  }
+
   @Test
   public void saturateInvokers() {
     s_logger.info("saturateInvokers");
@@ -8,6 +8,8 @@ package com.opengamma.engine.calcnode;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -119,4 +121,51 @@ public class RemoteNodeJobInvokerTest {
     }
   }
 
+  public void pipelined() {
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final JobDispatcher jobDispatcher = new JobDispatcher();
+      final Ready initialMessage = new Ready(1, "Test");
+      final DirectFudgeConnection conduit = new DirectFudgeConnection(s_fudgeContext);
+      final RemoteNodeJobInvoker jobInvoker = new RemoteNodeJobInvoker(executor, initialMessage, conduit.getEnd1(), new InMemoryIdentifierMap(), new FunctionCosts(),
+          new DummyFunctionBlacklistQuery(), new DummyFunctionBlacklistMaintainer(), 2);
+      jobDispatcher.registerJobInvoker(jobInvoker);
+      final FudgeConnection remoteNode = conduit.getEnd2();
+      final List<Execute> received = new ArrayList<Execute>();
+      remoteNode.setFudgeMessageReceiver(new FudgeMessageReceiver() {
+        @Override
+        public void messageReceived(FudgeContext fudgeContext, FudgeMsgEnvelope msgEnvelope) {
+          final FudgeDeserializer dcontext = new FudgeDeserializer(fudgeContext);
+          final RemoteCalcNodeMessage message = dcontext.fudgeMsgToObject(RemoteCalcNodeMessage.class, msgEnvelope.getMessage());
+          assertTrue(message instanceof Execute);
+          final List<Execute> jobs;
+          synchronized (received) {
+            received.add((Execute) message);
+            // Only respond once all of the pipelined jobs have arrived; the test will time out if they aren't sent
+            if (received.size() < 3) {
+              return;
+            }
+            jobs = new ArrayList<Execute>(received);
+            received.clear();
+          }
+          final FudgeSerializer scontext = new FudgeSerializer(fudgeContext);
+          for (Execute job : jobs) {
+            final Result result = new Result(JobDispatcherTest.createTestJobResult(job.getJob().getSpecification(), 0, "Test"));
+            remoteNode.getFudgeMessageSender().send(FudgeSerializer.addClassHeader(scontext.objectToFudgeMsg(result), result.getClass(), RemoteCalcNodeMessage.class));
+          }
+        }
+      });
+      final TestJobResultReceiver[] resultReceivers = new TestJobResultReceiver[3];
+      for (int i = 0; i < resultReceivers.length; i++) {
+        resultReceivers[i] = new TestJobResultReceiver();
+        jobDispatcher.dispatchJob(JobDispatcherTest.createTestJob(), resultReceivers[i]);
+      }
+      for (int i = 0; i < resultReceivers.length; i++) {
+        assertNotNull(resultReceivers[i].waitForResult(TIMEOUT));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
 }
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link BuildFractionEstimate} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class BuildFractionEstimateTest {
+
+  public void testWaitingPhase() throws InterruptedException {
+    final DependencyGraphBuilder builder = new DependencyGraphBuilder();
+    final BuildFractionEstimate estimate = new BuildFractionEstimate(builder);
+    assertTrue(estimate.getPhaseTimings().isEmpty());
+    // Nothing has been scheduled
+    assertEquals(estimate.get(), 0d);
+    Thread.sleep(20);
+    assertEquals(estimate.get(), 0d);
+    final Map<BuildFractionEstimate.Phase, Long> timings = estimate.getPhaseTimings();
+    assertEquals(timings.keySet().size(), 1);
+    assertTrue(timings.get(BuildFractionEstimate.Phase.WAITING) >= 20);
+    assertFalse(timings.containsKey(BuildFractionEstimate.Phase.RESOLVING));
+  }
+
+}
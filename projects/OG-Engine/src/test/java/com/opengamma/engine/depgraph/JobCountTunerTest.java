@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link JobCountTuner} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class JobCountTunerTest {
+
+  private static final int LIMIT = 4;
+
+  public void testIncreaseWhileBacklogged() {
+    int threads = 1;
+    // Every permitted job is active and there is more runnable work than jobs
+    for (int i = 0; i < 10; i++) {
+      final int tuned = JobCountTuner.tune(threads, LIMIT, threads, 100, 0);
+      assertTrue(tuned >= threads);
+      assertTrue(tuned <= LIMIT);
+      threads = tuned;
+    }
+    assertEquals(threads, LIMIT);
+  }
+
+  public void testNoIncreaseWithIdleJobs() {
+    // Jobs are available to pick up the runnable work
+    assertEquals(JobCountTuner.tune(3, LIMIT, 2, 100, 0), 3);
+    // No backlog
+    assertEquals(JobCountTuner.tune(3, LIMIT, 3, 3, 0), 3);
+  }
+
+  public void testDecreaseWhileDeferring() {
+    int threads = LIMIT;
+    // Steps are being deferred faster than they become runnable
+    for (int i = 0; i < 10; i++) {
+      final int tuned = JobCountTuner.tune(threads, LIMIT, threads, 10, 50);
+      assertTrue(tuned <= threads);
+      assertTrue(tuned >= 1);
+      threads = tuned;
+    }
+    assertEquals(threads, 1);
+  }
+
+  public void testSamples() {
+    int threads = 2;
+    // Backlog builds, then contention, then the work drains
+    final int[][] samples = {{2, 20, 0 }, {3, 30, 5 }, {4, 10, 40 }, {3, 5, 20 }, {2, 50, 0 }, {1, 0, 0 } };
+    final int[] expected = {3, 4, 3, 2, 3, 3 };
+    for (int i = 0; i < samples.length; i++) {
+      threads = JobCountTuner.tune(threads, LIMIT, samples[i][0], samples[i][1], samples[i][2]);
+      assertEquals(threads, expected[i], "Sample " + i);
+    }
+  }
+
+}
@@ -11,6 +11,7 @@ import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -188,4 +189,32 @@ public class RunQueueTest {
     testLIFO(RunQueueFactory.getOrdered());
   }
 
+  public void testWorkStealingRunQueue() {
+    testSpeed(RunQueueFactory.getWorkStealing());
+    // A single thread only sees its own deque
+    testLIFO(RunQueueFactory.getWorkStealing());
+  }
+
+  public void testWorkStealingRunQueueSteal() throws Exception {
+    final RunQueue queue = RunQueueFactory.getWorkStealing(2).createRunQueue();
+    final ContextRunnable r1 = runnable();
+    final ContextRunnable r2 = runnable();
+    final ContextRunnable r3 = runnable();
+    queue.add(r1);
+    queue.add(r2);
+    queue.add(r3);
+    assertEquals(queue.size(), 3);
+    // Another thread has an empty deque so will steal from the head of this one
+    final ContextRunnable stolen = _executor.submit(new Callable<ContextRunnable>() {
+      @Override
+      public ContextRunnable call() {
+        return queue.take();
+      }
+    }).get();
+    assertSame(stolen, r1);
+    assertSame(queue.take(), r3);
+    assertSame(queue.take(), r2);
+    assertTrue(queue.isEmpty());
+  }
+
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorer;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link DependentNodeIndex} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class DependentNodeIndexTest {
+
+  private final ValueSpecification[] _value = new ValueSpecification[5];
+
+  private ComputationTargetSpecification target(final int id) {
+    return new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", Integer.toString(id)));
+  }
+
+  /**
+   * Creates a graph of the form:
+   * 
+   * <pre>
+   *         0   1
+   *          \ / \
+   *           2   3
+   *            \ /
+   *             4
+   * </pre>
+   * 
+   * Node 2 consumes two outputs from node 1.
+   */
+  private DependencyGraph createGraph() {
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("test");
+    final NodeBuilder[] nodes = new NodeBuilder[5];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = gb.addNode("F", target(i));
+    }
+    _value[0] = nodes[0].addOutput("V");
+    _value[1] = nodes[1].addOutput("V");
+    nodes[2].addInput(_value[0]);
+    nodes[2].addInput(_value[1]);
+    nodes[2].addInput(nodes[1].addOutput("W"));
+    nodes[3].addInput(_value[1]);
+    _value[2] = nodes[2].addOutput("V");
+    _value[3] = nodes[3].addOutput("V");
+    nodes[4].addInput(_value[2]);
+    nodes[4].addInput(_value[3]);
+    _value[4] = nodes[4].addTerminalOutput("V");
+    return gb.buildGraph();
+  }
+
+  private DependencyNode[] nodes(final DependencyGraph graph) {
+    final DependencyGraphExplorer explorer = new DependencyGraphExplorerImpl(graph);
+    final DependencyNode[] nodes = new DependencyNode[_value.length];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = explorer.getNodeProducing(_value[i]);
+    }
+    return nodes;
+  }
+
+  public void testGetDependents() {
+    final DependencyGraph graph = createGraph();
+    final DependencyNode[] nodes = nodes(graph);
+    final DependentNodeIndex index = new DependentNodeIndex(graph);
+    assertEquals(Arrays.asList(index.getDependents(nodes[0])), Arrays.asList(nodes[2]));
+    assertEquals(ImmutableSet.copyOf(index.getDependents(nodes[1])), ImmutableSet.of(nodes[2], nodes[3]));
+    assertEquals(index.getDependents(nodes[1]).length, 2);
+    assertEquals(Arrays.asList(index.getDependents(nodes[2])), Arrays.asList(nodes[4]));
+    assertEquals(Arrays.asList(index.getDependents(nodes[3])), Arrays.asList(nodes[4]));
+    assertEquals(index.getDependents(nodes[4]).length, 0);
+  }
+
+  public void testAddDependents() {
+    final DependencyGraph graph = createGraph();
+    final DependencyNode[] nodes = nodes(graph);
+    final DependentNodeIndex index = new DependentNodeIndex(graph);
+    final Set<DependencyNode> result = new HashSet<DependencyNode>();
+    index.addDependents(Collections.singleton(nodes[0]), result);
+    assertEquals(result, ImmutableSet.of(nodes[0], nodes[2], nodes[4]));
+    result.clear();
+    index.addDependents(Collections.singleton(nodes[3]), result);
+    assertEquals(result, ImmutableSet.of(nodes[3], nodes[4]));
+    result.clear();
+    index.addDependents(Arrays.asList(nodes[0], nodes[1]), result);
+    assertEquals(result, ImmutableSet.copyOf(nodes));
+  }
+
+  public void testNodes() {
+    final DependencyGraph graph = createGraph();
+    final DependencyNode[] nodes = nodes(graph);
+    final DependentNodeIndex index = new DependentNodeIndex(graph);
+    assertEquals(ImmutableSet.copyOf(index.getNodes()), ImmutableSet.copyOf(nodes));
+    assertEquals(index.getNodes().length, nodes.length);
+    // None of the nodes use the market data sourcing function
+    assertEquals(index.getMarketDataNodes().length, 0);
+  }
+
+  public void testHeldByExplorer() {
+    final DependencyGraphExplorerImpl explorer = new DependencyGraphExplorerImpl(createGraph());
+    assertSame(explorer.getDependentNodeIndex(), explorer.getDependentNodeIndex());
+  }
+
+}
@@ -219,4 +219,15 @@ public class RootDiscardingSubgrapherTest {
     assertEquals(missing, ImmutableSet.of(req(7), req(8)));
   }
 
+  public void testAnd() {
+    final RootDiscardingSubgrapher filter = RootDiscardingSubgrapher.and(new InvalidTargetDependencyNodeFilter(ImmutableSet.of(id(1))), new InvalidTargetDependencyNodeFilter(ImmutableSet.of(id(3))));
+    final Set<ValueRequirement> missing = new HashSet<ValueRequirement>();
+    final DependencyGraph graph = largeGraph();
+    assertEquals(filter.subGraph(graph, missing).getSize(), 2);
+    assertEquals(missing, ImmutableSet.of(req(4), req(7), req(8)));
+    missing.clear();
+    assertEquals(filter.subGraph(DependencyGraphImpl.getRootNodes(graph), graph.getTerminalOutputs(), missing).size(), 1);
+    assertEquals(missing, ImmutableSet.of(req(4), req(7), req(8)));
+  }
+
 }
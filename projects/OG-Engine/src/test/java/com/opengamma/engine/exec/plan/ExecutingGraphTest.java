@@ -11,10 +11,12 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
@@ -136,4 +138,73 @@ public class ExecutingGraphTest {
     assertNull(executing.nextExecutableJob());
     assertTrue(executing.isFinished());
   }
+
+  public void criticalPathOrder() {
+    final PlannedJob job4 = new PlannedJob(2, createJobItems(4), CacheSelectHint.allShared(), null, null, 10);
+    final PlannedJob job3 = new PlannedJob(1, createJobItems(3), CacheSelectHint.allShared(), null, new PlannedJob[] {job4 }, 110);
+    final PlannedJob job2 = new PlannedJob(0, createJobItems(2), CacheSelectHint.allShared(), null, new PlannedJob[] {job4 }, 20);
+    final PlannedJob job1 = new PlannedJob(0, createJobItems(1), CacheSelectHint.allShared(), null, new PlannedJob[] {job3 }, 210);
+    final GraphExecutionPlan plan = new GraphExecutionPlan("Default", 0, Arrays.asList(job1, job2), 0, 10d, 10d, 10d);
+    final ExecutingGraph executing = new ExecutingGraph(plan, UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    // Job 1 is the start of the longest path so goes first even though job 2 was added last
+    final CalculationJob job1Exec = executing.nextExecutableJob();
+    assertJob(job1Exec, 1);
+    final CalculationJob job2Exec = executing.nextExecutableJob();
+    assertJob(job2Exec, 2);
+    assertNull(executing.nextExecutableJob());
+    executing.jobCompleted(job2Exec.getSpecification());
+    assertNull(executing.nextExecutableJob());
+    executing.jobCompleted(job1Exec.getSpecification());
+    final CalculationJob job3Exec = executing.nextExecutableJob();
+    assertJob(job3Exec, 3);
+    executing.jobCompleted(job3Exec.getSpecification());
+    final CalculationJob job4Exec = executing.nextExecutableJob();
+    assertJob(job4Exec, 4);
+    executing.jobCompleted(job4Exec.getSpecification());
+    assertTrue(executing.isFinished());
+  }
+
+  public void concurrentCompletion() throws InterruptedException {
+    final int width = 500;
+    final PlannedJob root = new PlannedJob(width, createJobItems(-1), CacheSelectHint.allShared(), null, null);
+    final List<PlannedJob> leaves = new ArrayList<PlannedJob>(width);
+    for (int i = 0; i < width; i++) {
+      final PlannedJob mid = new PlannedJob(1, createJobItems(i), CacheSelectHint.allShared(), null, new PlannedJob[] {root });
+      leaves.add(new PlannedJob(0, createJobItems(width + i), CacheSelectHint.allShared(), null, new PlannedJob[] {mid }));
+    }
+    final GraphExecutionPlan plan = new GraphExecutionPlan("Default", 0, leaves, 0, 10d, 10d, 10d);
+    final ExecutingGraph executing = new ExecutingGraph(plan, UniqueId.of("Cycle", "Test"), Instant.now(), VersionCorrection.LATEST);
+    final AtomicInteger executed = new AtomicInteger();
+    final AtomicInteger rootExecuted = new AtomicInteger();
+    final Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          while (!executing.isFinished()) {
+            final CalculationJob job = executing.nextExecutableJob();
+            if (job == null) {
+              Thread.yield();
+              continue;
+            }
+            executed.incrementAndGet();
+            if ("-1".equals(job.getJobItems().get(0).getFunctionUniqueIdentifier())) {
+              rootExecuted.incrementAndGet();
+            }
+            executing.jobCompleted(job.getSpecification());
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(executing.isFinished());
+    assertEquals(executed.get(), width * 2 + 1);
+    assertEquals(rootExecuted.get(), 1);
+    assertNull(executing.nextExecutableJob());
+    assertTrue(executing.getPeakExecutableJobs() >= width);
+  }
+
 }
@@ -32,6 +32,7 @@ public class TotallingGraphStatisticsGathererProviderTest {
     UniqueId vp2Id = UniqueId.of("Test", "ViewProcess2");
     _provider.getStatisticsGatherer(vp1Id).graphProcessed("Config 1", 10, 20.0, 30.0, 40.0);
     _provider.getStatisticsGatherer(vp1Id).graphExecuted("Config 1", 200, 300, 400);
+    _provider.getStatisticsGatherer(vp1Id).graphScheduled("Config 1", 8, 3);
     _provider.getStatisticsGatherer(vp2Id).graphProcessed("Config 1", 20, 40.0, 50.0, 60.0);
     _provider.getStatisticsGatherer(vp2Id).graphExecuted("Config 1", 400, 500, 600);
     _provider.getStatisticsGatherer(vp2Id).graphProcessed("Config 2", 20, 40.0, 50.0, 60.0);
@@ -47,6 +48,8 @@ public class TotallingGraphStatisticsGathererProviderTest {
         assertEquals (1, graphStatsList.size());
         assertEquals (vp1Id, graphStatsList.get (0).getViewProcessId());
         assertEquals ("Config 1", graphStatsList.get (0).getCalcConfigName());
+        assertEquals (8.0, graphStatsList.get (0).getAveragePeakExecutableJobs());
+        assertEquals (3, graphStatsList.get (0).getContendedCompletions());
       } else if (stats.getViewProcessId().equals(vp2Id)) {
         final List<GraphExecutionStatistics> graphStatsList = stats.getExecutionStatistics();
         assertEquals (2, graphStatsList.size ());
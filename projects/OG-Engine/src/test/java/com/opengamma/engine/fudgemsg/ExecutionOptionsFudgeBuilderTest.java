@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.view.execution.ExecutionFlags;
+import com.opengamma.engine.view.execution.ExecutionOptions;
+import com.opengamma.engine.view.execution.InfiniteViewCycleExecutionSequence;
+import com.opengamma.engine.view.execution.ViewExecutionFlags;
+import com.opengamma.util.test.AbstractFudgeBuilderTestCase;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link ExecutionOptionsFudgeBuilder} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class ExecutionOptionsFudgeBuilderTest extends AbstractFudgeBuilderTestCase {
+
+  public void testScenarioFanOut() {
+    final ExecutionOptions options = (ExecutionOptions) ExecutionOptions.of(new InfiniteViewCycleExecutionSequence(), ExecutionFlags.none().runAsFastAsPossible().scenarioFanOut().get());
+    assertEncodeDecodeCycle(ExecutionOptions.class, options);
+    assertTrue(cycleObject(ExecutionOptions.class, options).getFlags().contains(ViewExecutionFlags.SCENARIO_FAN_OUT));
+  }
+
+  public void testNoScenarioFanOut() {
+    final ExecutionOptions options = (ExecutionOptions) ExecutionOptions.of(new InfiniteViewCycleExecutionSequence(), ExecutionFlags.none().runAsFastAsPossible().get());
+    assertEncodeDecodeCycle(ExecutionOptions.class, options);
+    assertFalse(cycleObject(ExecutionOptions.class, options).getFlags().contains(ViewExecutionFlags.SCENARIO_FAN_OUT));
+  }
+
+}
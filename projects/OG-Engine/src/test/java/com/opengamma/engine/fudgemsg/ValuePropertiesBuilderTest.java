@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.fudgemsg;
 
+import static org.testng.AssertJUnit.assertSame;
+
 import org.testng.annotations.Test;
 
 import com.opengamma.engine.value.ValueProperties;
@@ -36,4 +38,13 @@ public class ValuePropertiesBuilderTest extends AbstractFudgeBuilderTestCase {
   public void testOptionalValues() {
     assertEncodeDecodeCycle(ValueProperties.class, ValueProperties.builder().withOptional("OptAny").withOptional("OptSome").with("OptSome", "a").get());
   }
+
+  public void testDecodedInstancesShared() {
+    final ValueProperties properties = ValueProperties.builder().with("Foo", "Bar").with("A", "B", "C").get();
+    final ValueProperties a = cycleObject(ValueProperties.class, properties);
+    final ValueProperties b = cycleObject(ValueProperties.class, properties);
+    assertSame(a, b);
+    assertSame(a.getStrictValue("Foo"), cycleObject(ValueProperties.class, ValueProperties.with("Foo", new String("Bar")).with("X", "Y").get()).getStrictValue("Foo"));
+  }
+
 }
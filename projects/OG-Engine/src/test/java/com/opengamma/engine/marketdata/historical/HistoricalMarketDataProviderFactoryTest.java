@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.historical;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesResolver;
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the preloading of time-series by {@link HistoricalMarketDataProviderFactory}.
+ */
+@Test(groups = TestGroup.UNIT)
+public class HistoricalMarketDataProviderFactoryTest {
+
+  private static final UniqueId HTS = UniqueId.of("Hts", "1", "V1");
+
+  private HistoricalMarketDataProviderFactory createFactory(final ChangeManager changeManager) {
+    final HistoricalTimeSeriesSource source = mock(HistoricalTimeSeriesSource.class);
+    when(source.changeManager()).thenReturn(changeManager);
+    return new HistoricalMarketDataProviderFactory(source, mock(HistoricalTimeSeriesResolver.class));
+  }
+
+  public void preloadDisabledByDefault() {
+    final HistoricalMarketDataProviderFactory factory = createFactory(new BasicChangeManager());
+    assertNull(factory.getPreloadedTimeSeries(LocalDate.of(2013, 1, 1)));
+  }
+
+  public void storePerPeriod() {
+    final HistoricalMarketDataProviderFactory factory = createFactory(new BasicChangeManager());
+    factory.setPreload(10, 2, 60);
+    final HistoricalTimeSeriesStore store = factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(15));
+    assertEquals(LocalDate.ofEpochDay(10), store.getStartDate());
+    assertEquals(LocalDate.ofEpochDay(19), store.getEndDate());
+    assertSame(store, factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(19)));
+    // Dates before the epoch fall in the period containing them
+    final HistoricalTimeSeriesStore before = factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(-1));
+    assertEquals(LocalDate.ofEpochDay(-10), before.getStartDate());
+    assertEquals(LocalDate.ofEpochDay(-1), before.getEndDate());
+    // Only the most recently used periods are held
+    factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(25));
+    assertNotSame(store, factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(15)));
+    factory.setPreload(0, 0, 0);
+    assertNull(factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(15)));
+  }
+
+  public void changeInvalidatesSeries() {
+    final ChangeManager changeManager = new BasicChangeManager();
+    final HistoricalMarketDataProviderFactory factory = createFactory(changeManager);
+    factory.setPreload(10, 2, 60);
+    final HistoricalTimeSeriesStore store = factory.getPreloadedTimeSeries(LocalDate.ofEpochDay(15));
+    store.preload(Arrays.asList(HTS));
+    assertEquals(1, store.getSize());
+    changeManager.entityChanged(ChangeType.CHANGED, HTS.getObjectId(), null, null, Instant.now());
+    assertEquals(0, store.getSize());
+  }
+
+}
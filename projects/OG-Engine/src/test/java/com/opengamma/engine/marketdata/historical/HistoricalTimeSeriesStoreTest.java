@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.historical;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+
+import com.opengamma.core.historicaltimeseries.HistoricalTimeSeriesSource;
+import com.opengamma.core.historicaltimeseries.impl.SimpleHistoricalTimeSeries;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.timeseries.date.localdate.ImmutableLocalDateDoubleTimeSeries;
+import com.opengamma.util.test.TestGroup;
+
+@Test(groups = TestGroup.UNIT)
+public class HistoricalTimeSeriesStoreTest {
+
+  private static final LocalDate START = LocalDate.of(2013, 1, 1);
+  private static final LocalDate END = LocalDate.of(2013, 1, 31);
+  private static final UniqueId HTS_1 = UniqueId.of("Hts", "1");
+  private static final UniqueId HTS_2 = UniqueId.of("Hts", "2");
+
+  private static HistoricalTimeSeriesSource source() {
+    final HistoricalTimeSeriesSource source = mock(HistoricalTimeSeriesSource.class);
+    when(source.getHistoricalTimeSeries(HTS_1, START, true, END, true)).thenReturn(new SimpleHistoricalTimeSeries(HTS_1, ImmutableLocalDateDoubleTimeSeries.of(
+        new LocalDate[] {LocalDate.of(2013, 1, 2), LocalDate.of(2013, 1, 3), LocalDate.of(2013, 1, 31) }, new double[] {1d, 2d, 3d })));
+    return source;
+  }
+
+  public void indexByDate() {
+    final HistoricalTimeSeriesStore store = new HistoricalTimeSeriesStore(source(), START, END);
+    assertEquals(0, store.getIndex(START));
+    assertEquals(30, store.getIndex(END));
+    assertEquals(-1, store.getIndex(LocalDate.of(2012, 12, 31)));
+    assertEquals(-1, store.getIndex(LocalDate.of(2013, 2, 1)));
+  }
+
+  public void loadOncePerSeries() {
+    final HistoricalTimeSeriesSource source = source();
+    final HistoricalTimeSeriesStore store = new HistoricalTimeSeriesStore(source, START, END);
+    store.preload(Arrays.asList(HTS_1, HTS_2));
+    assertEquals(2, store.getSize());
+    assertEquals(1d, store.getValue(HTS_1, store.getIndex(LocalDate.of(2013, 1, 2))));
+    assertEquals(2d, store.getValue(HTS_1, store.getIndex(LocalDate.of(2013, 1, 3))));
+    assertNull(store.getValue(HTS_1, store.getIndex(LocalDate.of(2013, 1, 4))));
+    assertEquals(3d, store.getValue(HTS_1, store.getIndex(END)));
+    assertNull(store.getValue(HTS_2, 0));
+    store.preload(Arrays.asList(HTS_1, HTS_2));
+    verify(source, times(1)).getHistoricalTimeSeries(HTS_1, START, true, END, true);
+    verify(source, times(1)).getHistoricalTimeSeries(HTS_2, START, true, END, true);
+  }
+
+  public void invalidate() {
+    final HistoricalTimeSeriesSource source = source();
+    final HistoricalTimeSeriesStore store = new HistoricalTimeSeriesStore(source, START, END);
+    store.preload(Arrays.asList(HTS_1, HTS_2));
+    assertTrue(store.invalidate(HTS_1.getObjectId()));
+    assertFalse(store.invalidate(HTS_1.getObjectId()));
+    assertEquals(1, store.getSize());
+    assertEquals(3d, store.getValue(HTS_1, store.getIndex(END)));
+    verify(source, times(2)).getHistoricalTimeSeries(HTS_1, START, true, END, true);
+    verify(source, times(1)).getHistoricalTimeSeries(HTS_2, START, true, END, true);
+  }
+
+  public void snapshotFromStore() {
+    final HistoricalTimeSeriesSource source = source();
+    final HistoricalTimeSeriesStore store = new HistoricalTimeSeriesStore(source, START, END);
+    final ValueSpecification spec = new ValueSpecification("Market_Value", ComputationTargetSpecification.of(HTS_1),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+    for (int day = 2; day <= 3; day++) {
+      final LocalDate date = LocalDate.of(2013, 1, day);
+      final HistoricalMarketDataSnapshot snapshot = new HistoricalMarketDataSnapshot(source, Instant.EPOCH, date, store);
+      assertEquals((double) (day - 1), snapshot.query(spec));
+    }
+    verify(source, times(1)).getHistoricalTimeSeries(HTS_1, START, true, END, true);
+  }
+
+}
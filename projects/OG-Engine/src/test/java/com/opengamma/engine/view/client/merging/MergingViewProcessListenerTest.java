@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.engine.ComputationTargetSpecification;
@@ -537,4 +538,68 @@ public class MergingViewProcessListenerTest {
     underlying.assertNoCalls();
   }
 
+  public void testMetrics() {
+    final EngineResourceManagerInternal<?> cycleManager = new EngineResourceManagerImpl<EngineResource>();
+    final MetricRegistry registry = new MetricRegistry();
+    final MergingViewProcessListener listener1 = new MergingViewProcessListener(Mockito.mock(ViewResultListener.class), cycleManager);
+    final MergingViewProcessListener listener2 = new MergingViewProcessListener(Mockito.mock(ViewResultListener.class), cycleManager);
+    listener1.registerMetrics(registry, registry, "Client1");
+    listener2.registerMetrics(registry, registry, "Client2");
+    assertEquals(registry.getNames().size(), 6);
+    listener1.setPassThrough(false);
+    listener2.setPassThrough(false);
+    listener1.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    listener1.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    assertEquals(listener1.getCoalescedCycleCount(), 1L);
+    assertEquals(registry.meter("Client1.coalescedCycles").getCount(), 1L);
+    assertEquals(registry.meter("Client2.coalescedCycles").getCount(), 0L);
+    listener1.drain();
+    assertEquals(registry.histogram("Client1.deliveryLag").getCount(), 1L);
+    assertEquals(registry.histogram("Client2.deliveryLag").getCount(), 0L);
+    assertEquals(registry.getGauges().get("Client1.deliveryLagMillis").getValue(), 0L);
+    listener1.unregisterMetrics();
+    assertEquals(registry.getNames().size(), 3);
+    // Metrics are no longer updated
+    listener1.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    listener1.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    assertEquals(listener1.getCoalescedCycleCount(), 2L);
+    listener2.unregisterMetrics();
+    assertTrue(registry.getNames().isEmpty());
+  }
+
+  public void testMetricsReplaced() {
+    final EngineResourceManagerInternal<?> cycleManager = new EngineResourceManagerImpl<EngineResource>();
+    final MetricRegistry registry = new MetricRegistry();
+    final MergingViewProcessListener listener1 = new MergingViewProcessListener(Mockito.mock(ViewResultListener.class), cycleManager);
+    final MergingViewProcessListener listener2 = new MergingViewProcessListener(Mockito.mock(ViewResultListener.class), cycleManager);
+    listener1.registerMetrics(registry, registry, "Client");
+    // Registering again, or another listener with the same name, replaces the metrics rather than failing
+    listener1.registerMetrics(registry, registry, "Client");
+    listener2.registerMetrics(registry, registry, "Client");
+    assertEquals(registry.getNames().size(), 3);
+    listener2.setPassThrough(false);
+    listener2.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    listener2.cycleCompleted(Mockito.mock(ViewComputationResultModel.class), Mockito.mock(ViewDeltaResultModel.class));
+    assertEquals(registry.meter("Client.coalescedCycles").getCount(), 1L);
+    // The replaced listener doesn't remove the other's metrics
+    listener1.unregisterMetrics();
+    assertEquals(registry.getNames().size(), 3);
+    listener2.unregisterMetrics();
+    assertTrue(registry.getNames().isEmpty());
+  }
+
+  public void testDeliveryLagAfterHeadRemoved() throws InterruptedException {
+    final EngineResourceManagerInternal<?> cycleManager = new EngineResourceManagerImpl<EngineResource>();
+    final MergingViewProcessListener listener = new MergingViewProcessListener(Mockito.mock(ViewResultListener.class), cycleManager);
+    listener.setPassThrough(false);
+    assertEquals(listener.getDeliveryLagMillis(), 0L);
+    listener.viewDefinitionCompiled(Mockito.mock(CompiledViewDefinition.class), true);
+    Thread.sleep(100);
+    assertTrue(listener.getDeliveryLagMillis() >= 100);
+    listener.viewDefinitionCompiled(Mockito.mock(CompiledViewDefinition.class), true);
+    // The third compilation removes the first, which is at the head of the queue
+    listener.viewDefinitionCompiled(Mockito.mock(CompiledViewDefinition.class), true);
+    assertTrue(listener.getDeliveryLagMillis() < 100);
+  }
+
 }
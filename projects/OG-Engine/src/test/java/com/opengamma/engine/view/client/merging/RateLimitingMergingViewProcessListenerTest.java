@@ -11,6 +11,8 @@ import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -19,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.resource.EngineResourceManagerImpl;
 import com.opengamma.engine.test.TestViewResultListener;
@@ -27,6 +30,7 @@ import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValuePropertyNames;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.AggregatedExecutionLog;
+import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDeltaResultModel;
 import com.opengamma.engine.view.ViewResultEntry;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
@@ -183,6 +187,47 @@ public class RateLimitingMergingViewProcessListenerTest {
     }
   }
 
+  @Test
+  public void testAsynchronousDeliveryToSlowListener() throws InterruptedException {
+    final ScheduledExecutorService timer = Executors.newScheduledThreadPool(1);
+    final ExecutorService delivery = Executors.newCachedThreadPool();
+    try {
+      final CountDownLatch blocked = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final TestViewResultListener testListener = new TestViewResultListener() {
+        @Override
+        public void cycleCompleted(final ViewComputationResultModel fullResult, final ViewDeltaResultModel deltaResult) {
+          if (blocked.getCount() > 0) {
+            blocked.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              throw new OpenGammaRuntimeException("Interrupted", e);
+            }
+          }
+          super.cycleCompleted(fullResult, deltaResult);
+        }
+      };
+      final RateLimitingMergingViewProcessListener mergingListener = new RateLimitingMergingViewProcessListener(testListener, mock(EngineResourceManagerImpl.class), timer, delivery);
+      mergingListener.setPaused(false);
+      addResults(mergingListener, 1);
+      blocked.await();
+      // The listener is stuck delivering the first result; the producer must not be held up by it
+      addResults(mergingListener, 1000);
+      assertEquals(999, mergingListener.getCoalescedCycleCount());
+      release.countDown();
+      testListener.assertCycleCompleted(Timeout.standardTimeoutMillis());
+      testListener.assertCycleCompleted(Timeout.standardTimeoutMillis());
+      mergingListener.processTerminated(false);
+      testListener.assertProcessTerminated(Timeout.standardTimeoutMillis());
+      testListener.assertNoCalls();
+      assertEquals(0, mergingListener.getDeliveryLagMillis());
+    } finally {
+      delivery.shutdown();
+      timer.shutdown();
+    }
+  }
+
   private ViewDeltaResultModel getDeltaResult(final int value) {
     final InMemoryViewDeltaResultModel deltaResult = new InMemoryViewDeltaResultModel();
     deltaResult.setCalculationTime(now());
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link FragmentSchedule} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class FragmentScheduleTest {
+
+  public void testImmediateFragments() {
+    final FragmentSchedule schedule = new FragmentSchedule(0, 1000L);
+    assertTrue(schedule.isDue(1000L));
+    schedule.published(1000L);
+    assertTrue(schedule.isDue(1000L));
+    assertEquals(schedule.getWaitNanos(1000L), 0L);
+  }
+
+  public void testResultsBatched() {
+    final FragmentSchedule schedule = new FragmentSchedule(100L, 1000L);
+    // The first fragment is not held back
+    assertTrue(schedule.isDue(1000L));
+    schedule.published(1000L);
+    // Results arriving within the period wait for the next fragment
+    assertFalse(schedule.isDue(1001L));
+    assertEquals(schedule.getWaitNanos(1001L), 99L);
+    assertFalse(schedule.isDue(1099L));
+    assertEquals(schedule.getWaitNanos(1099L), 1L);
+    assertTrue(schedule.isDue(1100L));
+    // A late fragment restarts the period from when it was published
+    schedule.published(1250L);
+    assertFalse(schedule.isDue(1300L));
+    assertTrue(schedule.isDue(1350L));
+  }
+
+  public void testCounterWrap() {
+    final FragmentSchedule schedule = new FragmentSchedule(100L, Long.MAX_VALUE - 10L);
+    schedule.published(Long.MAX_VALUE - 10L);
+    assertFalse(schedule.isDue(Long.MAX_VALUE));
+    assertFalse(schedule.isDue(Long.MIN_VALUE));
+    assertEquals(schedule.getWaitNanos(Long.MIN_VALUE), 89L);
+    assertTrue(schedule.isDue(Long.MIN_VALUE + 89L));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNegativePeriod() {
+    new FragmentSchedule(-1L, 0L);
+  }
+
+}
@@ -64,7 +64,7 @@ public class LiveDataDeltaCalculatorTest {
   }
 
   private LiveDataDeltaCalculator deltaCalculator(final Set<ValueSpecification> dirtySpecifications) {
-    return new LiveDataDeltaCalculator(_graph, _cache, _previousCache, dirtySpecifications);
+    return new LiveDataDeltaCalculator(new DependencyGraphExplorerImpl(_graph), _cache, _previousCache, dirtySpecifications);
   }
 
   private ComputationTargetSpecification getTarget(final String name) {
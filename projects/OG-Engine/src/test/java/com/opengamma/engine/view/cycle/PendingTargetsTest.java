@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.cycle;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link PendingTargets} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class PendingTargetsTest {
+
+  private static final ComputationTargetSpecification TARGET_A = ComputationTargetSpecification.of(UniqueId.of("Test", "A"));
+  private static final ComputationTargetSpecification TARGET_B = ComputationTargetSpecification.of(UniqueId.of("Test", "B"));
+
+  private ValueSpecification spec(final String name, final ComputationTargetSpecification target) {
+    return new ValueSpecification(name, target, ValueProperties.with(ValuePropertyNames.FUNCTION, "Test").get());
+  }
+
+  public void testOutputCompletion() {
+    final PendingTargets pending = new PendingTargets(Arrays.asList(spec("PV", TARGET_A), spec("Delta", TARGET_A), spec("PV", TARGET_B)),
+        Collections.<ValueSpecification>emptySet());
+    assertEquals(pending.size(), 2);
+    assertTrue(pending.isPending(TARGET_A));
+    assertTrue(pending.isPending(TARGET_B));
+    assertFalse(pending.outputCompleted(spec("PV", TARGET_A)));
+    assertTrue(pending.isPending(TARGET_A));
+    assertTrue(pending.outputCompleted(spec("PV", TARGET_B)));
+    assertFalse(pending.isPending(TARGET_B));
+    assertEquals(pending.size(), 1);
+    assertTrue(pending.outputCompleted(spec("Delta", TARGET_A)));
+    assertFalse(pending.isPending(TARGET_A));
+    assertEquals(pending.size(), 0);
+    // Duplicate or unknown outputs are ignored
+    assertFalse(pending.outputCompleted(spec("Delta", TARGET_A)));
+    assertFalse(pending.outputCompleted(spec("Gamma", ComputationTargetSpecification.NULL)));
+  }
+
+  public void testSharedValuesNotPending() {
+    final ValueSpecification reused = spec("PV", TARGET_B);
+    final PendingTargets pending = new PendingTargets(Arrays.asList(spec("PV", TARGET_A), reused), Collections.singleton(reused));
+    assertTrue(pending.isPending(TARGET_A));
+    assertFalse(pending.isPending(TARGET_B));
+    assertEquals(pending.size(), 1);
+  }
+
+  public void testCompleteAll() {
+    final PendingTargets pending = new PendingTargets(Arrays.asList(spec("PV", TARGET_A), spec("PV", TARGET_B)), Collections.<ValueSpecification>emptySet());
+    pending.completeAll();
+    assertFalse(pending.isPending(TARGET_A));
+    assertFalse(pending.isPending(TARGET_B));
+    assertEquals(pending.size(), 0);
+  }
+
+}
@@ -5,6 +5,7 @@
  */
 package com.opengamma.engine.view.cycle;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -79,6 +80,14 @@ public class SingleComputationCycleTest {
     }
   }
 
+  public void testParseFragmentFlushMillis() {
+    assertEquals(0L, SingleComputationCycle.parseFragmentFlushMillis(null));
+    assertEquals(250L, SingleComputationCycle.parseFragmentFlushMillis("250"));
+    assertEquals(250L, SingleComputationCycle.parseFragmentFlushMillis(" 250 "));
+    assertEquals(0L, SingleComputationCycle.parseFragmentFlushMillis("-1"));
+    assertEquals(0L, SingleComputationCycle.parseFragmentFlushMillis("fast"));
+  }
+
   private class BlockingDependencyGraphExecutorFactory implements DependencyGraphExecutorFactory {
 
     private final BlockingDependencyGraphExecutor _instance;
@@ -5,6 +5,7 @@
  */
 package com.opengamma.engine.view.worker;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
@@ -12,14 +13,21 @@ import static org.testng.Assert.fail;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.testng.annotations.Test;
 import org.threeten.bp.Instant;
 
+import com.opengamma.engine.resource.EngineResourceManagerInternal;
+import com.opengamma.engine.resource.EngineResourceReference;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDefinition;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.cycle.SingleComputationCycle;
 import com.opengamma.engine.view.cycle.ViewCycle;
 import com.opengamma.engine.view.cycle.ViewCycleMetadata;
 import com.opengamma.engine.view.execution.ArbitraryViewCycleExecutionSequence;
@@ -29,6 +37,8 @@ import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
 import com.opengamma.engine.view.execution.ViewCycleExecutionSequence;
 import com.opengamma.engine.view.execution.ViewExecutionFlags;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
+import com.opengamma.engine.view.impl.ViewProcessContext;
+import com.opengamma.id.UniqueId;
 import com.opengamma.util.test.TestGroup;
 import com.opengamma.util.test.Timeout;
 
@@ -127,7 +137,9 @@ public class SequencePartitioningViewProcessWorkerTest {
           }
         }
         _context.cycleFragmentCompleted(Mockito.mock(ViewComputationResultModel.class), _viewDefinition);
-        _context.cycleCompleted(Mockito.mock(ViewCycle.class));
+        final ViewCycle cycle = Mockito.mock(ViewCycle.class);
+        Mockito.when(cycle.getExecutionOptions()).thenReturn(options);
+        _context.cycleCompleted(cycle);
       } while (!_terminated);
       _context.workerCompleted();
     }
@@ -136,17 +148,71 @@ public class SequencePartitioningViewProcessWorkerTest {
 
   private class ViewProcessWorkerFactoryMock implements ViewProcessWorkerFactory {
 
+    private final int _firstDelay;
     private final int _delay;
+    private int _workers;
 
     public ViewProcessWorkerFactoryMock(final int delay) {
+      this(delay, delay);
+    }
+
+    public ViewProcessWorkerFactoryMock(final int firstDelay, final int delay) {
+      _firstDelay = firstDelay;
       _delay = delay;
     }
 
     @Override
-    public ViewProcessWorker createWorker(ViewProcessWorkerContext context, ViewExecutionOptions executionOptions, ViewDefinition viewDefinition) {
-      return new ViewProcessWorkerMock(context, executionOptions, viewDefinition, _delay);
+    public synchronized ViewProcessWorker createWorker(ViewProcessWorkerContext context, ViewExecutionOptions executionOptions, ViewDefinition viewDefinition) {
+      return new ViewProcessWorkerMock(context, executionOptions, viewDefinition, (_workers++ == 0) ? _firstDelay : _delay);
+    }
+
+  }
+
+  private class ManualViewProcessWorkerFactory implements ViewProcessWorkerFactory {
+
+    private final List<ViewProcessWorkerContext> _contexts = new ArrayList<ViewProcessWorkerContext>();
+
+    @Override
+    public synchronized ViewProcessWorker createWorker(ViewProcessWorkerContext context, ViewExecutionOptions executionOptions, ViewDefinition viewDefinition) {
+      _contexts.add(context);
+      return Mockito.mock(ViewProcessWorker.class);
     }
 
+    public synchronized ViewProcessWorkerContext getContext(final int index) {
+      return _contexts.get(index);
+    }
+
+  }
+
+  @SuppressWarnings("unchecked")
+  private ViewProcessWorkerContext createContext() {
+    final ViewProcessContext processContext = Mockito.mock(ViewProcessContext.class);
+    Mockito.when(processContext.getCycleManager()).thenReturn(Mockito.mock(EngineResourceManagerInternal.class));
+    final ViewProcessWorkerContext context = Mockito.mock(ViewProcessWorkerContext.class);
+    Mockito.when(context.getProcessContext()).thenReturn(processContext);
+    return context;
+  }
+
+  private ViewExecutionOptions createOptions(final int cycleCount) {
+    final Instant t = Instant.now();
+    final List<ViewCycleExecutionOptions> cycles = new ArrayList<ViewCycleExecutionOptions>(cycleCount);
+    for (int i = 0; i < cycleCount; i++) {
+      cycles.add(ViewCycleExecutionOptions.builder().setValuationTime(t.plusSeconds(i)).create());
+    }
+    return ExecutionOptions.of(new ArbitraryViewCycleExecutionSequence(cycles), EnumSet.of(ViewExecutionFlags.RUN_AS_FAST_AS_POSSIBLE));
+  }
+
+  @SuppressWarnings("unchecked")
+  private EngineResourceReference<SingleComputationCycle> createReference() {
+    return Mockito.mock(EngineResourceReference.class);
+  }
+
+  private ViewCycle createCycle(final ViewProcessWorkerContext context, final String id, final EngineResourceReference<SingleComputationCycle> reference) {
+    final ViewCycle cycle = Mockito.mock(ViewCycle.class);
+    final UniqueId uid = UniqueId.of("Cycle", id);
+    Mockito.when(cycle.getUniqueId()).thenReturn(uid);
+    Mockito.when(context.getProcessContext().getCycleManager().createReference(uid)).thenReturn(reference);
+    return cycle;
   }
 
   public void testFiniteSequence() throws InterruptedException {
@@ -158,7 +224,7 @@ public class SequencePartitioningViewProcessWorkerTest {
     }
     final ViewCycleExecutionSequence sequence = new ArbitraryViewCycleExecutionSequence(cycles);
     final ViewExecutionOptions options = ExecutionOptions.of(sequence, EnumSet.of(ViewExecutionFlags.RUN_AS_FAST_AS_POSSIBLE));
-    final ViewProcessWorkerContext context = Mockito.mock(ViewProcessWorkerContext.class);
+    final ViewProcessWorkerContext context = createContext();
     final SequencePartitioningViewProcessWorker worker = new SequencePartitioningViewProcessWorker(underlying, context, options, Mockito.mock(ViewDefinition.class), 10, 2);
     assertTrue(worker.join(4 * Timeout.standardTimeoutMillis()));
     assertTrue(worker.isTerminated());
@@ -176,7 +242,7 @@ public class SequencePartitioningViewProcessWorkerTest {
   public void testInfiniteSequence() throws InterruptedException {
     final ViewProcessWorkerFactoryMock underlying = new ViewProcessWorkerFactoryMock((int) (Timeout.standardTimeoutMillis() / 32));
     final ViewExecutionOptions options = ExecutionOptions.of(new InfiniteViewCycleExecutionSequence(), EnumSet.of(ViewExecutionFlags.RUN_AS_FAST_AS_POSSIBLE));
-    final ViewProcessWorkerContext context = Mockito.mock(ViewProcessWorkerContext.class);
+    final ViewProcessWorkerContext context = createContext();
     final SequencePartitioningViewProcessWorker worker = new SequencePartitioningViewProcessWorker(underlying, context, options, Mockito.mock(ViewDefinition.class), 10, 2);
     assertFalse(worker.join(Timeout.standardTimeoutMillis()));
     assertFalse(worker.isTerminated());
@@ -186,4 +252,102 @@ public class SequencePartitioningViewProcessWorkerTest {
     Mockito.verify(context, Mockito.atLeast(2)).viewDefinitionCompiled(Mockito.any(ViewExecutionDataProvider.class), Mockito.any(CompiledViewDefinitionWithGraphs.class));
   }
 
+  public void testResultOrder() throws InterruptedException {
+    // The first partition is slower than the others so its results would be delivered last if they weren't held back
+    final ViewProcessWorkerFactoryMock underlying = new ViewProcessWorkerFactoryMock((int) (Timeout.standardTimeoutMillis() / 64), 0);
+    final Instant t = Instant.now();
+    final List<ViewCycleExecutionOptions> cycles = new ArrayList<ViewCycleExecutionOptions>(20);
+    for (int i = 0; i < 37; i++) {
+      cycles.add(ViewCycleExecutionOptions.builder().setValuationTime(t.plusSeconds(i)).create());
+    }
+    final ViewCycleExecutionSequence sequence = new ArbitraryViewCycleExecutionSequence(cycles);
+    final ViewExecutionOptions options = ExecutionOptions.of(sequence, EnumSet.of(ViewExecutionFlags.RUN_AS_FAST_AS_POSSIBLE));
+    final ViewProcessWorkerContext context = createContext();
+    final SequencePartitioningViewProcessWorker worker = new SequencePartitioningViewProcessWorker(underlying, context, options, Mockito.mock(ViewDefinition.class), 10, 4);
+    assertTrue(worker.join(4 * Timeout.standardTimeoutMillis()));
+    assertTrue(worker.isTerminated());
+    final ArgumentCaptor<ViewCycle> completed = ArgumentCaptor.forClass(ViewCycle.class);
+    Mockito.verify(context, Mockito.times(cycles.size())).cycleCompleted(completed.capture());
+    for (int i = 0; i < cycles.size(); i++) {
+      assertEquals(completed.getAllValues().get(i).getExecutionOptions().getValuationTime(), cycles.get(i).getValuationTime());
+    }
+    Mockito.verify(context, Mockito.times(1)).workerCompleted();
+  }
+
+  public void testHeldCyclesDeliveredOutOfOrder() {
+    final ManualViewProcessWorkerFactory underlying = new ManualViewProcessWorkerFactory();
+    final ViewProcessWorkerContext context = createContext();
+    new SequencePartitioningViewProcessWorker(underlying, context, createOptions(4), Mockito.mock(ViewDefinition.class), 2, 2);
+    final ViewProcessWorkerContext first = underlying.getContext(0);
+    final ViewProcessWorkerContext second = underlying.getContext(1);
+    final List<EngineResourceReference<SingleComputationCycle>> references = new ArrayList<EngineResourceReference<SingleComputationCycle>>();
+    final List<ViewCycle> cycles = new ArrayList<ViewCycle>();
+    for (int i = 0; i < 4; i++) {
+      references.add(createReference());
+      cycles.add(createCycle(context, Integer.toString(i), references.get(i)));
+    }
+    final EngineResourceManagerInternal<SingleComputationCycle> cycleManager = context.getProcessContext().getCycleManager();
+    // The second partition completes first; its cycles are held with a reference to each
+    second.cycleCompleted(cycles.get(2));
+    second.cycleCompleted(cycles.get(3));
+    second.workerCompleted();
+    Mockito.verify(context, Mockito.never()).cycleCompleted(Mockito.any(ViewCycle.class));
+    Mockito.verify(cycleManager).createReference(cycles.get(2).getUniqueId());
+    Mockito.verify(cycleManager).createReference(cycles.get(3).getUniqueId());
+    Mockito.verify(references.get(2), Mockito.never()).release();
+    Mockito.verify(references.get(3), Mockito.never()).release();
+    // The first partition's cycles are passed straight through without an additional reference
+    first.cycleCompleted(cycles.get(0));
+    Mockito.verify(context).cycleCompleted(cycles.get(0));
+    first.cycleCompleted(cycles.get(1));
+    Mockito.verify(context, Mockito.never()).workerCompleted();
+    first.workerCompleted();
+    final InOrder order = Mockito.inOrder(context, references.get(2), references.get(3));
+    order.verify(context).cycleCompleted(cycles.get(0));
+    order.verify(context).cycleCompleted(cycles.get(1));
+    order.verify(context).cycleCompleted(cycles.get(2));
+    order.verify(references.get(2)).release();
+    order.verify(context).cycleCompleted(cycles.get(3));
+    order.verify(references.get(3)).release();
+    order.verify(context).workerCompleted();
+    Mockito.verify(cycleManager, Mockito.never()).createReference(cycles.get(0).getUniqueId());
+    Mockito.verify(cycleManager, Mockito.never()).createReference(cycles.get(1).getUniqueId());
+    Mockito.verify(references.get(0), Mockito.never()).release();
+    Mockito.verify(references.get(1), Mockito.never()).release();
+  }
+
+  public void testHeldCyclesBounded() throws InterruptedException {
+    final int cycleCount = SequencePartitioningViewProcessWorker.MAX_HELD_CYCLES + 1;
+    final ManualViewProcessWorkerFactory underlying = new ManualViewProcessWorkerFactory();
+    final ViewProcessWorkerContext context = createContext();
+    new SequencePartitioningViewProcessWorker(underlying, context, createOptions(2 * cycleCount), Mockito.mock(ViewDefinition.class), cycleCount, 2);
+    final ViewProcessWorkerContext first = underlying.getContext(0);
+    final ViewProcessWorkerContext second = underlying.getContext(1);
+    final List<ViewCycle> cycles = new ArrayList<ViewCycle>();
+    for (int i = 0; i < cycleCount; i++) {
+      cycles.add(createCycle(context, Integer.toString(i), createReference()));
+    }
+    final CountDownLatch completed = new CountDownLatch(1);
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (ViewCycle cycle : cycles) {
+          second.cycleCompleted(cycle);
+        }
+        completed.countDown();
+      }
+    });
+    thread.start();
+    // The second partition's worker is stalled once the maximum number of cycles are held
+    assertFalse(completed.await(Timeout.standardTimeoutMillis() / 8, TimeUnit.MILLISECONDS));
+    Mockito.verify(context, Mockito.never()).cycleCompleted(Mockito.any(ViewCycle.class));
+    first.workerCompleted();
+    assertTrue(completed.await(Timeout.standardTimeoutMillis(), TimeUnit.MILLISECONDS));
+    thread.join(Timeout.standardTimeoutMillis());
+    final InOrder order = Mockito.inOrder(context);
+    for (ViewCycle cycle : cycles) {
+      order.verify(context).cycleCompleted(cycle);
+    }
+  }
+
 }
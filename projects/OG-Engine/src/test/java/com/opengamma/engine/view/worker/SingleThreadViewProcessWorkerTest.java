@@ -6,11 +6,16 @@
 package com.opengamma.engine.view.worker;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.Duration;
@@ -18,8 +23,17 @@ import org.threeten.bp.Instant;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.cache.MissingInput;
 import com.opengamma.engine.cache.MissingOutput;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
+import com.opengamma.engine.depgraph.impl.RootDiscardingSubgrapher;
+import com.opengamma.engine.exec.DependencyGraphExecutor;
+import com.opengamma.engine.exec.DependencyGraphExecutorFactory;
+import com.opengamma.engine.exec.SingleNodeExecutorFactory;
 import com.opengamma.engine.marketdata.InMemoryLKVMarketDataProvider;
 import com.opengamma.engine.marketdata.MarketDataListener;
 import com.opengamma.engine.marketdata.MarketDataPermissionProvider;
@@ -34,6 +48,9 @@ import com.opengamma.engine.marketdata.resolver.MarketDataProviderResolver;
 import com.opengamma.engine.marketdata.spec.LiveMarketDataSpecification;
 import com.opengamma.engine.marketdata.spec.MarketData;
 import com.opengamma.engine.marketdata.spec.MarketDataSpecification;
+import com.opengamma.engine.resource.EngineResourceManager;
+import com.opengamma.engine.resource.EngineResourceReference;
+import com.opengamma.engine.target.ComputationTargetType;
 import com.opengamma.engine.test.TestViewResultListener;
 import com.opengamma.engine.test.ViewProcessorTestEnvironment;
 import com.opengamma.engine.value.ComputedValue;
@@ -41,6 +58,9 @@ import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewTargetResultModel;
 import com.opengamma.engine.view.client.ViewClient;
+import com.opengamma.engine.view.compilation.InvalidTargetDependencyNodeFilter;
+import com.opengamma.engine.view.compilation.PartiallyCompiledGraph;
+import com.opengamma.engine.view.cycle.SingleComputationCycle;
 import com.opengamma.engine.view.execution.ArbitraryViewCycleExecutionSequence;
 import com.opengamma.engine.view.execution.ExecutionFlags;
 import com.opengamma.engine.view.execution.ExecutionOptions;
@@ -363,6 +383,77 @@ public class SingleThreadViewProcessWorkerTest {
     }
   }
 
+  private static ValueSpecification previousGraphNode(final TestDependencyGraphBuilder builder, final ComputationTargetType type, final String id, final boolean terminal,
+      final ValueSpecification... inputs) {
+    final NodeBuilder node = builder.addNode("F", new ComputationTargetSpecification(type, UniqueId.of("Test", id)));
+    for (ValueSpecification input : inputs) {
+      node.addInput(input);
+    }
+    return terminal ? node.addTerminalOutput("V") : node.addOutput("V");
+  }
+
+  /**
+   * Creates a graph of the form:
+   * 
+   * <pre>
+   *   Sec1 --> Pos1 --> Node1* --> Port*
+   *                 /
+   *            Pos2* --> Node2*
+   * </pre>
+   */
+  private static DependencyGraph previousGraph() {
+    final TestDependencyGraphBuilder builder = new TestDependencyGraphBuilder("Default");
+    final ValueSpecification sec1 = previousGraphNode(builder, ComputationTargetType.SECURITY, "Sec1", false);
+    final ValueSpecification pos1 = previousGraphNode(builder, ComputationTargetType.POSITION, "Pos1", false, sec1);
+    final ValueSpecification pos2 = previousGraphNode(builder, ComputationTargetType.POSITION, "Pos2", true);
+    final ValueSpecification node1 = previousGraphNode(builder, ComputationTargetType.PORTFOLIO_NODE, "Node1", true, pos1, pos2);
+    previousGraphNode(builder, ComputationTargetType.PORTFOLIO_NODE, "Node2", true, pos2);
+    previousGraphNode(builder, ComputationTargetType.PORTFOLIO, "Port", true, node1);
+    return builder.buildGraph();
+  }
+
+  private static Set<UniqueId> uids(final String... ids) {
+    final Set<UniqueId> uids = new HashSet<UniqueId>();
+    for (String id : ids) {
+      uids.add(UniqueId.of("Test", id));
+    }
+    return uids;
+  }
+
+  @Test
+  public void testFilterPreviousGraphsAfterPortfolioChange() {
+    // Node2 is no longer in the portfolio and Pos1 has changed
+    final Set<UniqueId> unmapped = uids("Node2");
+    final Set<UniqueId> invalid = uids("Pos1");
+    // Filter in a single pass, as the worker does
+    final Map<String, PartiallyCompiledGraph> combined = new HashMap<String, PartiallyCompiledGraph>();
+    combined.put("Default", new PartiallyCompiledGraph(previousGraph()));
+    final Set<UniqueId> unchangedNodes = uids("Sec1", "Pos1", "Pos2", "Node1", "Node2", "Port");
+    SingleThreadViewProcessWorker.filterPreviousGraphs(combined,
+        RootDiscardingSubgrapher.and(new InvalidPortfolioDependencyNodeFilter(unmapped), new InvalidTargetDependencyNodeFilter(invalid)), unchangedNodes);
+    // Filter in two passes, as the worker used to
+    final Map<String, PartiallyCompiledGraph> sequential = new HashMap<String, PartiallyCompiledGraph>();
+    sequential.put("Default", new PartiallyCompiledGraph(previousGraph()));
+    SingleThreadViewProcessWorker.filterPreviousGraphs(sequential, new InvalidPortfolioDependencyNodeFilter(unmapped), null);
+    SingleThreadViewProcessWorker.filterPreviousGraphs(sequential, new InvalidTargetDependencyNodeFilter(invalid), null);
+    final PartiallyCompiledGraph combinedGraph = combined.get("Default");
+    final PartiallyCompiledGraph sequentialGraph = sequential.get("Default");
+    // Only Sec1 and Pos2 survive; everything dependent on the changed position, and all portfolio level nodes, must be rebuilt
+    final Set<UniqueId> roots = new HashSet<UniqueId>();
+    for (DependencyNode root : combinedGraph.getRoots()) {
+      roots.add(root.getTarget().getUniqueId());
+    }
+    assertEquals(uids("Sec1", "Pos2"), roots);
+    assertEquals(new HashSet<DependencyNode>(sequentialGraph.getRoots()), new HashSet<DependencyNode>(combinedGraph.getRoots()));
+    assertEquals(sequentialGraph.getTerminalOutputs(), combinedGraph.getTerminalOutputs());
+    assertEquals(sequentialGraph.getMissingRequirements(), combinedGraph.getMissingRequirements());
+    assertEquals(3, combinedGraph.getMissingRequirements().size());
+    // The terminal output from Pos2 is retained
+    assertEquals(1, combinedGraph.getTerminalOutputs().size());
+    // Portfolio nodes discarded by the structure filter are no longer unchanged, so their requirements are re-added
+    assertEquals(uids("Sec1", "Pos2"), unchangedNodes);
+  }
+
   @Test
   public void testTriggerCycle() {
     TestLifecycle.begin();
@@ -393,6 +484,95 @@ public class SingleThreadViewProcessWorkerTest {
     }
   }
 
+  /**
+   * Records, as each cycle starts executing, whether the first cycle of the run is still held by the worker.
+   */
+  private static class BaseCycleRecordingExecutorFactory implements DependencyGraphExecutorFactory {
+
+    private final DependencyGraphExecutorFactory _underlying = new SingleNodeExecutorFactory();
+    private final List<UniqueId> _cycles = new CopyOnWriteArrayList<UniqueId>();
+    private final List<Boolean> _firstCycleHeld = new CopyOnWriteArrayList<Boolean>();
+    private volatile EngineResourceManager<SingleComputationCycle> _cycleManager;
+
+    public void setCycleManager(final EngineResourceManager<SingleComputationCycle> cycleManager) {
+      _cycleManager = cycleManager;
+    }
+
+    public UniqueId getFirstCycle() {
+      return _cycles.get(0);
+    }
+
+    public List<Boolean> getFirstCycleHeld() {
+      return _firstCycleHeld;
+    }
+
+    @Override
+    public DependencyGraphExecutor createExecutor(final SingleComputationCycle cycle) {
+      if (!_cycles.contains(cycle.getUniqueId())) {
+        _cycles.add(cycle.getUniqueId());
+        final EngineResourceReference<SingleComputationCycle> first = _cycleManager.createReference(getFirstCycle());
+        _firstCycleHeld.add(first != null);
+        if (first != null) {
+          first.release();
+        }
+      }
+      return _underlying.createExecutor(cycle);
+    }
+
+  }
+
+  private BaseCycleRecordingExecutorFactory runScenarioSequence(final EnumSet<ViewExecutionFlags> flags) throws InterruptedException {
+    final ViewProcessorTestEnvironment env = new ViewProcessorTestEnvironment();
+    final BaseCycleRecordingExecutorFactory executorFactory = new BaseCycleRecordingExecutorFactory();
+    env.setDependencyGraphExecutorFactory(executorFactory);
+    env.init();
+    final ViewProcessorImpl vp = env.getViewProcessor();
+    executorFactory.setCycleManager(vp.getViewCycleManager());
+    vp.start();
+    final ViewClient client = vp.createViewClient(ViewProcessorTestEnvironment.TEST_USER);
+    final TestViewResultListener resultListener = new TestViewResultListener();
+    client.setResultListener(resultListener);
+    // Each scenario is valued at the same time, so the compiled view definition remains valid and the cycles after the first are deltas
+    final ViewCycleExecutionOptions scenario = ViewCycleExecutionOptions.builder().setValuationTime(Instant.now()).setMarketDataSpecification(MarketData.live()).create();
+    final ViewExecutionOptions executionOptions = ExecutionOptions.of(ArbitraryViewCycleExecutionSequence.of(scenario, scenario, scenario), flags);
+    client.attachToViewProcess(env.getViewDefinition().getUniqueId(), executionOptions);
+    resultListener.assertViewDefinitionCompiled(TIMEOUT);
+    final ViewProcessWorker worker = env.getCurrentWorker(env.getViewProcess(vp, client.getUniqueId()));
+    resultListener.assertCycleCompleted(TIMEOUT);
+    resultListener.assertCycleCompleted(TIMEOUT);
+    resultListener.assertCycleCompleted(TIMEOUT);
+    resultListener.assertProcessCompleted(TIMEOUT);
+    worker.join(TIMEOUT);
+    // Nothing, including any retained base cycle, is held once the run has finished
+    assertNull(vp.getViewCycleManager().createReference(executorFactory.getFirstCycle()));
+    client.shutdown();
+    return executorFactory;
+  }
+
+  @Test
+  public void testScenarioFanOutRetainsBaseCycle() throws InterruptedException {
+    TestLifecycle.begin();
+    try {
+      final BaseCycleRecordingExecutorFactory executorFactory = runScenarioSequence(ExecutionFlags.none().runAsFastAsPossible().scenarioFanOut().get());
+      // Every scenario cycle is computed as a delta from the first
+      assertEquals(Arrays.asList(true, true, true), executorFactory.getFirstCycleHeld());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
+  @Test
+  public void testDeltaFromPreviousCycle() throws InterruptedException {
+    TestLifecycle.begin();
+    try {
+      final BaseCycleRecordingExecutorFactory executorFactory = runScenarioSequence(ExecutionFlags.none().runAsFastAsPossible().get());
+      // Without fan-out each cycle is a delta from the one before, so the first is released once the second has completed
+      assertEquals(Arrays.asList(true, true, false), executorFactory.getFirstCycleHeld());
+    } finally {
+      TestLifecycle.end();
+    }
+  }
+
   private void assertThreadReachesState(final BorrowedThread recalcThread, final Thread.State state) throws InterruptedException {
     final long startTime = System.currentTimeMillis();
     while (recalcThread.getState() != state) {
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.worker.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.core.position.Portfolio;
+import com.opengamma.core.position.impl.SimplePortfolio;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder;
+import com.opengamma.engine.depgraph.builder.TestDependencyGraphBuilder.NodeBuilder;
+import com.opengamma.engine.function.CompiledFunctionService;
+import com.opengamma.engine.function.FunctionCompilationContext;
+import com.opengamma.engine.function.FunctionDefinition;
+import com.opengamma.engine.function.FunctionRepository;
+import com.opengamma.engine.target.ComputationTargetReference;
+import com.opengamma.engine.target.ComputationTargetRequirement;
+import com.opengamma.engine.target.ComputationTargetType;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfiguration;
+import com.opengamma.engine.view.compilation.CompiledViewCalculationConfigurationImpl;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link FileViewExecutionCache} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class FileViewExecutionCacheTest {
+
+  private final Instant _now = Instant.now();
+  private File _directory;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    _directory = File.createTempFile("FileViewExecutionCacheTest", "");
+    assertTrue(_directory.delete());
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    final File[] files = _directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    _directory.delete();
+  }
+
+  private Portfolio createPortfolio() {
+    return new SimplePortfolio(UniqueId.of("Portfolio", "0", "V"), "Portfolio");
+  }
+
+  private ViewDefinition createViewDefinition() {
+    final ViewDefinition viewDefinition = new ViewDefinition("TestView", UniqueId.of("Portfolio", "0"), "TestUser");
+    viewDefinition.setUniqueId(UniqueId.of("View", "0", "V"));
+    return viewDefinition;
+  }
+
+  private DependencyGraph createDependencyGraph() {
+    final TestDependencyGraphBuilder gb = new TestDependencyGraphBuilder("Default");
+    final NodeBuilder n1 = gb.addNode("Foo", ComputationTargetSpecification.NULL);
+    n1.addTerminalOutput("Foo");
+    final NodeBuilder n2 = gb.addNode("Bar", ComputationTargetSpecification.NULL);
+    n1.addInput(n2.addOutput("Bar"));
+    return gb.buildGraph();
+  }
+
+  private CompiledViewDefinitionWithGraphs createCompiledViewDefinitionWithGraphs() {
+    final Portfolio portfolio = createPortfolio();
+    final ViewDefinition viewDefinition = createViewDefinition();
+    viewDefinition.addViewCalculationConfiguration(new ViewCalculationConfiguration(viewDefinition, "Default"));
+    final DependencyGraph graph = createDependencyGraph();
+    final Collection<DependencyGraph> graphs = Collections.singleton(graph);
+    final Collection<CompiledViewCalculationConfiguration> calcConfigs = Collections.<CompiledViewCalculationConfiguration>singleton(CompiledViewCalculationConfigurationImpl.of(graph));
+    final Map<ComputationTargetReference, UniqueId> resolutions = ImmutableMap.<ComputationTargetReference, UniqueId>of(new ComputationTargetRequirement(ComputationTargetType.SECURITY,
+        ExternalId.of("Security", "Foo")), UniqueId.of("Sec", "0"));
+    return new CompiledViewDefinitionWithGraphsImpl(VersionCorrection.of(_now, _now), "", viewDefinition, graphs, resolutions, portfolio, 0, calcConfigs, null, null);
+  }
+
+  private FunctionDefinition createFunction(final String id) {
+    final FunctionDefinition function = Mockito.mock(FunctionDefinition.class);
+    Mockito.when(function.getUniqueId()).thenReturn(id);
+    Mockito.when(function.getShortName()).thenReturn("Function" + id);
+    return function;
+  }
+
+  private CompiledFunctionService createFunctions(final long functionInitId, final FunctionDefinition... functions) {
+    final ComputationTargetResolver targetResolver = Mockito.mock(ComputationTargetResolver.class);
+    Mockito.when(targetResolver.resolve(new ComputationTargetSpecification(ComputationTargetType.PORTFOLIO, UniqueId.of("Portfolio", "0", "V")), VersionCorrection.of(_now, _now)))
+        .thenReturn(new ComputationTarget(ComputationTargetType.PORTFOLIO, createPortfolio()));
+    Mockito.when(targetResolver.resolve(new ComputationTargetSpecification(ComputationTargetType.of(ViewDefinition.class), UniqueId.of("View", "0", "V")), VersionCorrection.LATEST))
+        .thenReturn(new ComputationTarget(ComputationTargetType.of(ViewDefinition.class), createViewDefinition()));
+    final FunctionCompilationContext context = new FunctionCompilationContext();
+    context.setRawComputationTargetResolver(targetResolver);
+    context.setFunctionInitId(functionInitId);
+    final FunctionRepository repository = Mockito.mock(FunctionRepository.class);
+    Mockito.when(repository.getAllFunctions()).thenReturn(Arrays.asList(functions));
+    final CompiledFunctionService cfs = Mockito.mock(CompiledFunctionService.class);
+    Mockito.when(cfs.getFunctionCompilationContext()).thenReturn(context);
+    Mockito.when(cfs.getFunctionRepository()).thenReturn(repository);
+    return cfs;
+  }
+
+  public void testWarmStart() {
+    final FunctionDefinition f1 = createFunction("1");
+    final FunctionDefinition f2 = createFunction("2");
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final FileViewExecutionCache cache = new FileViewExecutionCache(_directory, createFunctions(0, f1, f2));
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(key));
+    final CompiledViewDefinitionWithGraphs object = createCompiledViewDefinitionWithGraphs();
+    cache.setCompiledViewDefinitionWithGraphs(key, object);
+    assertTrue(cache.getFile(key).exists());
+    assertSame(cache.getCompiledViewDefinitionWithGraphs(key), object);
+    // A new cache, as after a restart, with the same function repository reads the definition back
+    final FileViewExecutionCache restarted = new FileViewExecutionCache(_directory, createFunctions(0, f2, f1));
+    final CompiledViewDefinitionWithGraphs newObject = restarted.getCompiledViewDefinitionWithGraphs(key);
+    assertNotNull(newObject);
+    assertNotSame(newObject, object);
+    assertEquals(newObject.getCompiledCalculationConfigurations(), object.getCompiledCalculationConfigurations());
+    assertEquals(newObject.getComputationTargets(), object.getComputationTargets());
+    assertEquals(newObject.getPortfolio(), object.getPortfolio());
+    assertEquals(newObject.getResolvedIdentifiers(), object.getResolvedIdentifiers());
+    assertEquals(newObject.getResolverVersionCorrection(), object.getResolverVersionCorrection());
+    assertSame(restarted.getCompiledViewDefinitionWithGraphs(key), newObject);
+  }
+
+  public void testDifferentFunctionRepository() {
+    final FunctionDefinition f1 = createFunction("1");
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final FileViewExecutionCache cache = new FileViewExecutionCache(_directory, createFunctions(0, f1));
+    cache.setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs());
+    final FileViewExecutionCache restarted = new FileViewExecutionCache(_directory, createFunctions(0, f1, createFunction("2")));
+    assertNull(restarted.getCompiledViewDefinitionWithGraphs(key));
+    assertFalse(restarted.getFile(key).exists());
+  }
+
+  public void testReinitialized() {
+    final FunctionDefinition f1 = createFunction("1");
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final FileViewExecutionCache cache = new FileViewExecutionCache(_directory, createFunctions(0, f1));
+    cache.setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs());
+    // Functions re-initialized within this process since the definition was written
+    final FileViewExecutionCache reinitialized = new FileViewExecutionCache(_directory, createFunctions(1, f1));
+    assertNull(reinitialized.getCompiledViewDefinitionWithGraphs(key));
+  }
+
+  public void testClear() {
+    final ViewExecutionCacheKey key = new ViewExecutionCacheKey(UniqueId.of("Key", "1"), "Foo", "No-op");
+    final FileViewExecutionCache cache = new FileViewExecutionCache(_directory, createFunctions(0, createFunction("1")));
+    cache.setCompiledViewDefinitionWithGraphs(key, createCompiledViewDefinitionWithGraphs());
+    assertTrue(cache.getFile(key).exists());
+    cache.clear();
+    assertFalse(cache.getFile(key).exists());
+    assertNull(cache.getCompiledViewDefinitionWithGraphs(key));
+  }
+
+}
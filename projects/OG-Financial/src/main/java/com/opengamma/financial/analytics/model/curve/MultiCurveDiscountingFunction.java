@@ -60,6 +60,7 @@ import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.function.CompiledFunctionDefinition;
 import com.opengamma.engine.function.FunctionExecutionContext;
 import com.opengamma.engine.function.FunctionInputs;
+import com.opengamma.engine.function.MemoizableFunction;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueProperties;
 import com.opengamma.engine.value.ValueRequirement;
@@ -103,9 +104,11 @@ import com.opengamma.util.tuple.Pairs;
 
 /**
  * Produces yield curves using the discounting method.
+ * <p>
+ * The curves depend only on the inputs, the valuation time and the reference data for the instruments, so the results may be shared by views and cycles that request the same curves.
  */
 public class MultiCurveDiscountingFunction extends
-    MultiCurveFunction<ParameterProviderInterface, MulticurveDiscountBuildingRepository, GeneratorYDCurve, MulticurveSensitivity> {
+    MultiCurveFunction<ParameterProviderInterface, MulticurveDiscountBuildingRepository, GeneratorYDCurve, MulticurveSensitivity> implements MemoizableFunction {
   /** The logger */
   private static final Logger s_logger = LoggerFactory.getLogger(MultiCurveDiscountingFunction.class);
   /** The calculator */
@@ -83,10 +83,7 @@ public abstract class AbstractJmsResultPublisher {
    */
   protected void send(Object result) {
     s_logger.debug("Result received to forward over JMS: {}", result);
-    MutableFudgeMsg resultMsg;
-    synchronized (_fudgeSerializationContext) {
-      resultMsg = _fudgeSerializationContext.objectToFudgeMsg(result);
-    }
+    final MutableFudgeMsg resultMsg = toFudgeMsg(result);
     FudgeSerializer.addClassHeader(resultMsg, result.getClass());
     long sequenceNumber = _sequenceNumber.getAndIncrement();
     resultMsg.add(SEQUENCE_NUMBER_FIELD_NAME, sequenceNumber);
@@ -95,6 +92,21 @@ public abstract class AbstractJmsResultPublisher {
     _messageQueue.add(resultMsgByteArray);
   }
 
+  /**
+   * Encodes a result as a Fudge message.
+   * <p>
+   * The message returned is owned by the caller, which will add fields to it. Sub-classes may override this to share the encoding of results that are published to more than one
+   * destination.
+   * 
+   * @param result the result, not null
+   * @return the message, not null
+   */
+  protected MutableFudgeMsg toFudgeMsg(Object result) {
+    synchronized (_fudgeSerializationContext) {
+      return _fudgeSerializationContext.objectToFudgeMsg(result);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void startPublishingResults(String destination) throws Exception {
     _lock.lock();
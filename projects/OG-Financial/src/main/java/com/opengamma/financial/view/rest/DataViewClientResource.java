@@ -77,14 +77,30 @@ public class DataViewClientResource extends AbstractRestfulJmsResultPublisher {
   private final DataEngineResourceManagerResource<ViewCycle> _viewCycleManagerResource;
 
   public DataViewClientResource(ViewClient viewClient, DataEngineResourceManagerResource<ViewCycle> viewCycleManagerResource, JmsConnector jmsConnector, ExecutorService executor) {
-    super(createJmsResultPublisher(viewClient, jmsConnector), executor);
+    this(viewClient, viewCycleManagerResource, jmsConnector, executor, null);
+  }
+
+  /**
+   * Creates an instance.
+   * 
+   * @param viewClient the view client, not null
+   * @param viewCycleManagerResource the cycle manager resource, not null
+   * @param jmsConnector the JMS connector, null if results are not published over JMS
+   * @param executor the executor, not null
+   * @param encoder the result encoder shared with other clients' publishers, null to encode results for this client only
+   */
+  public DataViewClientResource(ViewClient viewClient, DataEngineResourceManagerResource<ViewCycle> viewCycleManagerResource, JmsConnector jmsConnector, ExecutorService executor,
+      SharedViewResultEncoder encoder) {
+    super(createJmsResultPublisher(viewClient, jmsConnector, encoder), executor);
     _viewClient = viewClient;
     _viewCycleManagerResource = viewCycleManagerResource;
   }
 
-  private static ViewClientJmsResultPublisher createJmsResultPublisher(ViewClient viewClient, JmsConnector jmsConnector) {
+  private static ViewClientJmsResultPublisher createJmsResultPublisher(ViewClient viewClient, JmsConnector jmsConnector, SharedViewResultEncoder encoder) {
     if (jmsConnector == null) {
       return null;
+    } else if (encoder != null) {
+      return new ViewClientJmsResultPublisher(viewClient, encoder, jmsConnector);
     } else {
       return new ViewClientJmsResultPublisher(viewClient, OpenGammaFudgeContext.getInstance(), jmsConnector);
     }
@@ -8,8 +8,10 @@ package com.opengamma.financial.view.rest;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.core.Response;
 
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.view.cycle.ComputationCacheResponse;
 import com.opengamma.engine.view.cycle.ComputationCycleQuery;
 import com.opengamma.engine.view.cycle.ComputationResultsResponse;
@@ -32,6 +34,8 @@ public class DataViewCycleResource extends AbstractDataResource {
   public static final String PATH_RESULT = "result";
   public static final String PATH_QUERY_CACHES = "queryCaches";
   public static final String PATH_QUERY_RESULTS = "queryResults";
+  public static final String PATH_TARGET_COMPLETE = "targetComplete";
+  public static final String PATH_PENDING_TARGET_COUNT = "pendingTargetCount";
   //CSON: just constants
 
   private final ViewCycle _cycle;
@@ -101,4 +105,16 @@ public class DataViewCycleResource extends AbstractDataResource {
     return responseOkObject(response);
   }
 
+  @POST
+  @Path(PATH_TARGET_COMPLETE + "/{calcConfigName}")
+  public Response isTargetComplete(@PathParam("calcConfigName") String calcConfigName, ComputationTargetSpecification target) {
+    return responseOkObject(_cycle.isTargetComplete(calcConfigName, target));
+  }
+
+  @GET
+  @Path(PATH_PENDING_TARGET_COUNT + "/{calcConfigName}")
+  public Response getPendingTargetCount(@PathParam("calcConfigName") String calcConfigName) {
+    return responseOkObject(_cycle.getPendingTargetCount(calcConfigName));
+  }
+
 }
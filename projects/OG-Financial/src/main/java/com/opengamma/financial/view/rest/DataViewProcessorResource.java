@@ -38,6 +38,7 @@ import com.opengamma.financial.rest.RestfulJmsResultPublisherExpiryJob;
 import com.opengamma.id.UniqueId;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.transport.jaxrs.FudgeRest;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
 import com.opengamma.util.jms.JmsConnector;
 import com.opengamma.util.rest.AbstractDataResource;
 
@@ -106,6 +107,10 @@ public class DataViewProcessorResource extends AbstractDataResource {
    * The view clients.
    */
   private final ConcurrentMap<UniqueId, DataViewClientResource> _createdViewClients = new ConcurrentHashMap<UniqueId, DataViewClientResource>();
+  /**
+   * The encoder shared by the clients' result publishers.
+   */
+  private final SharedViewResultEncoder _resultEncoder = new SharedViewResultEncoder(OpenGammaFudgeContext.getInstance());
   /**
    * The hts source
    */
@@ -265,7 +270,7 @@ public class DataViewProcessorResource extends AbstractDataResource {
 
   private DataViewClientResource createViewClientResource(final ViewClient viewClient, final URI viewProcessorUri) {
     final DataViewCycleManagerResource cycleManagerResource = getOrCreateDataViewCycleManagerResource(viewProcessorUri);
-    return new DataViewClientResource(viewClient, cycleManagerResource, _jmsConnector, _scheduler);
+    return new DataViewClientResource(viewClient, cycleManagerResource, _jmsConnector, _scheduler, _resultEncoder);
   }
 
 }
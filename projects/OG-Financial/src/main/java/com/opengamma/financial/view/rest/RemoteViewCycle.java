@@ -11,6 +11,7 @@ import javax.ws.rs.core.UriBuilder;
 
 import org.threeten.bp.Duration;
 
+import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
 import com.opengamma.engine.view.cycle.ComputationCacheResponse;
@@ -102,4 +103,19 @@ public class RemoteViewCycle implements ViewCycle {
     return _client.accessFudge(uri).post(ComputationResultsResponse.class, query);
   }
 
+  @Override
+  public boolean isTargetComplete(String calcConfigName, ComputationTargetSpecification target) {
+    ArgumentChecker.notNull(calcConfigName, "calcConfigName");
+    ArgumentChecker.notNull(target, "target");
+    URI uri = UriBuilder.fromUri(_baseUri).path(DataViewCycleResource.PATH_TARGET_COMPLETE).segment(calcConfigName).build();
+    return _client.accessFudge(uri).post(Boolean.class, target);
+  }
+
+  @Override
+  public int getPendingTargetCount(String calcConfigName) {
+    ArgumentChecker.notNull(calcConfigName, "calcConfigName");
+    URI uri = UriBuilder.fromUri(_baseUri).path(DataViewCycleResource.PATH_PENDING_TARGET_COUNT).segment(calcConfigName).build();
+    return _client.accessFudge(uri).get(Integer.class);
+  }
+
 }
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.view.rest;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.opengamma.engine.view.listener.CycleCompletedCall;
+import com.opengamma.engine.view.listener.CycleFragmentCompletedCall;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Encodes results for the JMS publishers of a number of view clients, sharing the encoding of a result that is delivered to each of them.
+ * <p>
+ * A view process delivers the same result model instances to each of its clients. The encodings are held against the result models, by weak reference, so an encoding is shared by any
+ * publishers sending that result and is discarded once the result models are no longer referenced. A publisher that asks for a result while another is encoding it waits for that encoding;
+ * publishers sending different results do not wait for each other. Each publisher receives its own copy of the top level message, to which it can add its own fields; the encoded result models
+ * beneath it are shared and must not be modified.
+ */
+public class SharedViewResultEncoder {
+
+  private final FudgeContext _fudgeContext;
+
+  /**
+   * The encodings of each result, keyed by the full result model (or the delta if there is no full result). The lists are small; access to each is controlled by synchronizing on it.
+   */
+  private final ConcurrentMap<Object, List<Encoding>> _encodings = new MapMaker().weakKeys().makeMap();
+
+  /**
+   * Creates an instance.
+   *
+   * @param fudgeContext the Fudge context, not null
+   */
+  public SharedViewResultEncoder(final FudgeContext fudgeContext) {
+    ArgumentChecker.notNull(fudgeContext, "fudgeContext");
+    _fudgeContext = fudgeContext;
+  }
+
+  /**
+   * Gets the Fudge context used for encoding.
+   *
+   * @return the Fudge context, not null
+   */
+  public FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
+  /**
+   * Encodes a result. If the result carries the same result models as one already encoded, or being encoded, the existing encoding is re-used.
+   *
+   * @param result the result, not null
+   * @return the message, which the caller may add fields to, not null
+   */
+  public MutableFudgeMsg encode(final Object result) {
+    final Object fullResult;
+    final Object deltaResult;
+    if (result instanceof CycleCompletedCall) {
+      fullResult = ((CycleCompletedCall) result).getFullResult();
+      deltaResult = ((CycleCompletedCall) result).getDeltaResult();
+    } else if (result instanceof CycleFragmentCompletedCall) {
+      fullResult = ((CycleFragmentCompletedCall) result).getFullFragment();
+      deltaResult = ((CycleFragmentCompletedCall) result).getDeltaFragment();
+    } else {
+      // Other calls are small and specific to the client
+      return new FudgeSerializer(getFudgeContext()).objectToFudgeMsg(result);
+    }
+    final Object key = (fullResult != null) ? fullResult : deltaResult;
+    if (key == null) {
+      return new FudgeSerializer(getFudgeContext()).objectToFudgeMsg(result);
+    }
+    final Object other = (fullResult != null) ? deltaResult : null;
+    List<Encoding> encodings = _encodings.get(key);
+    if (encodings == null) {
+      encodings = new ArrayList<Encoding>(2);
+      final List<Encoding> existing = _encodings.putIfAbsent(key, encodings);
+      if (existing != null) {
+        encodings = existing;
+      }
+    }
+    Encoding encoding = null;
+    boolean encode = false;
+    synchronized (encodings) {
+      for (Encoding candidate : encodings) {
+        if (candidate.matches(result.getClass(), other)) {
+          encoding = candidate;
+          break;
+        }
+      }
+      if (encoding == null) {
+        encoding = new Encoding(result.getClass(), other);
+        encodings.add(encoding);
+        encode = true;
+      }
+    }
+    if (!encode) {
+      return getFudgeContext().newMessage(encoding.get());
+    }
+    // This is the first request for the result; encode it without holding any lock. Concurrent requests for the same result wait on the encoding.
+    final FudgeMsg message;
+    try {
+      message = new FudgeSerializer(getFudgeContext()).objectToFudgeMsg(result);
+    } catch (RuntimeException e) {
+      synchronized (encodings) {
+        encodings.remove(encoding);
+      }
+      encoding.setException(e);
+      throw e;
+    }
+    encoding.set(message);
+    return getFudgeContext().newMessage(message);
+  }
+
+  /**
+   * An encoded, or being encoded, result. This does not hold the result models strongly so that it does not prevent them, or the entry keyed by them, from being discarded.
+   */
+  private static final class Encoding {
+
+    private final Class<?> _type;
+    private final Reference<Object> _other;
+    private final SettableFuture<FudgeMsg> _message = SettableFuture.create();
+
+    public Encoding(final Class<?> type, final Object other) {
+      _type = type;
+      _other = (other != null) ? new WeakReference<Object>(other) : null;
+    }
+
+    public boolean matches(final Class<?> type, final Object other) {
+      if (_type != type) {
+        return false;
+      }
+      if (_other == null) {
+        return other == null;
+      }
+      return _other.get() == other;
+    }
+
+    public void set(final FudgeMsg message) {
+      _message.set(message);
+    }
+
+    public void setException(final Throwable e) {
+      _message.setException(e);
+    }
+
+    public FudgeMsg get() {
+      return Futures.getUnchecked(_message);
+    }
+
+  }
+
+}
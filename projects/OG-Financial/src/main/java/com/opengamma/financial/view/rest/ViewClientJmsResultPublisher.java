@@ -6,6 +6,7 @@
 package com.opengamma.financial.view.rest;
 
 import org.fudgemsg.FudgeContext;
+import org.fudgemsg.MutableFudgeMsg;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.threeten.bp.Instant;
@@ -42,6 +43,10 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
    * The view client.
    */
   private final ViewClient _viewClient;
+  /**
+   * The encoder shared with other publishers, null if results are encoded by this publisher.
+   */
+  private final SharedViewResultEncoder _encoder;
 
   /**
    * Creates an instance.
@@ -53,9 +58,32 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
   public ViewClientJmsResultPublisher(ViewClient viewClient, FudgeContext fudgeContext, JmsConnector jmsConnector) {
     super(fudgeContext, jmsConnector);
     _viewClient = viewClient;
+    _encoder = null;
+  }
+
+  /**
+   * Creates an instance that shares the encoding of results with the other publishers using the same encoder.
+   * 
+   * @param viewClient  the view client, not null
+   * @param encoder  the shared encoder, not null
+   * @param jmsConnector  the JMS connector, not null
+   */
+  public ViewClientJmsResultPublisher(ViewClient viewClient, SharedViewResultEncoder encoder, JmsConnector jmsConnector) {
+    super(encoder.getFudgeContext(), jmsConnector);
+    _viewClient = viewClient;
+    _encoder = encoder;
   }
 
   //-------------------------------------------------------------------------
+  @Override
+  protected MutableFudgeMsg toFudgeMsg(Object result) {
+    if (_encoder != null) {
+      return _encoder.encode(result);
+    } else {
+      return super.toFudgeMsg(result);
+    }
+  }
+
   @Override
   protected void startListener() {
     s_logger.debug("Setting listener {} on view client {}'s results", this, _viewClient);
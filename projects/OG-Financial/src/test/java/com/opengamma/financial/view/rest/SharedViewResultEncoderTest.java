@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.financial.view.rest;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.testng.annotations.Test;
+import org.threeten.bp.Instant;
+
+import com.opengamma.engine.view.impl.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.impl.InMemoryViewDeltaResultModel;
+import com.opengamma.engine.view.listener.CycleCompletedCall;
+import com.opengamma.engine.view.listener.ProcessCompletedCall;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link SharedViewResultEncoder} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class SharedViewResultEncoderTest {
+
+  private static CycleCompletedCall result(final long time) {
+    final InMemoryViewComputationResultModel full = new InMemoryViewComputationResultModel();
+    full.setCalculationTime(Instant.ofEpochMilli(time));
+    final InMemoryViewDeltaResultModel delta = new InMemoryViewDeltaResultModel();
+    delta.setCalculationTime(Instant.ofEpochMilli(time));
+    return new CycleCompletedCall(full, delta);
+  }
+
+  public void testSharedEncoding() {
+    final SharedViewResultEncoder encoder = new SharedViewResultEncoder(OpenGammaFudgeContext.getInstance());
+    final CycleCompletedCall result = result(1000L);
+    // Each client's publisher creates its own call object for the same result models
+    final MutableFudgeMsg msg1 = encoder.encode(result);
+    final MutableFudgeMsg msg2 = encoder.encode(new CycleCompletedCall(result.getFullResult(), result.getDeltaResult()));
+    assertNotSame(msg1, msg2);
+    assertSame(msg1.getByName("fullResult").getValue(), msg2.getByName("fullResult").getValue());
+    // Fields added by one publisher are not seen by another
+    msg1.add("#", 1L);
+    assertNull(msg2.getByName("#"));
+    assertNull(encoder.encode(result).getByName("#"));
+    final CycleCompletedCall decoded = new FudgeDeserializer(OpenGammaFudgeContext.getInstance()).fudgeMsgToObject(CycleCompletedCall.class, msg2);
+    assertEquals(Instant.ofEpochMilli(1000L), decoded.getFullResult().getCalculationTime());
+  }
+
+  public void testDifferentResults() {
+    final SharedViewResultEncoder encoder = new SharedViewResultEncoder(OpenGammaFudgeContext.getInstance());
+    final CycleCompletedCall result1 = result(1000L);
+    final CycleCompletedCall result2 = result(2000L);
+    final FudgeMsg msg1 = encoder.encode(result1);
+    final FudgeMsg msg2 = encoder.encode(result2);
+    assertNotSame(msg1.getByName("fullResult").getValue(), msg2.getByName("fullResult").getValue());
+    // A different delta with the same full result is a different result
+    final FudgeMsg msg3 = encoder.encode(new CycleCompletedCall(result1.getFullResult(), result2.getDeltaResult()));
+    assertNotSame(msg1.getByName("fullResult").getValue(), msg3.getByName("fullResult").getValue());
+    // Recent results are still shared
+    assertSame(msg1.getByName("fullResult").getValue(), encoder.encode(result1).getByName("fullResult").getValue());
+  }
+
+  public void testResultsNotRetained() {
+    final SharedViewResultEncoder encoder = new SharedViewResultEncoder(OpenGammaFudgeContext.getInstance());
+    CycleCompletedCall result = result(1000L);
+    final Reference<Object> full = new WeakReference<Object>(result.getFullResult());
+    final Reference<Object> delta = new WeakReference<Object>(result.getDeltaResult());
+    encoder.encode(result);
+    result = null;
+    for (int i = 0; (i < 10) && ((full.get() != null) || (delta.get() != null)); i++) {
+      System.gc();
+    }
+    assertNull(full.get());
+    assertNull(delta.get());
+  }
+
+  public void testOtherCalls() {
+    final SharedViewResultEncoder encoder = new SharedViewResultEncoder(OpenGammaFudgeContext.getInstance());
+    final ProcessCompletedCall call = new ProcessCompletedCall();
+    assertNotSame(encoder.encode(call), encoder.encode(call));
+  }
+
+}
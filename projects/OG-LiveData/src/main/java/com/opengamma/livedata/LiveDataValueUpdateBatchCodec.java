@@ -0,0 +1,261 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Encodes and decodes batches of {@link LiveDataValueUpdateBean} as a single compact binary frame.
+ * <p>
+ * A frame starts with a magic number whose first byte is never zero, so it can be told apart from a Fudge encoded update (which starts with a zero processing directives byte) and receivers can
+ * accept either format. The magic number is followed by a dictionary of the field names used by the batch, a table of the distinct specifications, and then one record per update. Each record
+ * refers to its specification and field names by index. Double, long, int and string field values are written directly; any other field is written as an embedded Fudge message.
+ * <p>
+ * Encoding reuses a single buffer so an instance must not be shared between threads. Decoding does not modify any state.
+ */
+public class LiveDataValueUpdateBatchCodec {
+
+  /**
+   * The magic number identifying a batch frame.
+   */
+  public static final int MAGIC = 0x4F474C42;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final byte TYPE_DOUBLE = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_INT = 3;
+  private static final byte TYPE_STRING = 4;
+  private static final byte TYPE_FUDGE = 5;
+
+  private final FudgeContext _fudgeContext;
+  private ByteBuffer _buffer = ByteBuffer.allocate(4096);
+
+  /**
+   * Creates a new codec.
+   *
+   * @param fudgeContext the Fudge context used for specifications and embedded fields, not null
+   */
+  public LiveDataValueUpdateBatchCodec(final FudgeContext fudgeContext) {
+    ArgumentChecker.notNull(fudgeContext, "fudgeContext");
+    _fudgeContext = fudgeContext;
+  }
+
+  public FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
+  /**
+   * Tests whether a received message is a batch frame.
+   *
+   * @param message the message, not null
+   * @return true if the message is a batch frame, false if it should be treated as a Fudge message
+   */
+  public static boolean isBatch(final byte[] message) {
+    return (message.length >= 4) && (ByteBuffer.wrap(message).getInt(0) == MAGIC);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Encodes a batch of updates.
+   * <p>
+   * The returned buffer is owned by the codec and is positioned at zero with its limit at the end of the frame. It remains valid until the next call to this method. Callers that can write from an
+   * array should use the buffer's backing array rather than copying it.
+   *
+   * @param updates the updates, not null
+   * @return the encoded frame, not null
+   */
+  public ByteBuffer encode(final Collection<LiveDataValueUpdateBean> updates) {
+    final Map<String, Integer> names = new HashMap<>();
+    final List<String> nameTable = new ArrayList<>();
+    final Map<LiveDataSpecification, Integer> specs = new HashMap<>();
+    final List<byte[]> specTable = new ArrayList<>();
+    for (LiveDataValueUpdateBean update : updates) {
+      if (!specs.containsKey(update.getSpecification())) {
+        specs.put(update.getSpecification(), specTable.size());
+        specTable.add(_fudgeContext.toByteArray(LiveDataSpecificationFudgeBuilder.toFudgeMsg(new FudgeSerializer(_fudgeContext), update.getSpecification())));
+      }
+      for (FudgeField field : update.getFields()) {
+        if ((field.getName() != null) && !names.containsKey(field.getName())) {
+          names.put(field.getName(), nameTable.size());
+          nameTable.add(field.getName());
+        }
+      }
+    }
+    _buffer.clear();
+    putInt(MAGIC);
+    putInt(nameTable.size());
+    for (String name : nameTable) {
+      putBytes(name.getBytes(UTF8));
+    }
+    putInt(specTable.size());
+    for (byte[] spec : specTable) {
+      putBytes(spec);
+    }
+    putInt(updates.size());
+    for (LiveDataValueUpdateBean update : updates) {
+      putInt(specs.get(update.getSpecification()));
+      putLong(update.getSequenceNumber());
+      final FudgeMsg fields = update.getFields();
+      putInt(fields.getNumFields());
+      for (FudgeField field : fields) {
+        putField(names, field);
+      }
+    }
+    _buffer.flip();
+    return _buffer;
+  }
+
+  private void putField(final Map<String, Integer> names, final FudgeField field) {
+    final Object value = field.getValue();
+    if ((field.getName() == null) || (field.getOrdinal() != null)) {
+      putFudgeField(field);
+    } else if (value instanceof Double) {
+      putFieldHeader(names.get(field.getName()), TYPE_DOUBLE, 8);
+      _buffer.putDouble((Double) value);
+    } else if (value instanceof Long) {
+      putFieldHeader(names.get(field.getName()), TYPE_LONG, 8);
+      _buffer.putLong((Long) value);
+    } else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+      putFieldHeader(names.get(field.getName()), TYPE_INT, 4);
+      _buffer.putInt(((Number) value).intValue());
+    } else if (value instanceof String) {
+      final byte[] bytes = ((String) value).getBytes(UTF8);
+      putFieldHeader(names.get(field.getName()), TYPE_STRING, 4 + bytes.length);
+      _buffer.putInt(bytes.length);
+      _buffer.put(bytes);
+    } else {
+      putFudgeField(field);
+    }
+  }
+
+  private void putFudgeField(final FudgeField field) {
+    final MutableFudgeMsg msg = _fudgeContext.newMessage();
+    msg.add(field);
+    final byte[] bytes = _fudgeContext.toByteArray(msg);
+    putFieldHeader(-1, TYPE_FUDGE, 4 + bytes.length);
+    _buffer.putInt(bytes.length);
+    _buffer.put(bytes);
+  }
+
+  private void putFieldHeader(final int name, final byte type, final int length) {
+    ensureCapacity(5 + length);
+    _buffer.putInt(name);
+    _buffer.put(type);
+  }
+
+  private void putInt(final int value) {
+    ensureCapacity(4);
+    _buffer.putInt(value);
+  }
+
+  private void putLong(final long value) {
+    ensureCapacity(8);
+    _buffer.putLong(value);
+  }
+
+  private void putBytes(final byte[] bytes) {
+    ensureCapacity(4 + bytes.length);
+    _buffer.putInt(bytes.length);
+    _buffer.put(bytes);
+  }
+
+  private void ensureCapacity(final int required) {
+    if (_buffer.remaining() < required) {
+      final ByteBuffer buffer = ByteBuffer.allocate(Math.max(_buffer.capacity() * 2, _buffer.position() + required));
+      _buffer.flip();
+      buffer.put(_buffer);
+      _buffer = buffer;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Decodes a batch frame.
+   *
+   * @param message the message, not null
+   * @return the updates, in the order they were encoded, not null
+   * @throws IllegalArgumentException if the message is not a batch frame
+   */
+  public List<LiveDataValueUpdateBean> decode(final byte[] message) {
+    ArgumentChecker.isTrue(isBatch(message), "Message is not a live data batch");
+    final ByteBuffer buffer = ByteBuffer.wrap(message);
+    buffer.position(4);
+    final String[] names = new String[buffer.getInt()];
+    for (int i = 0; i < names.length; i++) {
+      final int length = buffer.getInt();
+      names[i] = new String(message, buffer.position(), length, UTF8);
+      buffer.position(buffer.position() + length);
+    }
+    final FudgeDeserializer deserializer = new FudgeDeserializer(_fudgeContext);
+    final LiveDataSpecification[] specs = new LiveDataSpecification[buffer.getInt()];
+    for (int i = 0; i < specs.length; i++) {
+      specs[i] = LiveDataSpecificationFudgeBuilder.fromFudgeMsg(deserializer, getFudgeMsg(buffer, message));
+    }
+    final int count = buffer.getInt();
+    final List<LiveDataValueUpdateBean> updates = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final LiveDataSpecification spec = specs[buffer.getInt()];
+      final long sequenceNumber = buffer.getLong();
+      final int numFields = buffer.getInt();
+      final MutableFudgeMsg fields = _fudgeContext.newMessage();
+      for (int j = 0; j < numFields; j++) {
+        final int name = buffer.getInt();
+        final byte type = buffer.get();
+        switch (type) {
+          case TYPE_DOUBLE:
+            fields.add(names[name], buffer.getDouble());
+            break;
+          case TYPE_LONG:
+            fields.add(names[name], buffer.getLong());
+            break;
+          case TYPE_INT:
+            fields.add(names[name], buffer.getInt());
+            break;
+          case TYPE_STRING: {
+            final int length = buffer.getInt();
+            fields.add(names[name], new String(message, buffer.position(), length, UTF8));
+            buffer.position(buffer.position() + length);
+            break;
+          }
+          case TYPE_FUDGE:
+            for (FudgeField field : getFudgeMsg(buffer, message)) {
+              fields.add(field);
+            }
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown field type " + type + " in live data batch");
+        }
+      }
+      updates.add(new LiveDataValueUpdateBean(sequenceNumber, spec, fields));
+    }
+    return updates;
+  }
+
+  private FudgeMsg getFudgeMsg(final ByteBuffer buffer, final byte[] message) {
+    final int length = buffer.getInt();
+    final FudgeMsg msg = _fudgeContext.createMessageReader(new ByteArrayInputStream(message, buffer.position(), length)).nextMessage();
+    buffer.position(buffer.position() + length);
+    return msg;
+  }
+
+}
@@ -29,7 +29,10 @@ import org.springframework.context.Lifecycle;
 import org.springframework.jms.support.JmsUtils;
 
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.livedata.LiveDataValueUpdateBatchCodec;
+import com.opengamma.livedata.LiveDataValueUpdateBean;
 import com.opengamma.transport.ByteArrayFudgeMessageReceiver;
+import com.opengamma.transport.ByteArrayMessageReceiver;
 import com.opengamma.transport.FudgeRequestSender;
 import com.opengamma.transport.jms.JmsByteArrayMessageDispatcher;
 import com.opengamma.util.ArgumentChecker;
@@ -184,8 +187,7 @@ public class JmsLiveDataClient extends DistributedLiveDataClient implements Life
       public Map<String, Runnable> call() {
         Session session = _sessions.get(sessionIndex);
 
-        ByteArrayFudgeMessageReceiver fudgeReceiver = new ByteArrayFudgeMessageReceiver(JmsLiveDataClient.this, getFudgeContext());
-        final JmsByteArrayMessageDispatcher jmsDispatcher = new JmsByteArrayMessageDispatcher(fudgeReceiver);
+        final JmsByteArrayMessageDispatcher jmsDispatcher = new JmsByteArrayMessageDispatcher(new UpdateReceiver());
 
         return startReceivingTicks(specs, session, jmsDispatcher);
       }
@@ -218,6 +220,27 @@ public class JmsLiveDataClient extends DistributedLiveDataClient implements Life
     };
   }
 
+  /**
+   * Receives ticks, which may be individual Fudge encoded updates or batches sent by a {@code BatchingJmsSenderFactory}.
+   */
+  private final class UpdateReceiver implements ByteArrayMessageReceiver {
+
+    private final ByteArrayFudgeMessageReceiver _fudgeReceiver = new ByteArrayFudgeMessageReceiver(JmsLiveDataClient.this, getFudgeContext());
+    private final LiveDataValueUpdateBatchCodec _batchCodec = new LiveDataValueUpdateBatchCodec(getFudgeContext());
+
+    @Override
+    public void messageReceived(byte[] message) {
+      if (LiveDataValueUpdateBatchCodec.isBatch(message)) {
+        for (LiveDataValueUpdateBean update : _batchCodec.decode(message)) {
+          valueUpdate(update);
+        }
+      } else {
+        _fudgeReceiver.messageReceived(message);
+      }
+    }
+
+  }
+
   @Override
   public synchronized void stopReceivingTicks(String tickDistributionSpecification) {
     Runnable close = _closeRunnableBySpec.get(tickDistributionSpecification);
@@ -5,7 +5,6 @@
  */
 package com.opengamma.livedata.normalization;
 
-import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.core.value.MarketDataRequirementNames;
@@ -34,11 +33,9 @@ public class DividendYieldCalculator implements NormalizationRule {
     // Implementation note: this requires MARKET_VALUE & ANNUAL_DIVIDEND, these values may appear in separate messages
     // from the underlying data provider - thus the use of the lkv store to obtain values if this message happens to be
     // missing them - this may or may not be the correct thing to do
-    FudgeMsg lkv = fieldHistory.getLastKnownValues();
-
     Double annualdividend = msg.getDouble(MarketDataRequirementNames.ANNUAL_DIVIDEND);
     if (annualdividend == null) {
-      annualdividend = lkv.getDouble(MarketDataRequirementNames.ANNUAL_DIVIDEND);
+      annualdividend = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.ANNUAL_DIVIDEND);
     }
 
     if (annualdividend == null) {
@@ -47,7 +44,7 @@ public class DividendYieldCalculator implements NormalizationRule {
 
     Double spot = msg.getDouble(MarketDataRequirementNames.MARKET_VALUE);
     if (spot == null) {
-      spot = lkv.getDouble(MarketDataRequirementNames.MARKET_VALUE);
+      spot = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.MARKET_VALUE);
     }
 
     if (spot != null && spot != 0.0) {
@@ -67,9 +64,7 @@ public class DividendYieldCalculator implements NormalizationRule {
       MutableFudgeMsg msg,
       FieldHistoryStore fieldHistory) {
 
-    FudgeMsg lkv = fieldHistory.getLastKnownValues();
-
-    Double lastKnownMarketValue = lkv.getDouble(MarketDataRequirementNames.DIVIDEND_YIELD);
+    Double lastKnownMarketValue = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.DIVIDEND_YIELD);
     if (lastKnownMarketValue == null) {
       return msg;
     }
@@ -53,26 +53,44 @@ public class FieldFilter implements NormalizationRule {
     return _context;
   }
 
+  /**
+   * Tests whether a field passes the filter.
+   * 
+   * @param field  the field, not null
+   * @return true if the field is accepted, false if it is to be removed
+   */
+  /* package */ boolean accepts(FudgeField field) {
+    // Don't allow non-named fields.
+    return (field.getName() != null) && _fieldsToAccept.contains(field.getName());
+  }
+
   @Override
   public MutableFudgeMsg apply(MutableFudgeMsg msg, String securityUniqueId, FieldHistoryStore fieldHistory) {
     
+    // Most messages from a feed only contain fields of interest, in which case the message can be returned as-is
+    boolean allAccepted = true;
+    for (FudgeField field : msg) {
+      if (!accepts(field)) {
+        allAccepted = false;
+        break;
+      }
+    }
+    if (allAccepted) {
+      return (msg.getNumFields() > 0) ? msg : null;
+    }
+    
     MutableFudgeMsg normalizedMsg = getContext().newMessage();
     // REVIEW kirk 2010-04-15 -- Run through the fields in the order of the
     // original message and check for containment in _fieldsToAccept as it's
     // faster for large messages.
     // It also supports multiple values with the same name.
     for (FudgeField field : msg) {
-      if (field.getName() == null) {
-        // Don't allow non-named fields.
-        continue;
-      }
-      if (!_fieldsToAccept.contains(field.getName())) {
-        continue;
+      if (accepts(field)) {
+        normalizedMsg.add(field);
       }
-      normalizedMsg.add(field);
     }
     
-    if (normalizedMsg.getAllFields().isEmpty()) {
+    if (normalizedMsg.getNumFields() == 0) {
       return null; // extinguish message
     }
     
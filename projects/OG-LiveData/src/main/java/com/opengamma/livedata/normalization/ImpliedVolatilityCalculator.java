@@ -5,7 +5,6 @@
  */
 package com.opengamma.livedata.normalization;
 
-import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.core.value.MarketDataRequirementNames;
@@ -48,8 +47,7 @@ public class ImpliedVolatilityCalculator implements NormalizationRule {
       return msg;
     }
     
-    FudgeMsg lkv = fieldHistory.getLastKnownValues();
-    impliedVolatility = lkv.getDouble(MarketDataRequirementNames.IMPLIED_VOLATILITY);
+    impliedVolatility = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.IMPLIED_VOLATILITY);
     if (impliedVolatility != null) {
       msg.add(MarketDataRequirementNames.IMPLIED_VOLATILITY, impliedVolatility);
       return msg;
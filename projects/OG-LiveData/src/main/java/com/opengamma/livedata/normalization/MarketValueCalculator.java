@@ -5,7 +5,6 @@
  */
 package com.opengamma.livedata.normalization;
 
-import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.core.value.MarketDataRequirementNames;
@@ -44,16 +43,14 @@ public class MarketValueCalculator implements NormalizationRule {
     
     // TODO: Review behaviours under different market providers.
     // Tickers that are not actually assets, like indices, provide an important case.
-    FudgeMsg lkv = fieldHistory.getLastKnownValues(); 
-    
     Double bid = msg.getDouble(MarketDataRequirementNames.BID);
     if (bid == null) {
-      bid = lkv.getDouble(MarketDataRequirementNames.BID);
+      bid = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.BID);
     }
     
     Double ask = msg.getDouble(MarketDataRequirementNames.ASK);
     if (ask == null) {
-      ask = lkv.getDouble(MarketDataRequirementNames.ASK);
+      ask = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.ASK);
     }
     
     // If we have seen bid & ask in the past, use bid & ask midpoint.
@@ -115,9 +112,7 @@ public class MarketValueCalculator implements NormalizationRule {
       MutableFudgeMsg msg,
       FieldHistoryStore fieldHistory) {
     
-    FudgeMsg lkv = fieldHistory.getLastKnownValues();
-    
-    Double lastKnownMarketValue = lkv.getDouble(MarketDataRequirementNames.MARKET_VALUE);
+    Double lastKnownMarketValue = fieldHistory.getLastKnownDouble(MarketDataRequirementNames.MARKET_VALUE);
     if (lastKnownMarketValue == null) {
       return msg;      
     }
@@ -5,7 +5,6 @@
  */
 package com.opengamma.livedata.normalization;
 
-import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.core.value.MarketDataRequirementNames;
@@ -21,8 +20,7 @@ public class NextDividendDateCalculator implements NormalizationRule {
     Object dateObject = msg.getValue(MarketDataRequirementNames.NEXT_DIVIDEND_DATE);
     if (dateObject == null) {
       // fall back to last known value. This is expected as this value does not tick. 
-      FudgeMsg lkv = fieldHistory.getLastKnownValues();
-      dateObject = lkv.getValue(MarketDataRequirementNames.NEXT_DIVIDEND_DATE);
+      dateObject = fieldHistory.getLastKnownValue(MarketDataRequirementNames.NEXT_DIVIDEND_DATE);
       if (dateObject != null) {
         msg.add(MarketDataRequirementNames.NEXT_DIVIDEND_DATE, dateObject);
       }
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.fudgemsg.FudgeField;
 import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 import org.slf4j.Logger;
@@ -22,6 +23,9 @@ import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
 
 /**
  * An ordered set of normalization rules.
+ * <p>
+ * The rules are prepared when the set is constructed so that applying them does as little work per message as possible. Any {@link FieldFilter} rules at the start of the set are applied while
+ * making the working copy of the incoming message, so fields that would be discarded are never copied.
  */
 public class NormalizationRuleSet {
   
@@ -30,6 +34,8 @@ public class NormalizationRuleSet {
   private final String _id;
   private final String _jmsTopicSuffix;
   private final List<NormalizationRule> _rules;
+  private final FieldFilter[] _leadingFilters;
+  private final NormalizationRule[] _remainingRules;
   
   /* Useful for tests */
   public NormalizationRuleSet(String id) {
@@ -56,6 +62,12 @@ public class NormalizationRuleSet {
     }
     
     _rules = new ArrayList<NormalizationRule>(rules);    
+    int leadingFilters = 0;
+    while ((leadingFilters < _rules.size()) && (_rules.get(leadingFilters) instanceof FieldFilter)) {
+      leadingFilters++;
+    }
+    _leadingFilters = _rules.subList(0, leadingFilters).toArray(new FieldFilter[leadingFilters]);
+    _remainingRules = _rules.subList(leadingFilters, _rules.size()).toArray(new NormalizationRule[_rules.size() - leadingFilters]);
   }
   
   /**
@@ -70,18 +82,54 @@ public class NormalizationRuleSet {
    * rejected the message.
    */
   public FudgeMsg getNormalizedMessage(FudgeMsg msg, String securityUniqueId, FieldHistoryStore fieldHistory) {
-    MutableFudgeMsg normalizedMsg = OpenGammaFudgeContext.getInstance().newMessage(msg);
-    for (NormalizationRule rule : _rules) {
+    MutableFudgeMsg normalizedMsg = copyMessage(msg);
+    if (normalizedMsg == null) {
+      s_logger.debug("Field filters in rule set {} rejected message {}", getId(), msg);
+      return null;
+    }
+    for (NormalizationRule rule : _remainingRules) {
       normalizedMsg = rule.apply(normalizedMsg, securityUniqueId, fieldHistory);
       if (normalizedMsg == null) {
         // One of the rules rejected the message entirely.
-        s_logger.debug("Rule {} in rule set {} rejected message {}", new Object[] {rule, getId(), normalizedMsg});
+        if (s_logger.isDebugEnabled()) {
+          s_logger.debug("Rule {} in rule set {} rejected message {}", new Object[] {rule, getId(), msg });
+        }
         break;
       }
     }
-    s_logger.debug("Applying rule set {} to message {} produced normalized message {}", new Object[] {getId(), msg, normalizedMsg});
+    if (s_logger.isDebugEnabled()) {
+      s_logger.debug("Applying rule set {} to message {} produced normalized message {}", new Object[] {getId(), msg, normalizedMsg });
+    }
     return normalizedMsg;
   }
+
+  /**
+   * Makes the working copy of a message, applying any leading field filters.
+   * 
+   * @param msg  the message to copy, not null
+   * @return the copy, null if the field filters rejected the message
+   */
+  private MutableFudgeMsg copyMessage(FudgeMsg msg) {
+    if (_leadingFilters.length == 0) {
+      return OpenGammaFudgeContext.getInstance().newMessage(msg);
+    }
+    final MutableFudgeMsg copy = OpenGammaFudgeContext.getInstance().newMessage();
+    for (FudgeField field : msg) {
+      if (isAccepted(field)) {
+        copy.add(field);
+      }
+    }
+    return (copy.getNumFields() > 0) ? copy : null;
+  }
+
+  private boolean isAccepted(FudgeField field) {
+    for (FieldFilter filter : _leadingFilters) {
+      if (!filter.accepts(field)) {
+        return false;
+      }
+    }
+    return true;
+  }
   
   /**
    * Gets the ID of this normalization rule set.
@@ -63,11 +63,12 @@ public class RequiredFieldFilter implements NormalizationRule {
    */
   @Override
   public MutableFudgeMsg apply(MutableFudgeMsg msg, String securityUniqueId, FieldHistoryStore fieldHistory) {
-    Set<String> namesFromMsg = msg.getAllFieldNames();
-    if (namesFromMsg.containsAll(getRequiredFieldNames())) {
-      return msg;
+    for (String requiredFieldName : getRequiredFieldNames()) {
+      if (!msg.hasField(requiredFieldName)) {
+        return null;
+      }
     }
-    return null;
+    return msg;
   }
 
 }
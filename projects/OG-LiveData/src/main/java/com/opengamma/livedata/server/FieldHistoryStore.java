@@ -89,6 +89,30 @@ public class FieldHistoryStore {
     return newMessage;
   }
 
+  /**
+   * Gets the last known value of a single field.
+   * <p>
+   * This is cheaper than querying the message returned by {@link #getLastKnownValues()} when only a few fields are needed.
+   * 
+   * @param fieldName  the field name, not null
+   * @return the value, null if there is no value for the field
+   */
+  public synchronized Object getLastKnownValue(String fieldName) {
+    final FudgeField field = _lastKnownValues.get(fieldName);
+    return (field != null) ? field.getValue() : null;
+  }
+
+  /**
+   * Gets the last known value of a single numeric field.
+   * 
+   * @param fieldName  the field name, not null
+   * @return the value, null if there is no value for the field or it is not numeric
+   */
+  public Double getLastKnownDouble(String fieldName) {
+    final Object value = getLastKnownValue(fieldName);
+    return (value instanceof Number) ? ((Number) value).doubleValue() : null;
+  }
+
   /**
    * Checks if the history store is empty.
    * 
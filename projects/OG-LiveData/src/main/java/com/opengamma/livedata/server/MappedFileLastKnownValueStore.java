@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.server;
+
+import org.fudgemsg.FudgeMsg;
+
+import com.opengamma.livedata.LiveDataSpecification;
+
+/**
+ * An implementation of {@link LastKnownValueStore} that holds its values in memory and records
+ * updates in the log of a {@link MappedFileLastKnownValueStoreProvider}.
+ */
+public class MappedFileLastKnownValueStore implements LastKnownValueStore {
+  private final MappedFileLastKnownValueStoreProvider _provider;
+  private final LiveDataSpecification _key;
+  private final FieldHistoryStore _historyStore;
+
+  /* package */ MappedFileLastKnownValueStore(MappedFileLastKnownValueStoreProvider provider, LiveDataSpecification key, FieldHistoryStore historyStore) {
+    _provider = provider;
+    _key = key;
+    _historyStore = historyStore;
+  }
+
+  @Override
+  public void updateFields(FudgeMsg fieldValues) {
+    _provider.update(_key, _historyStore, fieldValues);
+  }
+
+  @Override
+  public FudgeMsg getFields() {
+    return _historyStore.getLastKnownValues();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return _historyStore.isEmpty();
+  }
+
+}
@@ -0,0 +1,668 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalScheme;
+import com.opengamma.livedata.LiveDataSpecification;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * A {@link LastKnownValueStoreProvider} that keeps last known values in memory and persists them to a local memory-mapped log file.
+ * <p>
+ * Every update is appended to the log as a record holding the security, normalization rule set and the updated fields. When the provider is started against an existing file the log is
+ * replayed to rebuild the values, so a live data server can be restarted, or recover from a crash, without losing its last known values. Replay stops at the first incomplete or corrupt
+ * record, which is what a crash part way through a write leaves behind.
+ * <p>
+ * Updates from different threads are written concurrently; each reserves its space in the log by advancing an atomic position and then writes its record there, holding only a shared lock
+ * that keeps the log from being replaced underneath it. The records are encoded, and the in-memory values updated, before the space is reserved. Updates to the same security are expected
+ * to come from one thread at a time, as they do from a live data server, so that the log holds them in the order they were applied.
+ * <p>
+ * When the log is full it is compacted by writing a single record for each security to a new file, which then replaces the log. The file is grown if the compacted values take more than half
+ * of it. Only the thread whose update filled the log waits for compaction; updates from other threads are held in memory and written to the new log once it is ready. If compaction fails
+ * the error is logged, and updates are applied to the in-memory values but not recorded in the log until a later attempt succeeds.
+ * <p>
+ * Updates can optionally be replicated asynchronously to another provider, for example a {@link RedisLastKnownValueStoreProvider} so that other processes can see the values. Updates
+ * waiting to be replicated are merged for each security, so a slow replication target receives the latest fields rather than a growing backlog of ticks. They are applied on a single
+ * background thread and failures are logged rather than affecting the live data server.
+ */
+public class MappedFileLastKnownValueStoreProvider implements LastKnownValueStoreProvider {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(MappedFileLastKnownValueStoreProvider.class);
+
+  /**
+   * The default size of the log file.
+   */
+  public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+  private static final String SCHEME_FIELD_NAME = "scheme";
+  private static final String VALUE_FIELD_NAME = "value";
+  private static final String NORMALIZATION_FIELD_NAME = "normalization";
+  private static final String FIELDS_FIELD_NAME = "fields";
+
+  /**
+   * The size of the header of each record; the payload length and its checksum.
+   */
+  private static final int RECORD_HEADER_SIZE = 8;
+  /**
+   * How long {@link #close()} waits for pending updates to be replicated.
+   */
+  private static final long REPLICATION_CLOSE_TIMEOUT_SECONDS = 30;
+  /**
+   * How long to wait after a failed compaction before trying again.
+   */
+  private static final long COMPACTION_RETRY_MILLIS = 60000;
+
+  private File _file;
+  private int _capacity = DEFAULT_CAPACITY;
+  private FudgeContext _fudgeContext = OpenGammaFudgeContext.getInstance();
+  private LastKnownValueStoreProvider _replicationTarget;
+
+  private final ConcurrentMap<LiveDataSpecification, FieldHistoryStore> _values = new ConcurrentHashMap<>();
+  private volatile boolean _isInitialized;
+  /**
+   * Held, shared, while writing a record to the log and, exclusively, while replacing or closing the log. The exclusive lock is only taken while also synchronized on this.
+   */
+  private final ReadWriteLock _logLock = new ReentrantReadWriteLock();
+  /** Modified while synchronized on this and holding the exclusive log lock */
+  private FileChannel _channel;
+  /** Modified while synchronized on this and holding the exclusive log lock; written to while holding the shared log lock */
+  private volatile MappedByteBuffer _log;
+  /** The position in the log at which the next record will be written; space is reserved for a record by advancing this */
+  private final AtomicInteger _position = new AtomicInteger();
+  /** The records of updates made while the log is being compacted, null if it isn't. Modified, and the list accessed, while synchronized on this */
+  private volatile List<byte[]> _compactionOverflow;
+  /** When compaction can next be attempted after a failure, as milliseconds from UTC epoch. Access controlled by synchronizing on this */
+  private long _compactionRetryMillis;
+  private ExecutorService _replicator;
+  /** Only accessed by the replication thread */
+  private final Map<LiveDataSpecification, LastKnownValueStore> _replicas = new HashMap<>();
+  /** The merged updates waiting to be replicated. Access controlled by synchronizing on this map */
+  private final Map<LiveDataSpecification, FieldHistoryStore> _pendingReplication = new LinkedHashMap<>();
+  /** Whether a task to replicate the pending updates has been submitted and not finished. Access controlled by synchronizing on the pending replication map */
+  private boolean _replicationScheduled;
+
+  /**
+   * Gets the log file.
+   * @return the file
+   */
+  public File getFile() {
+    return _file;
+  }
+
+  /**
+   * Sets the log file. This is created if it does not exist.
+   * @param file  the file
+   */
+  public void setFile(File file) {
+    _file = file;
+  }
+
+  /**
+   * Gets the initial size of the log file.
+   * @return the capacity in bytes
+   */
+  public int getCapacity() {
+    return _capacity;
+  }
+
+  /**
+   * Sets the initial size of the log file. An existing file that is larger than this is used at its current size.
+   * @param capacity  the capacity in bytes
+   */
+  public void setCapacity(int capacity) {
+    ArgumentChecker.isTrue(capacity > RECORD_HEADER_SIZE, "capacity too small");
+    _capacity = capacity;
+  }
+
+  /**
+   * Gets the Fudge context.
+   * @return the Fudge context
+   */
+  public FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
+  /**
+   * Sets the Fudge context.
+   * @param fudgeContext  the Fudge context
+   */
+  public void setFudgeContext(FudgeContext fudgeContext) {
+    _fudgeContext = fudgeContext;
+  }
+
+  /**
+   * Gets the provider that updates are replicated to.
+   * @return the replication target, null if updates are not replicated
+   */
+  public LastKnownValueStoreProvider getReplicationTarget() {
+    return _replicationTarget;
+  }
+
+  /**
+   * Sets the provider that updates are replicated to. This must be set before the provider is first used.
+   * @param replicationTarget  the replication target, null to not replicate updates
+   */
+  public void setReplicationTarget(LastKnownValueStoreProvider replicationTarget) {
+    _replicationTarget = replicationTarget;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LastKnownValueStore newInstance(ExternalId security, String normalizationRuleSetId) {
+    initIfNecessary();
+    final LiveDataSpecification key = new LiveDataSpecification(normalizationRuleSetId, security);
+    FieldHistoryStore values = _values.get(key);
+    if (values == null) {
+      values = new FieldHistoryStore();
+      final FieldHistoryStore existing = _values.putIfAbsent(key, values);
+      if (existing != null) {
+        values = existing;
+      }
+    }
+    return new MappedFileLastKnownValueStore(this, key, values);
+  }
+
+  @Override
+  public Set<String> getAllIdentifiers(String identifierScheme) {
+    initIfNecessary();
+    final ExternalScheme scheme = ExternalScheme.of(identifierScheme);
+    final Set<String> identifiers = new HashSet<>();
+    for (Map.Entry<LiveDataSpecification, FieldHistoryStore> entry : _values.entrySet()) {
+      final String identifier = entry.getKey().getIdentifier(scheme);
+      if ((identifier != null) && !entry.getValue().isEmpty()) {
+        identifiers.add(identifier);
+      }
+    }
+    return identifiers;
+  }
+
+  @Override
+  public boolean isAvailable(ExternalId security, String normalizationRuleSetId) {
+    initIfNecessary();
+    final FieldHistoryStore values = _values.get(new LiveDataSpecification(normalizationRuleSetId, security));
+    return (values != null) && !values.isEmpty();
+  }
+
+  //-------------------------------------------------------------------------
+  protected void initIfNecessary() {
+    if (_isInitialized) {
+      return;
+    }
+    synchronized (this) {
+      if (_isInitialized) {
+        return;
+      }
+      ArgumentChecker.notNull(getFile(), "file");
+      s_logger.info("Opening LKV log {}", getFile());
+      try {
+        openLog();
+      } catch (IOException e) {
+        throw new OpenGammaRuntimeException("Couldn't open LKV log " + getFile(), e);
+      }
+      replay();
+      if (getReplicationTarget() != null) {
+        _replicator = Executors.newSingleThreadExecutor(new NamedThreadPoolFactory("LKVReplicator", true));
+      }
+      _isInitialized = true;
+    }
+  }
+
+  /**
+   * Opens and maps the log file. The caller must hold the lock on this provider.
+   */
+  private void openLog() throws IOException {
+    final FileChannel channel = new RandomAccessFile(getFile(), "rw").getChannel();
+    try {
+      _log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(getCapacity(), channel.size()));
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    _channel = channel;
+  }
+
+  /**
+   * Flushes, closes and unmaps the log. The caller must hold the lock on this provider and the exclusive log lock.
+   */
+  private void closeLog() {
+    if (_channel != null) {
+      _log.force();
+      try {
+        _channel.close();
+      } catch (IOException e) {
+        s_logger.warn("Couldn't close LKV log {}: {}", getFile(), e.getMessage());
+      }
+      unmap(_log);
+      _channel = null;
+      _log = null;
+    }
+  }
+
+  /**
+   * Releases the mapping of a buffer rather than waiting for it to be garbage collected, so that the file can be replaced. The buffer must not be used after this.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      final Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (Exception e) {
+      s_logger.debug("Couldn't unmap buffer; it will be unmapped when garbage collected: {}", e.toString());
+    }
+  }
+
+  /**
+   * Rebuilds the values from the log, setting the position for the next record to after the last valid one.
+   */
+  private void replay() {
+    int records = 0;
+    while (true) {
+      final int position = _log.position();
+      if (_log.remaining() < RECORD_HEADER_SIZE) {
+        break;
+      }
+      final int length = _log.getInt();
+      if (length == 0) {
+        // End of the log
+        _log.position(position);
+        break;
+      }
+      final long checksum = _log.getInt() & 0xFFFFFFFFL;
+      if ((length < 0) || (length > _log.remaining())) {
+        s_logger.warn("Discarding incomplete record at {} in LKV log {}", position, getFile());
+        truncate(position);
+        break;
+      }
+      final byte[] payload = new byte[length];
+      _log.get(payload);
+      final CRC32 crc = new CRC32();
+      crc.update(payload);
+      if (crc.getValue() != checksum) {
+        s_logger.warn("Discarding corrupt record at {} in LKV log {}", position, getFile());
+        truncate(position);
+        break;
+      }
+      final FudgeMsg record = getFudgeContext().deserialize(payload).getMessage();
+      final ExternalId security = ExternalId.of(record.getString(SCHEME_FIELD_NAME), record.getString(VALUE_FIELD_NAME));
+      final LiveDataSpecification key = new LiveDataSpecification(record.getString(NORMALIZATION_FIELD_NAME), security);
+      FieldHistoryStore values = _values.get(key);
+      if (values == null) {
+        values = new FieldHistoryStore();
+        _values.put(key, values);
+      }
+      values.liveDataReceived(record.getMessage(FIELDS_FIELD_NAME));
+      records++;
+    }
+    _position.set(_log.position());
+    s_logger.info("Replayed {} records for {} securities from LKV log {}", new Object[] {records, _values.size(), getFile() });
+  }
+
+  /**
+   * Clears the log from a position so that records written there later cannot be confused with the remains of a damaged record.
+   */
+  private void truncate(int position) {
+    _log.position(position);
+    while (_log.hasRemaining()) {
+      _log.put((byte) 0);
+    }
+    _log.position(position);
+  }
+
+  /**
+   * Records an update to the values of a security.
+   *
+   * @param key  the security and normalization rule set, not null
+   * @param values  the values for the security, not null
+   * @param fieldValues  the updated fields, not null
+   */
+  /* package */ void update(LiveDataSpecification key, FieldHistoryStore values, FudgeMsg fieldValues) {
+    final byte[] payload = getFudgeContext().toByteArray(toRecord(key, fieldValues));
+    final int checksum = checksum(payload);
+    values.liveDataReceived(fieldValues);
+    if (!tryAppend(payload, checksum)) {
+      int compactFrom = 0;
+      synchronized (this) {
+        if (_compactionOverflow != null) {
+          // Written to the compacted log once it is ready
+          _compactionOverflow.add(payload);
+        } else if (tryAppend(payload, checksum)) {
+          // The log was compacted since the first attempt
+          s_logger.debug("Recorded update to {} in compacted LKV log", key);
+        } else if (System.currentTimeMillis() >= _compactionRetryMillis) {
+          final List<byte[]> overflow = new ArrayList<>();
+          overflow.add(payload);
+          _compactionOverflow = overflow;
+          compactFrom = (_log != null) ? _log.capacity() : getCapacity();
+        } else {
+          s_logger.debug("Not recording update to {} until LKV log {} can be compacted", key, getFile());
+        }
+      }
+      if (compactFrom > 0) {
+        compact(compactFrom);
+      }
+    }
+    if (_replicator != null) {
+      replicate(key, fieldValues);
+    }
+  }
+
+  /**
+   * Writes a record to the log if there is space for it and the log is not being compacted. The in-memory values must already have been updated, so that a compaction starting after this
+   * has checked for one includes the update.
+   *
+   * @return true if the record was written, false if it must be held for, or wait for, compaction
+   */
+  private boolean tryAppend(byte[] payload, int checksum) {
+    _logLock.readLock().lock();
+    try {
+      final MappedByteBuffer log = _log;
+      if ((log == null) || (_compactionOverflow != null)) {
+        return false;
+      }
+      final int size = RECORD_HEADER_SIZE + payload.length;
+      int position;
+      do {
+        position = _position.get();
+        if (position + size > log.capacity()) {
+          return false;
+        }
+      } while (!_position.compareAndSet(position, position + size));
+      write(log, position, payload, checksum);
+      return true;
+    } finally {
+      _logLock.readLock().unlock();
+    }
+  }
+
+  private MutableFudgeMsg toRecord(LiveDataSpecification key, FudgeMsg fieldValues) {
+    final ExternalId security = key.getIdentifiers().iterator().next();
+    final MutableFudgeMsg record = getFudgeContext().newMessage();
+    record.add(SCHEME_FIELD_NAME, security.getScheme().getName());
+    record.add(VALUE_FIELD_NAME, security.getValue());
+    record.add(NORMALIZATION_FIELD_NAME, key.getNormalizationRuleSetId());
+    record.add(FIELDS_FIELD_NAME, fieldValues);
+    return record;
+  }
+
+  private static int checksum(byte[] payload) {
+    final CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Writes a record at a position in the log. This doesn't use the buffer's own position so that threads can write to different parts of the log at the same time.
+   *
+   * @return the position after the record
+   */
+  private static int write(ByteBuffer log, int position, byte[] payload, int checksum) {
+    final ByteBuffer record = log.duplicate();
+    record.position(position + 4);
+    record.putInt(checksum);
+    record.put(payload);
+    // Write the length last so that a partially written record is never mistaken for a complete one
+    record.putInt(position, payload.length);
+    return record.position();
+  }
+
+  /**
+   * Replaces the log with one containing a single record for each security, followed by the records of the updates made while it was being written. This is called without holding the
+   * lock on this provider, after the update that didn't fit in the log has been applied to the in-memory values and added to the compaction overflow.
+   *
+   * @param oldCapacity  the size of the log being replaced
+   */
+  private void compact(int oldCapacity) {
+    final File compacted = new File(getFile().getPath() + ".compact");
+    FileChannel channel = null;
+    MappedByteBuffer log = null;
+    try {
+      final List<byte[]> records = new ArrayList<>();
+      long size = 0;
+      for (Map.Entry<LiveDataSpecification, FieldHistoryStore> entry : _values.entrySet()) {
+        final FudgeMsg values = entry.getValue().getLastKnownValues();
+        if (values.getNumFields() > 0) {
+          final byte[] payload = getFudgeContext().toByteArray(toRecord(entry.getKey(), values));
+          records.add(payload);
+          size += RECORD_HEADER_SIZE + payload.length;
+        }
+      }
+      long capacity = grow(oldCapacity, size);
+      s_logger.info("Compacting LKV log {} to {} bytes for {} securities", new Object[] {getFile(), size, records.size() });
+      Files.deleteIfExists(compacted.toPath());
+      channel = new RandomAccessFile(compacted, "rw").getChannel();
+      log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      int position = 0;
+      for (byte[] payload : records) {
+        position = write(log, position, payload, checksum(payload));
+      }
+      synchronized (this) {
+        // Add the updates made since the values were read; any already included in them are applied again with the same result
+        long required = position;
+        for (byte[] payload : _compactionOverflow) {
+          required += RECORD_HEADER_SIZE + payload.length;
+        }
+        if (required > log.capacity()) {
+          capacity = grow(capacity, required);
+          final MappedByteBuffer grown = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+          unmap(log);
+          log = grown;
+        }
+        for (byte[] payload : _compactionOverflow) {
+          position = write(log, position, payload, checksum(payload));
+        }
+        log.force();
+        // Wait for any writes to the old log to finish; it must be closed and unmapped before it is replaced
+        _logLock.writeLock().lock();
+        try {
+          final int oldPosition = (_log != null) ? _position.get() : -1;
+          closeLog();
+          try {
+            Files.move(compacted.toPath(), getFile().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+          } catch (IOException e) {
+            if (oldPosition >= 0) {
+              openLog();
+              _position.set(oldPosition);
+            }
+            throw e;
+          }
+          _channel = channel;
+          _log = log;
+          _position.set(position);
+          channel = null;
+          log = null;
+          s_logger.debug("Compacted LKV log has {} bytes free", _log.capacity() - position);
+        } finally {
+          _logLock.writeLock().unlock();
+        }
+        _compactionOverflow = null;
+        notifyAll();
+      }
+    } catch (IOException | RuntimeException e) {
+      s_logger.error("Couldn't compact LKV log " + getFile() + "; updates won't be recorded in it until a later attempt succeeds", e);
+      synchronized (this) {
+        _compactionRetryMillis = System.currentTimeMillis() + COMPACTION_RETRY_MILLIS;
+        _compactionOverflow = null;
+        notifyAll();
+      }
+    } finally {
+      if (channel != null) {
+        if (log != null) {
+          unmap(log);
+        }
+        try {
+          channel.close();
+          Files.deleteIfExists(compacted.toPath());
+        } catch (IOException e) {
+          s_logger.warn("Couldn't remove {}: {}", compacted, e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the size of log needed for some records, doubling the current size until they take no more than half of it.
+   */
+  private long grow(long capacity, long size) throws IOException {
+    while (size * 2 > capacity) {
+      capacity *= 2;
+    }
+    if (capacity > Integer.MAX_VALUE) {
+      throw new IOException("LKV log " + getFile() + " would exceed the maximum size");
+    }
+    return capacity;
+  }
+
+  /**
+   * Merges an update into those waiting to be replicated, starting the replication thread if it is idle.
+   */
+  private void replicate(final LiveDataSpecification key, final FudgeMsg fieldValues) {
+    final ExecutorService replicator = _replicator;
+    synchronized (_pendingReplication) {
+      final FieldHistoryStore pending = _pendingReplication.get(key);
+      if (pending == null) {
+        _pendingReplication.put(key, new FieldHistoryStore(fieldValues));
+      } else {
+        pending.liveDataReceived(fieldValues);
+      }
+      if (_replicationScheduled) {
+        return;
+      }
+      _replicationScheduled = true;
+    }
+    try {
+      replicator.execute(new Runnable() {
+        @Override
+        public void run() {
+          drainReplication();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      s_logger.debug("Not replicating LKV update for {} after close", key);
+    }
+  }
+
+  /**
+   * Replicates the pending updates, a batch at a time, until there are none left.
+   */
+  private void drainReplication() {
+    while (true) {
+      final Map<LiveDataSpecification, FieldHistoryStore> batch;
+      synchronized (_pendingReplication) {
+        if (_pendingReplication.isEmpty()) {
+          _replicationScheduled = false;
+          return;
+        }
+        batch = new LinkedHashMap<>(_pendingReplication);
+        _pendingReplication.clear();
+      }
+      for (Map.Entry<LiveDataSpecification, FieldHistoryStore> update : batch.entrySet()) {
+        final LiveDataSpecification key = update.getKey();
+        try {
+          LastKnownValueStore replica = _replicas.get(key);
+          if (replica == null) {
+            replica = getReplicationTarget().newInstance(key.getIdentifiers().iterator().next(), key.getNormalizationRuleSetId());
+            _replicas.put(key, replica);
+          }
+          replica.updateFields(update.getValue().getLastKnownValues());
+        } catch (RuntimeException e) {
+          s_logger.warn("Couldn't replicate LKV update for {}: {}", key, e.getMessage());
+        }
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Forces any changes to the log to be written to the storage device. Without this the operating system writes them out in its own time, which is sufficient to survive a crash of the
+   * live data server but not of the machine.
+   */
+  public void flush() {
+    _logLock.readLock().lock();
+    try {
+      final MappedByteBuffer log = _log;
+      if (log != null) {
+        log.force();
+      }
+    } finally {
+      _logLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Flushes and closes the log and stops replication, waiting for pending updates to be replicated. The provider must not be used after this.
+   */
+  public synchronized void close() {
+    while (_compactionOverflow != null) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        s_logger.warn("Interrupted waiting for compaction of LKV log {}", getFile());
+        break;
+      }
+    }
+    if (_replicator != null) {
+      _replicator.shutdown();
+      try {
+        if (!_replicator.awaitTermination(REPLICATION_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          s_logger.warn("Timed out waiting for LKV updates from {} to be replicated", getFile());
+          _replicator.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        _replicator.shutdownNow();
+      }
+      _replicator = null;
+    }
+    _logLock.writeLock().lock();
+    try {
+      closeLog();
+    } finally {
+      _logLock.writeLock().unlock();
+    }
+  }
+
+}
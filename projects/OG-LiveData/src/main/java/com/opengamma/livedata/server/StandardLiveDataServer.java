@@ -11,12 +11,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -53,6 +55,7 @@ import com.opengamma.livedata.server.mxbean.DistributorTrace;
 import com.opengamma.livedata.server.mxbean.SubscriptionTrace;
 import com.opengamma.livedata.server.mxbean.SubscriptionTracer;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
 import com.opengamma.util.PerformanceCounter;
 import com.opengamma.util.PublicAPI;
 
@@ -68,21 +71,30 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
   private volatile MarketDataSenderFactory _marketDataSenderFactory = new EmptyMarketDataSenderFactory();
   private final Collection<SubscriptionListener> _subscriptionListeners = new CopyOnWriteArrayList<>();
 
-  /** Access controlled via _subscriptionLock */
-  private final Set<Subscription> _currentlyActiveSubscriptions = new HashSet<>();
+  /**
+   * The number of locks guarding changes to the subscription state. Changes for a security are made while holding the lock for that security's stripe so that changes for different securities,
+   * such as expiry sweeps and subscription requests, do not block each other.
+   */
+  private static final int SUBSCRIPTION_LOCK_STRIPES = 64;
+
+  /** _Write_ access controlled via the subscription lock stripes */
+  private final Set<Subscription> _currentlyActiveSubscriptions = Collections.newSetFromMap(new ConcurrentHashMap<Subscription, Boolean>());
 
-  /** _Write_ access controlled via _subscriptionLock */
+  /** _Write_ access controlled via the subscription lock stripes */
   private final Map<String, Subscription> _securityUniqueId2Subscription = new ConcurrentHashMap<>();
 
-  /** Access controlled via _subscriptionLock */
-  private final Map<LiveDataSpecification, MarketDataDistributor> _fullyQualifiedSpec2Distributor = new HashMap<>();
+  /** _Write_ access controlled via the subscription lock stripes */
+  private final Map<LiveDataSpecification, MarketDataDistributor> _fullyQualifiedSpec2Distributor = new ConcurrentHashMap<>();
 
   private final AtomicLong _numMarketDataUpdatesReceived = new AtomicLong(0);
   private final PerformanceCounter _performanceCounter;
 
   private final CacheManager _cacheManager;
 
-  private final Lock _subscriptionLock = new ReentrantLock();
+  private final Lock[] _subscriptionLocks = new Lock[SUBSCRIPTION_LOCK_STRIPES];
+
+  /** Serializes calls to {@link #doSubscribe} and {@link #doUnsubscribe}; a subscription lock may be held when acquiring this, but not the reverse */
+  private final Lock _marketDataApiLock = new ReentrantLock();
 
   private DistributionSpecificationResolver _distributionSpecificationResolver = new NaiveDistributionSpecificationResolver();
   private LiveDataEntitlementChecker _entitlementChecker = new PermissiveLiveDataEntitlementChecker();
@@ -95,6 +107,9 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
 
   private LastKnownValueStoreProvider _lkvStoreProvider = new MapLastKnownValueStoreProvider();
 
+  private volatile long _publishIntervalMillis;
+  private ScheduledExecutorService _publishScheduler;
+
   private volatile ConnectionStatus _connectionStatus = ConnectionStatus.NOT_CONNECTED;
 
   /**
@@ -122,6 +137,9 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
   protected StandardLiveDataServer(CacheManager cacheManager, boolean isPerformanceCountingEnabled) {
     ArgumentChecker.notNull(cacheManager, "cacheManager");
     _cacheManager = cacheManager;
+    for (int i = 0; i < SUBSCRIPTION_LOCK_STRIPES; i++) {
+      _subscriptionLocks[i] = new ReentrantLock();
+    }
     _performanceCounter = isPerformanceCountingEnabled ? new PerformanceCounter(60) : null;
   }
 
@@ -263,6 +281,62 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
     _lkvStoreProvider = lkvStoreProvider;
   }
 
+  /**
+   * Gets the default minimum interval between messages sent to clients for a distribution.
+   *
+   * @return the interval in milliseconds, zero if every update is sent immediately
+   */
+  public long getPublishIntervalMillis() {
+    return _publishIntervalMillis;
+  }
+
+  /**
+   * Sets the default minimum interval between messages sent to clients for a distribution. Updates for a distribution that arrive within the interval of the last message sent are conflated;
+   * their fields are merged and sent as a single message at the end of the interval. This bounds the publishing rate for fast ticking lines so that clients receive current values rather than
+   * a backlog of stale ones.
+   * <p>
+   * The interval only applies to distributors created after it is set.
+   *
+   * @param publishIntervalMillis the interval in milliseconds, zero to send every update immediately
+   */
+  public void setPublishIntervalMillis(long publishIntervalMillis) {
+    ArgumentChecker.notNegative(publishIntervalMillis, "publishIntervalMillis");
+    _publishIntervalMillis = publishIntervalMillis;
+  }
+
+  /**
+   * Gets the minimum interval between messages sent to clients for a distribution. Override this to use different intervals for different distributions, for example to conflate only certain
+   * normalization rule sets.
+   *
+   * @param distributionSpec the distribution specification, not null
+   * @return the interval in milliseconds, zero if every update is to be sent immediately
+   */
+  protected long getPublishIntervalMillis(DistributionSpecification distributionSpec) {
+    return getPublishIntervalMillis();
+  }
+
+  /**
+   * Gets the scheduler used to send conflated updates, creating it if necessary.
+   */
+  private synchronized ScheduledExecutorService getPublishScheduler() {
+    if (_publishScheduler == null) {
+      _publishScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadPoolFactory("LiveDataPublisher", true));
+    }
+    return _publishScheduler;
+  }
+
+  /**
+   * Creates a distributor, or retrieves the existing one, and applies the publish interval for its distribution. The caller must hold the subscription lock for the security.
+   */
+  private MarketDataDistributor createDistributor(Subscription subscription, DistributionSpecification distributionSpec, boolean persistent) {
+    final MarketDataDistributor distributor = subscription.createDistributor(distributionSpec, persistent);
+    final long publishIntervalMillis = getPublishIntervalMillis(distributionSpec);
+    if (distributor.getPublishIntervalMillis() != publishIntervalMillis) {
+      distributor.setPublishInterval(publishIntervalMillis, (publishIntervalMillis > 0) ? getPublishScheduler() : null);
+    }
+    return distributor;
+  }
+
   //-------------------------------------------------------------------------
 
   /**
@@ -380,11 +454,12 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
 
   //-------------------------------------------------------------------------
   public void reestablishSubscriptions() {
-    _subscriptionLock.lock();
+    final Set<String> failed = new HashSet<>();
+    _marketDataApiLock.lock();
     try {
       s_logger.warn("Attempting to re-establish subscriptions for {} securities", _securityUniqueId2Subscription.size());
 
-      Set<String> securities = _securityUniqueId2Subscription.keySet();
+      Set<String> securities = new HashSet<>(_securityUniqueId2Subscription.keySet());
       try {
         Map<String, Object> subscriptions = doSubscribe(securities);
 
@@ -394,23 +469,50 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
                         securities.size(), subscriptions.size());
         }
 
-        for (Iterator<Map.Entry<String, Subscription>> it = _securityUniqueId2Subscription.entrySet().iterator(); it.hasNext(); ) {
-          final Map.Entry<String, Subscription> entry = it.next();
-          final Object handle = subscriptions.get(entry.getKey());
+        for (String security : securities) {
+          final Subscription subscription = _securityUniqueId2Subscription.get(security);
+          if (subscription == null) {
+            continue;
+          }
+          final Object handle = subscriptions.get(security);
           if (handle != null) {
-            s_logger.debug("Reconnected to {}", entry.getKey());
-            entry.getValue().setHandle(handle);
+            s_logger.debug("Reconnected to {}", security);
+            subscription.setHandle(handle);
           } else {
-            s_logger.warn("Couldn't reconnect to {} - removing from list of active subscriptions", entry.getKey());
-            it.remove();
+            s_logger.warn("Couldn't reconnect to {} - removing from list of active subscriptions", security);
+            failed.add(security);
           }
         }
       } catch (RuntimeException e) {
         s_logger.error("Could not reestablish subscription to {}", new Object[] {securities }, e);
       }
     } finally {
-      _subscriptionLock.unlock();
+      _marketDataApiLock.unlock();
     }
+    // The subscription locks must not be acquired while holding the market data API lock
+    for (String security : failed) {
+      final Lock lock = getSubscriptionLock(security);
+      lock.lock();
+      try {
+        _securityUniqueId2Subscription.remove(security);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Gets the lock guarding changes to the subscription state for a security.
+   *
+   * @param securityUniqueId the security unique identifier, not null
+   * @return the lock, not null
+   */
+  private Lock getSubscriptionLock(String securityUniqueId) {
+    return _subscriptionLocks[getSubscriptionLockStripe(securityUniqueId)];
+  }
+
+  private static int getSubscriptionLockStripe(String securityUniqueId) {
+    return (securityUniqueId.hashCode() & Integer.MAX_VALUE) % SUBSCRIPTION_LOCK_STRIPES;
   }
 
   protected void verifyConnectionOk() {
@@ -446,6 +548,21 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
       disconnect();
       stopExpirationManager();
     }
+    stopPublishScheduler();
+  }
+
+  /**
+   * Sends any merged updates still waiting for their publish interval to expire and shuts down the scheduler. Distributors are left sending every
+   * update immediately until their publish interval is applied again by a subsequent subscription.
+   */
+  private void stopPublishScheduler() {
+    if (_publishScheduler != null) {
+      for (MarketDataDistributor distributor : _fullyQualifiedSpec2Distributor.values()) {
+        distributor.setPublishInterval(0, null);
+      }
+      _publishScheduler.shutdownNow();
+      _publishScheduler = null;
+    }
   }
 
   public synchronized void connect() {
@@ -529,44 +646,73 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
     Map<ExternalIdBundle, LiveDataSubscriptionResponse> responses = new HashMap<>();
     Map<String, Subscription> securityUniqueId2NewSubscription = new HashMap<>();
     Map<String, LiveDataSpecification> securityUniqueId2SpecFromClient = new HashMap<>();
+    // Subscriptions that another request is still starting; these are only reported as successful once started
+    Map<LiveDataSpecification, Subscription> specFromClient2StartingSubscription = new HashMap<>();
+
+    final long distributionExpiryTime = System.currentTimeMillis() + getExpirationManager().getTimeoutExtension();
+    Map<LiveDataSpecification, DistributionSpecification> distrSpecs = getDistributionSpecificationResolver().resolve(liveDataSpecificationsFromClient);
+
+    // Group the requests by subscription lock stripe so that each stripe is locked once, and requests for securities in other stripes are not blocked
+    @SuppressWarnings("unchecked")
+    final List<LiveDataSpecification>[] specsFromClientByStripe = new List[SUBSCRIPTION_LOCK_STRIPES];
+    for (LiveDataSpecification specFromClient : liveDataSpecificationsFromClient) {
+      // this is the only place where subscribe() can 'partially' fail
+      final DistributionSpecification distributionSpec = distrSpecs.get(specFromClient);
+      if (distributionSpec == null) {
+        s_logger.info("Unable to work out distribution spec for specification " + specFromClient);
+        responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.NOT_PRESENT, "Unable to work out distribution spec"));
+        continue;
+      }
+      final LiveDataSpecification fullyQualifiedSpec = distributionSpec.getFullyQualifiedLiveDataSpecification();
+      String securityUniqueId = fullyQualifiedSpec.getIdentifier(getUniqueIdDomain());
+      if (securityUniqueId == null) {
+        String errorMsg = "Qualified spec " + fullyQualifiedSpec + " does not contain ID of domain " + getUniqueIdDomain();
+        responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.INTERNAL_ERROR, errorMsg));
+        continue;
+      }
+      final int stripe = getSubscriptionLockStripe(securityUniqueId);
+      if (specsFromClientByStripe[stripe] == null) {
+        specsFromClientByStripe[stripe] = new ArrayList<>();
+      }
+      specsFromClientByStripe[stripe].add(specFromClient);
+    }
 
-    _subscriptionLock.lock();
     try {
-      final long distributionExpiryTime = System.currentTimeMillis() + getExpirationManager().getTimeoutExtension();
-      Map<LiveDataSpecification, DistributionSpecification> distrSpecs = getDistributionSpecificationResolver().resolve(liveDataSpecificationsFromClient);
-      for (LiveDataSpecification specFromClient : liveDataSpecificationsFromClient) {
-        // this is the only place where subscribe() can 'partially' fail
-        final DistributionSpecification distributionSpec = distrSpecs.get(specFromClient);
-        if (distributionSpec == null) {
-          s_logger.info("Unable to work out distribution spec for specification " + specFromClient);
-          responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.NOT_PRESENT, "Unable to work out distribution spec"));
+      for (int stripe = 0; stripe < SUBSCRIPTION_LOCK_STRIPES; stripe++) {
+        if (specsFromClientByStripe[stripe] == null) {
           continue;
         }
-        final LiveDataSpecification fullyQualifiedSpec = distributionSpec.getFullyQualifiedLiveDataSpecification();
-        Subscription subscription = getSubscription(fullyQualifiedSpec);
-        if (subscription != null) {
-          s_logger.info("Already subscribed to {}", fullyQualifiedSpec);
-          subscription.createDistributor(distributionSpec, persistent).setExpiry(distributionExpiryTime);
-        } else {
-          String securityUniqueId = fullyQualifiedSpec.getIdentifier(getUniqueIdDomain());
-          if (securityUniqueId == null) {
-            String errorMsg = "Qualified spec " + fullyQualifiedSpec + " does not contain ID of domain " + getUniqueIdDomain();
-            responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.INTERNAL_ERROR, errorMsg));
-            continue;
+        _subscriptionLocks[stripe].lock();
+        try {
+          for (LiveDataSpecification specFromClient : specsFromClientByStripe[stripe]) {
+            final DistributionSpecification distributionSpec = distrSpecs.get(specFromClient);
+            final LiveDataSpecification fullyQualifiedSpec = distributionSpec.getFullyQualifiedLiveDataSpecification();
+            Subscription subscription = getSubscription(fullyQualifiedSpec);
+            if (subscription != null) {
+              s_logger.info("Already subscribed to {}", fullyQualifiedSpec);
+              createDistributor(subscription, distributionSpec, persistent).setExpiry(distributionExpiryTime);
+              if (subscription.isStarting() && !securityUniqueId2NewSubscription.containsKey(subscription.getSecurityUniqueId())) {
+                specFromClient2StartingSubscription.put(specFromClient, subscription);
+              }
+            } else {
+              subscription = new Subscription(fullyQualifiedSpec.getIdentifier(getUniqueIdDomain()), getMarketDataSenderFactory(), getLkvStoreProvider());
+              subscription.setStarting();
+              securityUniqueId2NewSubscription.put(subscription.getSecurityUniqueId(), subscription);
+              securityUniqueId2SpecFromClient.put(subscription.getSecurityUniqueId(), specFromClient);
+              MarketDataDistributor distributor = createDistributor(subscription, distributionSpec, persistent);
+              distributor.setExpiry(distributionExpiryTime);
+
+              // PLAT-5958 - make a note of this here so that if another requested live data spec aliases to the same
+              // subscription then we reuse this new subscription rather than creating another
+              _fullyQualifiedSpec2Distributor.put(distributor.getFullyQualifiedLiveDataSpecification(), distributor);
+
+              s_logger.info("Created subscription for {}: {}", fullyQualifiedSpec, subscription);
+            }
+            responses.put(specFromClient.getIdentifiers(), buildSubscriptionResponse(specFromClient, distributionSpec));
           }
-          subscription = new Subscription(securityUniqueId, getMarketDataSenderFactory(), getLkvStoreProvider());
-          securityUniqueId2NewSubscription.put(subscription.getSecurityUniqueId(), subscription);
-          securityUniqueId2SpecFromClient.put(subscription.getSecurityUniqueId(), specFromClient);
-          MarketDataDistributor distributor = subscription.createDistributor(distributionSpec, persistent);
-          distributor.setExpiry(distributionExpiryTime);
-          
-          // PLAT-5958 - make a note of this here so that if another requested live data spec aliases to the same
-          // subscription then we reuse this new subscription rather than creating another  
-          _fullyQualifiedSpec2Distributor.put(distributor.getFullyQualifiedLiveDataSpecification(), distributor);
-          
-          s_logger.info("Created subscription for {}: {}", fullyQualifiedSpec, subscription);
+        } finally {
+          _subscriptionLocks[stripe].unlock();
         }
-        responses.put(specFromClient.getIdentifiers(), buildSubscriptionResponse(specFromClient, distributionSpec));
       }
 
       //Allow checks here, before we do the snapshot or the subscribe
@@ -598,26 +744,37 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
         }
       }
 
-      // Setup the subscriptions in the underlying data provider.
-      for (Subscription subscription : securityUniqueId2NewSubscription.values()) {
-        // this is necessary so we don't lose any updates immediately after doSubscribe(). See AbstractLiveDataServer#liveDataReceived()
-        // and how it calls AbstractLiveDataServer#getSubscription()
-        _securityUniqueId2Subscription.put(subscription.getSecurityUniqueId(), subscription);
-      }
+      final List<Subscription> activated = new ArrayList<>(securityUniqueId2NewSubscription.size());
+      _marketDataApiLock.lock();
+      try {
+        // Setup the subscriptions in the underlying data provider.
+        for (Subscription subscription : securityUniqueId2NewSubscription.values()) {
+          // this is necessary so we don't lose any updates immediately after doSubscribe(). See AbstractLiveDataServer#liveDataReceived()
+          // and how it calls AbstractLiveDataServer#getSubscription()
+          _securityUniqueId2Subscription.put(subscription.getSecurityUniqueId(), subscription);
+        }
 
-      s_logger.info("Creating underlying market data API subscription to {}", securityUniqueId2NewSubscription.keySet());
-      Map<String, Object> subscriptionHandles = doSubscribe(securityUniqueId2NewSubscription.keySet());
+        s_logger.info("Creating underlying market data API subscription to {}", securityUniqueId2NewSubscription.keySet());
+        Map<String, Object> subscriptionHandles = doSubscribe(securityUniqueId2NewSubscription.keySet());
 
-      // Set up data structures
-      for (Map.Entry<String, Object> subscriptionHandle : subscriptionHandles.entrySet()) {
-        String securityUniqueId = subscriptionHandle.getKey();
-        Object handle = subscriptionHandle.getValue();
-        
-        Subscription subscription = securityUniqueId2NewSubscription.get(securityUniqueId);
-        subscription.setHandle(handle);
+        // Set up data structures
+        for (Map.Entry<String, Object> subscriptionHandle : subscriptionHandles.entrySet()) {
+          String securityUniqueId = subscriptionHandle.getKey();
+          Object handle = subscriptionHandle.getValue();
 
-        _currentlyActiveSubscriptions.add(subscription);
+          Subscription subscription = securityUniqueId2NewSubscription.get(securityUniqueId);
+          subscription.setHandle(handle);
 
+          _currentlyActiveSubscriptions.add(subscription);
+          activated.add(subscription);
+        }
+      } finally {
+        _marketDataApiLock.unlock();
+      }
+      for (Subscription subscription : securityUniqueId2NewSubscription.values()) {
+        subscription.setStarted(false);
+      }
+      for (Subscription subscription : activated) {
         notifySubscriptionListeners(subscription);
       }
 
@@ -625,18 +782,39 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
       s_logger.info("Unexpected exception thrown when subscribing. Cleaning up.", e);
 
       for (Subscription subscription : securityUniqueId2NewSubscription.values()) {
-        _securityUniqueId2Subscription.remove(subscription.getSecurityUniqueId());
-
-        for (MarketDataDistributor distributor : subscription.getDistributors()) {
-          _fullyQualifiedSpec2Distributor.remove(distributor.getFullyQualifiedLiveDataSpecification());
+        final Lock lock = getSubscriptionLock(subscription.getSecurityUniqueId());
+        lock.lock();
+        try {
+          _securityUniqueId2Subscription.remove(subscription.getSecurityUniqueId());
+          for (MarketDataDistributor distributor : subscription.getDistributors()) {
+            _fullyQualifiedSpec2Distributor.remove(distributor.getFullyQualifiedLiveDataSpecification());
+            distributor.discardPendingUpdate();
+          }
+          _currentlyActiveSubscriptions.remove(subscription);
+        } finally {
+          lock.unlock();
         }
+        // Any other request waiting for this subscription now reports the failure
+        subscription.setStarted(true);
       }
-      _currentlyActiveSubscriptions.removeAll(securityUniqueId2NewSubscription.values());
 
       throw e;
+    }
 
-    } finally {
-      _subscriptionLock.unlock();
+    // Wait for any subscriptions being started by other requests; the distributors created for this request were removed with them if they failed
+    for (Map.Entry<LiveDataSpecification, Subscription> starting : specFromClient2StartingSubscription.entrySet()) {
+      final LiveDataSpecification specFromClient = starting.getKey();
+      try {
+        if (!starting.getValue().awaitStarted()) {
+          s_logger.info("Subscription to {} failed in another request", specFromClient);
+          responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.INTERNAL_ERROR,
+              "Subscription to underlying market data API failed"));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        responses.put(specFromClient.getIdentifiers(), buildErrorMessageResponse(specFromClient, LiveDataSubscriptionResult.INTERNAL_ERROR,
+            "Interrupted waiting for subscription to start"));
+      }
     }
 
     //notify that subscription data structure is completely built
@@ -926,7 +1104,8 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
 
     boolean actuallyUnsubscribed = false;
 
-    _subscriptionLock.lock();
+    final Lock lock = getSubscriptionLock(subscription.getSecurityUniqueId());
+    lock.lock();
     try {
       if (isSubscribedTo(subscription)) {
 
@@ -936,7 +1115,12 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
 
         Object subscriptionHandle = subscription.getHandle();
         if (subscriptionHandle != null) {
-          doUnsubscribe(Collections.singleton(subscriptionHandle)); // todo, optimize to use batch
+          _marketDataApiLock.lock();
+          try {
+            doUnsubscribe(Collections.singleton(subscriptionHandle)); // todo, optimize to use batch
+          } finally {
+            _marketDataApiLock.unlock();
+          }
         }
 
         _currentlyActiveSubscriptions.remove(subscription);
@@ -963,7 +1147,7 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
       }
 
     } finally {
-      _subscriptionLock.unlock();
+      lock.unlock();
     }
 
     return actuallyUnsubscribed;
@@ -979,7 +1163,8 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
    */
   public boolean stopDistributor(MarketDataDistributor distributor) {
     ArgumentChecker.notNull(distributor, "Distributor");
-    _subscriptionLock.lock();
+    final Lock lock = getSubscriptionLock(distributor.getSubscription().getSecurityUniqueId());
+    lock.lock();
     try {
       MarketDataDistributor realDistributor = getMarketDataDistributor(distributor.getDistributionSpec());
       if (realDistributor != distributor) {
@@ -994,7 +1179,7 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
         unsubscribe(distributor.getSubscription());
       }
     } finally {
-      _subscriptionLock.unlock();
+      lock.unlock();
     }
     return true;
   }
@@ -1002,8 +1187,9 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
   /**
    * Stops any expired, non-persistent, market data distributors.
    * <p>
-   * This holds the subscription lock for its duration. Checking each individual distributor for expiry and then calling {@link #stopDistributor} may incorrectly stop the distribution if another
-   * thread is currently subscribing to it.
+   * Each distributor is checked for expiry, and stopped, while holding the subscription lock for its security. Checking for expiry without the lock and then calling {@link #stopDistributor}
+   * may incorrectly stop the distribution if another thread is currently subscribing to it. Only one security's lock is held at a time so the sweep does not block subscription requests or
+   * snapshots for other securities.
    * <p>
    * This is normally called by the expiration manager.
    *
@@ -1011,17 +1197,18 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
    */
   public int expireSubscriptions() {
     int expired = 0;
-    _subscriptionLock.lock();
-    try {
-      for (MarketDataDistributor distributor : new ArrayList<>(_fullyQualifiedSpec2Distributor.values())) {
-        if (distributor.hasExpired()) {
-          if (stopDistributor(distributor)) {
+    for (MarketDataDistributor distributor : _fullyQualifiedSpec2Distributor.values()) {
+      if (distributor.hasExpired()) {
+        final Lock lock = getSubscriptionLock(distributor.getSubscription().getSecurityUniqueId());
+        lock.lock();
+        try {
+          if (distributor.hasExpired() && stopDistributor(distributor)) {
             expired++;
           }
+        } finally {
+          lock.unlock();
         }
       }
-    } finally {
-      _subscriptionLock.unlock();
     }
     return expired;
   }
@@ -1031,16 +1218,11 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
   }
 
   public boolean isSubscribedTo(LiveDataSpecification fullyQualifiedSpec) {
-    _subscriptionLock.lock();
-    try {
-      return _fullyQualifiedSpec2Distributor.containsKey(fullyQualifiedSpec);
-    } finally {
-      _subscriptionLock.unlock();
-    }
+    return _fullyQualifiedSpec2Distributor.containsKey(fullyQualifiedSpec);
   }
 
   public boolean isSubscribedTo(Subscription subscription) {
-    return getSubscriptions().contains(subscription);
+    return _currentlyActiveSubscriptions.contains(subscription);
   }
 
   public void liveDataReceived(String securityUniqueId, FudgeMsg liveDataFields) {
@@ -1098,12 +1280,7 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
   }
 
   public Set<Subscription> getSubscriptions() {
-    _subscriptionLock.lock();
-    try {
-      return new HashSet<>(_currentlyActiveSubscriptions);
-    } finally {
-      _subscriptionLock.unlock();
-    }
+    return new HashSet<>(_currentlyActiveSubscriptions);
   }
 
   public Subscription getSubscription(LiveDataSpecification fullyQualifiedSpec) {
@@ -1129,25 +1306,15 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
 
   public Map<LiveDataSpecification, MarketDataDistributor> getMarketDataDistributors(Collection<LiveDataSpecification> fullyQualifiedSpecs) {
     //NOTE: this is not much (if any) faster here, but for subclasses it can be
-    _subscriptionLock.lock();
-    try {
-      HashMap<LiveDataSpecification, MarketDataDistributor> hashMap = new HashMap<>();
-      for (LiveDataSpecification liveDataSpecification : fullyQualifiedSpecs) {
-        hashMap.put(liveDataSpecification, _fullyQualifiedSpec2Distributor.get(liveDataSpecification));
-      }
-      return hashMap;
-    } finally {
-      _subscriptionLock.unlock();
+    HashMap<LiveDataSpecification, MarketDataDistributor> hashMap = new HashMap<>();
+    for (LiveDataSpecification liveDataSpecification : fullyQualifiedSpecs) {
+      hashMap.put(liveDataSpecification, _fullyQualifiedSpec2Distributor.get(liveDataSpecification));
     }
+    return hashMap;
   }
 
   public MarketDataDistributor getMarketDataDistributor(LiveDataSpecification fullyQualifiedSpec) {
-    _subscriptionLock.lock();
-    try {
-      return _fullyQualifiedSpec2Distributor.get(fullyQualifiedSpec);
-    } finally {
-      _subscriptionLock.unlock();
-    }
+    return _fullyQualifiedSpec2Distributor.get(fullyQualifiedSpec);
   }
 
   /**
@@ -1241,7 +1408,8 @@ public abstract class StandardLiveDataServer implements LiveDataServer, Lifecycl
             Instant.ofEpochMilli(distributor.getExpiry()).toString(),
             distributor.hasExpired(),
             distributor.isPersistent(),
-            distributor.getNumMessagesSent()));
+            distributor.getNumMessagesSent(),
+            distributor.getNumMessagesConflated()));
       }
 
       return new SubscriptionTrace(identifier, instant.toString(), distributors, sub.getLiveDataHistory().getLastKnownValues().toString());
@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.fudgemsg.FudgeMsg;
@@ -64,6 +65,15 @@ public class Subscription {
    * The provider of last known value stores.
    */
   private final LastKnownValueStoreProvider _lkvStoreProvider;
+  /**
+   * Released once the subscription has been started with the underlying market data API, or starting it has failed.
+   * Null if the subscription was not created as starting.
+   */
+  private volatile CountDownLatch _starting;
+  /**
+   * Whether starting the subscription failed.
+   */
+  private volatile boolean _startFailed;
 
   /**
    * Creates an instance.
@@ -211,6 +221,49 @@ public class Subscription {
     return distributor;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Marks the subscription as being started with the underlying market data API. This must be called before the
+   * subscription is visible to other threads.
+   */
+  /*package*/ void setStarting() {
+    _starting = new CountDownLatch(1);
+  }
+
+  /**
+   * Marks the subscription as started, or as having failed to start, releasing any threads waiting for it.
+   * 
+   * @param failed  true if starting the subscription failed
+   */
+  /*package*/ void setStarted(boolean failed) {
+    _startFailed = failed;
+    _starting.countDown();
+  }
+
+  /**
+   * Checks whether the subscription is still being started with the underlying market data API.
+   * 
+   * @return true if it is being started
+   */
+  /*package*/ boolean isStarting() {
+    final CountDownLatch starting = _starting;
+    return (starting != null) && (starting.getCount() > 0);
+  }
+
+  /**
+   * Waits for the subscription to be started with the underlying market data API.
+   * 
+   * @return true if it was started, false if starting it failed
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  /*package*/ boolean awaitStarted() throws InterruptedException {
+    final CountDownLatch starting = _starting;
+    if (starting != null) {
+      starting.await();
+    }
+    return !_startFailed;
+  }
+
   /*package*/ void removeDistributor(MarketDataDistributor distributor) {
     removeDistributor(distributor.getDistributionSpec());
   }
@@ -218,6 +271,7 @@ public class Subscription {
   /*package*/ void removeDistributor(DistributionSpecification spec) {
     MarketDataDistributor removed = _distributors.remove(spec);
     if (removed != null) {
+      removed.discardPendingUpdate();
       s_logger.info("Removed {} from {}", removed, this);      
     } else {
       s_logger.info("Removed distribution spec {} from {} (no-op)", spec, this);
@@ -226,6 +280,9 @@ public class Subscription {
 
   /*package*/ void removeAllDistributors() {
     s_logger.info("Removed {} from {}", _distributors, this);
+    for (MarketDataDistributor distributor : _distributors.values()) {
+      distributor.discardPendingUpdate();
+    }
     _distributors.clear();
   }
 
@@ -0,0 +1,436 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.server.distribution;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.fudgemsg.FudgeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.jms.core.MessageCreator;
+
+import com.opengamma.livedata.LiveDataSpecification;
+import com.opengamma.livedata.LiveDataValueUpdateBatchCodec;
+import com.opengamma.livedata.LiveDataValueUpdateBean;
+import com.opengamma.livedata.server.FieldHistoryStore;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.jms.JmsConnector;
+
+/**
+ * Factory to create JMS senders that publish updates in batches.
+ * <p>
+ * Updates are held per JMS topic and published periodically, or as soon as a topic has a full batch, as a single message encoded with {@link LiveDataValueUpdateBatchCodec}. Repeated updates
+ * for a specification within a batch are merged, keeping the latest value of each field. This reduces the number of JMS messages when many specifications share a topic, for example when a
+ * topic name resolver maps a whole exchange or asset class to one topic.
+ * <p>
+ * Clients must be able to decode batches; {@code JmsLiveDataClient} accepts both batches and the individual Fudge messages sent by {@link JmsSenderFactory}. While the transport is interrupted
+ * updates continue to be merged and are published when it resumes.
+ */
+public class BatchingJmsSenderFactory implements MarketDataSenderFactory, Lifecycle {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(BatchingJmsSenderFactory.class);
+
+  /**
+   * The default interval between publishing batches, in milliseconds.
+   */
+  public static final long DEFAULT_PUBLISH_INTERVAL_MILLIS = 50;
+  /**
+   * The default maximum number of updates in a batch.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+  /**
+   * The JMS connector.
+   */
+  private JmsConnector _jmsConnector;
+  /**
+   * The Fudge context.
+   */
+  private FudgeContext _fudgeContext = OpenGammaFudgeContext.getInstance();
+  /**
+   * The interval between publishing batches.
+   */
+  private long _publishIntervalMillis = DEFAULT_PUBLISH_INTERVAL_MILLIS;
+  /**
+   * The maximum number of updates in a batch.
+   */
+  private int _maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  /**
+   * The pending updates, keyed by JMS topic. All access to this must hold the lock on this map.
+   */
+  private final Map<String, Map<LiveDataSpecification, PendingUpdate>> _pending = new HashMap<>();
+  /**
+   * Held while batches are taken from the pending updates and sent, so that batches for a topic are sent in the order they were taken. Threads
+   * adding updates only wait for this when they fill a batch. Access to the codec must hold this lock.
+   */
+  private final Object _sendLock = new Object();
+  /**
+   * The encoder, created on first use.
+   */
+  private LiveDataValueUpdateBatchCodec _codec;
+  /**
+   * Whether the transport is interrupted.
+   */
+  private volatile boolean _interrupted;
+  /**
+   * The number of batches sent.
+   */
+  private final AtomicLong _batchesSent = new AtomicLong();
+  /**
+   * The number of updates sent.
+   */
+  private final AtomicLong _updatesSent = new AtomicLong();
+  /**
+   * The publishing scheduler, when running.
+   */
+  private ScheduledExecutorService _scheduler;
+  private ScheduledFuture<?> _publishTask;
+
+  /**
+   * Creates an instance.
+   */
+  public BatchingJmsSenderFactory() {
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param jmsConnector  the JMS connector
+   */
+  public BatchingJmsSenderFactory(JmsConnector jmsConnector) {
+    setJmsConnector(jmsConnector);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the JMS connector.
+   *
+   * @return the JMS connector
+   */
+  public JmsConnector getJmsConnector() {
+    return _jmsConnector;
+  }
+
+  /**
+   * Sets the JMS connector.
+   *
+   * @param jmsConnector  the connector
+   */
+  public void setJmsConnector(JmsConnector jmsConnector) {
+    _jmsConnector = jmsConnector;
+  }
+
+  /**
+   * Gets the Fudge context.
+   *
+   * @return the Fudge context
+   */
+  public FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
+  /**
+   * Sets the Fudge context.
+   *
+   * @param fudgeContext  the Fudge context
+   */
+  public void setFudgeContext(FudgeContext fudgeContext) {
+    _fudgeContext = fudgeContext;
+  }
+
+  /**
+   * Gets the interval between publishing batches.
+   *
+   * @return the interval in milliseconds
+   */
+  public long getPublishIntervalMillis() {
+    return _publishIntervalMillis;
+  }
+
+  /**
+   * Sets the interval between publishing batches. This takes effect when the factory is next started.
+   *
+   * @param publishIntervalMillis  the interval in milliseconds, greater than zero
+   */
+  public void setPublishIntervalMillis(long publishIntervalMillis) {
+    ArgumentChecker.isTrue(publishIntervalMillis > 0, "publishIntervalMillis must be positive");
+    _publishIntervalMillis = publishIntervalMillis;
+  }
+
+  /**
+   * Gets the maximum number of updates in a batch.
+   *
+   * @return the maximum batch size
+   */
+  public int getMaxBatchSize() {
+    return _maxBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of updates in a batch. A topic with this many pending updates is published immediately.
+   *
+   * @param maxBatchSize  the maximum batch size, greater than zero
+   */
+  public void setMaxBatchSize(int maxBatchSize) {
+    ArgumentChecker.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+    _maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Gets the number of batches sent.
+   *
+   * @return the number of batches
+   */
+  public long getBatchesSent() {
+    return _batchesSent.get();
+  }
+
+  /**
+   * Gets the number of updates sent. This excludes updates that were merged into a later one before being sent.
+   *
+   * @return the number of updates
+   */
+  public long getUpdatesSent() {
+    return _updatesSent.get();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Indicates that the transport was interrupted. Updates are held until it resumes.
+   */
+  public void transportInterrupted() {
+    s_logger.error("JMS transport interrupted; holding batched updates");
+    _interrupted = true;
+  }
+
+  /**
+   * Indicates that the transport has resumed. Held updates are published on the next scheduled publish.
+   */
+  public void transportResumed() {
+    s_logger.info("JMS transport resumed");
+    _interrupted = false;
+  }
+
+  @Override
+  public Collection<MarketDataSender> create(MarketDataDistributor distributor) {
+    s_logger.debug("Created batching JMS sender for {}", distributor);
+    return Collections.<MarketDataSender>singleton(new Sender(distributor));
+  }
+
+  //-------------------------------------------------------------------------
+  /* package */void enqueue(final String topic, final LiveDataValueUpdateBean update) {
+    synchronized (_pending) {
+      Map<LiveDataSpecification, PendingUpdate> updates = _pending.get(topic);
+      if (updates == null) {
+        updates = new LinkedHashMap<>();
+        _pending.put(topic, updates);
+      }
+      PendingUpdate pending = updates.get(update.getSpecification());
+      if (pending == null) {
+        pending = new PendingUpdate();
+        updates.put(update.getSpecification(), pending);
+      }
+      pending.merge(update);
+      if ((updates.size() < getMaxBatchSize()) || _interrupted) {
+        return;
+      }
+    }
+    synchronized (_sendLock) {
+      final Map<LiveDataSpecification, PendingUpdate> updates;
+      synchronized (_pending) {
+        // Another thread may have sent the batch while this one waited
+        updates = _pending.get(topic);
+        if ((updates == null) || (updates.size() < getMaxBatchSize()) || _interrupted) {
+          return;
+        }
+        _pending.remove(topic);
+      }
+      send(topic, updates);
+    }
+  }
+
+  /**
+   * Publishes all pending updates, unless the transport is interrupted.
+   */
+  public void publish() {
+    if (_interrupted) {
+      return;
+    }
+    synchronized (_sendLock) {
+      final Map<String, Map<LiveDataSpecification, PendingUpdate>> pending;
+      synchronized (_pending) {
+        if (_pending.isEmpty()) {
+          return;
+        }
+        pending = new HashMap<>(_pending);
+        _pending.clear();
+      }
+      for (Map.Entry<String, Map<LiveDataSpecification, PendingUpdate>> topic : pending.entrySet()) {
+        send(topic.getKey(), topic.getValue());
+      }
+    }
+  }
+
+  /**
+   * Sends a batch taken from the pending updates. If it can't be sent, the updates are returned to the pending updates, beneath any that arrived
+   * since, to be sent with the next batch for the topic. The caller must hold the send lock.
+   */
+  private void send(final String topic, final Map<LiveDataSpecification, PendingUpdate> updates) {
+    try {
+      send(topic, updates.values());
+    } catch (RuntimeException e) {
+      s_logger.error("Failed to send batch of " + updates.size() + " updates to " + topic + "; holding them for the next batch", e);
+      synchronized (_pending) {
+        final Map<LiveDataSpecification, PendingUpdate> later = _pending.put(topic, updates);
+        if (later != null) {
+          for (Map.Entry<LiveDataSpecification, PendingUpdate> update : later.entrySet()) {
+            final PendingUpdate earlier = updates.get(update.getKey());
+            if (earlier != null) {
+              earlier.merge(update.getValue());
+            } else {
+              updates.put(update.getKey(), update.getValue());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void send(final String topic, final Collection<PendingUpdate> updates) {
+    final List<LiveDataValueUpdateBean> batch = new ArrayList<>(updates.size());
+    for (PendingUpdate update : updates) {
+      batch.add(update.toBean());
+    }
+    if (_codec == null) {
+      _codec = new LiveDataValueUpdateBatchCodec(getFudgeContext());
+    }
+    final ByteBuffer buffer = _codec.encode(batch);
+    s_logger.debug("Sending batch of {} updates ({} bytes) to {}", batch.size(), buffer.limit(), topic);
+    _jmsConnector.getJmsTemplateTopic().send(topic, new MessageCreator() {
+      @Override
+      public Message createMessage(Session session) throws JMSException {
+        BytesMessage bytesMessage = session.createBytesMessage();
+        bytesMessage.writeBytes(buffer.array(), buffer.arrayOffset(), buffer.limit());
+        return bytesMessage;
+      }
+    });
+    _batchesSent.incrementAndGet();
+    _updatesSent.addAndGet(batch.size());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public synchronized void start() {
+    if (_scheduler == null) {
+      _scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadPoolFactory("LiveDataBatchPublisher", true));
+      _publishTask = _scheduler.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            publish();
+          } catch (RuntimeException e) {
+            s_logger.error("Failed to publish batched updates", e);
+          }
+        }
+      }, getPublishIntervalMillis(), getPublishIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (_scheduler != null) {
+      _publishTask.cancel(false);
+      _scheduler.shutdown();
+      _scheduler = null;
+      _publishTask = null;
+      publish();
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return _scheduler != null;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The updates for one specification that have not yet been sent.
+   */
+  private static final class PendingUpdate {
+
+    private final FieldHistoryStore _fields = new FieldHistoryStore();
+    private LiveDataSpecification _specification;
+    private long _sequenceNumber;
+
+    public void merge(final LiveDataValueUpdateBean update) {
+      _fields.liveDataReceived(update.getFields());
+      _specification = update.getSpecification();
+      _sequenceNumber = update.getSequenceNumber();
+    }
+
+    public void merge(final PendingUpdate later) {
+      _fields.liveDataReceived(later._fields.getLastKnownValues());
+      _specification = later._specification;
+      _sequenceNumber = later._sequenceNumber;
+    }
+
+    public LiveDataValueUpdateBean toBean() {
+      return new LiveDataValueUpdateBean(_sequenceNumber, _specification, _fields.getLastKnownValues());
+    }
+
+  }
+
+  /**
+   * The sender for one distributor, which adds its updates to the pending batch for its topic.
+   */
+  private final class Sender implements MarketDataSender {
+
+    private final MarketDataDistributor _distributor;
+
+    public Sender(final MarketDataDistributor distributor) {
+      _distributor = distributor;
+    }
+
+    @Override
+    public MarketDataDistributor getDistributor() {
+      return _distributor;
+    }
+
+    @Override
+    public void sendMarketData(LiveDataValueUpdateBean data) {
+      final DistributionSpecification distributionSpec = _distributor.getDistributionSpec();
+      enqueue(distributionSpec.getJmsTopic(), new LiveDataValueUpdateBean(data.getSequenceNumber(), distributionSpec.getFullyQualifiedLiveDataSpecification(), data.getFields()));
+    }
+
+    @Override
+    public String toString() {
+      return "BatchingJmsSender[" + _distributor.getDistributionSpec().toString() + "]";
+    }
+
+  }
+
+}
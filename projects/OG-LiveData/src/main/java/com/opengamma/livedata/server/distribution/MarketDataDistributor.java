@@ -6,6 +6,10 @@
 package com.opengamma.livedata.server.distribution;
 
 import java.util.Collection;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.fudgemsg.FudgeMsg;
@@ -59,6 +63,37 @@ public class MarketDataDistributor {
    * Stores how many normalized messages have been sent to clients.  
    */
   private final AtomicLong _numMessagesSent = new AtomicLong(0);
+  /**
+   * Stores how many normalized updates have been merged into a later message instead of being sent.
+   */
+  private final AtomicLong _numMessagesConflated = new AtomicLong(0);
+  /**
+   * The minimum interval between messages sent to clients, in milliseconds.
+   * Zero means every normalized update is sent immediately.
+   */
+  private long _publishIntervalMillis;
+  /**
+   * Used to send conflated updates at the end of a publish interval.
+   */
+  private ScheduledExecutorService _publishScheduler;
+  /**
+   * Fields of the normalized updates received since the last message was
+   * sent, merged field by field so that a partial update doesn't lose
+   * fields from an earlier one it replaces.
+   */
+  private final FieldHistoryStore _pendingUpdate = new FieldHistoryStore();
+  /**
+   * The number of normalized updates merged into the pending update.
+   */
+  private int _pendingUpdateCount;
+  /**
+   * When the last message was sent, as milliseconds from UTC epoch.
+   */
+  private long _lastPublishMillis;
+  /**
+   * The scheduled send of the pending update, null if none is scheduled.
+   */
+  private ScheduledFuture<?> _publishFuture;
   /**
    * Whether this distributor is persistent. 
    * <p>
@@ -150,6 +185,71 @@ public class MarketDataDistributor {
     return _numMessagesSent.get();
   }
 
+  /**
+   * Gets the number of normalized updates that were merged into a later
+   * message instead of being sent.
+   * 
+   * @return the conflated message count
+   */
+  public long getNumMessagesConflated() {
+    return _numMessagesConflated.get();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the minimum interval between messages sent to clients.
+   * 
+   * @return the interval in milliseconds, zero if every update is sent immediately
+   */
+  public synchronized long getPublishIntervalMillis() {
+    return _publishIntervalMillis;
+  }
+
+  /**
+   * Sets the minimum interval between messages sent to clients.
+   * <p>
+   * Updates that arrive within the interval of the last message are not sent
+   * immediately; their fields are merged into a single message that is sent
+   * when the interval expires. The last known values are still updated as
+   * every tick arrives.
+   * 
+   * @param publishIntervalMillis  the interval in milliseconds, zero to send every update immediately
+   * @param publishScheduler  used to send merged updates when the interval expires, not null if the interval is non-zero
+   */
+  public synchronized void setPublishInterval(long publishIntervalMillis, ScheduledExecutorService publishScheduler) {
+    ArgumentChecker.notNegative(publishIntervalMillis, "publishIntervalMillis");
+    if (publishIntervalMillis > 0) {
+      ArgumentChecker.notNull(publishScheduler, "publishScheduler");
+    }
+    if ((publishIntervalMillis == 0) || (publishScheduler != _publishScheduler)) {
+      cancelScheduledPublish();
+    }
+    _publishIntervalMillis = publishIntervalMillis;
+    _publishScheduler = publishScheduler;
+    if (!_pendingUpdate.isEmpty() && (_publishFuture == null)) {
+      if (publishIntervalMillis == 0) {
+        publishPendingUpdate();
+      } else {
+        schedulePublish();
+      }
+    }
+  }
+
+  /**
+   * Cancels the scheduled send of any merged updates and discards them. Any
+   * further updates are sent immediately.
+   * <p>
+   * This is called when the distributor is removed so that nothing is sent
+   * from it after that.
+   */
+  public synchronized void discardPendingUpdate() {
+    cancelScheduledPublish();
+    _pendingUpdate.clear();
+    _pendingUpdateCount = 0;
+    _publishIntervalMillis = 0;
+    _publishScheduler = null;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets a snapshot of data, returning the latest value.
@@ -223,29 +323,93 @@ public class MarketDataDistributor {
     
     if (normalizedMsg != null) {
       updateLastKnownValues(normalizedMsg);
-      
-      LiveDataValueUpdateBean data = new LiveDataValueUpdateBean(
-          getNumMessagesSent(), // 0-based as it should be
-          getDistributionSpec().getFullyQualifiedLiveDataSpecification(),
-          normalizedMsg);
-      
-      s_logger.debug("{}: Sending Live Data update {}", this, data);
-      
-      for (MarketDataSender sender : _marketDataSenders) {
-        try {
-          sender.sendMarketData(data);
-        } catch (RuntimeException e) {
-          s_logger.error(sender + " failed", e);
-        }
+      if (_publishIntervalMillis == 0) {
+        send(normalizedMsg);
+        return;
+      }
+      _pendingUpdate.liveDataReceived(normalizedMsg);
+      _pendingUpdateCount++;
+      if (_publishFuture == null) {
+        schedulePublish();
       }
-      
-      _numMessagesSent.incrementAndGet();
-    
     } else {
       s_logger.debug("{}: Not sending Live Data update (message extinguished).", this);
     }
   }
 
+  /**
+   * Sends the pending update when the publish interval expires, or immediately if it already has. The caller must hold the monitor.
+   */
+  private void schedulePublish() {
+    final long delay = _lastPublishMillis + _publishIntervalMillis - System.currentTimeMillis();
+    if (delay > 0) {
+      try {
+        _publishFuture = _publishScheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            publishScheduledUpdate();
+          }
+        }, delay, TimeUnit.MILLISECONDS);
+        return;
+      } catch (RejectedExecutionException e) {
+        s_logger.warn("{}: Publish scheduler has been shut down; sending update immediately", this);
+      }
+    }
+    publishPendingUpdate();
+  }
+
+  /**
+   * Cancels the scheduled send of the pending update, if any. The caller must hold the monitor.
+   */
+  private void cancelScheduledPublish() {
+    if (_publishFuture != null) {
+      _publishFuture.cancel(false);
+      _publishFuture = null;
+    }
+  }
+
+  private synchronized void publishScheduledUpdate() {
+    if (_publishFuture == null) {
+      // Cancelled after it started to run
+      return;
+    }
+    _publishFuture = null;
+    if (!_pendingUpdate.isEmpty()) {
+      publishPendingUpdate();
+    }
+  }
+
+  /**
+   * Sends the merged fields of the updates received since the last message. The caller must hold the monitor.
+   */
+  private void publishPendingUpdate() {
+    final FudgeMsg msg = _pendingUpdate.getLastKnownValues();
+    _numMessagesConflated.addAndGet(_pendingUpdateCount - 1);
+    _pendingUpdate.clear();
+    _pendingUpdateCount = 0;
+    _lastPublishMillis = System.currentTimeMillis();
+    send(msg);
+  }
+
+  private void send(FudgeMsg normalizedMsg) {
+    LiveDataValueUpdateBean data = new LiveDataValueUpdateBean(
+        getNumMessagesSent(), // 0-based as it should be
+        getDistributionSpec().getFullyQualifiedLiveDataSpecification(),
+        normalizedMsg);
+    
+    s_logger.debug("{}: Sending Live Data update {}", this, data);
+    
+    for (MarketDataSender sender : _marketDataSenders) {
+      try {
+        sender.sendMarketData(data);
+      } catch (RuntimeException e) {
+        s_logger.error(sender + " failed", e);
+      }
+    }
+    
+    _numMessagesSent.incrementAndGet();
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the expiry instant.
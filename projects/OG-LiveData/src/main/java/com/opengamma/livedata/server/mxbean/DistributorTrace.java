@@ -15,13 +15,15 @@ public class DistributorTrace {
   private final boolean _hasExpired;
   private final boolean _isPersistent;
   private final long _messagesSent;
+  private final long _messagesConflated;
 
-  public DistributorTrace(String jmsTopic, String expiry, boolean hasExpired, boolean persistent, long messagesSent) {
+  public DistributorTrace(String jmsTopic, String expiry, boolean hasExpired, boolean persistent, long messagesSent, long messagesConflated) {
     _jmsTopic = jmsTopic;
     _expiry = expiry;
     _hasExpired = hasExpired;
     _isPersistent = persistent;
     _messagesSent = messagesSent;
+    _messagesConflated = messagesConflated;
   }
 
   public String getJmsTopic() {
@@ -44,4 +46,8 @@ public class DistributorTrace {
     return _messagesSent;
   }
 
+  public long getMessagesConflated() {
+    return _messagesConflated;
+  }
+
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeSerializer;
+import org.testng.annotations.Test;
+
+import com.opengamma.id.ExternalId;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link LiveDataValueUpdateBatchCodec} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class LiveDataValueUpdateBatchCodecTest {
+
+  private static final FudgeContext FUDGE_CONTEXT = OpenGammaFudgeContext.getInstance();
+  private static final LiveDataSpecification SPEC_A = new LiveDataSpecification("Rules", ExternalId.of("Test", "A"));
+  private static final LiveDataSpecification SPEC_B = new LiveDataSpecification("Rules", ExternalId.of("Test", "B"));
+
+  private static byte[] toBytes(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.limit()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  public void testRoundTrip() {
+    final MutableFudgeMsg fieldsA = FUDGE_CONTEXT.newMessage();
+    fieldsA.add("Bid", 1.5d);
+    fieldsA.add("Ask", 1.6d);
+    fieldsA.add("Volume", 1234567890123L);
+    fieldsA.add("Count", 7);
+    fieldsA.add("Status", "Open");
+    final MutableFudgeMsg nested = FUDGE_CONTEXT.newMessage();
+    nested.add("Inner", 2d);
+    fieldsA.add("Nested", nested);
+    fieldsA.add(null, 3, "Ordinal");
+    final MutableFudgeMsg fieldsB = FUDGE_CONTEXT.newMessage();
+    fieldsB.add("Bid", 99d);
+    final List<LiveDataValueUpdateBean> updates = Arrays.asList(new LiveDataValueUpdateBean(1, SPEC_A, fieldsA), new LiveDataValueUpdateBean(2, SPEC_B, fieldsB),
+        new LiveDataValueUpdateBean(3, SPEC_A, fieldsB));
+    final LiveDataValueUpdateBatchCodec codec = new LiveDataValueUpdateBatchCodec(FUDGE_CONTEXT);
+    final byte[] bytes = toBytes(codec.encode(updates));
+    assertTrue(LiveDataValueUpdateBatchCodec.isBatch(bytes));
+    final List<LiveDataValueUpdateBean> decoded = codec.decode(bytes);
+    assertEquals(updates.size(), decoded.size());
+    for (int i = 0; i < updates.size(); i++) {
+      assertEquals(updates.get(i).getSequenceNumber(), decoded.get(i).getSequenceNumber());
+      assertEquals(updates.get(i).getSpecification(), decoded.get(i).getSpecification());
+      assertEquals(updates.get(i).getFields().getNumFields(), decoded.get(i).getFields().getNumFields());
+    }
+    assertEquals(1.5d, decoded.get(0).getFields().getDouble("Bid"));
+    assertEquals(1234567890123L, (long) decoded.get(0).getFields().getLong("Volume"));
+    assertEquals(7, (int) decoded.get(0).getFields().getInt("Count"));
+    assertEquals("Open", decoded.get(0).getFields().getString("Status"));
+    assertEquals(2d, decoded.get(0).getFields().getMessage("Nested").getDouble("Inner"));
+    assertEquals("Ordinal", decoded.get(0).getFields().getString(3));
+    assertEquals(99d, decoded.get(2).getFields().getDouble("Bid"));
+  }
+
+  public void testBufferReuse() {
+    final LiveDataValueUpdateBatchCodec codec = new LiveDataValueUpdateBatchCodec(FUDGE_CONTEXT);
+    final MutableFudgeMsg fields = FUDGE_CONTEXT.newMessage();
+    for (int i = 0; i < 1000; i++) {
+      fields.add("Field" + i, (double) i);
+    }
+    final byte[] large = toBytes(codec.encode(Arrays.asList(new LiveDataValueUpdateBean(1, SPEC_A, fields))));
+    final byte[] small = toBytes(codec.encode(Arrays.asList(new LiveDataValueUpdateBean(2, SPEC_B, FUDGE_CONTEXT.newMessage()))));
+    assertTrue(small.length < large.length);
+    assertEquals(1000, codec.decode(large).get(0).getFields().getNumFields());
+    assertEquals(SPEC_B, codec.decode(small).get(0).getSpecification());
+  }
+
+  public void testFudgeMessageIsNotBatch() {
+    final LiveDataValueUpdateBean update = new LiveDataValueUpdateBean(1, SPEC_A, FUDGE_CONTEXT.newMessage());
+    final byte[] bytes = FUDGE_CONTEXT.toByteArray(LiveDataValueUpdateBeanFudgeBuilder.toFudgeMsg(new FudgeSerializer(FUDGE_CONTEXT), update));
+    assertFalse(LiveDataValueUpdateBatchCodec.isBatch(bytes));
+    assertFalse(LiveDataValueUpdateBatchCodec.isBatch(new byte[2]));
+  }
+
+}
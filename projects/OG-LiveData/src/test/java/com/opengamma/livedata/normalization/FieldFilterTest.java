@@ -7,6 +7,7 @@ package com.opengamma.livedata.normalization;
 
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -65,4 +66,16 @@ public class FieldFilterTest {
     assertNull(normalized);
   }
 
+  public void allFieldsAccepted() {
+    FieldFilter filter = new FieldFilter("Foo", "Bar");
+    
+    MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("Foo", "1");
+    msg.add("Bar", 2.0);
+    
+    MutableFudgeMsg normalized = filter.apply(msg, "123", new FieldHistoryStore());
+    assertSame(msg, normalized);
+    assertNull(filter.apply(OpenGammaFudgeContext.getInstance().newMessage(), "123", new FieldHistoryStore()));
+  }
+
 }
@@ -5,6 +5,7 @@
  */
 package com.opengamma.livedata.normalization;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 
 import org.fudgemsg.FudgeMsg;
@@ -40,4 +41,33 @@ public class NormalizationRuleSetTest {
     assertNull(normalizedMsg);
   }
 
+  /**
+   * Leading field filters are applied while copying the message; the rules after them must see the filtered copy
+   * and must not modify the original.
+   */
+  public void leadingFieldFilters() {
+    NormalizationRuleSet ruleSet = new NormalizationRuleSet(
+        "Testing",
+        new FieldFilter("Foo", "Bar", "Baz"),
+        new FieldFilter("Foo", "Bar"),
+        new UnitChange("Foo", 10.0),
+        new FieldFilter("Foo"));
+    
+    MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("Foo", 2.0);
+    msg.add("Bar", 3.0);
+    msg.add("Baz", 4.0);
+    msg.add("Qux", 5.0);
+    
+    FudgeMsg normalizedMsg = ruleSet.getNormalizedMessage(msg, "123", new FieldHistoryStore());
+    assertEquals(1, normalizedMsg.getNumFields());
+    assertEquals(20.0, normalizedMsg.getDouble("Foo"), 0.0001);
+    assertEquals(4, msg.getNumFields());
+    assertEquals(2.0, msg.getDouble("Foo"), 0.0001);
+    
+    MutableFudgeMsg rejected = OpenGammaFudgeContext.getInstance().newMessage();
+    rejected.add("Baz", 4.0);
+    assertNull(ruleSet.getNormalizedMessage(rejected, "123", new FieldHistoryStore()));
+  }
+
 }
@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.server;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalScheme;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link MappedFileLastKnownValueStoreProvider} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class MappedFileLastKnownValueStoreProviderTest {
+
+  private static final ExternalScheme SCHEME = ExternalScheme.of("Test");
+  private static final String RULES = "Rules";
+  /**
+   * The size of a record header; the payload length and its checksum.
+   */
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private MappedFileLastKnownValueStoreProvider createProvider(final File file, final int capacity) {
+    final MappedFileLastKnownValueStoreProvider provider = new MappedFileLastKnownValueStoreProvider();
+    provider.setFile(file);
+    provider.setCapacity(capacity);
+    return provider;
+  }
+
+  private File createFile() throws IOException {
+    final File file = File.createTempFile("MappedFileLastKnownValueStoreProviderTest", ".lkv");
+    file.deleteOnExit();
+    return file;
+  }
+
+  private FudgeMsg fields(final double bid, final double ask) {
+    final MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("Bid", bid);
+    msg.add("Ask", ask);
+    return msg;
+  }
+
+  public void valuesRecoveredOnRestart() throws IOException {
+    final File file = createFile();
+    MappedFileLastKnownValueStoreProvider provider = createProvider(file, 64 * 1024);
+    try {
+      final LastKnownValueStore store = provider.newInstance(ExternalId.of(SCHEME, "A"), RULES);
+      assertTrue(store.isEmpty());
+      store.updateFields(fields(1d, 2d));
+      final MutableFudgeMsg bid = OpenGammaFudgeContext.getInstance().newMessage();
+      bid.add("Bid", 1.5d);
+      store.updateFields(bid);
+      provider.newInstance(ExternalId.of(SCHEME, "B"), RULES).updateFields(fields(3d, 4d));
+      provider.newInstance(ExternalId.of(SCHEME, "C"), RULES);
+    } finally {
+      provider.close();
+    }
+    provider = createProvider(file, 64 * 1024);
+    try {
+      assertTrue(provider.isAvailable(ExternalId.of(SCHEME, "A"), RULES));
+      assertFalse(provider.isAvailable(ExternalId.of(SCHEME, "A"), "Other"));
+      assertFalse(provider.isAvailable(ExternalId.of(SCHEME, "C"), RULES));
+      assertEquals(Sets.newHashSet("A", "B"), provider.getAllIdentifiers(SCHEME.getName()));
+      final FudgeMsg a = provider.newInstance(ExternalId.of(SCHEME, "A"), RULES).getFields();
+      assertEquals(1.5d, a.getDouble("Bid"));
+      assertEquals(2d, a.getDouble("Ask"));
+      // Updates after recovery are appended to the recovered log
+      provider.newInstance(ExternalId.of(SCHEME, "B"), RULES).updateFields(fields(5d, 6d));
+    } finally {
+      provider.close();
+    }
+    provider = createProvider(file, 64 * 1024);
+    try {
+      assertEquals(5d, provider.newInstance(ExternalId.of(SCHEME, "B"), RULES).getFields().getDouble("Bid"));
+      assertEquals(1.5d, provider.newInstance(ExternalId.of(SCHEME, "A"), RULES).getFields().getDouble("Bid"));
+    } finally {
+      provider.close();
+    }
+  }
+
+  public void compaction() throws IOException {
+    final File file = createFile();
+    MappedFileLastKnownValueStoreProvider provider = createProvider(file, 1024);
+    try {
+      final LastKnownValueStore store = provider.newInstance(ExternalId.of(SCHEME, "A"), RULES);
+      for (int i = 0; i < 1000; i++) {
+        store.updateFields(fields(i, i + 1));
+      }
+      assertEquals(1024, file.length());
+      // Enough securities to force the log to grow
+      for (int i = 0; i < 100; i++) {
+        provider.newInstance(ExternalId.of(SCHEME, "S" + i), RULES).updateFields(fields(i, i));
+      }
+      assertTrue(file.length() > 1024);
+    } finally {
+      provider.close();
+    }
+    provider = createProvider(file, 1024);
+    try {
+      assertEquals(999d, provider.newInstance(ExternalId.of(SCHEME, "A"), RULES).getFields().getDouble("Bid"));
+      assertEquals(1000d, provider.newInstance(ExternalId.of(SCHEME, "A"), RULES).getFields().getDouble("Ask"));
+      assertEquals(101, provider.getAllIdentifiers(SCHEME.getName()).size());
+      assertEquals(42d, provider.newInstance(ExternalId.of(SCHEME, "S42"), RULES).getFields().getDouble("Bid"));
+    } finally {
+      provider.close();
+    }
+  }
+
+  public void concurrentUpdates() throws Exception {
+    final File file = createFile();
+    // Small enough that the log is compacted while the threads are writing to it
+    MappedFileLastKnownValueStoreProvider provider = createProvider(file, 4096);
+    final int threads = 4;
+    final int updates = 500;
+    try {
+      final MappedFileLastKnownValueStoreProvider writer = provider;
+      final Thread[] workers = new Thread[threads];
+      for (int i = 0; i < threads; i++) {
+        final LastKnownValueStore store = provider.newInstance(ExternalId.of(SCHEME, "T" + i), RULES);
+        workers[i] = new Thread() {
+          @Override
+          public void run() {
+            for (int j = 0; j < updates; j++) {
+              store.updateFields(fields(j, j + 1));
+            }
+            writer.flush();
+          }
+        };
+        workers[i].start();
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } finally {
+      provider.close();
+    }
+    provider = createProvider(file, 4096);
+    try {
+      for (int i = 0; i < threads; i++) {
+        final FudgeMsg values = provider.newInstance(ExternalId.of(SCHEME, "T" + i), RULES).getFields();
+        assertEquals(updates - 1d, values.getDouble("Bid"));
+        assertEquals((double) updates, values.getDouble("Ask"));
+      }
+    } finally {
+      provider.close();
+    }
+  }
+
+  /**
+   * Writes three records and returns the position of the second.
+   */
+  private long writeRecords(final File file) throws IOException {
+    final MappedFileLastKnownValueStoreProvider provider = createProvider(file, 64 * 1024);
+    try {
+      provider.newInstance(ExternalId.of(SCHEME, "A"), RULES).updateFields(fields(1d, 2d));
+      provider.newInstance(ExternalId.of(SCHEME, "B"), RULES).updateFields(fields(3d, 4d));
+      provider.newInstance(ExternalId.of(SCHEME, "C"), RULES).updateFields(fields(5d, 6d));
+    } finally {
+      provider.close();
+    }
+    try (RandomAccessFile log = new RandomAccessFile(file, "r")) {
+      return RECORD_HEADER_SIZE + log.readInt();
+    }
+  }
+
+  /**
+   * Checks that replay stopped at a damaged record, clearing the rest of the log, and that later updates are recovered.
+   */
+  private void assertDiscardedFrom(final File file, final long position) throws IOException {
+    MappedFileLastKnownValueStoreProvider provider = createProvider(file, 64 * 1024);
+    try {
+      assertEquals(Sets.newHashSet("A"), provider.getAllIdentifiers(SCHEME.getName()));
+    } finally {
+      provider.close();
+    }
+    try (RandomAccessFile log = new RandomAccessFile(file, "r")) {
+      log.seek(position);
+      final byte[] tail = new byte[(int) (log.length() - position)];
+      log.readFully(tail);
+      for (byte b : tail) {
+        assertEquals(0, b);
+      }
+    }
+    provider = createProvider(file, 64 * 1024);
+    try {
+      provider.newInstance(ExternalId.of(SCHEME, "D"), RULES).updateFields(fields(7d, 8d));
+    } finally {
+      provider.close();
+    }
+    provider = createProvider(file, 64 * 1024);
+    try {
+      assertEquals(Sets.newHashSet("A", "D"), provider.getAllIdentifiers(SCHEME.getName()));
+      assertEquals(7d, provider.newInstance(ExternalId.of(SCHEME, "D"), RULES).getFields().getDouble("Bid"));
+    } finally {
+      provider.close();
+    }
+  }
+
+  public void corruptRecordDiscarded() throws IOException {
+    final File file = createFile();
+    final long position = writeRecords(file);
+    try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+      log.seek(position);
+      final long damaged = position + RECORD_HEADER_SIZE + log.readInt() / 2;
+      log.seek(damaged);
+      final int b = log.read();
+      log.seek(damaged);
+      log.write(b ^ 0xFF);
+    }
+    assertDiscardedFrom(file, position);
+  }
+
+  public void incompleteRecordDiscarded() throws IOException {
+    final File file = createFile();
+    final long position = writeRecords(file);
+    try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+      // A record that runs past the end of the log
+      log.seek(position);
+      log.writeInt(Integer.MAX_VALUE);
+    }
+    assertDiscardedFrom(file, position);
+  }
+
+  /**
+   * Replication target whose stores hold up the first update they receive until released.
+   */
+  private static final class ReplicationTarget implements LastKnownValueStoreProvider {
+
+    private final CountDownLatch _replicating = new CountDownLatch(1);
+    private final CountDownLatch _release = new CountDownLatch(1);
+    private final AtomicInteger _updates = new AtomicInteger();
+    private final Map<ExternalId, MapLastKnownValueStore> _stores = new ConcurrentHashMap<>();
+
+    @Override
+    public LastKnownValueStore newInstance(final ExternalId security, final String normalizationRuleSetId) {
+      final MapLastKnownValueStore store = new MapLastKnownValueStore();
+      _stores.put(security, store);
+      return new LastKnownValueStore() {
+
+        @Override
+        public void updateFields(final FudgeMsg fieldValues) {
+          _replicating.countDown();
+          try {
+            _release.await();
+          } catch (InterruptedException e) {
+            throw new OpenGammaRuntimeException("Interrupted", e);
+          }
+          _updates.incrementAndGet();
+          store.updateFields(fieldValues);
+        }
+
+        @Override
+        public FudgeMsg getFields() {
+          return store.getFields();
+        }
+
+        @Override
+        public boolean isEmpty() {
+          return store.isEmpty();
+        }
+
+      };
+    }
+
+    @Override
+    public Set<String> getAllIdentifiers(final String identifierScheme) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isAvailable(final ExternalId security, final String normalizationRuleSetId) {
+      return _stores.containsKey(security);
+    }
+
+  }
+
+  public void replication() throws Exception {
+    final ReplicationTarget target = new ReplicationTarget();
+    final MappedFileLastKnownValueStoreProvider provider = createProvider(createFile(), 64 * 1024);
+    provider.setReplicationTarget(target);
+    try {
+      final LastKnownValueStore store = provider.newInstance(ExternalId.of(SCHEME, "A"), RULES);
+      store.updateFields(fields(1d, 2d));
+      assertTrue(target._replicating.await(10, TimeUnit.SECONDS));
+      // Updates made while the first is being replicated are merged
+      store.updateFields(fields(1.1d, 2.1d));
+      final MutableFudgeMsg bid = OpenGammaFudgeContext.getInstance().newMessage();
+      bid.add("Bid", 1.2d);
+      store.updateFields(bid);
+      provider.newInstance(ExternalId.of(SCHEME, "B"), RULES).updateFields(fields(3d, 4d));
+      target._release.countDown();
+    } finally {
+      provider.close();
+    }
+    // Closing waits for the pending updates to be replicated
+    assertEquals(3, target._updates.get());
+    final FudgeMsg a = target._stores.get(ExternalId.of(SCHEME, "A")).getFields();
+    assertEquals(1.2d, a.getDouble("Bid"));
+    assertEquals(2.1d, a.getDouble("Ask"));
+    assertEquals(4d, target._stores.get(ExternalId.of(SCHEME, "B")).getFields().getDouble("Ask"));
+  }
+
+}
@@ -11,8 +11,20 @@ import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import net.sf.ehcache.CacheManager;
 
@@ -21,6 +33,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalScheme;
 import com.opengamma.livedata.LiveDataSpecification;
@@ -198,6 +211,123 @@ public class MockLiveDataServerTest {
     assertFalse(_server.stopDistributor(distributor));
   }
 
+  public void bulkSubscribeThenExpire() {
+    List<LiveDataSpecification> specs = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      specs.add(getSpec("bulk" + i));
+    }
+    Collection<LiveDataSubscriptionResponse> responses = _server.subscribe(specs, false);
+    assertEquals(500, responses.size());
+    assertEquals(500, _server.getNumActiveSubscriptions());
+    assertEquals(500, _server.getActualSubscriptions().size());
+    for (LiveDataSpecification spec : specs) {
+      assertTrue(_server.isSubscribedTo(spec));
+    }
+
+    _server.reestablishSubscriptions();
+    assertEquals(500, _server.getNumActiveSubscriptions());
+
+    for (int i = 0; i < 500; i += 2) {
+      _server.getMarketDataDistributor(specs.get(i)).setExpiry(0L);
+    }
+    assertEquals(250, _server.expireSubscriptions());
+    assertEquals(250, _server.getNumActiveSubscriptions());
+    assertFalse(_server.isSubscribedTo("bulk0"));
+    assertTrue(_server.isSubscribedTo("bulk1"));
+  }
+
+  /**
+   * Server that blocks the first subscription to the underlying market data API until released, optionally failing it.
+   */
+  private static final class BlockingLiveDataServer extends MockLiveDataServer {
+
+    private final CountDownLatch _subscribing = new CountDownLatch(1);
+    private final CountDownLatch _release = new CountDownLatch(1);
+    private volatile boolean _fail;
+
+    public BlockingLiveDataServer(ExternalScheme domain, CacheManager cacheManager, boolean fail) {
+      super(domain, cacheManager);
+      _fail = fail;
+    }
+
+    @Override
+    protected Map<String, Object> doSubscribe(Collection<String> uniqueIds) {
+      _subscribing.countDown();
+      try {
+        _release.await();
+      } catch (InterruptedException e) {
+        throw new OpenGammaRuntimeException("Interrupted", e);
+      }
+      if (_fail) {
+        _fail = false;
+        throw new OpenGammaRuntimeException("Test");
+      }
+      return super.doSubscribe(uniqueIds);
+    }
+
+  }
+
+  private Future<LiveDataSubscriptionResponse> subscribe(ExecutorService executor, final StandardLiveDataServer server, final LiveDataSpecification spec) {
+    return executor.submit(new Callable<LiveDataSubscriptionResponse>() {
+      @Override
+      public LiveDataSubscriptionResponse call() {
+        return server.subscribe(spec, false);
+      }
+    });
+  }
+
+  public void concurrentSubscribe() throws Exception {
+    final BlockingLiveDataServer server = new BlockingLiveDataServer(_domain, _cacheManager, false);
+    server.connect();
+    final LiveDataSpecification spec = getSpec("concurrent");
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<LiveDataSubscriptionResponse> first = subscribe(executor, server, spec);
+      assertTrue(server._subscribing.await(10, TimeUnit.SECONDS));
+      final Future<LiveDataSubscriptionResponse> second = subscribe(executor, server, spec);
+      // The second request waits for the first to start the subscription
+      Thread.sleep(100);
+      assertFalse(second.isDone());
+      server._release.countDown();
+      assertEquals(LiveDataSubscriptionResult.SUCCESS, first.get(10, TimeUnit.SECONDS).getSubscriptionResult());
+      assertEquals(LiveDataSubscriptionResult.SUCCESS, second.get(10, TimeUnit.SECONDS).getSubscriptionResult());
+      assertEquals(1, server.getActualSubscriptions().size());
+      assertEquals(1, server.getNumActiveSubscriptions());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void concurrentSubscribeFailure() throws Exception {
+    final BlockingLiveDataServer server = new BlockingLiveDataServer(_domain, _cacheManager, true);
+    server.connect();
+    final LiveDataSpecification spec = getSpec("concurrent");
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<LiveDataSubscriptionResponse> first = subscribe(executor, server, spec);
+      assertTrue(server._subscribing.await(10, TimeUnit.SECONDS));
+      final Future<LiveDataSubscriptionResponse> second = subscribe(executor, server, spec);
+      Thread.sleep(100);
+      assertFalse(second.isDone());
+      server._release.countDown();
+      try {
+        first.get(10, TimeUnit.SECONDS);
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof OpenGammaRuntimeException);
+      }
+      // The second request doesn't report success for the subscription that failed
+      assertEquals(LiveDataSubscriptionResult.INTERNAL_ERROR, second.get(10, TimeUnit.SECONDS).getSubscriptionResult());
+      assertFalse(server.isSubscribedTo(spec));
+      assertEquals(0, server.getNumActiveSubscriptions());
+      // A later request starts a new subscription
+      assertEquals(LiveDataSubscriptionResult.SUCCESS, server.subscribe(spec, false).getSubscriptionResult());
+      assertTrue(server.isSubscribedTo(spec));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private void checkResponse(UserPrincipal user, LiveDataSpecification requestedSpec,
       LiveDataSubscriptionResponseMsg response) {
     assertEquals(user, response.getRequestingUser());
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2015 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.server.distribution;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jms.BytesMessage;
+import javax.jms.Session;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+import org.testng.annotations.Test;
+
+import com.opengamma.id.ExternalId;
+import com.opengamma.livedata.LiveDataSpecification;
+import com.opengamma.livedata.LiveDataValueUpdateBatchCodec;
+import com.opengamma.livedata.LiveDataValueUpdateBean;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+import com.opengamma.util.jms.JmsConnector;
+import com.opengamma.util.test.TestGroup;
+
+/**
+ * Tests the {@link BatchingJmsSenderFactory} class.
+ */
+@Test(groups = TestGroup.UNIT)
+public class BatchingJmsSenderFactoryTest {
+
+  private static final String TOPIC_1 = "LiveData.Test.1";
+  private static final String TOPIC_2 = "LiveData.Test.2";
+
+  /**
+   * Decodes the batches sent to the JMS template, failing the sends while {@link #_fail} is set.
+   */
+  private static final class Batches implements Answer<Void> {
+
+    private final LiveDataValueUpdateBatchCodec _codec = new LiveDataValueUpdateBatchCodec(OpenGammaFudgeContext.getInstance());
+    private final List<String> _topics = new ArrayList<>();
+    private final List<List<LiveDataValueUpdateBean>> _batches = new ArrayList<>();
+    private boolean _fail;
+
+    @Override
+    public Void answer(final InvocationOnMock invocation) throws Throwable {
+      if (_fail) {
+        throw new UncategorizedJmsException("Test");
+      }
+      final Session session = Mockito.mock(Session.class);
+      final BytesMessage message = Mockito.mock(BytesMessage.class);
+      Mockito.when(session.createBytesMessage()).thenReturn(message);
+      ((MessageCreator) invocation.getArguments()[1]).createMessage(session);
+      final ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+      final ArgumentCaptor<Integer> offset = ArgumentCaptor.forClass(Integer.class);
+      final ArgumentCaptor<Integer> length = ArgumentCaptor.forClass(Integer.class);
+      Mockito.verify(message).writeBytes(bytes.capture(), offset.capture(), length.capture());
+      _topics.add((String) invocation.getArguments()[0]);
+      _batches.add(_codec.decode(Arrays.copyOfRange(bytes.getValue(), offset.getValue(), offset.getValue() + length.getValue())));
+      return null;
+    }
+
+  }
+
+  private static BatchingJmsSenderFactory createFactory(final Batches batches) {
+    final JmsTemplate template = Mockito.mock(JmsTemplate.class);
+    Mockito.doAnswer(batches).when(template).send(Matchers.anyString(), Matchers.any(MessageCreator.class));
+    final JmsConnector connector = Mockito.mock(JmsConnector.class);
+    Mockito.when(connector.getJmsTemplateTopic()).thenReturn(template);
+    return new BatchingJmsSenderFactory(connector);
+  }
+
+  private static LiveDataValueUpdateBean update(final long sequenceNumber, final String id, final String field, final double value) {
+    final MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add(field, value);
+    return new LiveDataValueUpdateBean(sequenceNumber, new LiveDataSpecification("Test", ExternalId.of("Test", id)), msg);
+  }
+
+  private static FudgeMsg fields(final List<LiveDataValueUpdateBean> batch, final String id) {
+    for (LiveDataValueUpdateBean update : batch) {
+      if (update.getSpecification().getIdentifiers().contains(ExternalId.of("Test", id))) {
+        return update.getFields();
+      }
+    }
+    throw new AssertionError("No update for " + id);
+  }
+
+  //-------------------------------------------------------------------------
+  public void fullBatchSentImmediately() {
+    final Batches batches = new Batches();
+    final BatchingJmsSenderFactory factory = createFactory(batches);
+    factory.setMaxBatchSize(3);
+    factory.enqueue(TOPIC_1, update(1, "A", "Bid", 1d));
+    factory.enqueue(TOPIC_1, update(2, "A", "Bid", 1.1d));
+    factory.enqueue(TOPIC_1, update(1, "B", "Bid", 2d));
+    factory.enqueue(TOPIC_2, update(1, "C", "Bid", 3d));
+    // Repeated updates for a specification don't count towards the batch size
+    assertEquals(0, factory.getBatchesSent());
+    factory.enqueue(TOPIC_1, update(1, "D", "Bid", 4d));
+    assertEquals(1, factory.getBatchesSent());
+    assertEquals(Arrays.asList(TOPIC_1), batches._topics);
+    assertEquals(3, batches._batches.get(0).size());
+    assertEquals(1.1d, fields(batches._batches.get(0), "A").getDouble("Bid"));
+    assertEquals(3, factory.getUpdatesSent());
+  }
+
+  public void publishSendsPendingUpdates() {
+    final Batches batches = new Batches();
+    final BatchingJmsSenderFactory factory = createFactory(batches);
+    factory.publish();
+    assertEquals(0, factory.getBatchesSent());
+    factory.enqueue(TOPIC_1, update(1, "A", "Bid", 1d));
+    factory.enqueue(TOPIC_1, update(2, "A", "Ask", 1.1d));
+    factory.enqueue(TOPIC_2, update(1, "B", "Bid", 2d));
+    factory.publish();
+    assertEquals(2, factory.getBatchesSent());
+    assertTrue(batches._topics.containsAll(Arrays.asList(TOPIC_1, TOPIC_2)));
+    final List<LiveDataValueUpdateBean> batch = batches._batches.get(batches._topics.indexOf(TOPIC_1));
+    assertEquals(1, batch.size());
+    assertEquals(2, batch.get(0).getSequenceNumber());
+    assertEquals(1d, batch.get(0).getFields().getDouble("Bid"));
+    assertEquals(1.1d, batch.get(0).getFields().getDouble("Ask"));
+    // Nothing left to send
+    factory.publish();
+    assertEquals(2, factory.getBatchesSent());
+  }
+
+  public void interruptedTransportHoldsUpdates() {
+    final Batches batches = new Batches();
+    final BatchingJmsSenderFactory factory = createFactory(batches);
+    factory.setMaxBatchSize(1);
+    factory.transportInterrupted();
+    factory.enqueue(TOPIC_1, update(1, "A", "Bid", 1d));
+    factory.publish();
+    assertEquals(0, factory.getBatchesSent());
+    factory.transportResumed();
+    factory.publish();
+    assertEquals(1, factory.getBatchesSent());
+  }
+
+  public void failedSendRequeued() {
+    final Batches batches = new Batches();
+    final BatchingJmsSenderFactory factory = createFactory(batches);
+    factory.enqueue(TOPIC_1, update(1, "A", "Bid", 1d));
+    factory.enqueue(TOPIC_1, update(1, "B", "Bid", 2d));
+    batches._fail = true;
+    factory.publish();
+    assertEquals(0, factory.getBatchesSent());
+    // Updates that arrive after the failure are merged over the ones held back
+    factory.enqueue(TOPIC_1, update(2, "A", "Ask", 1.1d));
+    factory.enqueue(TOPIC_1, update(1, "C", "Bid", 3d));
+    batches._fail = false;
+    factory.publish();
+    assertEquals(1, factory.getBatchesSent());
+    final List<LiveDataValueUpdateBean> batch = batches._batches.get(0);
+    assertEquals(3, batch.size());
+    assertEquals(2, batch.get(0).getSequenceNumber());
+    assertEquals(1d, fields(batch, "A").getDouble("Bid"));
+    assertEquals(1.1d, fields(batch, "A").getDouble("Ask"));
+    assertEquals(2d, fields(batch, "B").getDouble("Bid"));
+    assertEquals(3d, fields(batch, "C").getDouble("Bid"));
+  }
+
+  public void failedFullBatchRequeued() {
+    final Batches batches = new Batches();
+    final BatchingJmsSenderFactory factory = createFactory(batches);
+    factory.setMaxBatchSize(2);
+    batches._fail = true;
+    factory.enqueue(TOPIC_1, update(1, "A", "Bid", 1d));
+    factory.enqueue(TOPIC_1, update(1, "B", "Bid", 2d));
+    assertEquals(0, factory.getBatchesSent());
+    batches._fail = false;
+    factory.enqueue(TOPIC_1, update(1, "C", "Bid", 3d));
+    assertEquals(1, factory.getBatchesSent());
+    assertEquals(3, batches._batches.get(0).size());
+  }
+
+}
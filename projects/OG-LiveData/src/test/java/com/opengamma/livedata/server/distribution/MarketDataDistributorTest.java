@@ -7,12 +7,21 @@ package com.opengamma.livedata.server.distribution;
 
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 import org.testng.annotations.Test;
 
 import com.opengamma.id.ExternalId;
 import com.opengamma.livedata.LiveDataValueUpdate;
+import com.opengamma.livedata.LiveDataValueUpdateBean;
 import com.opengamma.livedata.normalization.StandardRules;
 import com.opengamma.livedata.server.DistributionSpecification;
 import com.opengamma.livedata.server.MapLastKnownValueStoreProvider;
@@ -56,4 +65,99 @@ public class MarketDataDistributorTest {
     assertEquals(1, mdd.getNumMessagesSent());
   }
 
+  private static MarketDataDistributor getRecordingDistributor(final List<FudgeMsg> sent) {
+    return getTestDistributor(new MarketDataSenderFactory() {
+      @Override
+      public Collection<MarketDataSender> create(final MarketDataDistributor distributor) {
+        return Collections.<MarketDataSender>singleton(new MarketDataSender() {
+          @Override
+          public void sendMarketData(LiveDataValueUpdateBean data) {
+            sent.add(data.getFields());
+          }
+
+          @Override
+          public MarketDataDistributor getDistributor() {
+            return distributor;
+          }
+        });
+      }
+    });
+  }
+
+  public void testConflation() {
+    final List<FudgeMsg> sent = new ArrayList<>();
+    MarketDataDistributor mdd = getRecordingDistributor(sent);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      // Long enough that the scheduled send never happens during the test
+      mdd.setPublishInterval(3600000L, scheduler);
+      MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+      msg.add("BID", 1d);
+      msg.add("ASK", 2d);
+      mdd.distributeLiveData(msg);
+      // First update is sent immediately
+      assertEquals(1, mdd.getNumMessagesSent());
+      msg = OpenGammaFudgeContext.getInstance().newMessage();
+      msg.add("BID", 1.1d);
+      mdd.distributeLiveData(msg);
+      msg = OpenGammaFudgeContext.getInstance().newMessage();
+      msg.add("LAST", 1.5d);
+      mdd.distributeLiveData(msg);
+      // Later ones are held for the rest of the interval
+      assertEquals(1, mdd.getNumMessagesSent());
+      assertEquals(1.5d, mdd.getSnapshot().getFields().getDouble("LAST"));
+      // Removing the interval sends the merged update
+      mdd.setPublishInterval(0, null);
+      assertEquals(2, mdd.getNumMessagesSent());
+      assertEquals(1, mdd.getNumMessagesConflated());
+      assertEquals(2, sent.size());
+      assertEquals(2, sent.get(1).getNumFields());
+      assertEquals(1.1d, sent.get(1).getDouble("BID"));
+      assertEquals(1.5d, sent.get(1).getDouble("LAST"));
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  public void testDiscardPendingUpdate() throws InterruptedException {
+    final List<FudgeMsg> sent = new ArrayList<>();
+    MarketDataDistributor mdd = getRecordingDistributor(sent);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      mdd.setPublishInterval(100L, scheduler);
+      MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+      msg.add("BID", 1d);
+      mdd.distributeLiveData(msg);
+      msg = OpenGammaFudgeContext.getInstance().newMessage();
+      msg.add("BID", 1.1d);
+      mdd.distributeLiveData(msg);
+      assertEquals(1, sent.size());
+      // Nothing is sent from a removed distributor once its interval expires
+      mdd.discardPendingUpdate();
+      Thread.sleep(300L);
+      assertEquals(1, sent.size());
+      assertEquals(0, mdd.getPublishIntervalMillis());
+      assertEquals(1.1d, mdd.getSnapshot().getFields().getDouble("BID"));
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  public void testPublishSchedulerShutdown() {
+    final List<FudgeMsg> sent = new ArrayList<>();
+    MarketDataDistributor mdd = getRecordingDistributor(sent);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    mdd.setPublishInterval(3600000L, scheduler);
+    MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("BID", 1d);
+    mdd.distributeLiveData(msg);
+    scheduler.shutdownNow();
+    // Updates can't be held for the interval without a scheduler, so are sent immediately
+    msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("BID", 1.1d);
+    mdd.distributeLiveData(msg);
+    assertEquals(2, sent.size());
+    assertEquals(1.1d, sent.get(1).getDouble("BID"));
+  }
+
 }
@@ -69,6 +69,16 @@ public interface AnalyticsView {
    */
   List<String> updateResults(ViewResultModel results, ViewCycle viewCycle);
 
+  /**
+   * Updates the data in the grids with a fragment of results received while a cycle is still executing. The values
+   * are shown but not added to the history; that happens when the cycle completes and {@link #updateResults} is called.
+   * 
+   * @param results  the results calculated so far in the cycle
+   * @param viewCycle  the data associated with the last completed calculation cycle
+   * @return the callback IDs of the viewports whose data changed
+   */
+  List<String> updatePartialResults(ViewResultModel results, ViewCycle viewCycle);
+
 // -------- main grid --------
 
   /**
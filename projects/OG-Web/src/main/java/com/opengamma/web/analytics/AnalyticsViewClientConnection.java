@@ -140,6 +140,8 @@ import com.opengamma.util.ArgumentChecker;
     _viewClient.setResultListener(new Listener());
     _viewClient.setViewCycleAccessSupported(true);
     _viewClient.setResultMode(ViewResultMode.FULL_THEN_DELTA);
+    // fragments only contain the values calculated since the last one so they never need to be deltas
+    _viewClient.setFragmentResultMode(ViewResultMode.FULL_ONLY);
     try {
       if (_viewRequest.getViewProcessId() == null) {
         List<MarketDataSpecification> requestedMarketDataSpecs = _viewRequest.getMarketDataSpecs();
@@ -233,6 +235,14 @@ import com.opengamma.util.ArgumentChecker;
       }
     }
 
+    @Override
+    public void cycleFragmentCompleted(ViewComputationResultModel fullFragment, ViewDeltaResultModel deltaFragment) {
+      if (fullFragment != null) {
+        // dependency graphs continue to show the last completed cycle until this one completes
+        _view.updatePartialResults(fullFragment, _cycleReference.get());
+      }
+    }
+
     @Override
     public UserPrincipal getUser() {
       return _viewClient.getUser();
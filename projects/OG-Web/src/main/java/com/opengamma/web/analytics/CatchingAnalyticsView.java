@@ -68,6 +68,17 @@ import com.opengamma.web.analytics.push.UpdateListener;
     }
   }
 
+  @Override
+  public List<String> updatePartialResults(ViewResultModel results, ViewCycle viewCycle) {
+    try {
+      return _delegate.updatePartialResults(results, viewCycle);
+    } catch (Exception e) {
+      String id = _errorManager.add(e);
+      _listener.itemUpdated(id);
+      throw e;
+    }
+  }
+
   @Override
   public GridStructure getGridStructure(GridType gridType, int viewportId) {
     try {
@@ -122,6 +122,16 @@ import com.opengamma.util.tuple.Pair;
     return EMPTY_RESULTS_RESPONSE;
   }
 
+  @Override
+  public boolean isTargetComplete(String calcConfigName, ComputationTargetSpecification target) {
+    return false;
+  }
+
+  @Override
+  public int getPendingTargetCount(String calcConfigName) {
+    return 0;
+  }
+
   private static final class EmptyViewCycleReference implements EngineResourceReference<ViewCycle> {
 
     private EmptyViewCycleReference() {
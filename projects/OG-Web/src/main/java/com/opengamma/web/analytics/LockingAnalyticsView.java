@@ -66,6 +66,16 @@ import com.opengamma.web.analytics.formatting.TypeFormatter.Format;
     }
   }
 
+  @Override
+  public List<String> updatePartialResults(ViewResultModel results, ViewCycle viewCycle) {
+    try {
+      _lock.writeLock().lock();
+      return _delegate.updatePartialResults(results, viewCycle);
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
   @Override
   public GridStructure getGridStructure(GridType gridType, int viewportId) {
     try {
@@ -97,6 +97,24 @@ import com.opengamma.web.analytics.formatting.TypeFormatter;
     return updatedIds;
   }
 
+  /**
+   * Updates the viewports with results received while a cycle is executing. Dependency graph grids aren't updated
+   * because they show values from the last completed cycle.
+   *
+   * @param cache The cache containing the partial results
+   * @return The callback IDs of the viewports whose data changed
+   */
+  /* package */List<String> updatePartialResults(ResultsCache cache) {
+    List<String> updatedIds = Lists.newArrayList();
+    for (MainGridViewport viewport : getViewports().values()) {
+      viewport.updateResults(cache);
+      if (viewport.getState() == Viewport.State.FRESH_DATA) {
+        updatedIds.add(viewport.getCallbackId());
+      }
+    }
+    return updatedIds;
+  }
+
   // -------- dependency graph grids --------
 
   /**
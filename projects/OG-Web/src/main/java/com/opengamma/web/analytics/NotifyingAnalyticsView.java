@@ -58,6 +58,13 @@ import com.opengamma.web.analytics.push.UpdateListener;
     return callbackIds;
   }
 
+  @Override
+  public List<String> updatePartialResults(ViewResultModel results, ViewCycle viewCycle) {
+    List<String> callbackIds = _delegate.updatePartialResults(results, viewCycle);
+    _listener.itemsUpdated(callbackIds);
+    return callbackIds;
+  }
+
   @Override
   public GridStructure getGridStructure(GridType gridType, int viewportId) {
     return _delegate.getGridStructure(gridType, viewportId);
@@ -88,6 +88,19 @@ import com.opengamma.util.money.CurrencyAmount;
     }
   }
 
+  /**
+   * Puts results received while a calculation cycle is executing into the cache. The values are updated but their
+   * history isn't; the complete results for the cycle will follow and are put into the cache as normal.
+   * @param results The results calculated so far, not null
+   */
+  /* package */ void putPartial(ViewResultModel results) {
+    ArgumentChecker.notNull(results, "results");
+    _lastUpdateId++;
+    for (ViewResultEntry result : results.getAllResults()) {
+      put(result.getCalculationConfiguration(), result.getComputedValue(), false);
+    }
+  }
+
   /**
    * Puts a set of dependency graph results into the cache.
    * @param calcConfigName The name of the calculation configuration used to calculate the results
@@ -108,14 +121,18 @@ import com.opengamma.util.money.CurrencyAmount;
    * @param result The result value and associated data
    */
   private void put(String calcConfigName, ComputedValueResult result) {
+    put(calcConfigName, result, true);
+  }
+
+  private void put(String calcConfigName, ComputedValueResult result, boolean recordHistory) {
     ValueSpecification spec = result.getSpecification();
     Object value = result.getValue();
     ResultKey key = new ResultKey(calcConfigName, spec);
     CacheItem cacheResult = _results.get(key);
     if (cacheResult == null) {
-      _results.put(key, new CacheItem(value, result.getAggregatedExecutionLog(), _lastUpdateId));
+      _results.put(key, new CacheItem(value, result.getAggregatedExecutionLog(), _lastUpdateId, recordHistory));
     } else {
-      cacheResult.setLatestValue(value, result.getAggregatedExecutionLog(), _lastUpdateId);
+      cacheResult.setLatestValue(value, result.getAggregatedExecutionLog(), _lastUpdateId, recordHistory);
     }
   }
 
@@ -146,9 +163,9 @@ import com.opengamma.util.money.CurrencyAmount;
     ObjectId id = entity.getUniqueId().getObjectId();
     CacheItem cacheResult = _entities.get(id);
     if (cacheResult == null) {
-      _entities.put(id, new CacheItem(entity, null, _lastUpdateId));
+      _entities.put(id, new CacheItem(entity, null, _lastUpdateId, true));
     } else {
-      cacheResult.setLatestValue(entity, null, _lastUpdateId);
+      cacheResult.setLatestValue(entity, null, _lastUpdateId, true);
     }
   }
 
@@ -293,8 +310,8 @@ import com.opengamma.util.money.CurrencyAmount;
     private long _lastUpdateId = -1;
     private AggregatedExecutionLog _aggregatedExecutionLog;
 
-    private CacheItem(Object value, AggregatedExecutionLog executionLog, long lastUpdateId) {
-      setLatestValue(value, executionLog, lastUpdateId);
+    private CacheItem(Object value, AggregatedExecutionLog executionLog, long lastUpdateId, boolean recordHistory) {
+      setLatestValue(value, executionLog, lastUpdateId, recordHistory);
     }
 
     /**
@@ -302,9 +319,10 @@ import com.opengamma.util.money.CurrencyAmount;
      * @param latestValue The value
      * @param executionLog The execution log associated generated when calculating the value
      * @param lastUpdateId ID of the set of results that calculated it
+     * @param recordHistory Whether to add the value to the history, false if it is from a partially executed cycle
      */
     @SuppressWarnings("unchecked")
-    private void setLatestValue(Object latestValue, AggregatedExecutionLog executionLog, long lastUpdateId) {
+    private void setLatestValue(Object latestValue, AggregatedExecutionLog executionLog, long lastUpdateId, boolean recordHistory) {
       ArgumentChecker.notNull(latestValue, "latestValue");
       _latestValue = latestValue;
       _lastUpdateId = lastUpdateId;
@@ -313,6 +331,9 @@ import com.opengamma.util.money.CurrencyAmount;
       // data subscriptions take time to set up. in that case the history will initially be null (because error
       // sentinel types aren't in s_historyTypes) and then when a valid value arrives the type can be checked and
       // history created if required
+      if (!recordHistory) {
+        return;
+      }
       if (_history == null && s_historyTypes.contains(latestValue.getClass())) {
         _history = new CircularFifoBuffer(MAX_HISTORY_SIZE);
       }
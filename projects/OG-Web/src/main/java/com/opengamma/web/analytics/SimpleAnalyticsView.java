@@ -197,6 +197,19 @@ import com.opengamma.web.analytics.formatting.TypeFormatter;
     return updatedIds;
   }
 
+  @Override
+  public List<String> updatePartialResults(ViewResultModel results, ViewCycle viewCycle) {
+    if (_pendingStructureChange != null) {
+      // the grids will be rebuilt when the full results arrive, there's nothing to update until then
+      return Collections.emptyList();
+    }
+    _cache.putPartial(results);
+    List<String> updatedIds = Lists.newArrayList();
+    updatedIds.addAll(_portfolioGrid.updatePartialResults(_cache));
+    updatedIds.addAll(_primitivesGrid.updatePartialResults(_cache));
+    return updatedIds;
+  }
+
   private MainAnalyticsGrid<?> getGrid(GridType gridType) {
     switch (gridType) {
       case PORTFOLIO:
@@ -62,6 +62,16 @@ import com.opengamma.web.analytics.formatting.TypeFormatter.Format;
     return retVal;
   }
 
+  @Override
+  public List<String> updatePartialResults(ViewResultModel results,
+                                           ViewCycle viewCycle) {
+    long startTime = System.currentTimeMillis();
+    s_logger.trace("Executing AnalyticsView.updatePartialResults");
+    List<String> retVal = _delegate.updatePartialResults(results, viewCycle);
+    s_logger.trace("updatePartialResults completed in " + (System.currentTimeMillis() - startTime) + "ms");
+    return retVal;
+  }
+
   @Override
   public GridStructure getGridStructure(GridType gridType, int viewportId) {
     long startTime = System.currentTimeMillis();